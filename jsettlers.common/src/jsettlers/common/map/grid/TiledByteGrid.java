@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.common.map.grid;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A grid of byte values that is stored in a flat array with the cache friendly layout of a {@link TiledGridLayout}.
+ * <p />
+ * Tiles can be accessed by their coordinates or by their index. Loops that touch all tiles and don't depend on the order should use the index
+ * methods to walk linearly through the array.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class TiledByteGrid implements Serializable {
+	private static final long serialVersionUID = 2716489813508236734L;
+
+	private final TiledGridLayout layout;
+	private final byte[] values;
+
+	public TiledByteGrid(short width, short height) {
+		this(new TiledGridLayout(width, height));
+	}
+
+	public TiledByteGrid(TiledGridLayout layout) {
+		this.layout = layout;
+		this.values = new byte[layout.getSize()];
+	}
+
+	public final byte get(int x, int y) {
+		return values[layout.getIndex(x, y)];
+	}
+
+	public final void set(int x, int y, byte value) {
+		values[layout.getIndex(x, y)] = value;
+	}
+
+	public final byte get(int index) {
+		return values[index];
+	}
+
+	public final void set(int index, byte value) {
+		values[index] = value;
+	}
+
+	public final int getIndex(int x, int y) {
+		return layout.getIndex(x, y);
+	}
+
+	/**
+	 * 
+	 * @return The number of indexes of this grid. Indexes in the padding of the blocks can be read and written, but don't belong to a tile.
+	 */
+	public final int getSize() {
+		return values.length;
+	}
+
+	public final TiledGridLayout getLayout() {
+		return layout;
+	}
+
+	public final short getWidth() {
+		return layout.getWidth();
+	}
+
+	public final short getHeight() {
+		return layout.getHeight();
+	}
+
+	public final void fill(byte value) {
+		Arrays.fill(values, value);
+	}
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.common.map.grid;
+
+import java.io.Serializable;
+
+/**
+ * Maps the coordinates of a width x height grid to indexes of a flat array. The grid is split into square blocks of {@link #BLOCK_SIZE} x
+ * {@link #BLOCK_SIZE} tiles. The tiles of a block are stored row by row in a continuous part of the array, the blocks are stored row by row, too.
+ * <p />
+ * Therefore tiles that are close to each other in x as well as in y direction are close to each other in memory, which reduces cache misses when
+ * areas of the grid are accessed.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class TiledGridLayout implements Serializable {
+	private static final long serialVersionUID = -5190364617287562478L;
+
+	public static final int BLOCK_BITS = 4;
+	public static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+	private static final int TILES_PER_BLOCK_BITS = 2 * BLOCK_BITS;
+
+	private final short width;
+	private final short height;
+	private final int blocksPerRow;
+	private final int size;
+
+	public TiledGridLayout(short width, short height) {
+		this.width = width;
+		this.height = height;
+		this.blocksPerRow = (width + BLOCK_MASK) >> BLOCK_BITS;
+		int blocksPerColumn = (height + BLOCK_MASK) >> BLOCK_BITS;
+		this.size = (blocksPerRow * blocksPerColumn) << TILES_PER_BLOCK_BITS;
+	}
+
+	/**
+	 * 
+	 * @param x
+	 *            x coordinate in [0, width - 1]
+	 * @param y
+	 *            y coordinate in [0, height - 1]
+	 * @return The index of the given coordinates in the flat array.
+	 */
+	public final int getIndex(int x, int y) {
+		int blockIndex = (y >> BLOCK_BITS) * blocksPerRow + (x >> BLOCK_BITS);
+		return (blockIndex << TILES_PER_BLOCK_BITS) | ((y & BLOCK_MASK) << BLOCK_BITS) | (x & BLOCK_MASK);
+	}
+
+	/**
+	 * 
+	 * @param index
+	 * @return The x coordinate of the given index. If the index is in the padding of a block, the result is bigger than or equal to the width.
+	 */
+	public final int getX(int index) {
+		int blockIndex = index >> TILES_PER_BLOCK_BITS;
+		return ((blockIndex % blocksPerRow) << BLOCK_BITS) | (index & BLOCK_MASK);
+	}
+
+	/**
+	 * 
+	 * @param index
+	 * @return The y coordinate of the given index. If the index is in the padding of a block, the result is bigger than or equal to the height.
+	 */
+	public final int getY(int index) {
+		int blockIndex = index >> TILES_PER_BLOCK_BITS;
+		return ((blockIndex / blocksPerRow) << BLOCK_BITS) | ((index >> BLOCK_BITS) & BLOCK_MASK);
+	}
+
+	/**
+	 * 
+	 * @return The length of the flat array. This includes the padding of the blocks at the right and bottom border of the grid.
+	 */
+	public final int getSize() {
+		return size;
+	}
+
+	public final short getWidth() {
+		return width;
+	}
+
+	public final short getHeight() {
+		return height;
+	}
+}
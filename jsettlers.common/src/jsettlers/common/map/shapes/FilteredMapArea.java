@@ -43,6 +43,16 @@ public class FilteredMapArea implements IMapArea {
 		return new FilteredIterator<ShortPoint2D>(iterable.iterator(), predicate);
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		for (ShortPoint2D position : this) { // the predicate needs the point objects
+			if (!visitor.visit(position.x, position.y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public boolean contains(ShortPoint2D position) {
 		return predicate.evaluate(position) && iterable.contains(position);
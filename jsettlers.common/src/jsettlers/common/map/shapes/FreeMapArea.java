@@ -156,6 +156,16 @@ public final class FreeMapArea implements IMapArea {
 		return new FreeMapAreaIterator(this);
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		for (ShortPoint2D position : positions) {
+			if (!visitor.visit(position.x, position.y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public final int size() {
 		return positions.size();
 	}
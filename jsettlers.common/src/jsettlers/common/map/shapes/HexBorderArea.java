@@ -50,6 +50,18 @@ public final class HexBorderArea implements IMapArea {
 		return new HexBorderIterator(centerX, centerY, radius);
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		HexBorderIterator iterator = new HexBorderIterator(centerX, centerY, radius);
+		while (iterator.hasNext()) {
+			int y = iterator.nextY();
+			if (!visitor.visit(iterator.nextX(), y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public short getNumberOfElements() {
 		return (short) (radius * 6);
 	}
@@ -78,6 +90,30 @@ public final class HexBorderArea implements IMapArea {
 
 		@Override
 		public ShortPoint2D next() {
+			progress();
+			return new ShortPoint2D(x, y);
+		}
+
+		/**
+		 * NOTE: nextX() MUST BE CALLED after this call to get the x of the position.
+		 * 
+		 * @return gives the y of the next iterator position
+		 */
+		public final int nextY() {
+			progress();
+			return y;
+		}
+
+		/**
+		 * NOTE: nextY() MUST BE CALLED before this method is called!
+		 * 
+		 * @return gives the x of the current iterator position
+		 */
+		public final int nextX() {
+			return x;
+		}
+
+		private void progress() {
 			switch (nextCorner) {
 			case 1:
 				x++;
@@ -123,8 +159,6 @@ public final class HexBorderArea implements IMapArea {
 				}
 				break;
 			}
-
-			return new ShortPoint2D(x, y);
 		}
 
 		@Override
@@ -62,6 +62,65 @@ public final class HexGridArea implements IMapArea {
 		return new HexGridAreaIterator(this);
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		HexGridAreaIterator iterator = new HexGridAreaIterator(this);
+		while (iterator.hasNext()) {
+			int y = iterator.nextY();
+			if (!visitor.visit(iterator.nextX(), y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Calculates the radius of the hexagon ring the given offset to the center lies on.
+	 * 
+	 * @param dx
+	 *            x offset to the center
+	 * @param dy
+	 *            y offset to the center
+	 * @return The radius of the ring.
+	 */
+	public static int getRadius(int dx, int dy) {
+		return Math.max(Math.max(Math.abs(dx), Math.abs(dy)), Math.abs(dx - dy));
+	}
+
+	/**
+	 * Calculates the index of the given offset in the iteration order of a {@link HexGridArea} with start radius 0. The positions of the
+	 * iteration of an area with a bigger start radius keep their relative order.
+	 * 
+	 * @param dx
+	 *            x offset to the center
+	 * @param dy
+	 *            y offset to the center
+	 * @return The index of the position in the iteration.
+	 */
+	public static int getIndexInIteration(int dx, int dy) {
+		int radius = getRadius(dx, dy);
+		if (radius == 0) {
+			return 0;
+		}
+
+		int ringStart = 1 + 3 * radius * (radius - 1); // number of positions with a smaller radius
+		int indexInRing;
+		if (dx > 0 && dy <= 0 && dx - dy == radius) { // SOUTH_EAST edge, starting next to the north corner
+			indexInRing = dx - 1;
+		} else if (dx == radius && dy > 0) { // SOUTH_WEST edge
+			indexInRing = radius + dy - 1;
+		} else if (dy == radius && dx >= 0) { // WEST edge
+			indexInRing = 3 * radius - dx - 1;
+		} else if (dx < 0 && dy >= 0) { // NORTH_WEST edge
+			indexInRing = 3 * radius - dx - 1;
+		} else if (dx == -radius) { // NORTH_EAST edge
+			indexInRing = 4 * radius - dy - 1;
+		} else { // EAST edge, ending at the north corner
+			indexInRing = 6 * radius + dx - 1;
+		}
+		return ringStart + indexInRing;
+	}
+
 	public static final class HexGridAreaIterator implements Iterator<ShortPoint2D>, Serializable {
 		private static final long serialVersionUID = -8760653162789299782L;
 
@@ -106,7 +165,31 @@ public final class HexGridArea implements IMapArea {
 		@Override
 		public ShortPoint2D next() {
 			ShortPoint2D result = new ShortPoint2D(x, y);
+			progress();
+			return result;
+		}
 
+		/**
+		 * NOTE: nextX() MUST BE CALLED after this call to progress to the next position.
+		 * 
+		 * @return gives the y of the current iterator position
+		 */
+		public final int nextY() {
+			return y;
+		}
+
+		/**
+		 * NOTE: nextY() MUST BE CALLED before this method is called!
+		 * 
+		 * @return gives the x of the current iterator position
+		 */
+		public final int nextX() {
+			int result = x;
+			progress();
+			return result;
+		}
+
+		private void progress() {
 			if (length >= radius) {
 				length = 0;
 				direction++;
@@ -119,15 +202,13 @@ public final class HexGridArea implements IMapArea {
 					length = 1;
 					radius++;
 
-					return result;
+					return;
 				}
 			}
 			length++;
 
 			x += directionIncreaseX[direction];
 			y += directionIncreaseY[direction];
-
-			return result;
 		}
 
 		@Override
@@ -46,4 +46,14 @@ public interface IMapArea extends Iterable<ShortPoint2D>, Serializable {
 	 */
 	@Override
 	public Iterator<ShortPoint2D> iterator();
+
+	/**
+	 * Visits all positions of this area in the order of the {@link #iterator()} without creating a {@link ShortPoint2D} for every position.
+	 * 
+	 * @param visitor
+	 *            The visitor to be called for every position.
+	 * @return True if all positions have been visited.<br>
+	 *         False if the visitor stopped the traversing.
+	 */
+	boolean traverse(IMapAreaVisitor visitor);
 }
@@ -65,6 +65,18 @@ public final class MapCircle implements IMapArea {
 		return new MapCircleIterator(this);
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		MapCircleIterator iterator = new MapCircleIterator(this);
+		while (iterator.hasNext()) {
+			int y = iterator.nextY();
+			if (!visitor.visit(iterator.nextX(), y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Gets the distance of map coordinates to the center.
 	 * 
@@ -45,6 +45,19 @@ public class MapCircleBorder implements IMapArea {
 		return new MapCircleBorderIterator(this);
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		MapCircleIterator iterator = baseCircle.iterator();
+		while (iterator.hasNext()) {
+			int y = iterator.nextY();
+			int x = iterator.nextX();
+			if (!isInVolume(x, y) && !visitor.visit(x, y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public MapCircle getBaseCircle() {
 		return baseCircle;
 	}
@@ -60,10 +73,13 @@ public class MapCircleBorder implements IMapArea {
 		if (point == null) {
 			return false;
 		}
-		short line = point.y;
+		return isInVolume(point.x, point.y);
+	}
+
+	private boolean isInVolume(int x, int line) {
 		float prevLineWidth = baseCircle.getHalfLineWidth(line - baseCircle.getCenterY() - 1);
 		float nextLineWidth = baseCircle.getHalfLineWidth(line - baseCircle.getCenterY() + 1);
-		float xDistToCenter = Math.abs(-point.x - .5f * (baseCircle.getCenterY() - line) + baseCircle.getCenterX());
+		float xDistToCenter = Math.abs(-x - .5f * (baseCircle.getCenterY() - line) + baseCircle.getCenterX());
 		return xDistToCenter < prevLineWidth && xDistToCenter < nextLineWidth;
 	}
 
@@ -50,6 +50,16 @@ public class MapNeighboursArea implements IMapArea {
 		return new NeighbourIterator();
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		for (EDirection direction : EDirection.values) {
+			if (!visitor.visit(direction.getNextTileX(x), direction.getNextTileY(y))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private class NeighbourIterator implements Iterator<ShortPoint2D> {
 		int directionIndex = 0;
 
@@ -70,6 +70,20 @@ public final class MapRectangle implements IMapArea {
 		return new RectangleIterator();
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		for (int line = 0; line < height; line++) {
+			int y = getLineY(line);
+			int startX = getLineStartX(line);
+			for (int x = startX; x < startX + width; x++) {
+				if (!visitor.visit(x, y)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	private final static int getOffsetForLine(int line) {
 		return line / 2;
 	}
@@ -114,6 +128,23 @@ public final class MapRectangle implements IMapArea {
 		return minY;
 	}
 
+	@Override
+	public int hashCode() {
+		return ((minX * 31 + minY) * 31 + width) * 31 + height;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof MapRectangle)) {
+			return false;
+		}
+		MapRectangle other = (MapRectangle) obj;
+		return minX == other.minX && minY == other.minY && width == other.width && height == other.height;
+	}
+
 	private class RectangleIterator implements Iterator<ShortPoint2D> {
 		private int relativeX = 0;
 		private int relativeY = 0;
@@ -70,6 +70,16 @@ public class MapShapeFilter implements IMapArea {
 		return new FilteredIterator();
 	}
 
+	@Override
+	public boolean traverse(final IMapAreaVisitor visitor) {
+		return base.traverse(new IMapAreaVisitor() {
+			@Override
+			public boolean visit(int x, int y) {
+				return !(x >= 0 && x < width && y >= 0 && y < height) || visitor.visit(x, y);
+			}
+		});
+	}
+
 	private class FilteredIterator implements Iterator<ShortPoint2D> {
 		private ShortPoint2D next;
 		private Iterator<ShortPoint2D> iterator;
@@ -79,6 +79,18 @@ public class Parallelogram implements IMapArea {
 		return new ParallelogramIterator();
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		for (int y = miny; y <= maxy; y++) {
+			for (int x = minx; x <= maxx; x++) {
+				if (!visitor.visit(x, y)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	class ParallelogramIterator implements Iterator<ShortPoint2D> {
 		int x = minx;
 		int y = miny;
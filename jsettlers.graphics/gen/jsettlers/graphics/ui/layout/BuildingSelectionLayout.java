@@ -0,0 +1,58 @@
+package jsettlers.graphics.ui.layout;
+
+public class BuildingSelectionLayout {
+public final jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.BuidlingBackgroundPanel _root;
+public final jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.BuidlingBackgroundPanel background;
+public final jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.PriorityButton priority;
+public final jsettlers.graphics.ui.SimpleActionButton workRadius;
+public final jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.NamePanel nameText;
+public final jsettlers.graphics.ui.Label materialText;
+public final jsettlers.graphics.ui.UIPanel materialArea;
+
+public BuildingSelectionLayout() {
+this(null);
+}
+
+public BuildingSelectionLayout(jsettlers.graphics.ui.ELayoutSize __size) {
+if (__size == jsettlers.graphics.ui.ELayoutSize.MEDIUM){
+this.background = new jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.BuidlingBackgroundPanel();
+this.priority = new jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.PriorityButton(jsettlers.common.images.ImageLink.fromName("original_3_GUI_192", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_195", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_378", 0));
+this.background.addChild(this.priority, 0.011049724f, 0.9074074f, 0.110497236f, 0.9907407f);
+this.workRadius = new jsettlers.graphics.ui.SimpleActionButton(jsettlers.graphics.action.EActionType.ASK_SET_WORK_AREA, jsettlers.common.images.ImageLink.fromName("original_3_GUI_201", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_201", 0));
+this.background.addChild(this.workRadius, 0.2762431f, 0.9074074f, 0.3756906f, 0.9907407f);
+jsettlers.graphics.ui.SimpleActionButton __1;
+__1 = new jsettlers.graphics.ui.SimpleActionButton(jsettlers.graphics.action.EActionType.ASK_DESTROY, jsettlers.common.images.ImageLink.fromName("original_3_GUI_198", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_198", 0));
+this.background.addChild(__1, 0.5414365f, 0.9074074f, 0.640884f, 0.9907407f);
+jsettlers.graphics.ui.SimpleActionButton __2;
+__2 = new jsettlers.graphics.ui.SimpleActionButton(jsettlers.graphics.action.EActionType.NEXT_OF_TYPE, jsettlers.common.images.ImageLink.fromName("original_3_GUI_230", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_230", 0));
+this.background.addChild(__2, -0.038674034f, 1.9675926f, 0.016574584f, 2.0138888f);
+this.nameText = new jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.NamePanel();
+this.background.addChild(this.nameText, 0.0f, 0.7129629f, 0.6519337f, 0.912037f);
+this.materialText = new jsettlers.graphics.ui.Label(jsettlers.graphics.localization.Labels.getString(""), go.graphics.text.EFontSize.NORMAL);
+this.background.addChild(this.materialText, 0.0f, 0.17592594f, 0.6519337f, 0.2638889f);
+this.materialArea = new jsettlers.graphics.ui.UIPanel();
+this.background.addChild(this.materialArea, 0.0f, 0.037037045f, 0.6519337f, 0.1712963f);
+this._root = this.background;
+}
+else {
+this.background = new jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.BuidlingBackgroundPanel();
+this.priority = new jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.PriorityButton(jsettlers.common.images.ImageLink.fromName("original_3_GUI_192", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_195", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_378", 0));
+this.background.addChild(this.priority, 0.016949153f, 0.9074074f, 0.16949151f, 0.9907407f);
+this.workRadius = new jsettlers.graphics.ui.SimpleActionButton(jsettlers.graphics.action.EActionType.ASK_SET_WORK_AREA, jsettlers.common.images.ImageLink.fromName("original_3_GUI_201", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_201", 0));
+this.background.addChild(this.workRadius, 0.42372882f, 0.9074074f, 0.5762712f, 0.9907407f);
+jsettlers.graphics.ui.SimpleActionButton __3;
+__3 = new jsettlers.graphics.ui.SimpleActionButton(jsettlers.graphics.action.EActionType.ASK_DESTROY, jsettlers.common.images.ImageLink.fromName("original_3_GUI_198", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_198", 0));
+this.background.addChild(__3, 0.8305085f, 0.9074074f, 0.9830508f, 0.9907407f);
+jsettlers.graphics.ui.SimpleActionButton __4;
+__4 = new jsettlers.graphics.ui.SimpleActionButton(jsettlers.graphics.action.EActionType.NEXT_OF_TYPE, jsettlers.common.images.ImageLink.fromName("original_3_GUI_230", 0), jsettlers.common.images.ImageLink.fromName("original_3_GUI_230", 0));
+this.background.addChild(__4, -0.059322033f, 1.9675926f, 0.025423732f, 2.0138888f);
+this.nameText = new jsettlers.graphics.map.controls.original.panel.selection.BuildingSelectionContent.NamePanel();
+this.background.addChild(this.nameText, 0.0f, 0.7129629f, 1.0f, 0.912037f);
+this.materialText = new jsettlers.graphics.ui.Label(jsettlers.graphics.localization.Labels.getString(""), go.graphics.text.EFontSize.NORMAL);
+this.background.addChild(this.materialText, 0.0f, 0.17592594f, 1.0f, 0.2638889f);
+this.materialArea = new jsettlers.graphics.ui.UIPanel();
+this.background.addChild(this.materialArea, 0.0f, 0.037037045f, 1.0f, 0.1712963f);
+this._root = this.background;
+}
+}
+}
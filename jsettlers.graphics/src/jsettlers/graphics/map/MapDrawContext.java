@@ -25,6 +25,7 @@ import jsettlers.common.Color;
 import jsettlers.common.landscape.ELandscapeType;
 import jsettlers.common.map.IGraphicsGrid;
 import jsettlers.common.map.shapes.IMapArea;
+import jsettlers.common.map.shapes.IMapAreaVisitor;
 import jsettlers.common.map.shapes.MapNeighboursArea;
 import jsettlers.common.map.shapes.MapRectangle;
 import jsettlers.common.position.FloatRectangle;
@@ -396,6 +397,16 @@ public final class MapDrawContext implements IGLProvider {
 			return new ScreenIterator();
 		}
 
+		@Override
+		public boolean traverse(IMapAreaVisitor visitor) {
+			for (ShortPoint2D position : this) {
+				if (!visitor.visit(position.x, position.y)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
 		private class ScreenIterator implements Iterator<ShortPoint2D> {
 			/**
 			 * How many lines to search at least.
@@ -14,13 +14,18 @@
  *******************************************************************************/
 package jsettlers.algorithms.borders;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 import jsettlers.common.movable.EDirection;
 import jsettlers.common.position.ShortPoint2D;
 
 /**
  * This thread calculates the positions that represent the border between the areas occupied by different players.
+ * <p />
+ * The positions to be checked are collected in a bitmap of dirty positions and a list of dirty areas. The thread takes all of them as one batch,
+ * so a position reported multiple times before it is processed is only checked once.
  * 
  * @author Andreas Eberle
  * 
@@ -28,8 +33,15 @@ import jsettlers.common.position.ShortPoint2D;
 public class BordersThread implements Runnable {
 
 	private final IBordersThreadGrid grid;
-	private final LinkedBlockingQueue<ShortPoint2D> positionsQueue = new LinkedBlockingQueue<ShortPoint2D>();
 	private final Thread bordersThread;
+	private final short width;
+
+	private final Object dirtyLock = new Object();
+	private BitSet dirtyPositions;
+	private BitSet processedPositions;
+	private List<DirtyArea> dirtyAreas = new ArrayList<DirtyArea>();
+	private List<DirtyArea> processedAreas = new ArrayList<DirtyArea>();
+	private boolean dirty = false;
 
 	private boolean canceled = false;
 
@@ -41,6 +53,10 @@ public class BordersThread implements Runnable {
 	 */
 	public BordersThread(IBordersThreadGrid grid) {
 		this.grid = grid;
+		this.width = grid.getWidth();
+		this.dirtyPositions = new BitSet(width * grid.getHeight());
+		this.processedPositions = new BitSet(width * grid.getHeight());
+
 		this.bordersThread = new Thread(this);
 		this.bordersThread.setName("BordersThread");
 		this.bordersThread.setDaemon(true);
@@ -49,23 +65,50 @@ public class BordersThread implements Runnable {
 	@Override
 	public void run() {
 		while (!canceled) {
-			ShortPoint2D position = null;
-			while (position == null && !canceled) {
-				try {
-					position = positionsQueue.take();
-				} catch (InterruptedException e) {
+			try {
+				synchronized (dirtyLock) {
+					while (!dirty) {
+						dirtyLock.wait();
+					}
 				}
-			}
-			if (!canceled) {
-				calculateForPosition(position);
+				calculateDirtyPositions();
+			} catch (InterruptedException e) {
 			}
 		}
 	}
 
-	private void calculateForPosition(ShortPoint2D position) {
-		short x = position.x;
-		short y = position.y;
+	/**
+	 * Checks all positions and areas that have been reported dirty up to now.
+	 */
+	void calculateDirtyPositions() {
+		synchronized (dirtyLock) { // take the current batch and let new positions be collected in the other bit set and list
+			BitSet positions = dirtyPositions;
+			dirtyPositions = processedPositions;
+			processedPositions = positions;
+
+			List<DirtyArea> areas = dirtyAreas;
+			dirtyAreas = processedAreas;
+			processedAreas = areas;
+
+			dirty = false;
+		}
+
+		for (DirtyArea area : processedAreas) {
+			for (int y = area.y; y < area.endY && !canceled; y += 2) {
+				for (int x = area.x; x < area.endX; x += 2) {
+					calculateForPosition((short) x, (short) y);
+				}
+			}
+		}
+		processedAreas.clear();
 
+		for (int index = processedPositions.nextSetBit(0); index >= 0 && !canceled; index = processedPositions.nextSetBit(index + 1)) {
+			calculateForPosition((short) (index % width), (short) (index / width));
+		}
+		processedPositions.clear();
+	}
+
+	private void calculateForPosition(short x, short y) {
 		byte player = grid.getPlayerIdAt(x, y);
 		boolean isBorder = false;
 
@@ -107,17 +150,46 @@ public class BordersThread implements Runnable {
 	}
 
 	public void checkPosition(ShortPoint2D position) {
-		this.positionsQueue.offer(position);
+		checkPosition(position.x, position.y);
 	}
 
-	public void checkArea(int x, int y, short width, short height) {
-		int endX = x + width;
-		int endY = y + height;
+	public void checkPosition(int x, int y) {
+		synchronized (dirtyLock) {
+			dirtyPositions.set(x + y * width);
+			setDirty();
+		}
+	}
 
-		for (; y < endY; y += 2) {
-			for (int currX = x; currX < endX; currX += 2) {
-				this.positionsQueue.offer(new ShortPoint2D(currX, y));
+	/**
+	 * Checks every second position of every second line in the given area. As the neighbors of every checked position are checked as well, this
+	 * covers all positions of the area.
+	 * 
+	 * @param x
+	 * @param y
+	 * @param width
+	 * @param height
+	 */
+	public void checkArea(int x, int y, short width, short height) {
+		DirtyArea newArea = new DirtyArea(x, y, x + width, y + height);
+
+		synchronized (dirtyLock) {
+			for (int i = dirtyAreas.size() - 1; i >= 0; i--) {
+				DirtyArea area = dirtyAreas.get(i);
+				if (area.contains(newArea)) {
+					return;
+				} else if (newArea.contains(area)) {
+					dirtyAreas.remove(i);
+				}
 			}
+			dirtyAreas.add(newArea);
+			setDirty();
+		}
+	}
+
+	private void setDirty() {
+		if (!dirty) {
+			dirty = true;
+			dirtyLock.notifyAll();
 		}
 	}
 
@@ -130,4 +202,30 @@ public class BordersThread implements Runnable {
 		bordersThread.start();
 	}
 
+	/**
+	 * An area whose positions need to be checked. The checked positions are aligned to the start of the area.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private static final class DirtyArea {
+		final int x;
+		final int y;
+		final int endX;
+		final int endY;
+
+		DirtyArea(int x, int y, int endX, int endY) {
+			this.x = x;
+			this.y = y;
+			this.endX = endX;
+			this.endY = endY;
+		}
+
+		/**
+		 * @return true if this area checks all positions the given area checks.
+		 */
+		boolean contains(DirtyArea other) {
+			return x <= other.x && y <= other.y && other.endX <= endX && other.endY <= endY && ((other.x - x) & 1) == 0 && ((other.y - y) & 1) == 0;
+		}
+	}
 }
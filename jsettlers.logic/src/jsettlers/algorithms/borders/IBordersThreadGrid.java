@@ -48,6 +48,10 @@ public interface IBordersThreadGrid {
 
 	boolean isInBounds(short x, short y);
 
+	short getWidth();
+
+	short getHeight();
+
 	/**
 	 * Gets the blocked partition at the given position.
 	 * 
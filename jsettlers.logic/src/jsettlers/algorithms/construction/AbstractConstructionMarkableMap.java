@@ -73,4 +73,14 @@ public abstract class AbstractConstructionMarkableMap {
 	public abstract boolean canPlayerConstructOnPartition(byte playerId, short partitionId);
 
 	public abstract boolean isInBounds(int x, int y);
+
+	/**
+	 * Sets the listener that needs to be informed about every change of the data used by
+	 * {@link #canUsePositionForConstruction(int, int, ELandscapeType[], short)}, {@link #getPartitionIdAt(int, int)},
+	 * {@link #canPlayerConstructOnPartition(byte, short)} and the values of the construction marks.
+	 * 
+	 * @param listener
+	 *            The listener or null to remove the current listener.
+	 */
+	public abstract void setConstructionDataChangedListener(IConstructionDataChangedListener listener);
 }
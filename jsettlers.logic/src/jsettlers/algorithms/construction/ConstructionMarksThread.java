@@ -14,6 +14,11 @@
  *******************************************************************************/
 package jsettlers.algorithms.construction;
 
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 import jsettlers.algorithms.AlgorithmConstants;
 import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.logging.MilliStopWatch;
@@ -24,15 +29,21 @@ import jsettlers.network.client.interfaces.IPausingSupplier;
 /**
  * Thread to calculate the markings for the user if he want's to construct a new building.<br>
  * This is a singleton class.
+ * <p />
+ * The marks of the whole screen are only calculated when the screen or the building type changes. Otherwise only the marks depending on
+ * positions reported by the {@link IConstructionDataChangedListener} of the map are recalculated.
  *
  * @author Andreas Eberle
  *
  */
 public final class ConstructionMarksThread implements Runnable {
 
+	private final AbstractConstructionMarkableMap map;
 	private final NewConstructionMarksAlgorithm algorithm;
 	private final IPausingSupplier pausingSupplier;
 	private final Thread thread;
+	private final ExecutorService workers;
+	private final ChangedPositions changedPositions;
 
 	private boolean canceled;
 
@@ -43,9 +54,22 @@ public final class ConstructionMarksThread implements Runnable {
 	private EBuildingType buildingType = null;
 
 	public ConstructionMarksThread(AbstractConstructionMarkableMap map, IPausingSupplier pausingSupplier, byte player) {
-		this.algorithm = new NewConstructionMarksAlgorithm(map, player);
+		int numberOfWorkers = Runtime.getRuntime().availableProcessors();
+		this.workers = numberOfWorkers > 1 ? Executors.newFixedThreadPool(numberOfWorkers, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread worker = new Thread(runnable, "ConstructionMarksWorker");
+				worker.setDaemon(true);
+				return worker;
+			}
+		}) : null;
+		this.map = map;
+		this.algorithm = new NewConstructionMarksAlgorithm(map, player, workers, 2 * numberOfWorkers);
 		this.pausingSupplier = pausingSupplier;
 
+		this.changedPositions = new ChangedPositions(map.getWidth(), map.getHeight());
+		map.setConstructionDataChangedListener(changedPositions);
+
 		thread = new Thread(this, "ConstructionMarksThread");
 		thread.setDaemon(true);
 		thread.start();
@@ -53,6 +77,8 @@ public final class ConstructionMarksThread implements Runnable {
 
 	@Override
 	public void run() {
+		BitSet changed = new BitSet();
+
 		while (!canceled) {
 			try {
 				synchronized (this) {
@@ -61,18 +87,32 @@ public final class ConstructionMarksThread implements Runnable {
 					}
 				}
 
+				MapRectangle calculatedArea = null;
+				EBuildingType calculatedBuildingType = null;
+
 				while (buildingType != null && !canceled) {
 					if (!pausingSupplier.isPausing()) {
 						StopWatch watch = new MilliStopWatch();
 						watch.restart();
 
 						EBuildingType buildingType = this.buildingType;
+						MapRectangle mapArea = this.mapArea;
 						if (buildingType != null && mapArea != null) { // if the task has already been canceled
-							algorithm.calculateConstructMarks(mapArea, buildingType.getBuildingAreaBitSet(), buildingType.getGroundtypes(),
-									buildingType.getBlockedTiles(), buildingType.isMine());
-						}
+							boolean allChanged = changedPositions.takeChangedPositions(changed);
+
+							if (allChanged || buildingType != calculatedBuildingType || !mapArea.equals(calculatedArea)) {
+								algorithm.calculateConstructMarks(mapArea, buildingType.getBuildingAreaBitSet(), buildingType.getGroundtypes(),
+										buildingType.getBlockedTiles(), buildingType.isMine());
+								calculatedArea = mapArea;
+								calculatedBuildingType = buildingType;
+								watch.stop("calculation of construction marks");
 
-						watch.stop("calculation of construction marks");
+							} else if (!changed.isEmpty()) {
+								algorithm.recalculateConstructMarks(changed, buildingType.getBuildingAreaBitSet(), buildingType.getGroundtypes(),
+										buildingType.getBlockedTiles(), buildingType.isMine());
+								watch.stop("recalculation of changed construction marks");
+							}
+						}
 					}
 					synchronized (this) {
 						wait(AlgorithmConstants.CONSTRUCT_MARKS_MAX_REFRESH_TIME);
@@ -100,5 +140,58 @@ public final class ConstructionMarksThread implements Runnable {
 	public void cancel() {
 		canceled = true;
 		thread.interrupt();
+		map.setConstructionDataChangedListener(null);
+		if (workers != null) {
+			workers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Collects the positions reported by the map until they are taken by the {@link ConstructionMarksThread}.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private static final class ChangedPositions implements IConstructionDataChangedListener {
+		private final short width;
+		private final BitSet positions;
+		private final int maxPositions;
+
+		private boolean allChanged = true;
+
+		ChangedPositions(short width, short height) {
+			this.width = width;
+			this.positions = new BitSet(width * height);
+			this.maxPositions = width * height / 16;
+		}
+
+		@Override
+		public synchronized void constructionDataChangedAt(int x, int y) {
+			positions.set(x + y * width);
+		}
+
+		@Override
+		public synchronized void allConstructionDataChanged() {
+			allChanged = true;
+		}
+
+		/**
+		 * Moves the changed positions into the given {@link BitSet} and resets them.
+		 * 
+		 * @param result
+		 * @return true if all positions need to be recalculated.
+		 */
+		synchronized boolean takeChangedPositions(BitSet result) {
+			boolean all = allChanged || positions.cardinality() > maxPositions;
+
+			result.clear();
+			if (!all) {
+				result.or(positions);
+			}
+
+			positions.clear();
+			allChanged = false;
+			return all;
+		}
 	}
 }
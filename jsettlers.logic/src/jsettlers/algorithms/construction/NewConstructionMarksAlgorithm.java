@@ -14,7 +14,13 @@
  *******************************************************************************/
 package jsettlers.algorithms.construction;
 
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import jsettlers.common.buildings.BuildingAreaBitSet;
 import jsettlers.common.landscape.ELandscapeType;
@@ -26,33 +32,120 @@ import jsettlers.common.position.ShortPoint2D;
 
 /**
  * Algorithm to calculate the construction marks for the user.
+ * <p />
+ * If an {@link ExecutorService} is given, the lines of the area are split into strips that are calculated in parallel. Every strip only sets
+ * the construction marks of its own lines, so the strips never write the same positions.
  * 
  * @author Andreas Eberle
  * 
  */
 public final class NewConstructionMarksAlgorithm {
+	/**
+	 * Minimum number of lines of a strip calculated by one task.
+	 */
+	private static final int MIN_LINES_PER_STRIP = 8;
+
 	private final AbstractConstructionMarkableMap map;
 	private final byte playerId;
+	private final ExecutorService executor;
+	private final int numberOfStrips;
+
+	private BitSet[] doneSets = new BitSet[0];
+	private BitSet positionsToRecalculate;
 
 	private MapRectangle lastArea = null;
 
 	public NewConstructionMarksAlgorithm(AbstractConstructionMarkableMap map, byte player) {
+		this(map, player, null, 1);
+	}
+
+	/**
+	 * 
+	 * @param map
+	 * @param player
+	 * @param executor
+	 *            {@link ExecutorService} used to calculate the strips of the area in parallel or null if the calculation should be done by the
+	 *            calling thread.
+	 * @param numberOfStrips
+	 *            Maximum number of strips the area is split into.
+	 */
+	public NewConstructionMarksAlgorithm(AbstractConstructionMarkableMap map, byte player, ExecutorService executor, int numberOfStrips) {
 		this.map = map;
 		this.playerId = player;
+		this.executor = executor;
+		this.numberOfStrips = executor != null ? Math.max(1, numberOfStrips) : 1;
 	}
 
 	public void calculateConstructMarks(final MapRectangle mapArea, final BuildingAreaBitSet buildingArea, final ELandscapeType[] landscapeTypes,
-			RelativePoint[] flattenPositions, boolean binaryConstructionMarkValues) {
+			final RelativePoint[] flattenPositions, final boolean binaryConstructionMarkValues) {
 		if (lastArea != null) {
 			removeConstructionMarks(lastArea, mapArea);
 		}
 
+		final int lines = mapArea.getHeight();
+		final int strips = Math.max(1, Math.min(numberOfStrips, lines / MIN_LINES_PER_STRIP));
+		final int linesPerStrip = (lines + strips - 1) / strips;
+
+		if (doneSets.length < strips) {
+			doneSets = new BitSet[strips];
+		}
+
+		if (strips == 1) {
+			calculateConstructMarks(mapArea, 0, lines, getDoneSet(0), buildingArea, landscapeTypes, flattenPositions, binaryConstructionMarkValues);
+		} else {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(strips);
+			for (int strip = 0; strip < strips; strip++) {
+				final int firstLine = strip * linesPerStrip;
+				final int endLine = Math.min(lines, firstLine + linesPerStrip);
+				final BitSet doneSet = getDoneSet(strip);
+
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						calculateConstructMarks(mapArea, firstLine, endLine, doneSet, buildingArea, landscapeTypes, flattenPositions,
+								binaryConstructionMarkValues);
+						return null;
+					}
+				});
+			}
+
+			try {
+				for (Future<Void> future : executor.invokeAll(tasks)) {
+					future.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		}
+
+		// set the lastArea variable for the next run
+		lastArea = mapArea;
+	}
+
+	private BitSet getDoneSet(int strip) {
+		BitSet doneSet = doneSets[strip];
+		if (doneSet == null) {
+			doneSet = doneSets[strip] = new BitSet();
+		} else {
+			doneSet.clear();
+		}
+		return doneSet;
+	}
+
+	/**
+	 * Calculates the construction marks of the lines firstLine (inclusive) to endLine (exclusive) of the given area. Only the construction marks
+	 * of these lines are changed.
+	 */
+	private void calculateConstructMarks(MapRectangle mapArea, int firstLine, int endLine, BitSet doneSet, BuildingAreaBitSet buildingArea,
+			ELandscapeType[] landscapeTypes, RelativePoint[] flattenPositions, boolean binaryConstructionMarkValues) {
 		// declare local variables
 		final short[] xJumps = buildingArea.xJumps;
 		final short[] yJumps = buildingArea.yJumps;
 
 		final int lineLength = mapArea.getLineLength() + mapArea.getHeight() / 2;
-		final BitSet doneSet = new BitSet(lineLength * mapArea.getHeight());
 
 		final int xOffsetForBuilding = buildingArea.minX;
 		final int yOffsetForBuilding = buildingArea.minY;
@@ -60,15 +153,16 @@ public final class NewConstructionMarksAlgorithm {
 		final int buildingAreaHeight = buildingArea.height;
 
 		// iterate over the positions in the mapArea with the offset from the buildingArea
-		for (int line = 0; line < mapArea.getHeight(); line++) {
+		for (int line = firstLine; line < endLine; line++) {
 			final int y = mapArea.getLineY(line);
 			final int xLineOffset = mapArea.getMinX();
+			final int stripLine = line - firstLine;
 
 			DX_LOOP: for (int dx = 0; dx < lineLength; dx++) {
 				final int x = xLineOffset + dx;
 				final short partitionId;
 
-				if (!mapArea.contains(x, y) || doneSet.get(dx + line * lineLength)) { // if this position has already been pruned.
+				if (!mapArea.contains(x, y) || doneSet.get(dx + stripLine * lineLength)) { // if this position has already been pruned.
 					continue;
 				}
 
@@ -77,12 +171,14 @@ public final class NewConstructionMarksAlgorithm {
 					int firstPosY = buildingArea.aPosition.calculateY(y);
 
 					if (!map.isInBounds(firstPosX, firstPosY)) {
+						map.setConstructMarking(x, y, false, binaryConstructionMarkValues, null);
 						continue;
 					}
 
 					partitionId = map.getPartitionIdAt(firstPosX, firstPosY);
 
 					if (!map.canPlayerConstructOnPartition(playerId, partitionId)) {
+						map.setConstructMarking(x, y, false, binaryConstructionMarkValues, null);
 						continue DX_LOOP;
 					}
 				}
@@ -99,15 +195,15 @@ public final class NewConstructionMarksAlgorithm {
 
 							map.setConstructMarking(x, y, false, binaryConstructionMarkValues, null);
 
-							// prune the positions we already know that they are invalid.
-							for (int pruneX = 0; pruneX < xJumps[index]; pruneX++) {
+							// prune the positions we already know that they are invalid (only the ones in the lines of this strip).
+							for (int pruneX = 0; pruneX < xJumps[index] && dx + pruneX < lineLength; pruneX++) {
 								int currYJumps = yJumps[(buildingDx - pruneX) + buildingDy * buildingAreaWidth];
-								for (int pruneY = 0; pruneY < currYJumps; pruneY++) {
+								for (int pruneY = 0; pruneY < currYJumps && line + pruneY < endLine; pruneY++) {
 									if (pruneY == 0 && pruneX == 0) {
 										continue; // skip the original position
 									}
 
-									doneSet.set((dx + pruneX) + (line + pruneY) * lineLength);
+									doneSet.set((dx + pruneX) + (stripLine + pruneY) * lineLength);
 
 									map.setConstructMarking(x + pruneX, y + pruneY, false, binaryConstructionMarkValues, null);
 								}
@@ -122,9 +218,93 @@ public final class NewConstructionMarksAlgorithm {
 				map.setConstructMarking(x, y, true, binaryConstructionMarkValues, flattenPositions);
 			}
 		}
+	}
 
-		// set the lastArea variable for the next run
-		lastArea = mapArea;
+	/**
+	 * Recalculates the construction marks of the area of the last call to
+	 * {@link #calculateConstructMarks(MapRectangle, BuildingAreaBitSet, ELandscapeType[], RelativePoint[], boolean)} that depend on the given
+	 * changed positions. The other construction marks are kept.
+	 * 
+	 * @param changedPositions
+	 *            The indexes (x + y * width) of the positions whose data has changed since the last calculation.
+	 * @param buildingArea
+	 * @param landscapeTypes
+	 * @param flattenPositions
+	 * @param binaryConstructionMarkValues
+	 */
+	public void recalculateConstructMarks(BitSet changedPositions, BuildingAreaBitSet buildingArea, ELandscapeType[] landscapeTypes,
+			RelativePoint[] flattenPositions, boolean binaryConstructionMarkValues) {
+		if (lastArea == null) {
+			return;
+		}
+
+		final int width = map.getWidth();
+
+		// the construction mark at a position depends on the positions of the building area and the flatten positions
+		int minDx = buildingArea.minX, maxDx = buildingArea.minX + buildingArea.width - 1;
+		int minDy = buildingArea.minY, maxDy = buildingArea.minY + buildingArea.height - 1;
+		if (flattenPositions != null) {
+			for (RelativePoint flattenPosition : flattenPositions) {
+				minDx = Math.min(minDx, flattenPosition.getDx());
+				maxDx = Math.max(maxDx, flattenPosition.getDx());
+				minDy = Math.min(minDy, flattenPosition.getDy());
+				maxDy = Math.max(maxDy, flattenPosition.getDy());
+			}
+		}
+
+		if (positionsToRecalculate == null) {
+			positionsToRecalculate = new BitSet(width * map.getHeight());
+		}
+
+		for (int changed = changedPositions.nextSetBit(0); changed >= 0; changed = changedPositions.nextSetBit(changed + 1)) {
+			int changedX = changed % width;
+			int changedY = changed / width;
+
+			for (int y = changedY - maxDy; y <= changedY - minDy; y++) {
+				for (int x = changedX - maxDx; x <= changedX - minDx; x++) {
+					if (lastArea.contains(x, y) && map.isInBounds(x, y)) {
+						positionsToRecalculate.set(x + y * width);
+					}
+				}
+			}
+		}
+
+		for (int index = positionsToRecalculate.nextSetBit(0); index >= 0; index = positionsToRecalculate.nextSetBit(index + 1)) {
+			calculateConstructMarkAt(index % width, index / width, buildingArea, landscapeTypes, flattenPositions, binaryConstructionMarkValues);
+		}
+		positionsToRecalculate.clear();
+	}
+
+	private void calculateConstructMarkAt(int x, int y, BuildingAreaBitSet buildingArea, ELandscapeType[] landscapeTypes,
+			RelativePoint[] flattenPositions, boolean binaryConstructionMarkValues) {
+		int firstPosX = buildingArea.aPosition.calculateX(x);
+		int firstPosY = buildingArea.aPosition.calculateY(y);
+
+		boolean canConstruct = false;
+		if (map.isInBounds(firstPosX, firstPosY)) {
+			short partitionId = map.getPartitionIdAt(firstPosX, firstPosY);
+			canConstruct = map.canPlayerConstructOnPartition(playerId, partitionId)
+					&& canUseBuildingArea(x, y, buildingArea, landscapeTypes, partitionId);
+		}
+
+		if (canConstruct) {
+			map.setConstructMarking(x, y, true, binaryConstructionMarkValues, flattenPositions);
+		} else {
+			map.setConstructMarking(x, y, false, binaryConstructionMarkValues, null);
+		}
+	}
+
+	private boolean canUseBuildingArea(int x, int y, BuildingAreaBitSet buildingArea, ELandscapeType[] landscapeTypes, short partitionId) {
+		for (int buildingDy = 0; buildingDy < buildingArea.height; buildingDy++) {
+			for (int buildingDx = 0; buildingDx < buildingArea.width; buildingDx++) {
+				if (buildingArea.xJumps[buildingDx + buildingDy * buildingArea.width] != 0
+						&& !map.canUsePositionForConstruction(x + buildingDx + buildingArea.minX, y + buildingDy + buildingArea.minY, landscapeTypes,
+								partitionId)) {
+					return false;
+				}
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -30,6 +30,10 @@ public final class CachedViewCircle {
 	final short[] y;
 	final byte[] sight;
 	final int size;
+	/**
+	 * Maximum absolute x or y offset of the circles positions.
+	 */
+	final int extent;
 
 	public CachedViewCircle(int radius) {
 		radius -= FogOfWar.PADDING / 2;
@@ -44,6 +48,7 @@ public final class CachedViewCircle {
 		MapCircleIterator iter = circle.iterator();
 		final float squaredViewDistance = radius * radius;
 		int i = 0;
+		int extent = 0;
 
 		while (iter.hasNext()) {
 			int y = iter.nextY();
@@ -60,9 +65,11 @@ public final class CachedViewCircle {
 						* CommonConstants.FOG_OF_WAR_VISIBLE);
 			}
 			sight[i] = newSight;
+			extent = Math.max(extent, Math.max(Math.abs(x), Math.abs(y)));
 
 			i++;
 		}
+		this.extent = extent;
 	}
 
 	private int countElements(MapCircle circle) {
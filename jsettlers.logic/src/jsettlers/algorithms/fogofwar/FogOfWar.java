@@ -21,6 +21,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 
 import jsettlers.algorithms.fogofwar.CachedViewCircle.CachedViewCircleIterator;
 import jsettlers.common.CommonConstants;
+import jsettlers.common.map.grid.TiledByteGrid;
 import jsettlers.common.player.IPlayerable;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.logic.constants.Constants;
@@ -43,7 +44,7 @@ public final class FogOfWar implements Serializable {
 
 	final short width;
 	final short height;
-	byte[][] sight;
+	TiledByteGrid sight;
 
 	private transient boolean enabled = Constants.FOG_OF_WAR_DEFAULT_ENABLED;
 	private transient IFogOfWarGrid grid;
@@ -57,7 +58,7 @@ public final class FogOfWar implements Serializable {
 		this.width = width;
 		this.height = height;
 		this.player = player;
-		this.sight = new byte[width][height];
+		this.sight = new TiledByteGrid(width, height);
 	}
 
 	private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
@@ -66,11 +67,23 @@ public final class FogOfWar implements Serializable {
 	}
 
 	public void start(IFogOfWarGrid grid) {
-		this.grid = grid;
-		NewFoWThread thread = new NewFoWThread();
+		NewFoWThread thread = createThread(grid, Constants.FOG_OF_WAR_INCREMENTAL_UPDATES);
 		thread.start();
 	}
 
+	/**
+	 * Creates the thread updating the sight of this fog of war for the objects of the given grid without starting it.
+	 * 
+	 * @param grid
+	 * @param incrementalUpdates
+	 *            if true, the sight is updated with an {@link IncrementalSightUpdater} instead of being rebuilt in every cycle.
+	 * @return
+	 */
+	NewFoWThread createThread(IFogOfWarGrid grid, boolean incrementalUpdates) {
+		this.grid = grid;
+		return new NewFoWThread(incrementalUpdates);
+	}
+
 	/**
 	 * Gets the visible status of a map pint
 	 * 
@@ -82,13 +95,13 @@ public final class FogOfWar implements Serializable {
 	 */
 	public final byte getVisibleStatus(int x, int y) {
 		if (enabled) {
-			return (byte) Math.min(sight[x][y], CommonConstants.FOG_OF_WAR_VISIBLE);
+			return (byte) Math.min(sight.get(x, y), CommonConstants.FOG_OF_WAR_VISIBLE);
 		} else {
 			return CommonConstants.FOG_OF_WAR_VISIBLE;
 		}
 	}
 
-	private final boolean isPlayerOK(IPlayerable playerable) {
+	final boolean isPlayerOK(IPlayerable playerable) {
 		return (MatchConstants.ENABLE_ALL_PLAYER_FOG_OF_WAR || (playerable.getPlayerId() == player));
 	}
 
@@ -102,14 +115,22 @@ public final class FogOfWar implements Serializable {
 
 	final class NewFoWThread extends Thread {
 		private static final byte DIM_DOWN_SPEED = 10;
+
 		private final CircleDrawer drawer;
-		private byte[][] buffer;
+		private final IncrementalSightUpdater incrementalUpdater;
+		private TiledByteGrid buffer;
 
-		NewFoWThread() {
+		NewFoWThread(boolean incrementalUpdates) {
 			super("FoWThread");
 			super.setDaemon(true);
-			this.buffer = new byte[width][height];
 			drawer = new CircleDrawer();
+
+			if (incrementalUpdates) {
+				incrementalUpdater = new IncrementalSightUpdater(FogOfWar.this);
+			} else {
+				incrementalUpdater = null;
+				this.buffer = new TiledByteGrid(sight.getLayout());
+			}
 		}
 
 		@Override
@@ -120,7 +141,7 @@ public final class FogOfWar implements Serializable {
 				// StopWatch watch = new MilliStopWatch();
 				// watch.restart();
 				if (enabled) {
-					rebuildSight();
+					updateSight();
 				}
 				// watch.stop("NewFoWThread needed: ");
 
@@ -128,23 +149,39 @@ public final class FogOfWar implements Serializable {
 			}
 		}
 
+		/**
+		 * Dims down the sight and brightens the view circles of all buildings and movables once.
+		 */
+		final void updateSight() {
+			if (incrementalUpdater != null) {
+				updateSightIncrementally();
+			} else {
+				rebuildSight();
+			}
+		}
+
+		private final void updateSightIncrementally() {
+			incrementalUpdater.startUpdate();
+			incrementalUpdater.updateViews(drawer, grid.getBuildingViewDistancables());
+			incrementalUpdater.updateViews(drawer, grid.getMovableViewDistancables());
+			incrementalUpdater.finishUpdate(DIM_DOWN_SPEED);
+		}
+
 		private final void rebuildSight() {
 			drawer.setBuffer(buffer);
 
-			for (int x = 0; x < width; x++) {
-				for (int y = 0; y < height; y++) {
-					byte currSight = sight[x][y];
+			for (int i = 0, size = sight.getSize(); i < size; i++) { // the order doesn't matter => walk linearly through the memory
+				byte currSight = sight.get(i);
 
-					if (currSight >= CommonConstants.FOG_OF_WAR_EXPLORED) {
-						byte newSight = (byte) (currSight - DIM_DOWN_SPEED);
-						if (newSight < CommonConstants.FOG_OF_WAR_EXPLORED) {
-							buffer[x][y] = CommonConstants.FOG_OF_WAR_EXPLORED;
-						} else {
-							buffer[x][y] = newSight;
-						}
+				if (currSight >= CommonConstants.FOG_OF_WAR_EXPLORED) {
+					byte newSight = (byte) (currSight - DIM_DOWN_SPEED);
+					if (newSight < CommonConstants.FOG_OF_WAR_EXPLORED) {
+						buffer.set(i, (byte) CommonConstants.FOG_OF_WAR_EXPLORED);
 					} else {
-						buffer[x][y] = sight[x][y];
+						buffer.set(i, newSight);
 					}
+				} else {
+					buffer.set(i, currSight);
 				}
 			}
 
@@ -154,7 +191,7 @@ public final class FogOfWar implements Serializable {
 			ConcurrentLinkedQueue<? extends IViewDistancable> movables = grid.getMovableViewDistancables();
 			applyViewDistances(movables);
 
-			byte[][] temp = sight;
+			TiledByteGrid temp = sight;
 			sight = buffer;
 			buffer = temp;
 		}
@@ -183,10 +220,10 @@ public final class FogOfWar implements Serializable {
 	}
 
 	final class CircleDrawer {
-		private byte[][] buffer;
+		private TiledByteGrid buffer;
 		private final CachedViewCircle[] cachedCircles = new CachedViewCircle[MAX_VIEWDISTANCE];
 
-		public final void setBuffer(byte[][] buffer) {
+		public final void setBuffer(TiledByteGrid buffer) {
 			this.buffer = buffer;
 		}
 
@@ -203,18 +240,19 @@ public final class FogOfWar implements Serializable {
 				final int y = iterator.getCurrY();
 
 				if (x >= 0 && x < width && y > 0 && y < height) {
-					byte oldSight = buffer[x][y];
+					int index = buffer.getIndex(x, y);
+					byte oldSight = buffer.get(index);
 					if (oldSight < CommonConstants.FOG_OF_WAR_VISIBLE) {
 						byte newSight = iterator.getCurrSight();
 						if (oldSight < newSight) {
-							buffer[x][y] = newSight;
+							buffer.set(index, newSight);
 						}
 					}
 				}
 			}
 		}
 
-		private CachedViewCircle getCachedCircle(int viewDistance) {
+		CachedViewCircle getCachedCircle(int viewDistance) {
 			int radius = Math.min(viewDistance + PADDING, MAX_VIEWDISTANCE - 1);
 			if (cachedCircles[radius] == null) {
 				cachedCircles[radius] = new CachedViewCircle(radius);
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.fogofwar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+import jsettlers.algorithms.fogofwar.CachedViewCircle.CachedViewCircleIterator;
+import jsettlers.common.CommonConstants;
+import jsettlers.common.map.grid.TiledByteGrid;
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Updates the sight of a {@link FogOfWar} incrementally.
+ * <p />
+ * A full rebuild sets every tile to the maximum of its dimmed down sight and the sight of all view circles covering it. This class stores the
+ * maximum sight of the view circles per tile and only changes it where a view circle has been added or removed. A view circle is only added or
+ * removed, when its {@link IViewDistancable} appeared, disappeared, moved or changed its view distance since the last update. Only the tiles that are
+ * brighter than their view circles and the tiles whose view circles changed are dimmed down. Therefore the result is exactly the same as the one of
+ * a full rebuild.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+final class IncrementalSightUpdater {
+	private final FogOfWar fogOfWar;
+	private final short width;
+	private final short height;
+	/**
+	 * Maximum sight of all applied view circles per tile.
+	 */
+	private final byte[] coveredSight;
+	private final boolean[] updating;
+	private final IdentityHashMap<IViewDistancable, AppliedView> appliedViews = new IdentityHashMap<IViewDistancable, AppliedView>();
+	private final ArrayList<AppliedView> removedViews = new ArrayList<AppliedView>();
+
+	private int[] updatingTiles = new int[1024];
+	private int updatingTilesSize = 0;
+	private int updateCounter = 0;
+
+	IncrementalSightUpdater(FogOfWar fogOfWar) {
+		this.fogOfWar = fogOfWar;
+		this.width = fogOfWar.width;
+		this.height = fogOfWar.height;
+		int size = fogOfWar.sight.getSize();
+		this.coveredSight = new byte[size];
+		this.updating = new boolean[size];
+
+		for (int i = 0; i < size; i++) { // tiles that are visible at the beginning (e.g. after loading) need to dim down if nobody sees them.
+			if (fogOfWar.sight.get(i) > CommonConstants.FOG_OF_WAR_EXPLORED) {
+				addUpdatingTile(i);
+			}
+		}
+	}
+
+	/**
+	 * Starts a new update. Afterwards, all {@link IViewDistancable}s need to be passed to {@link #updateViews(FogOfWar.CircleDrawer, Iterable)}
+	 * before the update is finished with {@link #finishUpdate(byte)}.
+	 */
+	void startUpdate() {
+		updateCounter++;
+	}
+
+	/**
+	 * Remembers the view circles of the given objects, if they appeared, moved or changed their view distance.
+	 * 
+	 * @param drawer
+	 *            {@link FogOfWar.CircleDrawer} used to get the cached view circles.
+	 * @param objects
+	 */
+	void updateViews(FogOfWar.CircleDrawer drawer, Iterable<? extends IViewDistancable> objects) {
+		for (IViewDistancable curr : objects) {
+			updateView(drawer, curr);
+		}
+	}
+
+	/**
+	 * Removes the view circles of all objects that have not been passed to {@link #updateViews(FogOfWar.CircleDrawer, Iterable)} since the last
+	 * call of {@link #startUpdate()}, applies the changed view circles and dims down the sight.
+	 * 
+	 * @param dimDownSpeed
+	 *            Value subtracted from the sight of tiles that are brighter than their view circles.
+	 */
+	void finishUpdate(byte dimDownSpeed) {
+		Iterator<AppliedView> iterator = appliedViews.values().iterator();
+		while (iterator.hasNext()) {
+			AppliedView view = iterator.next();
+			if (view.updateCounter != updateCounter) {
+				removedViews.add(view);
+				iterator.remove();
+			}
+		}
+
+		for (AppliedView removedView : removedViews) {
+			clearCoveredSight(removedView);
+		}
+		for (AppliedView view : appliedViews.values()) { // circles overlapping a removed one need to be drawn again
+			if (view.addedInUpdate == updateCounter || overlapsRemovedView(view)) {
+				drawCoveredSight(view);
+			}
+		}
+		removedViews.clear();
+
+		dimDown(dimDownSpeed);
+	}
+
+	private void updateView(FogOfWar.CircleDrawer drawer, IViewDistancable object) {
+		ShortPoint2D pos = object.getPos();
+		short distance = fogOfWar.isPlayerOK(object) && pos != null ? object.getViewDistance() : 0;
+		if (distance <= 0) {
+			return; // the view will be removed, because its update counter is not set
+		}
+
+		AppliedView view = appliedViews.get(object);
+		if (view != null && view.x == pos.x && view.y == pos.y && view.viewDistance == distance) {
+			view.updateCounter = updateCounter;
+			return; // nothing changed
+		}
+		if (view != null) {
+			removedViews.add(view);
+		}
+
+		view = new AppliedView(pos.x, pos.y, distance, drawer.getCachedCircle(distance), updateCounter);
+		appliedViews.put(object, view);
+	}
+
+	private boolean overlapsRemovedView(AppliedView view) {
+		for (AppliedView removedView : removedViews) {
+			int maxDistance = view.circle.extent + removedView.circle.extent;
+			if (Math.abs(view.x - removedView.x) <= maxDistance && Math.abs(view.y - removedView.y) <= maxDistance) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void clearCoveredSight(AppliedView view) {
+		CachedViewCircleIterator iterator = view.circle.iterator(view.x, view.y);
+
+		while (iterator.hasNext()) {
+			final int x = iterator.getCurrX();
+			final int y = iterator.getCurrY();
+
+			if (x >= 0 && x < width && y > 0 && y < height) {
+				int index = fogOfWar.sight.getIndex(x, y);
+				coveredSight[index] = 0;
+				addUpdatingTile(index);
+			}
+		}
+	}
+
+	private void drawCoveredSight(AppliedView view) {
+		CachedViewCircleIterator iterator = view.circle.iterator(view.x, view.y);
+
+		while (iterator.hasNext()) {
+			final int x = iterator.getCurrX();
+			final int y = iterator.getCurrY();
+
+			if (x >= 0 && x < width && y > 0 && y < height) {
+				byte newSight = iterator.getCurrSight();
+				int index = fogOfWar.sight.getIndex(x, y);
+
+				if (coveredSight[index] < newSight) {
+					coveredSight[index] = newSight;
+					addUpdatingTile(index);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the updating tiles to the maximum of their dimmed down sight and their covered sight. Tiles that are not brighter than their covered
+	 * sight or have been dimmed down to explored are removed from the updating tiles.
+	 */
+	private void dimDown(byte dimDownSpeed) {
+		TiledByteGrid sight = fogOfWar.sight;
+
+		int remaining = 0;
+		for (int i = 0; i < updatingTilesSize; i++) {
+			int index = updatingTiles[i];
+			byte newSight = sight.get(index);
+
+			if (newSight >= CommonConstants.FOG_OF_WAR_EXPLORED) {
+				newSight = (byte) Math.max(newSight - dimDownSpeed, CommonConstants.FOG_OF_WAR_EXPLORED);
+			}
+			newSight = (byte) Math.max(newSight, coveredSight[index]);
+			sight.set(index, newSight);
+
+			if (newSight > coveredSight[index] && newSight > CommonConstants.FOG_OF_WAR_EXPLORED) {
+				updatingTiles[remaining++] = index;
+			} else {
+				updating[index] = false;
+			}
+		}
+		updatingTilesSize = remaining;
+	}
+
+	private void addUpdatingTile(int index) {
+		if (updating[index]) {
+			return;
+		}
+
+		if (updatingTilesSize >= updatingTiles.length) {
+			updatingTiles = Arrays.copyOf(updatingTiles, updatingTiles.length * 2);
+		}
+		updatingTiles[updatingTilesSize++] = index;
+		updating[index] = true;
+	}
+
+	/**
+	 * The view circle that has been applied to the sight for an {@link IViewDistancable}.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private static final class AppliedView {
+		final short x;
+		final short y;
+		final short viewDistance;
+		final CachedViewCircle circle;
+		final int addedInUpdate;
+		int updateCounter;
+
+		AppliedView(short x, short y, short viewDistance, CachedViewCircle circle, int updateCounter) {
+			this.x = x;
+			this.y = y;
+			this.viewDistance = viewDistance;
+			this.circle = circle;
+			this.addedInUpdate = updateCounter;
+			this.updateCounter = updateCounter;
+		}
+	}
+}
@@ -61,6 +61,17 @@ public class Path implements Serializable {
 		}
 	}
 
+	/**
+	 * Creates a copy of the given path. The copy starts at the beginning of the path, independent of the progress of the given path.
+	 * 
+	 * @param path
+	 *            The path to be copied.
+	 */
+	public Path(Path path) {
+		pathX = path.pathX.clone();
+		pathY = path.pathY.clone();
+	}
+
 	/**
 	 * Creates a path of length 1 with that's just containing to the given position.<br>
 	 * 
@@ -132,6 +143,14 @@ public class Path implements Serializable {
 		return pathY[pathY.length - 1];
 	}
 
+	public final short getX(int idx) {
+		return pathX[idx];
+	}
+
+	public final short getY(int idx) {
+		return pathY[idx];
+	}
+
 	public final int getLength() {
 		return pathX.length;
 	}
@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path;
+
+import java.util.Arrays;
+
+import jsettlers.logic.map.grid.flags.IBlockingChangedListener;
+import jsettlers.logic.map.grid.partition.IPlayerChangedListener;
+
+/**
+ * Bounded least recently used cache of calculated paths. The paths are identified by their start, target, the blocked partition of the start and
+ * the player whose ground the path must stay on or {@link #NO_PLAYER}.
+ * <p />
+ * A cached path is dropped if one of its positions gets blocked. To find these paths without looking at all cached paths, every cell of
+ * {@link #CELL_SIZE} x {@link #CELL_SIZE} tiles stores the set of cached paths passing it. If any position gets unblocked, the whole cache is
+ * dropped, because a shorter path might exist now for every cached path. If a position changes its player, the paths of other players passing it
+ * are dropped, as well as all paths of the new player.
+ * <p />
+ * The paths are stored in a fixed number of slots. The keys are mapped to the slots by an open addressing hash table of primitive longs, so looking
+ * up a path doesn't allocate.
+ * <p />
+ * The cache only returns copies of the cached paths, so the cached paths are never iterated.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class PathCache implements IBlockingChangedListener, IPlayerChangedListener {
+	/**
+	 * Player of the paths that are not restricted to the ground of a player.
+	 */
+	public static final byte NO_PLAYER = -1;
+
+	private static final int CELL_BITS = 4;
+	private static final int CELL_SIZE = 1 << CELL_BITS;
+	private static final int NO_SLOT = -1;
+
+	private final int maxSize;
+	private final int cellsPerRow;
+
+	private final long[] keys;
+	private final byte[] players;
+	private final short[] blockedPartitions;
+	private final Path[] paths;
+	private final int[] newerSlots;
+	private final int[] olderSlots;
+	private int newestSlot = NO_SLOT;
+	private int oldestSlot = NO_SLOT;
+	private int size = 0;
+
+	private final int[] freeSlots;
+	private int freeSlotsCount;
+
+	private final int[] hashTable; // slot + 1 or 0 if empty
+	private final int hashMask;
+
+	private final long[][] cellSlots;
+
+	private final int[] pathsOfPlayers = new int[256]; // indexed by player & 0xFF
+	private int pathsWithPlayer = 0;
+
+	private int hits = 0;
+	private int misses = 0;
+	private int invalidations = 0;
+
+	/**
+	 * 
+	 * @param maxSize
+	 *            Maximum number of cached paths. If more paths are added, the least recently used path is dropped.
+	 * @param width
+	 *            Width of the map the paths are calculated on.
+	 * @param height
+	 *            Height of the map the paths are calculated on.
+	 */
+	public PathCache(int maxSize, int width, int height) {
+		this.maxSize = maxSize;
+		this.cellsPerRow = (width + CELL_SIZE - 1) >> CELL_BITS;
+
+		this.keys = new long[maxSize];
+		this.players = new byte[maxSize];
+		this.blockedPartitions = new short[maxSize];
+		this.paths = new Path[maxSize];
+		this.newerSlots = new int[maxSize];
+		this.olderSlots = new int[maxSize];
+
+		this.freeSlots = new int[maxSize];
+		for (int i = 0; i < maxSize; i++) {
+			freeSlots[i] = maxSize - 1 - i;
+		}
+		this.freeSlotsCount = maxSize;
+
+		this.hashTable = new int[Integer.highestOneBit(maxSize * 2) * 2];
+		this.hashMask = hashTable.length - 1;
+
+		this.cellSlots = new long[cellsPerRow * ((height + CELL_SIZE - 1) >> CELL_BITS)][];
+	}
+
+	/**
+	 * Gets a copy of the cached path from the given start to the given target.
+	 * 
+	 * @param player
+	 *            The player whose ground the path must stay on or {@link #NO_PLAYER}.
+	 * @return A copy of the cached path or null if no path is cached for the given values.
+	 */
+	public Path get(short sx, short sy, short tx, short ty, byte player, short blockedPartition) {
+		int slot = findSlot(getKey(sx, sy, tx, ty), player);
+
+		if (slot != NO_SLOT && blockedPartitions[slot] == blockedPartition) {
+			hits++;
+			unlinkFromUsageList(slot);
+			linkAsNewest(slot);
+			return new Path(paths[slot]);
+		} else {
+			misses++;
+			return null;
+		}
+	}
+
+	/**
+	 * Caches a copy of the given path.
+	 * 
+	 * @param player
+	 *            The player whose ground the path must stay on or {@link #NO_PLAYER}.
+	 * @param path
+	 *            The path starting with the first step after (sx, sy). If the path is null, nothing is cached.
+	 */
+	public void put(short sx, short sy, short tx, short ty, byte player, short blockedPartition, Path path) {
+		if (path == null || path.getLength() == 0) {
+			return;
+		}
+
+		long key = getKey(sx, sy, tx, ty);
+		int slot = findSlot(key, player);
+		if (slot != NO_SLOT) {
+			remove(slot);
+		} else if (size >= maxSize) {
+			remove(oldestSlot);
+		}
+
+		slot = freeSlots[--freeSlotsCount];
+		keys[slot] = key;
+		players[slot] = player;
+		blockedPartitions[slot] = blockedPartition;
+		paths[slot] = new Path(path);
+		size++;
+		if (player != NO_PLAYER) {
+			pathsOfPlayers[player & 0xFF]++;
+			pathsWithPlayer++;
+		}
+
+		insertIntoHashTable(slot);
+		linkAsNewest(slot);
+		setCellBits(slot, true);
+	}
+
+	/**
+	 * Drops the cached paths that may have become invalid or too long. This must only be called if the blocked flag of the position actually
+	 * changed, because every call with newBlockingValue == false drops the whole cache.
+	 */
+	@Override
+	public void blockingChanged(int x, int y, boolean newBlockingValue) {
+		if (size == 0) {
+			return;
+		}
+
+		if (!newBlockingValue) {
+			invalidations += size;
+			clear();
+			return;
+		}
+
+		long[] slotsOfCell = cellSlots[getCellIndex(x, y)];
+		if (slotsOfCell == null) {
+			return;
+		}
+
+		for (int wordIdx = 0; wordIdx < slotsOfCell.length; wordIdx++) {
+			long word = slotsOfCell[wordIdx];
+			while (word != 0) {
+				int slot = (wordIdx << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+
+				if (containsPosition(paths[slot], x, y)) {
+					remove(slot);
+					invalidations++;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void playerChangedAt(int x, int y, byte newPlayerId) {
+		if (pathsWithPlayer == 0) {
+			return;
+		}
+
+		long[] slotsOfCell = cellSlots[getCellIndex(x, y)];
+		if (slotsOfCell != null) {
+			for (int wordIdx = 0; wordIdx < slotsOfCell.length; wordIdx++) {
+				long word = slotsOfCell[wordIdx];
+				while (word != 0) {
+					int slot = (wordIdx << 6) + Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+
+					byte player = players[slot];
+					if (player != NO_PLAYER && player != newPlayerId && containsPosition(paths[slot], x, y)) {
+						remove(slot);
+						invalidations++;
+					}
+				}
+			}
+		}
+
+		if (pathsOfPlayers[newPlayerId & 0xFF] > 0) {
+			for (int slot = oldestSlot; slot != NO_SLOT;) {
+				int newer = newerSlots[slot];
+				if (players[slot] == newPlayerId) {
+					remove(slot);
+					invalidations++;
+				}
+				slot = newer;
+			}
+		}
+	}
+
+	public void clear() {
+		while (oldestSlot != NO_SLOT) {
+			remove(oldestSlot);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getHits() {
+		return hits;
+	}
+
+	public int getMisses() {
+		return misses;
+	}
+
+	public int getInvalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * 
+	 * @return The ratio of hits to all requests or 0 if there has not been any request.
+	 */
+	public float getHitRate() {
+		int requests = hits + misses;
+		return requests == 0 ? 0 : ((float) hits) / requests;
+	}
+
+	public void resetStatistics() {
+		hits = 0;
+		misses = 0;
+		invalidations = 0;
+	}
+
+	private void remove(int slot) {
+		setCellBits(slot, false);
+		unlinkFromUsageList(slot);
+		removeFromHashTable(slot);
+
+		paths[slot] = null;
+		freeSlots[freeSlotsCount++] = slot;
+		size--;
+		if (players[slot] != NO_PLAYER) {
+			pathsOfPlayers[players[slot] & 0xFF]--;
+			pathsWithPlayer--;
+		}
+	}
+
+	private void linkAsNewest(int slot) {
+		olderSlots[slot] = newestSlot;
+		newerSlots[slot] = NO_SLOT;
+		if (newestSlot != NO_SLOT) {
+			newerSlots[newestSlot] = slot;
+		} else {
+			oldestSlot = slot;
+		}
+		newestSlot = slot;
+	}
+
+	private void unlinkFromUsageList(int slot) {
+		int older = olderSlots[slot];
+		int newer = newerSlots[slot];
+		if (older != NO_SLOT) {
+			newerSlots[older] = newer;
+		} else {
+			oldestSlot = newer;
+		}
+		if (newer != NO_SLOT) {
+			olderSlots[newer] = older;
+		} else {
+			newestSlot = older;
+		}
+	}
+
+	private int findSlot(long key, byte player) {
+		for (int idx = getHashIndex(key, player);; idx = (idx + 1) & hashMask) {
+			int entry = hashTable[idx];
+			if (entry == 0) {
+				return NO_SLOT;
+			} else if (keys[entry - 1] == key && players[entry - 1] == player) {
+				return entry - 1;
+			}
+		}
+	}
+
+	private void insertIntoHashTable(int slot) {
+		int idx = getHashIndex(slot);
+		while (hashTable[idx] != 0) {
+			idx = (idx + 1) & hashMask;
+		}
+		hashTable[idx] = slot + 1;
+	}
+
+	/**
+	 * Removes the given slot from the hash table and moves the following entries of the probing sequence back, so that no tombstones are needed.
+	 */
+	private void removeFromHashTable(int slot) {
+		int idx = getHashIndex(slot);
+		while (hashTable[idx] != slot + 1) {
+			idx = (idx + 1) & hashMask;
+		}
+
+		int gap = idx;
+		for (idx = (idx + 1) & hashMask; hashTable[idx] != 0; idx = (idx + 1) & hashMask) {
+			int homeIdx = getHashIndex(hashTable[idx] - 1);
+			if (((idx - homeIdx) & hashMask) >= ((idx - gap) & hashMask)) { // the entry may be moved into the gap
+				hashTable[gap] = hashTable[idx];
+				gap = idx;
+			}
+		}
+		hashTable[gap] = 0;
+	}
+
+	private int getHashIndex(int slot) {
+		return getHashIndex(keys[slot], players[slot]);
+	}
+
+	private int getHashIndex(long key, byte player) {
+		long hash = (key + player) * 0x9E3779B97F4A7C15L;
+		return (int) (hash >>> 32) & hashMask;
+	}
+
+	private void setCellBits(int slot, boolean value) {
+		Path path = paths[slot];
+		int wordIdx = slot >> 6;
+		long bit = 1L << slot;
+
+		for (int i = 0; i < path.getLength(); i++) {
+			int cellIdx = getCellIndex(path.getX(i), path.getY(i));
+			long[] slotsOfCell = cellSlots[cellIdx];
+			if (value) {
+				if (slotsOfCell == null) {
+					slotsOfCell = cellSlots[cellIdx] = new long[(maxSize + 63) >> 6];
+				}
+				slotsOfCell[wordIdx] |= bit;
+			} else {
+				slotsOfCell[wordIdx] &= ~bit;
+			}
+		}
+	}
+
+	private int getCellIndex(int x, int y) {
+		return (x >> CELL_BITS) + (y >> CELL_BITS) * cellsPerRow;
+	}
+
+	private static boolean containsPosition(Path path, int x, int y) {
+		for (int i = 0; i < path.getLength(); i++) {
+			if (path.getX(i) == x && path.getY(i) == y) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long getKey(short sx, short sy, short tx, short ty) {
+		return ((long) (sx & 0xFFFF)) | ((long) (sy & 0xFFFF)) << 16 | ((long) (tx & 0xFFFF)) << 32 | ((long) (ty & 0xFFFF)) << 48;
+	}
+}
@@ -14,7 +14,7 @@
  *******************************************************************************/
 package jsettlers.algorithms.path.astar;
 
-import java.util.BitSet;
+import java.util.Arrays;
 
 import jsettlers.algorithms.path.IPathCalculatable;
 import jsettlers.algorithms.path.InvalidStartPositionException;
@@ -26,6 +26,9 @@ import jsettlers.common.position.ShortPoint2D;
 
 /**
  * AStar algorithm to find paths from A to B on a hex grid
+ * <p />
+ * The open and closed state of the nodes is stored as stamps of the current search. Therefore starting a new search does not need to clear any
+ * arrays of the size of the map.
  * 
  * @author Andreas Eberle
  * 
@@ -39,8 +42,14 @@ public final class BucketQueueAStar extends AbstractAStar {
 	private final short height;
 	private final short width;
 
-	private final BitSet openBitSet;
-	private final BitSet closedBitSet;
+	private final boolean debugColoring;
+
+	/**
+	 * A node is open if its state equals {@link #openStamp} and closed if it equals {@link #closedStamp}.
+	 */
+	private final int[] nodeStates;
+	private int openStamp = 0;
+	private int closedStamp = 1;
 
 	final float[] costs;
 
@@ -49,14 +58,27 @@ public final class BucketQueueAStar extends AbstractAStar {
 	private final AbstractBucketQueue open;
 
 	public BucketQueueAStar(IAStarPathMap map, short width, short height) {
+		this(map, width, height, false);
+	}
+
+	/**
+	 * 
+	 * @param map
+	 * @param width
+	 * @param height
+	 * @param debugColoring
+	 *            if true, {@link IAStarPathMap#markAsOpen(int, int)} and {@link IAStarPathMap#markAsClosed(int, int)} are called for every node
+	 *            opened or closed by a search.
+	 */
+	public BucketQueueAStar(IAStarPathMap map, short width, short height, boolean debugColoring) {
 		this.map = map;
+		this.debugColoring = debugColoring;
 		this.width = width;
 		this.height = height;
 
 		this.open = new ListMinBucketQueue(width * height);
 
-		this.openBitSet = new BitSet(width * height);
-		this.closedBitSet = new BitSet(width * height);
+		this.nodeStates = new int[width * height];
 		this.costs = new float[width * height];
 
 		this.depthParentHeap = new int[width * height * 2];
@@ -85,8 +107,7 @@ public final class BucketQueueAStar extends AbstractAStar {
 
 		final int targetFlatIdx = getFlatIdx(tx, ty);
 
-		closedBitSet.clear();
-		openBitSet.clear();
+		startNewSearch();
 
 		open.clear();
 		boolean found = false;
@@ -98,7 +119,7 @@ public final class BucketQueueAStar extends AbstractAStar {
 			final int x = getX(currFlatIdx);
 			final int y = getY(currFlatIdx);
 
-			setClosed(x, y);
+			setClosed(currFlatIdx, x, y);
 
 			if (targetFlatIdx == currFlatIdx) {
 				found = true;
@@ -114,10 +135,11 @@ public final class BucketQueueAStar extends AbstractAStar {
 				if (isValidPosition(requester, neighborX, neighborY, blockedAtStart)) {
 					final int flatNeighborIdx = getFlatIdx(neighborX, neighborY);
 
-					if (!closedBitSet.get(flatNeighborIdx)) {
+					final int neighborState = nodeStates[flatNeighborIdx];
+					if (neighborState != closedStamp) {
 						final float newCosts = currPositionCosts + map.getCost(x, y, neighborX, neighborY);
 
-						if (openBitSet.get(flatNeighborIdx)) {
+						if (neighborState == openStamp) {
 							final float oldCosts = costs[flatNeighborIdx];
 
 							if (oldCosts > newCosts) {
@@ -133,10 +155,12 @@ public final class BucketQueueAStar extends AbstractAStar {
 							costs[flatNeighborIdx] = newCosts;
 							depthParentHeap[getDepthIdx(flatNeighborIdx)] = depthParentHeap[getDepthIdx(currFlatIdx)] + 1;
 							depthParentHeap[getParentIdx(flatNeighborIdx)] = currFlatIdx;
-							openBitSet.set(flatNeighborIdx);
+							nodeStates[flatNeighborIdx] = openStamp;
 							open.insert(flatNeighborIdx, newCosts + getHeuristicCost(neighborX, neighborY, tx, ty));
 
-							map.markAsOpen(neighborX, neighborY);
+							if (debugColoring) {
+								map.markAsOpen(neighborX, neighborY);
+							}
 						}
 					}
 				}
@@ -170,9 +194,25 @@ public final class BucketQueueAStar extends AbstractAStar {
 		return 2 * flatIdx + 1;
 	}
 
-	private final void setClosed(int x, int y) {
-		closedBitSet.set(getFlatIdx(x, y));
-		map.markAsClosed(x, y);
+	/**
+	 * Invalidates the open and closed states of the last search by using new stamps. Only if the stamps overflow, the states need to be cleared.
+	 */
+	private final void startNewSearch() {
+		openStamp += 2;
+		closedStamp = openStamp + 1;
+
+		if (openStamp < 0 || closedStamp < 0) {
+			Arrays.fill(nodeStates, 0);
+			openStamp = 2;
+			closedStamp = 3;
+		}
+	}
+
+	private final void setClosed(int flatIdx, int x, int y) {
+		nodeStates[flatIdx] = closedStamp;
+		if (debugColoring) {
+			map.markAsClosed(x, y);
+		}
 	}
 
 	private final void initStartNode(int sx, int sy, int tx, int ty) {
@@ -182,7 +222,7 @@ public final class BucketQueueAStar extends AbstractAStar {
 		costs[flatIdx] = 0;
 
 		open.insert(flatIdx, 0 + getHeuristicCost(sx, sy, tx, ty));
-		openBitSet.set(flatIdx);
+		nodeStates[flatIdx] = openStamp;
 	}
 
 	private final boolean isValidPosition(IPathCalculatable requester, int x, int y, boolean blockedAtStart) {
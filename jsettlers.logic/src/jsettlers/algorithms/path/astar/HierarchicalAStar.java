@@ -0,0 +1,581 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar;
+
+import java.util.Arrays;
+
+import jsettlers.algorithms.partitions.IBlockingProvider;
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.common.Color;
+import jsettlers.common.movable.EDirection;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.flags.IBlockingChangedListener;
+
+/**
+ * Hierarchical pathfinder (HPA*) on top of the {@link BucketQueueAStar}.
+ * <p />
+ * The map is split into clusters of {@link #CLUSTER_SIZE} x {@link #CLUSTER_SIZE} tiles. For every run of open tiles along the border of two
+ * clusters, an entrance node is placed on both sides of the middle of every {@link #MAX_ENTRANCE_WIDTH} tiles of the run. Runs of tile pairs
+ * that can only be crossed diagonally get their own entrances. The distances between the entrance nodes of a cluster are precomputed. Long paths
+ * are found by searching this abstract graph first. Afterwards the {@link BucketQueueAStar} only searches the corridor of clusters the abstract
+ * path passes.
+ * <p />
+ * The clusters are built lazily and are marked dirty when the blocking of one of their tiles or of a tile next to them changes. A built cluster
+ * only depends on the current blocking, therefore the found paths do not depend on the order the clusters have been built in.
+ * <p />
+ * The hierarchy is only used if {@link MatchConstants#ENABLE_HIERARCHICAL_ASTAR} is enabled. Otherwise all paths are calculated by the
+ * {@link BucketQueueAStar}.
+ * <p />
+ * The abstract graph only knows the blocking provided by the {@link IBlockingProvider}. Therefore requesters that need their players ground and
+ * short paths are directly handed to the {@link BucketQueueAStar}. If no path can be found in the corridor, the full map is searched.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class HierarchicalAStar extends AbstractAStar implements IBlockingChangedListener {
+	private static final int CLUSTER_BITS = 5;
+	private static final int CLUSTER_SIZE = 1 << CLUSTER_BITS;
+	private static final int MAX_ENTRANCE_WIDTH = 8;
+	// there are at most CLUSTER_SIZE / 2 straight runs with CLUSTER_SIZE / MAX_ENTRANCE_WIDTH additional splits, CLUSTER_SIZE / 2 diagonal runs per
+	// side and the two diagonal corners
+	private static final int MAX_NODES_PER_CLUSTER = 4 * (CLUSTER_SIZE + CLUSTER_SIZE / MAX_ENTRANCE_WIDTH) + 2;
+	private static final int MIN_HIERARCHICAL_DISTANCE = 2 * CLUSTER_SIZE;
+
+	private static final byte[] xDeltaArray = EDirection.getXDeltaArray();
+	private static final byte[] yDeltaArray = EDirection.getYDeltaArray();
+
+	private final IAStarPathMap map;
+	private final IBlockingProvider blockingProvider;
+	private final short width;
+	private final short height;
+	private final int clustersPerRow;
+	private final Cluster[] clusters;
+
+	private final CorridorMap corridorMap;
+	private final BucketQueueAStar aStar;
+
+	private final int[] nodeCosts;
+	private final int[] nodeParents;
+	private final int[] nodeStamps;
+	private int searchStamp = 0;
+	private int currentTargetX;
+	private int currentTargetY;
+	private final AbstractNodeQueue open = new AbstractNodeQueue();
+
+	private final int[] bfsDistances = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+	private final int[] bfsStamps = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+	private final int[] bfsQueue = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+	private int bfsStamp = 0;
+
+	private final int[] startDistances = new int[MAX_NODES_PER_CLUSTER];
+	private final int[] targetDistances = new int[MAX_NODES_PER_CLUSTER];
+	private final int[] clusterDistances = new int[MAX_NODES_PER_CLUSTER];
+
+	public HierarchicalAStar(IAStarPathMap map, IBlockingProvider blockingProvider, short width, short height) {
+		this(map, blockingProvider, width, height, false);
+	}
+
+	/**
+	 * 
+	 * @param debugColoring
+	 *            if true, the underlying {@link BucketQueueAStar} marks the opened and closed positions on the map.
+	 */
+	public HierarchicalAStar(IAStarPathMap map, IBlockingProvider blockingProvider, short width, short height, boolean debugColoring) {
+		this.map = map;
+		this.blockingProvider = blockingProvider;
+		this.width = width;
+		this.height = height;
+
+		this.clustersPerRow = (width + CLUSTER_SIZE - 1) >> CLUSTER_BITS;
+		int clustersPerColumn = (height + CLUSTER_SIZE - 1) >> CLUSTER_BITS;
+		this.clusters = new Cluster[clustersPerRow * clustersPerColumn];
+		for (int cy = 0; cy < clustersPerColumn; cy++) {
+			for (int cx = 0; cx < clustersPerRow; cx++) {
+				int minX = cx << CLUSTER_BITS;
+				int minY = cy << CLUSTER_BITS;
+				clusters[cx + cy * clustersPerRow] = new Cluster(minX, minY, Math.min(minX + CLUSTER_SIZE, width), Math.min(minY + CLUSTER_SIZE, height));
+			}
+		}
+
+		int numberOfNodes = clusters.length * MAX_NODES_PER_CLUSTER;
+		this.nodeCosts = new int[numberOfNodes];
+		this.nodeParents = new int[numberOfNodes];
+		this.nodeStamps = new int[numberOfNodes];
+
+		this.corridorMap = new CorridorMap(map, clusters.length);
+		this.aStar = new BucketQueueAStar(corridorMap, width, height, debugColoring);
+	}
+
+	@Override
+	public void blockingChanged(int x, int y, boolean newBlockingValue) {
+		clusters[getClusterIndex(x, y)].dirty = true;
+
+		for (int i = 0; i < EDirection.NUMBER_OF_DIRECTIONS; i++) { // the entrances of neighbor clusters depend on the border tiles, too
+			int neighborX = x + xDeltaArray[i];
+			int neighborY = y + yDeltaArray[i];
+			if (isInBounds(neighborX, neighborY)) {
+				clusters[getClusterIndex(neighborX, neighborY)].dirty = true;
+			}
+		}
+	}
+
+	@Override
+	public Path findPath(IPathCalculatable requester, ShortPoint2D target) {
+		ShortPoint2D pos = requester.getPos();
+		return findPath(requester, pos.x, pos.y, target.x, target.y);
+	}
+
+	@Override
+	public Path findPath(IPathCalculatable requester, short sx, short sy, short tx, short ty) {
+		if (MatchConstants.ENABLE_HIERARCHICAL_ASTAR && useHierarchy(requester, sx, sy, tx, ty) && findCorridor(sx, sy, tx, ty)) {
+			corridorMap.enabled = true;
+			Path path = aStar.findPath(requester, sx, sy, tx, ty);
+			corridorMap.enabled = false;
+
+			if (path != null) {
+				return path;
+			}
+		}
+
+		return aStar.findPath(requester, sx, sy, tx, ty);
+	}
+
+	/**
+	 * 
+	 * @param requester
+	 * @param target
+	 * @return true if the path to the given target is searched in a corridor of the hierarchy. Otherwise it is calculated by the plain
+	 *         {@link BucketQueueAStar}.
+	 */
+	public boolean usesHierarchy(IPathCalculatable requester, ShortPoint2D target) {
+		ShortPoint2D pos = requester.getPos();
+		return MatchConstants.ENABLE_HIERARCHICAL_ASTAR && useHierarchy(requester, pos.x, pos.y, target.x, target.y);
+	}
+
+	private boolean useHierarchy(IPathCalculatable requester, short sx, short sy, short tx, short ty) {
+		return !requester.needsPlayersGround()
+				&& getHeuristicCost(sx, sy, tx, ty) >= MIN_HIERARCHICAL_DISTANCE
+				&& isInBounds(sx, sy) && isInBounds(tx, ty)
+				&& !blockingProvider.isBlocked(sx, sy) && !blockingProvider.isBlocked(tx, ty)
+				&& map.getBlockedPartition(sx, sy) == map.getBlockedPartition(tx, ty);
+	}
+
+	/**
+	 * Searches the abstract graph and marks the clusters of the found abstract path as corridor.
+	 * 
+	 * @return true if an abstract path has been found.
+	 */
+	boolean findCorridor(int sx, int sy, int tx, int ty) {
+		int startClusterIdx = getClusterIndex(sx, sy);
+		int targetClusterIdx = getClusterIndex(tx, ty);
+		Cluster startCluster = getBuiltCluster(startClusterIdx);
+		Cluster targetCluster = getBuiltCluster(targetClusterIdx);
+
+		calculateDistancesToNodes(startCluster, sx, sy, startDistances);
+		calculateDistancesToNodes(targetCluster, tx, ty, targetDistances);
+
+		searchStamp++;
+		currentTargetX = tx;
+		currentTargetY = ty;
+		open.clear();
+
+		for (int i = 0; i < startCluster.nodeCount; i++) {
+			if (startDistances[i] >= 0) {
+				relax(startClusterIdx * MAX_NODES_PER_CLUSTER + i, startCluster.nodeTiles[i], startDistances[i], -1, tx, ty);
+			}
+		}
+
+		int bestCosts = Integer.MAX_VALUE;
+		int bestNode = -1;
+
+		while (!open.isEmpty()) {
+			int node = open.popMin();
+			int clusterIdx = node / MAX_NODES_PER_CLUSTER;
+			int localNode = node % MAX_NODES_PER_CLUSTER;
+			Cluster cluster = clusters[clusterIdx];
+			int costs = nodeCosts[node];
+
+			if (costs + getHeuristicCost(cluster.nodeTiles[localNode], tx, ty) >= bestCosts) {
+				break; // no better path can be found anymore
+			}
+
+			if (clusterIdx == targetClusterIdx && targetDistances[localNode] >= 0 && costs + targetDistances[localNode] < bestCosts) {
+				bestCosts = costs + targetDistances[localNode];
+				bestNode = node;
+			}
+
+			for (int i = 0; i < cluster.nodeCount; i++) { // edges inside the cluster
+				int distance = cluster.distances[localNode * cluster.nodeCount + i];
+				if (distance >= 0 && i != localNode) { // several nodes can share the same tile
+					relax(clusterIdx * MAX_NODES_PER_CLUSTER + i, cluster.nodeTiles[i], costs + distance, node, tx, ty);
+				}
+			}
+
+			int partnerTile = cluster.partnerTiles[localNode]; // edge to the neighbor cluster
+			int partnerClusterIdx = getClusterIndex(partnerTile % width, partnerTile / width);
+			Cluster partnerCluster = getBuiltCluster(partnerClusterIdx);
+			int partnerNode = partnerCluster.getNode(partnerTile, cluster.nodeTiles[localNode]);
+			if (partnerNode >= 0) {
+				relax(partnerClusterIdx * MAX_NODES_PER_CLUSTER + partnerNode, partnerTile, costs + 1, node, tx, ty);
+			}
+		}
+
+		if (bestNode < 0) {
+			return false;
+		}
+
+		corridorMap.startCorridor();
+		corridorMap.addCluster(startClusterIdx);
+		corridorMap.addCluster(targetClusterIdx);
+		for (int node = bestNode; node >= 0; node = nodeParents[node]) {
+			corridorMap.addCluster(node / MAX_NODES_PER_CLUSTER);
+		}
+		return true;
+	}
+
+	private void relax(int node, int tile, int costs, int parent, int tx, int ty) {
+		if (nodeStamps[node] != searchStamp || costs < nodeCosts[node]) {
+			nodeStamps[node] = searchStamp;
+			nodeCosts[node] = costs;
+			nodeParents[node] = parent;
+			open.insert(node, costs + getHeuristicCost(tile, tx, ty));
+		}
+	}
+
+	private Cluster getBuiltCluster(int clusterIdx) {
+		Cluster cluster = clusters[clusterIdx];
+		if (cluster.dirty) {
+			buildCluster(cluster);
+		}
+		return cluster;
+	}
+
+	private void buildCluster(Cluster cluster) {
+		cluster.nodeCount = 0;
+
+		int clusterWidth = cluster.maxX - cluster.minX;
+		int clusterHeight = cluster.maxY - cluster.minY;
+
+		// The diagonal runs of both clusters of a border cover the same tile pairs. The pair crossing the corner belongs to the diagonal neighbor.
+		if (cluster.minX > 0) { // left border
+			addEntrances(cluster, cluster.minX, cluster.minY, 0, 1, clusterHeight, -1, 0);
+			addEntrances(cluster, cluster.minX, cluster.minY + 1, 0, 1, clusterHeight - 1, -1, -1);
+		}
+		if (cluster.maxX < width) { // right border
+			addEntrances(cluster, cluster.maxX - 1, cluster.minY, 0, 1, clusterHeight, 1, 0);
+			addEntrances(cluster, cluster.maxX - 1, cluster.minY, 0, 1, clusterHeight - 1, 1, 1);
+		}
+		if (cluster.minY > 0) { // top border
+			addEntrances(cluster, cluster.minX, cluster.minY, 1, 0, clusterWidth, 0, -1);
+			addEntrances(cluster, cluster.minX + 1, cluster.minY, 1, 0, clusterWidth - 1, -1, -1);
+		}
+		if (cluster.maxY < height) { // bottom border
+			addEntrances(cluster, cluster.minX, cluster.maxY - 1, 1, 0, clusterWidth, 0, 1);
+			addEntrances(cluster, cluster.minX, cluster.maxY - 1, 1, 0, clusterWidth - 1, 1, 1);
+		}
+		if (cluster.minX > 0 && cluster.minY > 0) { // top left corner
+			addEntrances(cluster, cluster.minX, cluster.minY, 0, 0, 1, -1, -1);
+		}
+		if (cluster.maxX < width && cluster.maxY < height) { // bottom right corner
+			addEntrances(cluster, cluster.maxX - 1, cluster.maxY - 1, 0, 0, 1, 1, 1);
+		}
+
+		int nodeCount = cluster.nodeCount;
+		if (cluster.distances.length < nodeCount * nodeCount) {
+			cluster.distances = new int[nodeCount * nodeCount];
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			int tile = cluster.nodeTiles[i];
+			calculateDistancesToNodes(cluster, tile % width, tile / width, clusterDistances);
+			System.arraycopy(clusterDistances, 0, cluster.distances, i * nodeCount, nodeCount);
+		}
+
+		cluster.dirty = false;
+	}
+
+	/**
+	 * Adds an entrance node for every {@link #MAX_ENTRANCE_WIDTH} tiles of the runs of open tile pairs along one border of the given cluster. Diagonal pairs are only open if they can't be
+	 * crossed by two straight steps, because the straight entrances already connect them otherwise.
+	 */
+	private void addEntrances(Cluster cluster, int startX, int startY, int stepX, int stepY, int length, int partnerDx, int partnerDy) {
+		int runStart = -1;
+		for (int i = 0; i <= length; i++) {
+			int x = startX + i * stepX;
+			int y = startY + i * stepY;
+			boolean open = i < length && !blockingProvider.isBlocked(x, y) && !blockingProvider.isBlocked(x + partnerDx, y + partnerDy);
+			if (open && partnerDx != 0 && partnerDy != 0) {
+				open = blockingProvider.isBlocked(x + partnerDx, y) && blockingProvider.isBlocked(x, y + partnerDy);
+			}
+
+			if (open && runStart < 0) {
+				runStart = i;
+			} else if (!open && runStart >= 0) {
+				for (int entranceStart = runStart; entranceStart < i; entranceStart += MAX_ENTRANCE_WIDTH) {
+					int middle = (entranceStart + Math.min(entranceStart + MAX_ENTRANCE_WIDTH, i) - 1) / 2;
+					int nodeX = startX + middle * stepX;
+					int nodeY = startY + middle * stepY;
+					cluster.addNode(nodeX + nodeY * width, nodeX + partnerDx + (nodeY + partnerDy) * width);
+				}
+				runStart = -1;
+			}
+		}
+	}
+
+	/**
+	 * Calculates the walking distances from the given position to all nodes of the given cluster without leaving the cluster.
+	 * 
+	 * @param distances
+	 *            Array receiving the distance of every node. Unreachable nodes get -1.
+	 */
+	private void calculateDistancesToNodes(Cluster cluster, int x, int y, int[] distances) {
+		bfsStamp++;
+		int clusterWidth = cluster.maxX - cluster.minX;
+		int clusterHeight = cluster.maxY - cluster.minY;
+
+		int startIdx = (x - cluster.minX) + (y - cluster.minY) * CLUSTER_SIZE;
+		bfsStamps[startIdx] = bfsStamp;
+		bfsDistances[startIdx] = 0;
+		bfsQueue[0] = startIdx;
+		int queueStart = 0;
+		int queueEnd = 1;
+
+		while (queueStart < queueEnd) {
+			int idx = bfsQueue[queueStart++];
+			int localX = idx % CLUSTER_SIZE;
+			int localY = idx / CLUSTER_SIZE;
+
+			for (int i = 0; i < EDirection.NUMBER_OF_DIRECTIONS; i++) {
+				int neighborX = localX + xDeltaArray[i];
+				int neighborY = localY + yDeltaArray[i];
+
+				if (neighborX >= 0 && neighborX < clusterWidth && neighborY >= 0 && neighborY < clusterHeight) {
+					int neighborIdx = neighborX + neighborY * CLUSTER_SIZE;
+					if (bfsStamps[neighborIdx] != bfsStamp && !blockingProvider.isBlocked(neighborX + cluster.minX, neighborY + cluster.minY)) {
+						bfsStamps[neighborIdx] = bfsStamp;
+						bfsDistances[neighborIdx] = bfsDistances[idx] + 1;
+						bfsQueue[queueEnd++] = neighborIdx;
+					}
+				}
+			}
+		}
+
+		for (int i = 0; i < cluster.nodeCount; i++) {
+			int tile = cluster.nodeTiles[i];
+			int localIdx = (tile % width - cluster.minX) + (tile / width - cluster.minY) * CLUSTER_SIZE;
+			distances[i] = bfsStamps[localIdx] == bfsStamp ? bfsDistances[localIdx] : -1;
+		}
+	}
+
+	private int getClusterIndex(int x, int y) {
+		return (x >> CLUSTER_BITS) + (y >> CLUSTER_BITS) * clustersPerRow;
+	}
+
+	private boolean isInBounds(int x, int y) {
+		return 0 <= x && x < width && 0 <= y && y < height;
+	}
+
+	private int getHeuristicCost(int tile, int tx, int ty) {
+		return getHeuristicCost(tile % width, tile / width, tx, ty);
+	}
+
+	private static int getHeuristicCost(int sx, int sy, int tx, int ty) {
+		final int dx = (tx - sx);
+		final int dy = (ty - sy);
+		final int absDx = Math.abs(dx);
+		final int absDy = Math.abs(dy);
+
+		if (dx * dy > 0) { // dx and dy go in the same direction
+			return Math.max(absDx, absDy);
+		} else {
+			return absDx + absDy;
+		}
+	}
+
+	/**
+	 * A cluster of the map with its entrance nodes and the distances between them.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private static final class Cluster {
+		final int minX;
+		final int minY;
+		final int maxX;
+		final int maxY;
+
+		boolean dirty = true;
+		int nodeCount;
+		final int[] nodeTiles = new int[MAX_NODES_PER_CLUSTER];
+		final int[] partnerTiles = new int[MAX_NODES_PER_CLUSTER];
+		int[] distances = new int[0];
+
+		Cluster(int minX, int minY, int maxX, int maxY) {
+			this.minX = minX;
+			this.minY = minY;
+			this.maxX = maxX;
+			this.maxY = maxY;
+		}
+
+		void addNode(int tile, int partnerTile) {
+			nodeTiles[nodeCount] = tile;
+			partnerTiles[nodeCount] = partnerTile;
+			nodeCount++;
+		}
+
+		int getNode(int tile, int partnerTile) {
+			for (int i = 0; i < nodeCount; i++) {
+				if (nodeTiles[i] == tile && partnerTiles[i] == partnerTile) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * {@link IAStarPathMap} that blocks all tiles outside of the current corridor, if it is enabled.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private final class CorridorMap implements IAStarPathMap {
+		private final IAStarPathMap map;
+		private final int[] corridorStamps;
+		private int corridorStamp = 0;
+		boolean enabled = false;
+
+		CorridorMap(IAStarPathMap map, int numberOfClusters) {
+			this.map = map;
+			this.corridorStamps = new int[numberOfClusters];
+		}
+
+		void startCorridor() {
+			corridorStamp++;
+		}
+
+		void addCluster(int clusterIdx) {
+			corridorStamps[clusterIdx] = corridorStamp;
+		}
+
+		@Override
+		public boolean isBlocked(IPathCalculatable requester, int x, int y) {
+			return (enabled && corridorStamps[getClusterIndex(x, y)] != corridorStamp) || map.isBlocked(requester, x, y);
+		}
+
+		@Override
+		public float getCost(int sx, int sy, int tx, int ty) {
+			return map.getCost(sx, sy, tx, ty);
+		}
+
+		@Override
+		public void markAsOpen(int x, int y) {
+			map.markAsOpen(x, y);
+		}
+
+		@Override
+		public void markAsClosed(int x, int y) {
+			map.markAsClosed(x, y);
+		}
+
+		@Override
+		public void setDebugColor(int x, int y, Color color) {
+			map.setDebugColor(x, y, color);
+		}
+
+		@Override
+		public short getBlockedPartition(int x, int y) {
+			return map.getBlockedPartition(x, y);
+		}
+	}
+
+	/**
+	 * Binary min heap of abstract nodes. Outdated entries are not removed but skipped when they are popped.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private final class AbstractNodeQueue {
+		private long[] heap = new long[256];
+		private int size = 0;
+
+		void clear() {
+			size = 0;
+		}
+
+		boolean isEmpty() {
+			skipOutdated();
+			return size == 0;
+		}
+
+		void insert(int node, int priority) {
+			if (size >= heap.length) {
+				heap = Arrays.copyOf(heap, heap.length * 2);
+			}
+			long entry = ((long) priority << 32) | node;
+			int idx = size++;
+			while (idx > 0) {
+				int parent = (idx - 1) / 2;
+				if (heap[parent] <= entry) {
+					break;
+				}
+				heap[idx] = heap[parent];
+				idx = parent;
+			}
+			heap[idx] = entry;
+		}
+
+		int popMin() {
+			skipOutdated();
+			int node = (int) heap[0];
+			removeFirst();
+			return node;
+		}
+
+		private void skipOutdated() {
+			while (size > 0) {
+				long entry = heap[0];
+				int node = (int) entry;
+				int priority = (int) (entry >>> 32);
+				int tile = clusters[node / MAX_NODES_PER_CLUSTER].nodeTiles[node % MAX_NODES_PER_CLUSTER];
+				if (priority == nodeCosts[node] + getHeuristicCost(tile, currentTargetX, currentTargetY)) {
+					return;
+				}
+				removeFirst();
+			}
+		}
+
+		private void removeFirst() {
+			long last = heap[--size];
+			int idx = 0;
+			while (true) {
+				int child = 2 * idx + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && heap[child + 1] < heap[child]) {
+					child++;
+				}
+				if (heap[child] >= last) {
+					break;
+				}
+				heap[idx] = heap[child];
+				idx = child;
+			}
+			heap[idx] = last;
+		}
+	}
+}
@@ -15,6 +15,7 @@
 package jsettlers.algorithms.path.dijkstra;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import jsettlers.algorithms.path.IPathCalculatable;
 import jsettlers.algorithms.path.InvalidStartPositionException;
@@ -22,10 +23,17 @@ import jsettlers.algorithms.path.Path;
 import jsettlers.algorithms.path.astar.AbstractAStar;
 import jsettlers.common.map.shapes.MapCircle;
 import jsettlers.common.material.ESearchType;
+import jsettlers.common.movable.EDirection;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
 
 /**
  * this class implements a strict dijkstra algorithm
+ * <p />
+ * If {@link MatchConstants#ENABLE_MULTI_TARGET_DIJKSTRA} is enabled for the match,
+ * {@link #find(IPathCalculatable, short, short, short, short, ESearchType)} expands once from the requester's position and returns the path to the
+ * nearest position fitting the search type. Otherwise, the positions are probed ring by ring around the center and an A* is started for every
+ * fitting position.
  * 
  * @author Andreas Eberle
  * 
@@ -34,11 +42,18 @@ public final class DijkstraAlgorithm {
 	private static final byte[] directionIncreaseX = { -1, 0, 1, 1, 0, -1 };
 	private static final byte[] directionIncreaseY = { 0, 1, 1, 0, -1, -1 };
 	private static final float MAX_RADIUS_MULTIPLIER = 1f / MapCircle.Y_SCALE;
+	private static final byte[] xDeltaArray = EDirection.getXDeltaArray();
+	private static final byte[] yDeltaArray = EDirection.getYDeltaArray();
 
 	private final IDijkstraPathMap map;
 	private final short height, width;
 	private final AbstractAStar aStar;
 
+	private int[] searchStamps; // the arrays of the multi target search are created with its first use
+	private int[] parents;
+	private int[] queue;
+	private int searchStamp = 0;
+
 	public DijkstraAlgorithm(IDijkstraPathMap map, AbstractAStar aStar, short width, short height) {
 		this.map = map;
 		this.aStar = aStar;
@@ -48,10 +63,27 @@ public final class DijkstraAlgorithm {
 
 	public final Path find(final IPathCalculatable requester, final short cX, final short cY, final short minRadius, final short maxRadius,
 			final ESearchType type) {
+		return find(requester, cX, cY, minRadius, maxRadius, type, MatchConstants.ENABLE_MULTI_TARGET_DIJKSTRA);
+	}
+
+	/**
+	 * 
+	 * @param multiTargetSearch
+	 *            if true, searches with a center are done with one search expanding from the requester instead of an A* for every fitting position.
+	 */
+	public final Path find(final IPathCalculatable requester, final short cX, final short cY, final short minRadius, final short maxRadius,
+			final ESearchType type, boolean multiTargetSearch) {
 		if (!isInBounds(cX, cY)) {
 			throw new InvalidStartPositionException("dijkstra center position is not in bounds!", cX, cY);
 		}
 
+		if (multiTargetSearch) {
+			ShortPoint2D pos = requester.getPos();
+			if (ShortPoint2D.getOnGridDist(pos.x - cX, pos.y - cY) <= getSearchAreaRadius(maxRadius)) {
+				return findNearest(requester, pos.x, pos.y, cX, cY, minRadius, maxRadius, type);
+			}
+		}
+
 		// check center position (special case for minRadius <= 0
 		if (minRadius <= 0) {
 			map.setDijkstraSearched(cX, cY);
@@ -85,15 +117,105 @@ public final class DijkstraAlgorithm {
 		return null;
 	}
 
-	private final Path findPathTo(IPathCalculatable requester, short tx, short ty) {
-		ShortPoint2D pos = requester.getPos();
-		return aStar.findPath(requester, pos.x, pos.y, tx, ty);
+	/**
+	 * Expands from the requester's position in order of the walking distance and returns the path to the first position with a distance to the
+	 * center in [minRadius, maxRadius) that fits the search type. As all steps have the same costs, the bucket queue degenerates to a FIFO queue.
+	 * <p />
+	 * The expansion is limited to {@link #getSearchAreaRadius(short)} around the center, so unreachable targets don't cause a search of the whole
+	 * map.
+	 */
+	private final Path findNearest(IPathCalculatable requester, short sx, short sy, short cX, short cY, short minRadius, short maxRadius,
+			ESearchType type) {
+		final boolean blockedAtStart = map.isBlocked(requester, sx, sy);
+		final short startPartition = map.getBlockedPartition(sx, sy);
+		final int searchAreaRadius = getSearchAreaRadius(maxRadius);
+
+		startNewSearch();
+
+		int startIdx = getFlatIdx(sx, sy);
+		searchStamps[startIdx] = searchStamp;
+		parents[startIdx] = -1;
+		queue[0] = startIdx;
+		int queueStart = 0;
+		int queueEnd = 1;
+
+		while (queueStart < queueEnd) {
+			int currIdx = queue[queueStart++];
+			int x = currIdx % width;
+			int y = currIdx / width;
+
+			int distanceToCenter = ShortPoint2D.getOnGridDist(x - cX, y - cY);
+			if (currIdx != startIdx && minRadius <= distanceToCenter && distanceToCenter < maxRadius) {
+				map.setDijkstraSearched(x, y);
+				if (map.fitsSearchType(x, y, type, requester) && !map.isBlocked(requester, x, y) && map.getBlockedPartition(x, y) == startPartition) {
+					return createPath(currIdx);
+				}
+			}
+
+			for (int i = 0; i < EDirection.NUMBER_OF_DIRECTIONS; i++) {
+				int neighborX = x + xDeltaArray[i];
+				int neighborY = y + yDeltaArray[i];
+
+				if (isInBounds(neighborX, neighborY) && ShortPoint2D.getOnGridDist(neighborX - cX, neighborY - cY) <= searchAreaRadius) {
+					int neighborIdx = getFlatIdx(neighborX, neighborY);
+					if (searchStamps[neighborIdx] != searchStamp && (blockedAtStart || !map.isBlocked(requester, neighborX, neighborY))) {
+						searchStamps[neighborIdx] = searchStamp;
+						parents[neighborIdx] = currIdx;
+						queue[queueEnd++] = neighborIdx;
+					}
+				}
+			}
+		}
+
+		return null;
 	}
 
-	private final boolean isInBounds(short x, short y) {
+	private final Path createPath(int targetIdx) {
+		int length = 0;
+		for (int idx = targetIdx; parents[idx] >= 0; idx = parents[idx]) {
+			length++;
+		}
+
+		Path path = new Path(length);
+		int idx = targetIdx;
+		for (int i = length - 1; i >= 0; i--) {
+			path.insertAt(i, (short) (idx % width), (short) (idx / width));
+			idx = parents[idx];
+		}
+		return path;
+	}
+
+	private final void startNewSearch() {
+		if (searchStamps == null) {
+			searchStamps = new int[width * height];
+			parents = new int[width * height];
+			queue = new int[width * height];
+		}
+
+		searchStamp++;
+		if (searchStamp < 0) {
+			Arrays.fill(searchStamps, 0);
+			searchStamp = 1;
+		}
+	}
+
+	private static int getSearchAreaRadius(short maxRadius) {
+		return 2 * maxRadius;
+	}
+
+	private final int getFlatIdx(int x, int y) {
+		return y * width + x;
+	}
+
+	private final boolean isInBounds(int x, int y) {
 		return 0 <= x && x < width && 0 <= y && y < height;
 	}
 
+	private final Path findPathTo(IPathCalculatable requester, short tx, short ty) {
+		ShortPoint2D pos = requester.getPos();
+		return aStar.findPath(requester, pos.x, pos.y, tx, ty);
+	}
+
 	public final static class DijkstraContinuableRequest implements Serializable {
 		private static final long serialVersionUID = -1350601280043056439L;
 
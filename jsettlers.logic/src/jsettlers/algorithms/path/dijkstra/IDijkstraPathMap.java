@@ -23,4 +23,8 @@ public interface IDijkstraPathMap {
 
 	void setDijkstraSearched(int x, int y);
 
+	boolean isBlocked(IPathCalculatable requester, int x, int y);
+
+	short getBlockedPartition(int x, int y);
+
 }
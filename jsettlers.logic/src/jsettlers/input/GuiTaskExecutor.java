@@ -141,22 +141,7 @@ public class GuiTaskExecutor implements ITaskExecutor {
 
 	private void save() {
 		try {
-			byte numberOfPlayers = grid.getNumberOfPlayers();
-			PlayerState[] playerStates = new PlayerState[numberOfPlayers];
-			for (byte playerId = 0; playerId < numberOfPlayers; playerId++) {
-				// find a tower of the player
-				UIState uiState = null;
-				for (Building building : Building.getAllBuildings()) {
-					if (building.getPlayer().playerId == playerId && building instanceof OccupyingBuilding) {
-						uiState = new UIState(building.getPos());
-						break;
-					}
-				}
-
-				playerStates[playerId] = new PlayerState(playerId, uiState);
-			}
-			playerStates[playerId] = new PlayerState(this.playerId, guiInterface.getUIState(), grid.getFogOfWar());
-			grid.save(playerStates);
+			grid.save(createPlayerStates(grid, playerId, guiInterface.getUIState()));
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
@@ -166,6 +151,38 @@ public class GuiTaskExecutor implements ITaskExecutor {
 		}
 	}
 
+	/**
+	 * Creates the {@link PlayerState}s to be saved with a savegame. The other players' screens are centered on one of their towers.
+	 * 
+	 * @param grid
+	 * @param playerId
+	 *            The id of the local player.
+	 * @param uiState
+	 *            The {@link UIState} of the local player. If it is null, the local player's screen is centered on one of its towers, too.
+	 * @return
+	 */
+	public static PlayerState[] createPlayerStates(IGuiInputGrid grid, byte playerId, UIState uiState) {
+		byte numberOfPlayers = grid.getNumberOfPlayers();
+		PlayerState[] playerStates = new PlayerState[numberOfPlayers];
+		for (byte currPlayerId = 0; currPlayerId < numberOfPlayers; currPlayerId++) {
+			// find a tower of the player
+			UIState towerUiState = null;
+			for (Building building : Building.getAllBuildings()) {
+				if (building.getPlayer().playerId == currPlayerId && building instanceof OccupyingBuilding) {
+					towerUiState = new UIState(building.getPos());
+					break;
+				}
+			}
+
+			if (currPlayerId == playerId) {
+				playerStates[currPlayerId] = new PlayerState(currPlayerId, uiState != null ? uiState : towerUiState, grid.getFogOfWar());
+			} else {
+				playerStates[currPlayerId] = new PlayerState(currPlayerId, towerUiState);
+			}
+		}
+		return playerStates;
+	}
+
 	private void setBuildingPriority(SetBuildingPriorityGuiTask guiTask) {
 		ShortPoint2D pos = guiTask.getBuildingPosition();
 		Building building = ((Building) grid.getBuildingAt(pos.x, pos.y));
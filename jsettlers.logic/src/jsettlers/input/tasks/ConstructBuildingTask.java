@@ -20,6 +20,7 @@ import java.io.IOException;
 
 import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.network.infrastructure.utils.VarIntUtils;
 
 /**
  * 
@@ -62,6 +63,20 @@ public class ConstructBuildingTask extends SimpleGuiTask {
 		type = EBuildingType.values[dis.readInt()];
 	}
 
+	@Override
+	protected void serializeTaskCompact(DataOutputStream dos) throws IOException {
+		serializeGuiTaskCompact(dos);
+		SimpleGuiTask.serializePositionCompact(dos, position);
+		VarIntUtils.writeVarInt(dos, type.ordinal);
+	}
+
+	@Override
+	protected void deserializeTaskCompact(DataInputStream dis) throws IOException {
+		deserializeGuiTaskCompact(dis);
+		position = SimpleGuiTask.deserializePositionCompact(dis);
+		type = EBuildingType.values[VarIntUtils.readVarInt(dis)];
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
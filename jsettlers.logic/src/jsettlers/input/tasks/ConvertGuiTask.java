@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.List;
 
 import jsettlers.common.movable.EMovableType;
+import jsettlers.network.infrastructure.utils.VarIntUtils;
 
 /**
  * 
@@ -53,6 +54,18 @@ public class ConvertGuiTask extends MovableGuiTask {
 		targetType = EMovableType.values[dis.readInt()];
 	}
 
+	@Override
+	protected void serializeTaskCompact(DataOutputStream dos) throws IOException {
+		super.serializeTaskCompact(dos);
+		VarIntUtils.writeVarInt(dos, targetType.ordinal());
+	}
+
+	@Override
+	protected void deserializeTaskCompact(DataInputStream dis) throws IOException {
+		super.deserializeTaskCompact(dis);
+		targetType = EMovableType.values[VarIntUtils.readVarInt(dis)];
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
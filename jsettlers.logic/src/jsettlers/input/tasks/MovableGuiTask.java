@@ -20,7 +20,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import jsettlers.network.infrastructure.utils.VarIntUtils;
+
 /**
+ * A {@link SimpleGuiTask} for a selection of movables.
+ * <p />
+ * NOTE: Subclasses adding fields must also override {@link #serializeTaskCompact(DataOutputStream)} and
+ * {@link #deserializeTaskCompact(DataInputStream)}.
  * 
  * @author Andreas Eberle
  * 
@@ -61,6 +67,31 @@ public class MovableGuiTask extends SimpleGuiTask {
 		}
 	}
 
+	@Override
+	protected void serializeTaskCompact(DataOutputStream dos) throws IOException {
+		serializeGuiTaskCompact(dos);
+
+		VarIntUtils.writeVarInt(dos, selection.size());
+		int lastId = 0;
+		for (Integer curr : selection) { // ids of a selection are usually close to each other
+			VarIntUtils.writeSignedVarInt(dos, curr - lastId);
+			lastId = curr;
+		}
+	}
+
+	@Override
+	protected void deserializeTaskCompact(DataInputStream dis) throws IOException {
+		deserializeGuiTaskCompact(dis);
+
+		int numberOfElements = VarIntUtils.readVarInt(dis);
+		selection = new ArrayList<Integer>(numberOfElements);
+		int lastId = 0;
+		for (int i = 0; i < numberOfElements; i++) {
+			lastId += VarIntUtils.readSignedVarInt(dis);
+			selection.add(lastId);
+		}
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
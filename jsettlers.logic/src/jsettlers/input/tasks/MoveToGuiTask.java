@@ -53,6 +53,18 @@ public class MoveToGuiTask extends MovableGuiTask {
 		position = SimpleGuiTask.deserializePosition(dis);
 	}
 
+	@Override
+	protected void serializeTaskCompact(DataOutputStream dos) throws IOException {
+		super.serializeTaskCompact(dos);
+		SimpleGuiTask.serializePositionCompact(dos, position);
+	}
+
+	@Override
+	protected void deserializeTaskCompact(DataInputStream dis) throws IOException {
+		super.deserializeTaskCompact(dis);
+		position = SimpleGuiTask.deserializePositionCompact(dis);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -20,6 +20,7 @@ import java.io.IOException;
 
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.network.client.task.packets.TaskPacket;
+import jsettlers.network.infrastructure.utils.VarIntUtils;
 
 /**
  * 
@@ -83,6 +84,23 @@ public class SimpleGuiTask extends TaskPacket {
 		return true;
 	}
 
+	/**
+	 * Writes the fields of this class with the compact encoding. This is not done in {@link #serializeTaskCompact(DataOutputStream)}, because
+	 * subclasses not supporting the compact encoding would lose their fields.
+	 * 
+	 * @param dos
+	 * @throws IOException
+	 */
+	protected void serializeGuiTaskCompact(DataOutputStream dos) throws IOException {
+		VarIntUtils.writeVarInt(dos, guiAction.ordinal());
+		dos.writeByte(playerId);
+	}
+
+	protected void deserializeGuiTaskCompact(DataInputStream dis) throws IOException {
+		guiAction = EGuiAction.values[VarIntUtils.readVarInt(dis)];
+		playerId = dis.readByte();
+	}
+
 	public static void serializePosition(DataOutputStream dos, ShortPoint2D position) throws IOException {
 		dos.writeShort(position.x);
 		dos.writeShort(position.y);
@@ -92,6 +110,32 @@ public class SimpleGuiTask extends TaskPacket {
 		return new ShortPoint2D(dis.readShort(), dis.readShort());
 	}
 
+	public static void serializePositionCompact(DataOutputStream dos, ShortPoint2D position) throws IOException {
+		VarIntUtils.writeSignedVarInt(dos, position.x);
+		VarIntUtils.writeSignedVarInt(dos, position.y);
+	}
+
+	public static ShortPoint2D deserializePositionCompact(DataInputStream dis) throws IOException {
+		return new ShortPoint2D(VarIntUtils.readSignedVarInt(dis), VarIntUtils.readSignedVarInt(dis));
+	}
+
+	/**
+	 * Writes the given position as difference to the reference position. This needs only one or two bytes for positions near the reference.
+	 * 
+	 * @param dos
+	 * @param position
+	 * @param reference
+	 * @throws IOException
+	 */
+	public static void serializePositionDelta(DataOutputStream dos, ShortPoint2D position, ShortPoint2D reference) throws IOException {
+		VarIntUtils.writeSignedVarInt(dos, position.x - reference.x);
+		VarIntUtils.writeSignedVarInt(dos, position.y - reference.y);
+	}
+
+	public static ShortPoint2D deserializePositionDelta(DataInputStream dis, ShortPoint2D reference) throws IOException {
+		return new ShortPoint2D(reference.x + VarIntUtils.readSignedVarInt(dis), reference.y + VarIntUtils.readSignedVarInt(dis));
+	}
+
 	@Override
 	public String toString() {
 		return "SimpleGuiTask: " + guiAction + " playerId: " + playerId;
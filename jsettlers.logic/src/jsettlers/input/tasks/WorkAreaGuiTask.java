@@ -67,6 +67,20 @@ public class WorkAreaGuiTask extends SimpleGuiTask {
 		buildingPos = SimpleGuiTask.deserializePosition(dis);
 	}
 
+	@Override
+	protected void serializeTaskCompact(DataOutputStream dos) throws IOException {
+		serializeGuiTaskCompact(dos);
+		SimpleGuiTask.serializePositionCompact(dos, buildingPos);
+		SimpleGuiTask.serializePositionDelta(dos, workAreaPosition, buildingPos); // the work area is near the building
+	}
+
+	@Override
+	protected void deserializeTaskCompact(DataInputStream dis) throws IOException {
+		deserializeGuiTaskCompact(dis);
+		buildingPos = SimpleGuiTask.deserializePositionCompact(dis);
+		workAreaPosition = SimpleGuiTask.deserializePositionDelta(dis, buildingPos);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -57,6 +57,7 @@ import jsettlers.logic.player.Player;
 import jsettlers.logic.stack.RequestStack;
 import jsettlers.logic.timer.IScheduledTimerable;
 import jsettlers.logic.timer.RescheduleTimer;
+import jsettlers.logic.timer.ScheduledTimerableEntry;
 
 public abstract class Building extends AbstractHexMapObject implements IConstructableBuilding, IPlayerable, IBuilding, IScheduledTimerable,
 		IDebugable, IDiggerRequester, IViewDistancable {
@@ -94,6 +95,7 @@ public abstract class Building extends AbstractHexMapObject implements IConstruc
 
 	private short remainingMaterialActions = 0;
 	private List<RequestStack> stacks;
+	private ScheduledTimerableEntry timerEntry;
 
 	private transient boolean selected;
 
@@ -139,7 +141,7 @@ public abstract class Building extends AbstractHexMapObject implements IConstruc
 				placeAdditionalMapObjects(grid, pos, true);
 
 				this.state = STATE_IN_FLATTERNING;
-				RescheduleTimer.add(this, IS_FLATTENED_RECHECK_PERIOD);
+				timerEntry = RescheduleTimer.add(this, IS_FLATTENED_RECHECK_PERIOD);
 
 				requestDiggers();
 			}
@@ -372,7 +374,7 @@ public abstract class Building extends AbstractHexMapObject implements IConstruc
 					finishConstruction();
 				} else {
 					state = STATE_WAITING_FOR_MATERIAL;
-					RescheduleTimer.add(this, WAITING_FOR_MATERIAL_PERIOD);
+					timerEntry = RescheduleTimer.add(this, WAITING_FOR_MATERIAL_PERIOD);
 				}
 				return false;
 			}
@@ -408,7 +410,7 @@ public abstract class Building extends AbstractHexMapObject implements IConstruc
 			stacks = new LinkedList<>(); // create a new stacks list
 		}
 		int timerPeriod = constructionFinishedEvent();
-		RescheduleTimer.add(this, timerPeriod);
+		timerEntry = RescheduleTimer.add(this, timerPeriod);
 	}
 
 	protected abstract int constructionFinishedEvent();
@@ -458,6 +460,7 @@ public abstract class Building extends AbstractHexMapObject implements IConstruc
 		placeReusableMaterials();
 		releaseRequestStacks();
 		this.state = STATE_DESTROYED;
+		RescheduleTimer.cancel(timerEntry);
 
 		killedEvent();
 	}
@@ -24,6 +24,24 @@ public final class Constants {
 
 	public static boolean FOG_OF_WAR_DEFAULT_ENABLED = true;
 
+	/**
+	 * if true, the fog of war only updates the view circles of objects that moved or changed their view distance, instead of rebuilding the whole
+	 * sight in every cycle.
+	 */
+	public static boolean FOG_OF_WAR_INCREMENTAL_UPDATES = false;
+
+	/**
+	 * if true, quick saves only serialize the game state into memory while the game is paused. Compressing and writing it to disk is done by a
+	 * background thread while the game continues. The written savegames are compressed, so they differ from the savegames of the synchronous save.
+	 */
+	public static boolean ASYNCHRONOUS_SAVE = false;
+
+	/**
+	 * Number of delta savegames written after every complete checkpoint savegame by asynchronous saves. A delta savegame can only be loaded as long as
+	 * its checkpoint exists. 0 disables delta savegames.
+	 */
+	public static int DELTA_SAVES_PER_CHECKPOINT = 0;
+
 	/**
 	 * private constructor, because no instances of this class can be created.
 	 */
@@ -32,6 +50,11 @@ public final class Constants {
 
 	public static final float TILE_PATHFINDER_COST = 1.0f;
 
+	/**
+	 * if true, the A* of the map marks the opened and closed positions of every search with debug colors.
+	 */
+	public static final boolean PATHFINDER_DEBUG_COLORING = false;
+
 	public static final byte STACK_SIZE = 8;
 
 	public static final short WIDTH = 400;
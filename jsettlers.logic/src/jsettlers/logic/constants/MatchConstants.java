@@ -14,6 +14,7 @@
  *******************************************************************************/
 package jsettlers.logic.constants;
 
+import jsettlers.network.NetworkConstants.SimulationFlags;
 import jsettlers.network.client.interfaces.IGameClock;
 
 /**
@@ -38,4 +39,69 @@ public final class MatchConstants {
 	public static boolean ENABLE_ALL_PLAYER_SELECTION = false;
 
 	public static boolean ENABLE_FOG_OF_WAR_DISABLING = false;
+
+	/**
+	 * if true, the read only preparation phase of {@link jsettlers.logic.timer.IPreparableTimerable}s is executed in parallel before the timer events of
+	 * a tick. Only the paths of pending move requests are prepared, and only those the plain A* would calculate. The decisions of the movables are
+	 * still made by their timer events, one after the other.
+	 * <p />
+	 * Set by {@link #setSimulationFlags(int)} from {@link SimulationFlags#PARALLEL_TIMERABLE_PREPARATION}.
+	 */
+	public static boolean ENABLE_PARALLEL_TIMERABLE_PREPARATION = false;
+
+	/**
+	 * if true, calculated paths are stored in a {@link jsettlers.algorithms.path.PathCache} of {@link #PATH_CACHE_SIZE} entries and reused for later
+	 * requests with the same start, target and, for movables that need their players ground, player. The cache drops the paths a blocking or player
+	 * change can invalidate, so a hit is as short as a newly calculated path, but it isn't always the one the A* would choose now among paths of
+	 * equal length.
+	 * <p />
+	 * Set by {@link #setSimulationFlags(int)} from {@link SimulationFlags#PATH_CACHE}.
+	 */
+	public static boolean ENABLE_PATH_CACHE = false;
+
+	/**
+	 * Maximum number of paths stored in the path cache.
+	 */
+	public static final int PATH_CACHE_SIZE = 512;
+
+	/**
+	 * if true, paths between positions farther apart than a few clusters are searched by a {@link jsettlers.algorithms.path.astar.HierarchicalAStar}
+	 * in the corridor of clusters found on its abstract graph. The found paths are not always the shortest ones, so they can differ from the paths of
+	 * the plain A*.
+	 * <p />
+	 * Set by {@link #setSimulationFlags(int)} from {@link SimulationFlags#HIERARCHICAL_ASTAR}.
+	 */
+	public static boolean ENABLE_HIERARCHICAL_ASTAR = false;
+
+	/**
+	 * if true, dijkstra searches for a position of a search type expand once from the searching movable and choose the position with the shortest
+	 * path. Otherwise the positions are probed ring by ring around the search center and the first reachable one is chosen, so both modes can choose
+	 * different positions.
+	 * <p />
+	 * Set by {@link #setSimulationFlags(int)} from {@link SimulationFlags#MULTI_TARGET_DIJKSTRA}.
+	 */
+	public static boolean ENABLE_MULTI_TARGET_DIJKSTRA = false;
+
+	/**
+	 * if true, the materials managers distribute up to 32 jobs per call in rounds of one job per material and assign the jobless bearers of a round so
+	 * that the sum of their distances to the offers is minimal. Otherwise every job gets the bearer closest to its offer, one job per material and
+	 * call.
+	 * <p />
+	 * Set by {@link #setSimulationFlags(int)} from {@link SimulationFlags#BATCHED_MATERIAL_DISTRIBUTION}.
+	 */
+	public static boolean ENABLE_BATCHED_MATERIAL_DISTRIBUTION = false;
+
+	/**
+	 * Sets the switches of the game logic from the given {@link SimulationFlags}. Must be called before the map of a game is loaded.
+	 * 
+	 * @param simulationFlags
+	 *            The flags negotiated at the start of the match or read from the replay.
+	 */
+	public static void setSimulationFlags(int simulationFlags) {
+		ENABLE_PARALLEL_TIMERABLE_PREPARATION = (simulationFlags & SimulationFlags.PARALLEL_TIMERABLE_PREPARATION) != 0;
+		ENABLE_BATCHED_MATERIAL_DISTRIBUTION = (simulationFlags & SimulationFlags.BATCHED_MATERIAL_DISTRIBUTION) != 0;
+		ENABLE_MULTI_TARGET_DIJKSTRA = (simulationFlags & SimulationFlags.MULTI_TARGET_DIJKSTRA) != 0;
+		ENABLE_PATH_CACHE = (simulationFlags & SimulationFlags.PATH_CACHE) != 0;
+		ENABLE_HIERARCHICAL_ASTAR = (simulationFlags & SimulationFlags.HIERARCHICAL_ASTAR) != 0;
+	}
 }
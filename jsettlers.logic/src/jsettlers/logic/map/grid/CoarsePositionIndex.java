@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+import jsettlers.common.map.shapes.HexGridArea;
+
+/**
+ * A coarse spatial index of positions grouped by player. The map is divided into cells of {@value #CELL_SIZE}x{@value #CELL_SIZE} positions and
+ * the positions of every cell are stored in a bitmap. This allows searches in big areas to visit only cells that contain positions instead of
+ * scanning every position of the area.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class CoarsePositionIndex {
+	private static final int CELL_BITS = 3;
+	private static final int CELL_SIZE = 1 << CELL_BITS;
+	private static final int CELL_MASK = CELL_SIZE - 1;
+
+	private final int width;
+	private final int height;
+	private final int cellsPerRow;
+	private final int numberOfCells;
+
+	/**
+	 * Bitmaps of the positions of every cell, by player.
+	 */
+	private long[][] playerPositions = new long[0][];
+
+	public CoarsePositionIndex(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.cellsPerRow = (width + CELL_MASK) >> CELL_BITS;
+		this.numberOfCells = cellsPerRow * ((height + CELL_MASK) >> CELL_BITS);
+	}
+
+	public void set(int x, int y, byte player) {
+		if (player >= playerPositions.length) {
+			long[][] newPlayerPositions = new long[player + 1][];
+			System.arraycopy(playerPositions, 0, newPlayerPositions, 0, playerPositions.length);
+			playerPositions = newPlayerPositions;
+		}
+		if (playerPositions[player] == null) {
+			playerPositions[player] = new long[numberOfCells];
+		}
+
+		playerPositions[player][getCell(x, y)] |= getBit(x, y);
+	}
+
+	public void clear(int x, int y, byte player) {
+		if (player < playerPositions.length && playerPositions[player] != null) {
+			playerPositions[player][getCell(x, y)] &= ~getBit(x, y);
+		}
+	}
+
+	/**
+	 * Adds all positions of the given area to the given {@link HexOrderedPositions}.
+	 * 
+	 * @param centerX
+	 *            x coordinate of the center of the area.
+	 * @param centerY
+	 *            y coordinate of the center of the area.
+	 * @param startRadius
+	 *            inclusive inner radius of the area (see {@link HexGridArea}).
+	 * @param maxRadius
+	 *            inclusive outer radius of the area (see {@link HexGridArea}).
+	 * @param excludedPlayer
+	 *            The positions of this player are not added. -1 to add the positions of all players.
+	 * @param result
+	 *            The positions are added to this object.
+	 */
+	public void collectPositions(int centerX, int centerY, int startRadius, int maxRadius, byte excludedPlayer, HexOrderedPositions result) {
+		int minCellX = Math.max(0, centerX - maxRadius) >> CELL_BITS;
+		int maxCellX = Math.min(width - 1, centerX + maxRadius) >> CELL_BITS;
+		int minCellY = Math.max(0, centerY - maxRadius) >> CELL_BITS;
+		int maxCellY = Math.min(height - 1, centerY + maxRadius) >> CELL_BITS;
+
+		for (int player = 0; player < playerPositions.length; player++) {
+			long[] positions = playerPositions[player];
+			if (player == excludedPlayer || positions == null) {
+				continue;
+			}
+
+			for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+				for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+					long bitmap = positions[cellX + cellY * cellsPerRow];
+
+					while (bitmap != 0) {
+						int bit = Long.numberOfTrailingZeros(bitmap);
+						bitmap &= bitmap - 1;
+
+						int dx = (cellX << CELL_BITS | bit & CELL_MASK) - centerX;
+						int dy = (cellY << CELL_BITS | bit >> CELL_BITS) - centerY;
+						int radius = HexGridArea.getRadius(dx, dy);
+						if (startRadius <= radius && radius <= maxRadius) {
+							result.add(centerX + dx, centerY + dy, HexGridArea.getIndexInIteration(dx, dy));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private int getCell(int x, int y) {
+		return (x >> CELL_BITS) + (y >> CELL_BITS) * cellsPerRow;
+	}
+
+	private static long getBit(int x, int y) {
+		return 1L << ((y & CELL_MASK) << CELL_BITS | x & CELL_MASK);
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+/**
+ * A checksum of the game state that is updated incrementally by the grids whenever a cell changes. Every value stored in a cell is hashed
+ * together with the index of the cell and xor-ed into the checksum. As xor is commutative and self inverse, the old value of a cell is removed by
+ * adding it again. Therefore the checksum only depends on the current state and not on the order of the changes.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class GameStateChecksum {
+	public static final int LANDSCAPE_GRID = 1;
+	public static final int MOVABLE_GRID = 2;
+
+	private long checksum;
+
+	/**
+	 * Adds the given value to the checksum or removes it, if it has already been added.
+	 * 
+	 * @param value
+	 *            The value to be toggled.
+	 */
+	public void toggle(long value) {
+		checksum ^= mix(value);
+	}
+
+	/**
+	 * Adds the given cell value to the checksum or removes it, if it has already been added.
+	 * 
+	 * @param type
+	 *            Type of the value to separate the different grids.
+	 * @param index
+	 *            Index of the cell.
+	 * @param value
+	 *            The value stored in the cell.
+	 */
+	public void toggle(int type, int index, int value) {
+		toggle(mix(((long) type << 32) | index) + value);
+	}
+
+	public long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * Finalizer of the SplitMix64 generator. Spreads every input bit over the whole result, so that neighboring cells and values don't cancel
+	 * each other out.
+	 */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+import java.util.Arrays;
+
+import jsettlers.common.map.shapes.HexGridArea;
+import jsettlers.common.map.shapes.IMapAreaVisitor;
+
+/**
+ * A list of positions that are visited in the same order as a {@link HexGridArea} around the center they have been collected for would visit
+ * them.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class HexOrderedPositions {
+	private long[] positions = new long[16];
+	private int size = 0;
+
+	/**
+	 * 
+	 * @param x
+	 * @param y
+	 * @param indexInIteration
+	 *            The index of the position in the iteration of the area (see {@link HexGridArea#getIndexInIteration(int, int)}).
+	 */
+	public void add(int x, int y, int indexInIteration) {
+		if (size >= positions.length) {
+			positions = Arrays.copyOf(positions, positions.length * 2);
+		}
+		positions[size++] = (long) indexInIteration << 32 | (long) (x & 0xFFFF) << 16 | y & 0xFFFF;
+	}
+
+	/**
+	 * Visits all added positions in the order of the {@link HexGridArea}. Positions added multiple times are only visited once.
+	 * 
+	 * @param visitor
+	 * @return True if all positions have been visited.<br>
+	 *         False if the visitor stopped the traversing.
+	 */
+	public boolean traverse(IMapAreaVisitor visitor) {
+		Arrays.sort(positions, 0, size);
+
+		for (int i = 0; i < size; i++) {
+			long position = positions[i];
+			if (i > 0 && position == positions[i - 1]) {
+				continue;
+			}
+			if (!visitor.visit((int) (position >> 16) & 0xFFFF, (int) position & 0xFFFF)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all positions, so that this object can be reused for the next search.
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
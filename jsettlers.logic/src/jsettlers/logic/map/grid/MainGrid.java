@@ -25,17 +25,21 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import jsettlers.algorithms.borders.BordersThread;
 import jsettlers.algorithms.borders.IBordersThreadGrid;
 import jsettlers.algorithms.construction.AbstractConstructionMarkableMap;
+import jsettlers.algorithms.construction.IConstructionDataChangedListener;
 import jsettlers.algorithms.fogofwar.FogOfWar;
 import jsettlers.algorithms.fogofwar.IFogOfWarGrid;
 import jsettlers.algorithms.fogofwar.IViewDistancable;
 import jsettlers.algorithms.landmarks.EnclosedBlockedAreaFinderAlgorithm;
 import jsettlers.algorithms.landmarks.IEnclosedBlockedAreaFinderGrid;
+import jsettlers.algorithms.partitions.IBlockingProvider;
 import jsettlers.algorithms.path.IPathCalculatable;
 import jsettlers.algorithms.path.Path;
+import jsettlers.algorithms.path.PathCache;
 import jsettlers.algorithms.path.area.IInAreaFinderMap;
 import jsettlers.algorithms.path.area.InAreaFinder;
 import jsettlers.algorithms.path.astar.AbstractAStar;
 import jsettlers.algorithms.path.astar.BucketQueueAStar;
+import jsettlers.algorithms.path.astar.HierarchicalAStar;
 import jsettlers.algorithms.path.astar.IAStarPathMap;
 import jsettlers.algorithms.path.dijkstra.DijkstraAlgorithm;
 import jsettlers.algorithms.path.dijkstra.IDijkstraPathMap;
@@ -59,6 +63,7 @@ import jsettlers.common.map.partition.IPartitionData;
 import jsettlers.common.map.shapes.FreeMapArea;
 import jsettlers.common.map.shapes.HexGridArea;
 import jsettlers.common.map.shapes.HexGridArea.HexGridAreaIterator;
+import jsettlers.common.map.shapes.IMapAreaVisitor;
 import jsettlers.common.map.shapes.MapCircle;
 import jsettlers.common.map.shapes.MapCircleBorder;
 import jsettlers.common.map.shapes.MapNeighboursArea;
@@ -82,6 +87,7 @@ import jsettlers.logic.buildings.workers.WorkerBuilding;
 import jsettlers.logic.constants.Constants;
 import jsettlers.logic.constants.MatchConstants;
 import jsettlers.logic.map.grid.flags.FlagsGrid;
+import jsettlers.logic.map.grid.flags.IBlockingChangedListener;
 import jsettlers.logic.map.grid.landscape.LandscapeGrid;
 import jsettlers.logic.map.grid.movable.MovableGrid;
 import jsettlers.logic.map.grid.objects.AbstractHexMapObject;
@@ -139,6 +145,8 @@ public final class MainGrid implements Serializable {
 	transient BordersThread bordersThread;
 	transient IGuiInputGrid guiInputGrid;
 	private transient IEnclosedBlockedAreaFinderGrid enclosedBlockedAreaFinderGrid;
+	private transient GameStateChecksum gameStateChecksum;
+	private transient EnemySearch enemySearch;
 
 	public MainGrid(String mapId, String mapName, short width, short height, byte numberOfPlayers) {
 		this.mapId = mapId;
@@ -169,6 +177,13 @@ public final class MainGrid implements Serializable {
 
 		this.partitionsGrid.setPlayerChangedListener(new PlayerChangedListener());
 		this.enclosedBlockedAreaFinderGrid = new EnclosedBlockedAreaFinderGrid();
+		this.flagsGrid.setPathfinderBlockingChangedListener(movablePathfinderGrid.blockingChangedListener);
+
+		this.enemySearch = new EnemySearch();
+
+		this.gameStateChecksum = new GameStateChecksum();
+		this.landscapeGrid.setGameStateChecksum(gameStateChecksum);
+		this.movableGrid.setGameStateChecksum(gameStateChecksum);
 	}
 
 	public void initForPlayer(byte playerId, FogOfWar fogOfWar) {
@@ -181,6 +196,9 @@ public final class MainGrid implements Serializable {
 
 	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
 		ois.defaultReadObject();
+		// The path finders need the size of the map. They can't be created when the pathfinder grid is read, because it can be read before the fields
+		// of this grid are set.
+		movablePathfinderGrid.initPathfinders();
 		initAdditional();
 		this.bordersThread.checkArea(0, 0, width, height);
 	}
@@ -306,6 +324,14 @@ public final class MainGrid implements Serializable {
 		return graphicsGrid;
 	}
 
+	/**
+	 * @return The checksum of the landscape and the positions of the movables. The checksum is updated on every change, so this method doesn't
+	 *         need to scan the grid.
+	 */
+	public long getGameStateChecksum() {
+		return gameStateChecksum.getChecksum();
+	}
+
 	public IGuiInputGrid getGuiInputGrid() {
 		return guiInputGrid;
 	}
@@ -608,6 +634,48 @@ public final class MainGrid implements Serializable {
 
 	}
 
+	/**
+	 * {@link IAStarPathMap} used by the pathfinders running concurrently to the game thread. It delegates to the {@link PathfinderGrid} but doesn't
+	 * write debug colors, because these are not thread safe.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private static final class ConcurrentPathfinderGrid implements IAStarPathMap {
+		private final PathfinderGrid pathfinderGrid;
+
+		ConcurrentPathfinderGrid(PathfinderGrid pathfinderGrid) {
+			this.pathfinderGrid = pathfinderGrid;
+		}
+
+		@Override
+		public boolean isBlocked(IPathCalculatable requester, int x, int y) {
+			return pathfinderGrid.isBlocked(requester, x, y);
+		}
+
+		@Override
+		public float getCost(int sx, int sy, int tx, int ty) {
+			return pathfinderGrid.getCost(sx, sy, tx, ty);
+		}
+
+		@Override
+		public void markAsOpen(int x, int y) {
+		}
+
+		@Override
+		public void markAsClosed(int x, int y) {
+		}
+
+		@Override
+		public void setDebugColor(int x, int y, Color color) {
+		}
+
+		@Override
+		public short getBlockedPartition(int x, int y) {
+			return pathfinderGrid.getBlockedPartition(x, y);
+		}
+	}
+
 	final class GraphicsGrid implements IGraphicsGrid {
 		private transient BitSet bordersGrid = new BitSet(width * height);
 
@@ -933,6 +1001,58 @@ public final class MainGrid implements Serializable {
 		public boolean isInBounds(int x, int y) {
 			return MainGrid.this.isInBounds(x, y);
 		}
+
+		@Override
+		public void setConstructionDataChangedListener(IConstructionDataChangedListener listener) {
+			flagsGrid.setConstructionDataChangedListener(listener);
+			partitionsGrid.setConstructionDataChangedListener(listener);
+			landscapeGrid.setConstructionDataChangedListener(listener);
+		}
+	}
+
+	/**
+	 * Searches the closest enemy of a player. The positions and the visitor are reused for all searches of this grid.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private final class EnemySearch implements IMapAreaVisitor {
+		private final HexOrderedPositions candidates = new HexOrderedPositions();
+		private byte searchingPlayer;
+		private boolean searchTowers;
+		private IAttackable enemy;
+
+		IAttackable find(byte searchingPlayer, ShortPoint2D position, int startRadius, int maxRadius, boolean searchTowers) {
+			// only the positions holding movables of other players (and towers) are visited, but in the order of a HexGridArea, so that the
+			// closest enemy is found first.
+			candidates.clear();
+			movableGrid.collectMovablePositions(position.x, position.y, startRadius, maxRadius, searchingPlayer, candidates);
+			if (searchTowers) {
+				objectsGrid.collectAttackableTowerPositions(position.x, position.y, startRadius, maxRadius, candidates);
+			}
+
+			this.searchingPlayer = searchingPlayer;
+			this.searchTowers = searchTowers;
+			candidates.traverse(this);
+
+			IAttackable result = enemy;
+			enemy = null;
+			return result;
+		}
+
+		@Override
+		public boolean visit(int x, int y) {
+			IAttackable currAttackable = movableGrid.getMovableAt(x, y);
+			if (searchTowers && currAttackable == null) {
+				currAttackable = (IAttackable) objectsGrid.getMapObjectAt(x, y, EMapObjectType.ATTACKABLE_TOWER);
+			}
+
+			if (currAttackable != null && MovableGrid.isEnemy(searchingPlayer, currAttackable)) {
+				enemy = currAttackable;
+				return false;
+			}
+			return true;
+		}
 	}
 
 	final class MovablePathfinderGrid extends AbstractMovableGrid {
@@ -940,7 +1060,14 @@ public final class MainGrid implements Serializable {
 
 		private transient PathfinderGrid pathfinderGrid;
 
-		private transient AbstractAStar aStar;
+		private transient HierarchicalAStar aStar;
+		private transient PathCache pathCache;
+		private transient IBlockingChangedListener blockingChangedListener;
+		/**
+		 * Idle path finders for {@link #calculatePathToConcurrently(IPathCalculatable, ShortPoint2D)}. They are owned by the grid instead of the
+		 * worker threads, so they are dropped together with the grid when the game ends.
+		 */
+		private transient ConcurrentLinkedQueue<AbstractAStar> concurrentAStars;
 		transient DijkstraAlgorithm dijkstra; // not private, because it's used by BuildingsGrid
 		private transient InAreaFinder inAreaFinder;
 
@@ -948,15 +1075,24 @@ public final class MainGrid implements Serializable {
 			initPathfinders();
 		}
 
-		private final void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
-			ois.defaultReadObject();
-			initPathfinders();
-		}
-
 		private final void initPathfinders() {
 			pathfinderGrid = new PathfinderGrid();
 
-			aStar = new BucketQueueAStar(pathfinderGrid, width, height);
+			aStar = new HierarchicalAStar(pathfinderGrid, new IBlockingProvider() {
+				@Override
+				public boolean isBlocked(int x, int y) {
+					return flagsGrid.isBlocked(x, y);
+				}
+			}, width, height, Constants.PATHFINDER_DEBUG_COLORING);
+			pathCache = new PathCache(MatchConstants.PATH_CACHE_SIZE, width, height);
+			blockingChangedListener = new IBlockingChangedListener() {
+				@Override
+				public void blockingChanged(int x, int y, boolean newBlockingValue) {
+					aStar.blockingChanged(x, y, newBlockingValue);
+					pathCache.blockingChanged(x, y, newBlockingValue);
+				}
+			};
+			concurrentAStars = new ConcurrentLinkedQueue<AbstractAStar>();
 			dijkstra = new DijkstraAlgorithm(pathfinderGrid, aStar, width, height);
 			inAreaFinder = new InAreaFinder(pathfinderGrid, width, height);
 		}
@@ -1169,7 +1305,52 @@ public final class MainGrid implements Serializable {
 
 		@Override
 		public Path calculatePathTo(IPathCalculatable pathRequester, ShortPoint2D targetPos) {
-			return aStar.findPath(pathRequester, targetPos);
+			if (!MatchConstants.ENABLE_PATH_CACHE) {
+				return aStar.findPath(pathRequester, targetPos);
+			}
+
+			ShortPoint2D pos = pathRequester.getPos();
+			byte player = pathRequester.needsPlayersGround() ? pathRequester.getPlayerId() : PathCache.NO_PLAYER;
+			short blockedPartition = landscapeGrid.getBlockedPartitionAt(pos.x, pos.y);
+
+			Path path = pathCache.get(pos.x, pos.y, targetPos.x, targetPos.y, player, blockedPartition);
+			if (path == null) {
+				path = aStar.findPath(pathRequester, targetPos);
+				pathCache.put(pos.x, pos.y, targetPos.x, targetPos.y, player, blockedPartition, path);
+			}
+			return path;
+		}
+
+		/**
+		 * 
+		 * @return The cache of the paths calculated with {@link #calculatePathTo(IPathCalculatable, ShortPoint2D)}.
+		 */
+		public PathCache getPathCache() {
+			return pathCache;
+		}
+
+		/**
+		 * The cache and the hierarchy of {@link #calculatePathTo(IPathCalculatable, ShortPoint2D)} are not thread safe, so requests can only be
+		 * calculated concurrently if the cache is disabled and the request is handed to the plain A*.
+		 */
+		@Override
+		public boolean canCalculatePathConcurrently(IPathCalculatable pathRequester, ShortPoint2D targetPos) {
+			return !MatchConstants.ENABLE_PATH_CACHE && !aStar.usesHierarchy(pathRequester, targetPos);
+		}
+
+		@Override
+		public Path calculatePathToConcurrently(IPathCalculatable pathRequester, ShortPoint2D targetPos) {
+			assert canCalculatePathConcurrently(pathRequester, targetPos) : "the path must be calculated by calculatePathTo()";
+
+			AbstractAStar concurrentAStar = concurrentAStars.poll();
+			if (concurrentAStar == null) {
+				concurrentAStar = new BucketQueueAStar(new ConcurrentPathfinderGrid(pathfinderGrid), width, height);
+			}
+			try {
+				return concurrentAStar.findPath(pathRequester, targetPos);
+			} finally {
+				concurrentAStars.offer(concurrentAStar);
+			}
 		}
 
 		@Override
@@ -1216,36 +1397,14 @@ public final class MainGrid implements Serializable {
 		public IAttackable getEnemyInSearchArea(ShortPoint2D position, IAttackable searchingAttackable, short searchRadius, boolean includeTowers) {
 			boolean isBowman = EMovableType.isBowman(searchingAttackable.getMovableType());
 
-			IAttackable enemy = getEnemyInSearchArea(searchingAttackable.getPlayerId(), new HexGridArea(position.x, position.y, (short) 1,
-					searchRadius), isBowman, includeTowers);
+			IAttackable enemy = enemySearch.find(searchingAttackable.getPlayerId(), position, 1, searchRadius, includeTowers && !isBowman);
 			if (includeTowers && !isBowman && enemy == null) {
-				enemy = getEnemyInSearchArea(searchingAttackable.getPlayerId(), new HexGridArea(position.x, position.y, searchRadius,
-						Constants.TOWER_SEARCH_RADIUS), isBowman, true);
+				enemy = enemySearch.find(searchingAttackable.getPlayerId(), position, searchRadius, Constants.TOWER_SEARCH_RADIUS, true);
 			}
 
 			return enemy;
 		}
 
-		private IAttackable getEnemyInSearchArea(byte searchingPlayer, HexGridArea area, boolean isBowman, boolean includeTowers) {
-			for (ShortPoint2D curr : area) {
-				short x = curr.x;
-				short y = curr.y;
-
-				if (0 <= x && x < width && 0 <= y && y < height) {
-					IAttackable currAttackable = movableGrid.getMovableAt(x, y);
-					if (includeTowers && !isBowman && currAttackable == null) {
-						currAttackable = (IAttackable) objectsGrid.getMapObjectAt(x, y, EMapObjectType.ATTACKABLE_TOWER);
-					}
-
-					if (currAttackable != null && MovableGrid.isEnemy(searchingPlayer, currAttackable)) {
-						return currAttackable;
-					}
-				}
-			}
-
-			return null;
-		}
-
 		@Override
 		public void addArrowObject(ShortPoint2D attackedPos, ShortPoint2D shooterPos, byte shooterPlayerId, float hitStrength) {
 			mapObjectsManager.addArrowObject(attackedPos, shooterPos, shooterPlayerId, hitStrength);
@@ -1259,9 +1418,8 @@ public final class MainGrid implements Serializable {
 
 			while (iter.hasNext()) {
 				short radius = iter.getRadiusOfNext();
-				ShortPoint2D curr = iter.next();
-				short currX = curr.x;
-				short currY = curr.y;
+				short currY = (short) iter.nextY();
+				short currX = (short) iter.nextX();
 
 				int factor;
 
@@ -1322,6 +1480,16 @@ public final class MainGrid implements Serializable {
 		public final short getBlockedPartition(short x, short y) {
 			return landscapeGrid.getBlockedPartitionAt(x, y);
 		}
+
+		@Override
+		public final short getWidth() {
+			return width;
+		}
+
+		@Override
+		public final short getHeight() {
+			return height;
+		}
 	}
 
 	final class BuildingsGrid implements IBuildingsGrid, Serializable {
@@ -1632,7 +1800,11 @@ public final class MainGrid implements Serializable {
 			}
 
 			MapList list = MapList.getDefaultList();
-			list.saveMap(playerStates, MainGrid.this);
+			if (Constants.ASYNCHRONOUS_SAVE) {
+				list.saveMapAsynchronously(playerStates, MainGrid.this);
+			} else {
+				list.saveMap(playerStates, MainGrid.this);
+			}
 
 			MatchConstants.clock.setPausing(savedPausingState);
 		}
@@ -1713,8 +1885,8 @@ public final class MainGrid implements Serializable {
 
 		@Override
 		public void playerChangedAt(int x, int y, byte newPlayerId) {
-			final ShortPoint2D position = new ShortPoint2D(x, y);
-			bordersThread.checkPosition(position);
+			bordersThread.checkPosition(x, y);
+			movablePathfinderGrid.pathCache.playerChangedAt(x, y, newPlayerId);
 
 			Building building = objectsGrid.getBuildingAt(x, y);
 			if (building != null && building.getPlayerId() != newPlayerId) {
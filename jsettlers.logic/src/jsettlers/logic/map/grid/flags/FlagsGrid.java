@@ -19,6 +19,7 @@ import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.BitSet;
 
+import jsettlers.algorithms.construction.IConstructionDataChangedListener;
 import jsettlers.algorithms.interfaces.IContainingProvider;
 import jsettlers.algorithms.partitions.IBlockingProvider;
 import jsettlers.logic.map.grid.partition.IPartitionsGridBlockingProvider;
@@ -40,6 +41,8 @@ public final class FlagsGrid implements Serializable, IBlockingProvider, IPartit
 
 	private IBlockingChangedListener blockingChangedListener = null;
 	private IProtectedChangedListener protectedChangedListener = null;
+	private transient IBlockingChangedListener pathfinderBlockingChangedListener = null;
+	private transient IConstructionDataChangedListener constructionDataChangedListener = null;
 
 	private transient IContainingProvider blockedContainingProvider;
 
@@ -101,15 +104,22 @@ public final class FlagsGrid implements Serializable, IBlockingProvider, IPartit
 	 */
 	public void setBlockedAndProtected(int x, int y, boolean blocked, boolean newProtected) {
 		final int idx = x + y * width;
+		final boolean blockingChanged = this.blockedGrid.get(idx) != blocked;
 		this.blockedGrid.set(idx, blocked);
 		this.protectedGrid.set(idx, newProtected);
 
 		if (blockingChangedListener != null) {
 			this.blockingChangedListener.blockingChanged(x, y, blocked);
 		}
+		if (blockingChanged && pathfinderBlockingChangedListener != null) {
+			this.pathfinderBlockingChangedListener.blockingChanged(x, y, blocked);
+		}
 		if (protectedChangedListener != null) {
 			this.protectedChangedListener.protectedChanged(x, y, newProtected);
 		}
+		if (constructionDataChangedListener != null) {
+			this.constructionDataChangedListener.constructionDataChangedAt(x, y);
+		}
 	}
 
 	public boolean isMarked(int x, int y) {
@@ -131,6 +141,9 @@ public final class FlagsGrid implements Serializable, IBlockingProvider, IPartit
 		if (protectedChangedListener != null) {
 			this.protectedChangedListener.protectedChanged(x, y, newProtected);
 		}
+		if (constructionDataChangedListener != null) {
+			this.constructionDataChangedListener.constructionDataChangedAt(x, y);
+		}
 	}
 
 	@Override
@@ -138,6 +151,25 @@ public final class FlagsGrid implements Serializable, IBlockingProvider, IPartit
 		this.blockingChangedListener = listener;
 	}
 
+	/**
+	 * Sets a listener that is informed about blocking changes and is not serialized with this grid (e.g. the caches of the pathfinders). The
+	 * listener is only informed if the blocked flag of a position actually changes.
+	 * 
+	 * @param listener
+	 */
+	public void setPathfinderBlockingChangedListener(IBlockingChangedListener listener) {
+		this.pathfinderBlockingChangedListener = listener;
+	}
+
+	/**
+	 * Sets a listener that is informed about changes of the protected flags and is not serialized with this grid.
+	 * 
+	 * @param listener
+	 */
+	public void setConstructionDataChangedListener(IConstructionDataChangedListener listener) {
+		this.constructionDataChangedListener = listener;
+	}
+
 	@Override
 	public void setProtectedChangedListener(IProtectedChangedListener protectedChangedListener) {
 		this.protectedChangedListener = protectedChangedListener;
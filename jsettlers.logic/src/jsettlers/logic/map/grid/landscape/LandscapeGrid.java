@@ -18,6 +18,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 
+import jsettlers.algorithms.construction.IConstructionDataChangedListener;
 import jsettlers.algorithms.previewimage.IPreviewImageDataSupplier;
 import jsettlers.common.CommonConstants;
 import jsettlers.common.landscape.ELandscapeType;
@@ -26,6 +27,7 @@ import jsettlers.common.map.IGraphicsBackgroundListener;
 import jsettlers.common.map.shapes.HexGridArea;
 import jsettlers.common.position.RelativePoint;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.map.grid.GameStateChecksum;
 import jsettlers.logic.map.grid.flags.IProtectedProvider;
 import jsettlers.logic.map.grid.flags.IProtectedProvider.IProtectedChangedListener;
 import jsettlers.network.synchronic.random.RandomSingleton;
@@ -68,6 +70,8 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 
 	public transient int[] debugColors;
 	private transient IGraphicsBackgroundListener backgroundListener;
+	private transient GameStateChecksum checksum;
+	private transient IConstructionDataChangedListener constructionDataChangedListener;
 
 	public LandscapeGrid(short width, short height, IProtectedProvider protectedProvider) {
 		this.width = width;
@@ -159,23 +163,68 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 			flattenedResetter.addPosition(x, y);
 		}
 
-		this.landscapeGrid[x + y * width] = landscapeType.ordinal;
+		final int index = x + y * width;
+		toggleChecksum(index);
+		this.landscapeGrid[index] = landscapeType.ordinal;
+		toggleChecksum(index);
 		backgroundListener.backgroundChangedAt(x, y);
+		notifyConstructionDataChanged(x, y);
 	}
 
 	public final void setHeightAt(short x, short y, byte height) {
-		this.heightGrid[x + y * width] = height;
+		final int index = x + y * width;
+		toggleChecksum(index);
+		this.heightGrid[index] = height;
+		toggleChecksum(index);
 		backgroundListener.backgroundChangedAt(x, y);
+		notifyConstructionDataChanged(x, y);
 	}
 
 	public void flattenAndChangeHeightTowards(int x, int y, byte targetHeight) {
 		final int index = x + y * width;
 
+		toggleChecksum(index);
 		this.heightGrid[index] += Math.signum(targetHeight - this.heightGrid[index]);
 		this.landscapeGrid[index] = ELandscapeType.FLATTENED.ordinal;
 		this.temporaryFlatened[index] = Byte.MAX_VALUE; // cancel the flattening
+		toggleChecksum(index);
 
 		backgroundListener.backgroundChangedAt(x, y);
+		notifyConstructionDataChanged(x, y);
+	}
+
+	/**
+	 * Sets the {@link GameStateChecksum} that is kept up to date with the landscape, height and resources of all positions.
+	 * 
+	 * @param checksum
+	 */
+	public void setGameStateChecksum(GameStateChecksum checksum) {
+		this.checksum = checksum;
+		for (int index = 0; index < landscapeGrid.length; index++) {
+			toggleChecksum(index);
+		}
+	}
+
+	private void toggleChecksum(int index) {
+		if (checksum != null) {
+			checksum.toggle(GameStateChecksum.LANDSCAPE_GRID, index, (landscapeGrid[index] & 0xFF) | (heightGrid[index] & 0xFF) << 8
+					| (resourceType[index] & 0xFF) << 16 | (resourceAmount[index] & 0xFF) << 24);
+		}
+	}
+
+	/**
+	 * Sets a listener that is informed about landscape and height changes and is not serialized with this grid.
+	 * 
+	 * @param listener
+	 */
+	public void setConstructionDataChangedListener(IConstructionDataChangedListener listener) {
+		this.constructionDataChangedListener = listener;
+	}
+
+	private void notifyConstructionDataChanged(int x, int y) {
+		if (constructionDataChangedListener != null) {
+			constructionDataChangedListener.constructionDataChangedAt(x, y);
+		}
 	}
 
 	public final void setBackgroundListener(IGraphicsBackgroundListener backgroundListener) {
@@ -187,8 +236,11 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 	}
 
 	public final void setResourceAt(short x, short y, EResourceType resourceType, byte amount) {
-		this.resourceType[x + y * width] = resourceType.ordinal;
-		this.resourceAmount[x + y * width] = (byte) Math.min(amount, MAX_RESOURCE_AMOUNT_PER_POSITION);
+		final int index = x + y * width;
+		toggleChecksum(index);
+		this.resourceType[index] = resourceType.ordinal;
+		this.resourceAmount[index] = (byte) Math.min(amount, MAX_RESOURCE_AMOUNT_PER_POSITION);
+		toggleChecksum(index);
 	}
 
 	/**
@@ -220,7 +272,9 @@ public final class LandscapeGrid implements Serializable, IWalkableGround, IFlat
 	public boolean tryTakingResource(ShortPoint2D position, EResourceType resource) {
 		int idx = position.x + position.y * width;
 		if (resourceType[idx] == resource.ordinal && resourceAmount[idx] > 0) {
+			toggleChecksum(idx);
 			resourceAmount[idx]--;
+			toggleChecksum(idx);
 			return true;
 		} else {
 			return false;
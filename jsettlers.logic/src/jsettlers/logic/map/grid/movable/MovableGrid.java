@@ -19,14 +19,15 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
-import jsettlers.common.map.shapes.HexBorderArea;
-import jsettlers.common.map.shapes.HexGridArea;
-import jsettlers.common.map.shapes.IMapArea;
+import jsettlers.common.map.shapes.IMapAreaVisitor;
 import jsettlers.common.movable.EMovableType;
 import jsettlers.common.movable.IMovable;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.logic.SerializationUtils;
 import jsettlers.logic.constants.Constants;
+import jsettlers.logic.map.grid.CoarsePositionIndex;
+import jsettlers.logic.map.grid.GameStateChecksum;
+import jsettlers.logic.map.grid.HexOrderedPositions;
 import jsettlers.logic.map.grid.landscape.IWalkableGround;
 import jsettlers.logic.movable.Movable;
 import jsettlers.logic.movable.interfaces.IAttackable;
@@ -40,6 +41,10 @@ public final class MovableGrid implements Serializable {
 	private static final long serialVersionUID = 7003522358013103962L;
 
 	private transient Movable[] movableGrid;
+	private transient GameStateChecksum checksum;
+	private transient CoarsePositionIndex movablePositions;
+	private transient HexOrderedPositions enemyPositions;
+	private transient InformingVisitor informingVisitor;
 	private final IWalkableGround ground;
 	private final short width;
 
@@ -50,6 +55,9 @@ public final class MovableGrid implements Serializable {
 		this.height = height;
 		this.ground = ground;
 		this.movableGrid = new Movable[width * height];
+		this.movablePositions = new CoarsePositionIndex(width, height);
+		this.enemyPositions = new HexOrderedPositions();
+		this.informingVisitor = new InformingVisitor();
 	}
 
 	private void writeObject(ObjectOutputStream oos) throws IOException {
@@ -60,6 +68,15 @@ public final class MovableGrid implements Serializable {
 	private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
 		ois.defaultReadObject();
 		movableGrid = SerializationUtils.readSparseArray(ois, Movable.class);
+
+		movablePositions = new CoarsePositionIndex(width, height);
+		for (int idx = 0; idx < movableGrid.length; idx++) {
+			if (movableGrid[idx] != null) {
+				movablePositions.set(idx % width, idx / width, movableGrid[idx].getPlayerId());
+			}
+		}
+		enemyPositions = new HexOrderedPositions();
+		informingVisitor = new InformingVisitor();
 	}
 
 	public final Movable getMovableAt(int x, int y) {
@@ -67,13 +84,68 @@ public final class MovableGrid implements Serializable {
 	}
 
 	public final void setMovable(short x, short y, Movable movable) {
-		this.movableGrid[x + y * width] = movable;
+		setMovableAt(x + y * width, movable);
 	}
 
 	public final void movableLeft(ShortPoint2D position, Movable movable) {
 		int idx = position.x + position.y * width;
 		if (this.movableGrid[idx] == movable) {
-			this.movableGrid[idx] = null;
+			setMovableAt(idx, null);
+		}
+	}
+
+	private void setMovableAt(int idx, Movable movable) {
+		Movable oldMovable = movableGrid[idx];
+		if (checksum != null) {
+			toggleChecksum(idx, oldMovable);
+			toggleChecksum(idx, movable);
+		}
+		if (oldMovable != null) {
+			movablePositions.clear(idx % width, idx / width, oldMovable.getPlayerId());
+		}
+		if (movable != null) {
+			movablePositions.set(idx % width, idx / width, movable.getPlayerId());
+		}
+		this.movableGrid[idx] = movable;
+	}
+
+	/**
+	 * Adds the positions of all movables in the given hexagon area that don't belong to the given player to the given
+	 * {@link HexOrderedPositions}.
+	 * 
+	 * @param x
+	 *            x coordinate of the center.
+	 * @param y
+	 *            y coordinate of the center.
+	 * @param startRadius
+	 *            inclusive inner radius of the area.
+	 * @param maxRadius
+	 *            inclusive outer radius of the area.
+	 * @param player
+	 *            The movables of this player are ignored.
+	 * @param result
+	 */
+	public void collectMovablePositions(int x, int y, int startRadius, int maxRadius, byte player, HexOrderedPositions result) {
+		movablePositions.collectPositions(x, y, startRadius, maxRadius, player, result);
+	}
+
+	/**
+	 * Sets the {@link GameStateChecksum} that is kept up to date with the positions of all movables.
+	 * 
+	 * @param checksum
+	 */
+	public void setGameStateChecksum(GameStateChecksum checksum) {
+		this.checksum = checksum;
+		if (checksum != null) {
+			for (int idx = 0; idx < movableGrid.length; idx++) {
+				toggleChecksum(idx, movableGrid[idx]);
+			}
+		}
+	}
+
+	private void toggleChecksum(int idx, Movable movable) {
+		if (movable != null) {
+			checksum.toggle(GameStateChecksum.MOVABLE_GRID, idx, movable.getID());
 		}
 	}
 
@@ -94,7 +166,7 @@ public final class MovableGrid implements Serializable {
 			System.out.println("index < 0");
 		}
 
-		this.movableGrid[idx] = movable;
+		setMovableAt(idx, movable);
 		if (movable != null && movable.getMovableType() == EMovableType.BEARER) {
 			ground.walkOn(x, y);
 		}
@@ -114,32 +186,24 @@ public final class MovableGrid implements Serializable {
 	 *            If false, only a circle is informed if the given movable is attackable.
 	 */
 	public void informMovables(Movable movable, short x, short y, boolean informFullArea) {
-		// inform all movables of the given movable
-		IMapArea area;
+		// inform all movables of the given movable. The positions are visited in the order of a HexGridArea (or HexBorderArea if the full area
+		// is not informed), but only positions with movables of other players are looked at.
+		int startRadius, maxRadius;
 		if (informFullArea) {
-			area = new HexGridArea(x, y, (short) 1, Constants.SOLDIER_SEARCH_RADIUS);
+			startRadius = 1;
+			maxRadius = Constants.SOLDIER_SEARCH_RADIUS;
 		} else {
-			area = new HexBorderArea(x, y, (short) (Constants.SOLDIER_SEARCH_RADIUS - 1));
+			startRadius = maxRadius = Constants.SOLDIER_SEARCH_RADIUS - 1;
 		}
 
-		boolean foundOne = false;
-		byte movablePlayer = movable.getPlayerId();
-
-		for (ShortPoint2D curr : area) {
-			short currX = curr.x;
-			short currY = curr.y;
-			if (0 <= currX && currX < width && 0 <= currY && currY < height) {
-				Movable currMovable = getMovableAt(currX, currY);
-				if (currMovable != null && isEnemy(movablePlayer, currMovable)) {
-					currMovable.informAboutAttackable(movable);
-
-					if (!foundOne) { // the first found movable is the one closest to the given movable.
-						movable.informAboutAttackable(currMovable);
-						foundOne = true;
-					}
-				}
-			}
-		}
+		enemyPositions.clear();
+		movablePositions.collectPositions(x, y, startRadius, maxRadius, movable.getPlayerId(), enemyPositions);
+
+		informingVisitor.movable = movable;
+		informingVisitor.movablePlayer = movable.getPlayerId();
+		informingVisitor.foundOne = false;
+		enemyPositions.traverse(informingVisitor);
+		informingVisitor.movable = null;
 	}
 
 	// FIXME @Andreas Eberle replace player everywhere by an object with team and player and move this method to the new class
@@ -159,4 +223,31 @@ public final class MovableGrid implements Serializable {
 	public boolean hasNoMovableAt(int x, int y) {
 		return getMovableAt(x, y) == null;
 	}
+
+	/**
+	 * Informs the enemies at the visited positions about the movable and the movable about the closest of them. It is reused for all calls of
+	 * {@link MovableGrid#informMovables(Movable, short, short, boolean)}.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private final class InformingVisitor implements IMapAreaVisitor {
+		Movable movable;
+		byte movablePlayer;
+		boolean foundOne;
+
+		@Override
+		public boolean visit(int x, int y) {
+			Movable currMovable = getMovableAt(x, y);
+			if (currMovable != null && isEnemy(movablePlayer, currMovable)) {
+				currMovable.informAboutAttackable(movable);
+
+				if (!foundOne) { // the first found movable is the one closest to the given movable.
+					movable.informAboutAttackable(currMovable);
+					foundOne = true;
+				}
+			}
+			return true;
+		}
+	}
 }
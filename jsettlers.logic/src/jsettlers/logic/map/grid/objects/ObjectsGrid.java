@@ -20,15 +20,15 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import jsettlers.common.map.shapes.FreeMapArea;
-import jsettlers.common.map.shapes.HexBorderArea;
-import jsettlers.common.map.shapes.HexGridArea;
-import jsettlers.common.map.shapes.IMapArea;
+import jsettlers.common.map.shapes.IMapAreaVisitor;
 import jsettlers.common.mapobject.EMapObjectType;
 import jsettlers.common.movable.EDirection;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.logic.SerializationUtils;
 import jsettlers.logic.buildings.Building;
 import jsettlers.logic.constants.Constants;
+import jsettlers.logic.map.grid.CoarsePositionIndex;
+import jsettlers.logic.map.grid.HexOrderedPositions;
 import jsettlers.logic.movable.interfaces.IAttackable;
 import jsettlers.logic.movable.interfaces.IInformable;
 
@@ -40,18 +40,28 @@ import jsettlers.logic.movable.interfaces.IInformable;
  */
 public final class ObjectsGrid implements Serializable {
 	private static final long serialVersionUID = 2919416226544282748L;
+	private static final byte INFORMABLE_POSITIONS_PLAYER = 0;
 
 	private final short width;
 	private final short height;
 
 	private transient AbstractHexMapObject[] objectsGrid;
 	private transient Building[] buildingsGrid;
+	/**
+	 * Index of the positions holding an {@link EMapObjectType#ATTACKABLE_TOWER} or {@link EMapObjectType#INFORMABLE_MAP_OBJECT}.
+	 */
+	private transient CoarsePositionIndex informablePositions;
+	private transient HexOrderedPositions informPositions;
+	private transient InformingVisitor informingVisitor;
 
 	public ObjectsGrid(short width, short height) {
 		this.width = width;
 		this.height = height;
 		this.objectsGrid = new AbstractHexMapObject[width * height];
 		this.buildingsGrid = new Building[width * height];
+		this.informablePositions = new CoarsePositionIndex(width, height);
+		this.informPositions = new HexOrderedPositions();
+		this.informingVisitor = new InformingVisitor();
 	}
 
 	private final void writeObject(ObjectOutputStream oos) throws IOException {
@@ -100,6 +110,32 @@ public final class ObjectsGrid implements Serializable {
 
 			index = ois.readInt();
 		}
+
+		informablePositions = new CoarsePositionIndex(width, height);
+		for (int idx = 0; idx < length; idx++) {
+			if (objectsGrid[idx] != null) {
+				updateInformablePosition(idx % width, idx / width);
+			}
+		}
+		informPositions = new HexOrderedPositions();
+		informingVisitor = new InformingVisitor();
+	}
+
+	/**
+	 * NOTE: Only changes of these types may update the index. Other objects (e.g. construction marks) are also changed by other threads than the
+	 * game thread.
+	 */
+	private static boolean isInformableType(EMapObjectType mapObjectType) {
+		return mapObjectType == EMapObjectType.ATTACKABLE_TOWER || mapObjectType == EMapObjectType.INFORMABLE_MAP_OBJECT;
+	}
+
+	private void updateInformablePosition(int x, int y) {
+		AbstractHexMapObject mapObjectHead = objectsGrid[x + y * width];
+		if (mapObjectHead != null && mapObjectHead.hasMapObjectTypes(EMapObjectType.ATTACKABLE_TOWER, EMapObjectType.INFORMABLE_MAP_OBJECT)) {
+			informablePositions.set(x, y, INFORMABLE_POSITIONS_PLAYER);
+		} else {
+			informablePositions.clear(x, y, INFORMABLE_POSITIONS_PLAYER);
+		}
 	}
 
 	public final AbstractHexMapObject getObjectsAt(int x, int y) {
@@ -124,6 +160,9 @@ public final class ObjectsGrid implements Serializable {
 			} else {
 				removed = mapObjectHead.removeMapObjectType(mapObjectType);
 			}
+			if (isInformableType(mapObjectType)) {
+				updateInformablePosition(x, y);
+			}
 		}
 		return removed;
 	}
@@ -139,6 +178,9 @@ public final class ObjectsGrid implements Serializable {
 			} else {
 				removed = mapObjectHead.removeMapObject(mapObject);
 			}
+			if (removed && isInformableType(mapObject.getObjectType())) {
+				updateInformablePosition(x, y);
+			}
 
 			return removed;
 		} else
@@ -155,6 +197,9 @@ public final class ObjectsGrid implements Serializable {
 		} else {
 			mapObjectHead.addMapObject(mapObject);
 		}
+		if (isInformableType(mapObject.getObjectType())) {
+			updateInformablePosition(x, y);
+		}
 	}
 
 	public final boolean hasCuttableObject(int x, int y, EMapObjectType mapObjectType) {
@@ -194,35 +239,40 @@ public final class ObjectsGrid implements Serializable {
 	 * @param b
 	 */
 	public void informObjectsAboutAttackble(ShortPoint2D position, IAttackable attackable, boolean informFullArea, boolean informAttackable) {
-		IMapArea area;
+		int startRadius, maxRadius;
 		if (informFullArea) {
-			area = new HexGridArea(position.x, position.y, (short) 1, Constants.TOWER_SEARCH_RADIUS);
+			startRadius = 1;
+			maxRadius = Constants.TOWER_SEARCH_RADIUS;
 		} else {
-			area = new HexBorderArea(position.x, position.y, (short) (Constants.TOWER_SEARCH_RADIUS - 1));
+			startRadius = maxRadius = Constants.TOWER_SEARCH_RADIUS - 1;
 		}
 
-		byte movablePlayer = attackable.getPlayerId();
-
-		for (ShortPoint2D curr : area) {
-			short x = curr.x;
-			short y = curr.y;
-			if (0 <= x && x < width && 0 <= y && y < height) {
-				IAttackable currTower = (IAttackable) getMapObjectAt(x, y, EMapObjectType.ATTACKABLE_TOWER);
+		informPositions.clear();
+		collectAttackableTowerPositions(position.x, position.y, startRadius, maxRadius, informPositions);
 
-				if (currTower != null && currTower.getPlayerId() != movablePlayer) {
-					currTower.informAboutAttackable(attackable);
-
-					if (informAttackable) {
-						attackable.informAboutAttackable(currTower);
-					}
-				}
+		informingVisitor.attackable = attackable;
+		informingVisitor.movablePlayer = attackable.getPlayerId();
+		informingVisitor.informAttackable = informAttackable;
+		informPositions.traverse(informingVisitor);
+		informingVisitor.attackable = null;
+	}
 
-				IInformable currInformable = (IInformable) getMapObjectAt(x, y, EMapObjectType.INFORMABLE_MAP_OBJECT);
-				if (currInformable != null) {
-					currInformable.informAboutAttackable(attackable);
-				}
-			}
-		}
+	/**
+	 * Adds all positions of the given hexagon area that hold an {@link EMapObjectType#ATTACKABLE_TOWER} or an
+	 * {@link EMapObjectType#INFORMABLE_MAP_OBJECT} to the given {@link HexOrderedPositions}.
+	 * 
+	 * @param x
+	 *            x coordinate of the center.
+	 * @param y
+	 *            y coordinate of the center.
+	 * @param startRadius
+	 *            inclusive inner radius of the area.
+	 * @param maxRadius
+	 *            inclusive outer radius of the area.
+	 * @param result
+	 */
+	public void collectAttackableTowerPositions(int x, int y, int startRadius, int maxRadius, HexOrderedPositions result) {
+		informablePositions.collectPositions(x, y, startRadius, maxRadius, (byte) -1, result);
 	}
 
 	public void setBuildingArea(FreeMapArea area, Building building) {
@@ -239,4 +289,35 @@ public final class ObjectsGrid implements Serializable {
 		return buildingsGrid[x + y * width] != null;
 	}
 
+	/**
+	 * Informs the towers of other players and the informable map objects at the visited positions about the attackable. It is reused for all calls
+	 * of {@link ObjectsGrid#informObjectsAboutAttackble(ShortPoint2D, IAttackable, boolean, boolean)}.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private final class InformingVisitor implements IMapAreaVisitor {
+		IAttackable attackable;
+		byte movablePlayer;
+		boolean informAttackable;
+
+		@Override
+		public boolean visit(int x, int y) {
+			IAttackable currTower = (IAttackable) getMapObjectAt(x, y, EMapObjectType.ATTACKABLE_TOWER);
+
+			if (currTower != null && currTower.getPlayerId() != movablePlayer) {
+				currTower.informAboutAttackable(attackable);
+
+				if (informAttackable) {
+					attackable.informAboutAttackable(currTower);
+				}
+			}
+
+			IInformable currInformable = (IInformable) getMapObjectAt(x, y, EMapObjectType.INFORMABLE_MAP_OBJECT);
+			if (currInformable != null) {
+				currInformable.informAboutAttackable(attackable);
+			}
+			return true;
+		}
+	}
 }
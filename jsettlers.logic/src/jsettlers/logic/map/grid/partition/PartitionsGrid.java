@@ -19,12 +19,14 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 
+import jsettlers.algorithms.construction.IConstructionDataChangedListener;
 import jsettlers.algorithms.interfaces.IContainingProvider;
 import jsettlers.algorithms.partitions.IBlockingProvider;
 import jsettlers.algorithms.partitions.PartitionCalculatorAlgorithm;
@@ -81,7 +83,21 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 	private final short[] blockedPartitionsForPlayers;
 
 	private transient Object partitionsWriteLock;
+	/**
+	 * The ids of the partitions referencing the same {@link Partition} object are chained by this array, starting with the id of the
+	 * representative. 0 ends a chain. This allows merges to only touch the ids of the merged partition.
+	 */
+	private transient short[] aliasChains;
+	/**
+	 * Number of partition ids that are no representative of their partition any more.
+	 */
+	private transient int numberOfAliases;
+	/**
+	 * There is no free partition id below this id.
+	 */
+	private transient short firstFreePartitionCandidate;
 	private transient IPlayerChangedListener playerChangedListener = IPlayerChangedListener.DEFAULT_IMPLEMENTATION;
+	private transient IConstructionDataChangedListener constructionDataChangedListener;
 
 	public PartitionsGrid(short width, short height, byte numberOfPlayers, IPartitionsGridBlockingProvider blockingProvider) {
 		this.width = width;
@@ -89,6 +105,8 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 		this.blockingProvider = blockingProvider;
 		blockingProvider.registerBlockingChangedListener(this);
 
+		initAdditionalFields();
+
 		this.players = new Player[numberOfPlayers]; // create the players.
 		this.blockedPartitionsForPlayers = new short[numberOfPlayers];
 		for (byte playerId = 0; playerId < numberOfPlayers; playerId++) {
@@ -102,8 +120,6 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 
 		// the no player partition (the manager won't be started)
 		this.partitionObjects[NO_PLAYER_PARTITION_ID] = new Partition(NO_PLAYER_PARTITION_ID, (byte) -1, width * height);
-
-		initAdditionalFields();
 	}
 
 	private void writeObject(ObjectOutputStream oos) throws IOException {
@@ -119,6 +135,22 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 
 	private void initAdditionalFields() {
 		partitionsWriteLock = new Object();
+		initAliasChains();
+	}
+
+	private void initAliasChains() {
+		aliasChains = new short[partitionObjects.length];
+		numberOfAliases = 0;
+		firstFreePartitionCandidate = 1;
+
+		for (short i = 1; i < partitionObjects.length; i++) {
+			Partition partitionObject = partitionObjects[i];
+			if (partitionObject != null && partitionObject.partitionId != i) {
+				aliasChains[i] = aliasChains[partitionObject.partitionId];
+				aliasChains[partitionObject.partitionId] = i;
+				numberOfAliases++;
+			}
+		}
 	}
 
 	public boolean isDefaultPartition(short partitionId) {
@@ -563,20 +595,25 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 		smallerPartitionObject.mergeInto(biggerPartitionObject);
 		smallerPartitionObject.stopManager();
 
-		partitionObjects[smallerPartition] = biggerPartitionObject;
-
 		/**
 		 * Flatten all hierarchies: <br>
 		 * start situation: 1 <- 2 and 3 <- 4 <br>
 		 * merge of 4 and 2 leads to a merge of 1 and 3. Say 1 is the resulting partition. Then we get: <br>
 		 * 1 <- 2, 1 <- 3 <- 4 <br>
-		 * The chain 1 <- 3 <- 4 will be cut to 1 <- 3 and 1 <- 4 by the following code. <br>
+		 * The chain 1 <- 3 <- 4 will be cut to 1 <- 3 and 1 <- 4 by the following code. Only the ids in the alias chain of the smaller partition
+		 * need to be changed. <br>
 		 */
-		int numberOfPartitions = partitionObjects.length;
-		for (int i = 1; i < numberOfPartitions; i++) {
-			if (partitionObjects[i] == smallerPartitionObject) {
-				partitionObjects[i] = biggerPartitionObject;
-			}
+		short lastAlias = smallerPartition;
+		for (short alias = smallerPartition; alias != 0; alias = aliasChains[alias]) {
+			partitionObjects[alias] = biggerPartitionObject;
+			lastAlias = alias;
+		}
+		aliasChains[lastAlias] = aliasChains[biggerPartition];
+		aliasChains[biggerPartition] = smallerPartition;
+		numberOfAliases++;
+
+		if (constructionDataChangedListener != null) {
+			constructionDataChangedListener.allConstructionDataChanged(); // the partition ids of all positions of the smaller partition changed
 		}
 
 		return biggerPartition;
@@ -659,6 +696,9 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 		synchronized (partitionsWriteLock) {
 			partitions[idx] = newPartition;
 		}
+		if (constructionDataChangedListener != null) {
+			constructionDataChangedListener.constructionDataChangedAt(x, y);
+		}
 
 		return newPartitionObject.playerId;
 	}
@@ -670,7 +710,7 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 	short createNewPartition(byte player) { // package private for tests
 		checkNormalizePartitions(NUMBER_OF_START_PARTITION_OBJECTS / 2);
 
-		short newPartitionId = 1;
+		short newPartitionId = firstFreePartitionCandidate;
 
 		while (partitionObjects[newPartitionId] != null) { // get a free partition
 			newPartitionId++;
@@ -683,6 +723,7 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 
 					System.arraycopy(partitionObjects, 0, newPartitionObjects, 0, length);
 					partitionObjects = newPartitionObjects;
+					aliasChains = Arrays.copyOf(aliasChains, newLength);
 
 					System.out.println("PartitionsGrid: Expanded the number of possible partitions from " + length + " to " + newLength);
 				}
@@ -692,6 +733,8 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 		Partition newPartitionObject = new Partition(newPartitionId, player);
 		newPartitionObject.startManager();
 		partitionObjects[newPartitionId] = newPartitionObject;
+		aliasChains[newPartitionId] = 0;
+		firstFreePartitionCandidate = (short) (newPartitionId + 1);
 
 		return newPartitionId;
 	}
@@ -714,12 +757,10 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 
 		// if the position has a player
 		if (currPartition != NO_PLAYER_PARTITION_ID) {
-			// create a new partition for the given position and add the position to the partition
 			byte playerId = partitionObjects[currPartition].playerId;
-			short newPartition = createNewPartition(playerId);
-			changePartitionUncheckedAt(x, y, newPartition);
+			short newPartition = NO_PLAYER_PARTITION_ID;
 
-			// check all neighbors for merges
+			// add the position to the partition of a neighbor of the same player and merge the partitions of the other neighbors
 			for (int i = 0; i < EDirection.NUMBER_OF_DIRECTIONS; i++) {
 				int currNeighborX = x + EDirection.values[i].gridDeltaX;
 				int currNeighborY = y + EDirection.values[i].gridDeltaY;
@@ -731,11 +772,22 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 					byte neighborPlayer = partitionObjects[neighborPartition].playerId;
 
 					// if the position and the neighbor are from the same player, then merge the partitions
-					if (playerId == neighborPlayer && partitionObjects[newPartition] != partitionObjects[neighborPartition]) {
-						mergePartitions(newPartition, neighborPartition);
+					if (playerId == neighborPlayer) {
+						if (newPartition == NO_PLAYER_PARTITION_ID) {
+							newPartition = partitionObjects[neighborPartition].partitionId;
+							if (partitionObjects[currPartition] != partitionObjects[newPartition]) { // the position may already be in that partition
+								changePartitionUncheckedAt(x, y, newPartition);
+							}
+						} else if (partitionObjects[newPartition] != partitionObjects[neighborPartition]) {
+							newPartition = mergePartitions(newPartition, neighborPartition);
+						}
 					}
 				}
 			}
+
+			if (newPartition == NO_PLAYER_PARTITION_ID) { // no neighbor of the same player => create a new partition for the position
+				changePartitionUncheckedAt(x, y, createNewPartition(playerId));
+			}
 		}
 	}
 
@@ -753,11 +805,25 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 		}
 	}
 
+	/**
+	 * Sets the given listener. The listener will then be informed of any positions that change their partition.
+	 * 
+	 * @param listener
+	 *            The listener to be set or null if no listener should be set.
+	 */
+	public void setConstructionDataChangedListener(IConstructionDataChangedListener listener) {
+		this.constructionDataChangedListener = listener;
+	}
+
 	public byte getNumberOfPlayers() {
 		return (byte) players.length;
 	}
 
 	private int checkNormalizePartitions(int mergePartitionsThreshold) {
+		if (numberOfAliases <= mergePartitionsThreshold) {
+			return 0;// skip the rest if nothing is to do.
+		}
+
 		int maxPartitions = this.partitionObjects.length;
 		BitSet stoppedManagers = new BitSet(maxPartitions);
 
@@ -772,10 +838,6 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 			}
 		}
 
-		if (counter <= mergePartitionsThreshold) {
-			return 0;// skip the rest if nothing is to do.
-		}
-
 		// normalize the partitions
 		for (int y = 0; y < height; y++) {
 			synchronized (partitionsWriteLock) { // the lock is acquired here to prevent holding it for a long time without requesting it every time
@@ -794,6 +856,7 @@ public final class PartitionsGrid implements Serializable, IBlockingChangedListe
 				}
 			}
 		}
+		initAliasChains(); // every partition is its own representative now
 
 		return counter;
 	}
@@ -90,6 +90,16 @@ public class PartitionManager implements IScheduledTimerable, Serializable, IWor
 		public boolean isEmpty() {
 			return joblessBearer.isEmpty();
 		}
+
+		@Override
+		public Iterable<? extends IManagerBearer> getJobless() {
+			return joblessBearer;
+		}
+
+		@Override
+		public void removeJobless(IManagerBearer jobless) {
+			joblessBearer.remove((IManageableBearer) jobless);
+		}
 	}, materialOffers, settings);
 
 	private final LinkedList<WorkerRequest> workerRequests = new LinkedList<WorkerRequest>();
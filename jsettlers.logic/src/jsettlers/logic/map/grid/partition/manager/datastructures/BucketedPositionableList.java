@@ -0,0 +1,467 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager.datastructures;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import jsettlers.algorithms.queue.ITypeAcceptor;
+import jsettlers.common.position.ILocatable;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.common.utils.MathUtils;
+import jsettlers.logic.map.grid.partition.manager.datastructures.PositionableList.IMovedVisitor;
+
+/**
+ * This data structure offers the same operations as the {@link PositionableList}, but stores the objects in buckets of
+ * {@link #CELL_SIZE}x{@link #CELL_SIZE} positions. Objects at a given position are found by only looking into one bucket and the nearest object is
+ * searched in rings of buckets around the given position.
+ * <p />
+ * The results are exactly the same as the ones of the {@link PositionableList}: Objects with the same distance are returned in the order they have
+ * been inserted.
+ * <p />
+ * NOTE: The position of an object must not change while it is stored in this list.
+ * 
+ * @author Andreas Eberle
+ * 
+ * @param <T>
+ */
+public class BucketedPositionableList<T extends ILocatable> implements Iterable<T>, Serializable {
+	private static final long serialVersionUID = -3545893651066402151L;
+
+	private static final int CELL_BITS = 3;
+	private static final int CELL_SIZE = 1 << CELL_BITS;
+	/**
+	 * Up to this number of objects, all buckets are searched instead of the rings of buckets around the position.
+	 */
+	private static final int MAX_SIZE_FOR_FULL_SEARCH = 16;
+
+	private transient CellTable<ArrayList<Entry<T>>> cells;
+	private transient int size;
+	private transient long nextSequenceNumber;
+
+	private transient int minCellX;
+	private transient int maxCellX;
+	private transient int minCellY;
+	private transient int maxCellY;
+
+	public BucketedPositionableList() {
+		init();
+	}
+
+	private void init() {
+		cells = new CellTable<ArrayList<Entry<T>>>();
+		size = 0;
+		nextSequenceNumber = 0;
+		minCellX = minCellY = Integer.MAX_VALUE;
+		maxCellX = maxCellY = Integer.MIN_VALUE;
+	}
+
+	public void insert(T object) {
+		ShortPoint2D pos = object.getPos();
+		int cellX = pos.x >> CELL_BITS;
+		int cellY = pos.y >> CELL_BITS;
+		int cellKey = getCellKey(cellX, cellY);
+
+		ArrayList<Entry<T>> cell = cells.get(cellKey);
+		if (cell == null) {
+			cell = new ArrayList<Entry<T>>();
+			cells.put(cellKey, cell);
+		}
+		cell.add(new Entry<T>(object, pos, nextSequenceNumber++));
+		size++;
+
+		minCellX = Math.min(minCellX, cellX);
+		maxCellX = Math.max(maxCellX, cellX);
+		minCellY = Math.min(minCellY, cellY);
+		maxCellY = Math.max(maxCellY, cellY);
+	}
+
+	/**
+	 * Finds the object that's closest to the given position and removes it.
+	 * 
+	 * @param position
+	 *            position to be used to find the nearest accepted neighbor around it.
+	 * @return object that's nearest to position
+	 */
+	public T removeObjectNextTo(ShortPoint2D position) {
+		return removeObjectNextTo(position, null);
+	}
+
+	/**
+	 * Finds the object that's closest to the given position and removes it.
+	 * 
+	 * @param position
+	 *            position to be used to find the nearest accepted neighbor around it.
+	 * @param acceptor
+	 *            if acceptor != null => the result is accepted by the acceptor. <br>
+	 *            if result == null every entry is accepted.
+	 * @return accepted object that's nearest to position
+	 */
+	public T removeObjectNextTo(ShortPoint2D position, ITypeAcceptor<T> acceptor) {
+		T currBest = getObjectCloseTo(position, acceptor);
+
+		if (currBest != null)
+			remove(currBest);
+
+		return currBest;
+	}
+
+	public T removeObjectAt(ShortPoint2D position) {
+		T object = getObjectAt(position);
+		if (object != null) {
+			remove(object);
+		}
+		return object;
+	}
+
+	/**
+	 * Returns the first object found at the given position or null.
+	 * 
+	 * @param position
+	 *            The position to look for.
+	 * @return Returns the found object at the given position or null if no object has been found.
+	 */
+	public T getObjectAt(ShortPoint2D position) {
+		ArrayList<Entry<T>> cell = cells.get(getCellKey(position.x >> CELL_BITS, position.y >> CELL_BITS));
+		if (cell != null) {
+			for (Entry<T> entry : cell) {
+				if (entry.pos.equals(position)) {
+					return entry.object;
+				}
+			}
+		}
+		return null;
+	}
+
+	public T getObjectCloseTo(ShortPoint2D position) {
+		return getObjectCloseTo(position, null);
+	}
+
+	private T getObjectCloseTo(ShortPoint2D position, ITypeAcceptor<T> acceptor) {
+		if (size == 0) {
+			return null;
+		}
+
+		int cellX = position.x >> CELL_BITS;
+		int cellY = position.y >> CELL_BITS;
+		int maxRing = Math.max(Math.max(cellX - minCellX, maxCellX - cellX), Math.max(cellY - minCellY, maxCellY - cellY));
+
+		Entry<T> currBest = null;
+		int bestDistance = Integer.MAX_VALUE;
+
+		if (size <= MAX_SIZE_FOR_FULL_SEARCH) {
+			for (int slot = 0; slot < cells.capacity(); slot++) {
+				ArrayList<Entry<T>> cell = cells.getAtSlot(slot);
+				if (cell != null) {
+					currBest = getBestOfCell(cell, position, acceptor, currBest);
+				}
+			}
+			return currBest == null ? null : currBest.object;
+		}
+
+		for (int ring = 0; ring <= maxRing; ring++) {
+			if (ring > 0) { // positions in this ring of cells are at least (ring - 1) * CELL_SIZE + 1 away in x or y direction
+				int minDelta = (ring - 1) * CELL_SIZE + 1;
+				if (MathUtils.squareHypot(minDelta, 0) > bestDistance) {
+					break;
+				}
+			}
+
+			for (int x = cellX - ring; x <= cellX + ring; x++) {
+				currBest = getBestOfCell(x, cellY - ring, position, acceptor, currBest);
+				if (ring > 0) {
+					currBest = getBestOfCell(x, cellY + ring, position, acceptor, currBest);
+				}
+			}
+			for (int y = cellY - ring + 1; y < cellY + ring; y++) {
+				currBest = getBestOfCell(cellX - ring, y, position, acceptor, currBest);
+				currBest = getBestOfCell(cellX + ring, y, position, acceptor, currBest);
+			}
+
+			if (currBest != null) {
+				bestDistance = MathUtils.squareHypot(position, currBest.pos);
+			}
+		}
+
+		return currBest == null ? null : currBest.object;
+	}
+
+	private Entry<T> getBestOfCell(int cellX, int cellY, ShortPoint2D position, ITypeAcceptor<T> acceptor, Entry<T> currBest) {
+		if (cellX < minCellX || cellX > maxCellX || cellY < minCellY || cellY > maxCellY) {
+			return currBest;
+		}
+
+		ArrayList<Entry<T>> cell = cells.get(getCellKey(cellX, cellY));
+		if (cell == null) {
+			return currBest;
+		}
+		return getBestOfCell(cell, position, acceptor, currBest);
+	}
+
+	private Entry<T> getBestOfCell(ArrayList<Entry<T>> cell, ShortPoint2D position, ITypeAcceptor<T> acceptor, Entry<T> currBest) {
+		int bestDistance = currBest == null ? Integer.MAX_VALUE : MathUtils.squareHypot(position, currBest.pos);
+		for (Entry<T> entry : cell) {
+			if (acceptor != null && !acceptor.accepts(entry.object))
+				continue;
+
+			int currDist = MathUtils.squareHypot(position, entry.pos);
+			if (currDist < bestDistance || (currDist == bestDistance && entry.sequenceNumber < currBest.sequenceNumber)) {
+				bestDistance = currDist;
+				currBest = entry;
+			}
+		}
+		return currBest;
+	}
+
+	public void remove(T object) {
+		ShortPoint2D pos = object.getPos();
+		int cellKey = getCellKey(pos.x >> CELL_BITS, pos.y >> CELL_BITS);
+		ArrayList<Entry<T>> cell = cells.get(cellKey);
+		if (cell == null) {
+			return;
+		}
+
+		for (int i = 0; i < cell.size(); i++) {
+			if (cell.get(i).object == object) {
+				cell.remove(i);
+				size--;
+				if (cell.isEmpty()) {
+					cells.remove(cellKey);
+				}
+				return;
+			}
+		}
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void addAll(BucketedPositionableList<T> otherList) {
+		for (T object : otherList) {
+			insert(object);
+		}
+	}
+
+	public void moveObjectsAtPositionTo(ShortPoint2D position, BucketedPositionableList<T> newList, IMovedVisitor<? super T> movedVisitor) {
+		int cellKey = getCellKey(position.x >> CELL_BITS, position.y >> CELL_BITS);
+		ArrayList<Entry<T>> cell = cells.get(cellKey);
+		if (cell == null) {
+			return;
+		}
+
+		Iterator<Entry<T>> iter = cell.iterator();
+		while (iter.hasNext()) {
+			Entry<T> curr = iter.next();
+			if (curr.pos.equals(position)) {
+				iter.remove();
+				size--;
+				movedVisitor.visit(curr.object);
+				newList.insert(curr.object);
+			}
+		}
+
+		if (cell.isEmpty()) {
+			cells.remove(cellKey);
+		}
+	}
+
+	/**
+	 * Iterates the objects in the order they have been inserted.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return getObjectsInInsertionOrder().iterator();
+	}
+
+	private List<T> getObjectsInInsertionOrder() {
+		ArrayList<Entry<T>> entries = new ArrayList<Entry<T>>(size);
+		for (int slot = 0; slot < cells.capacity(); slot++) {
+			ArrayList<Entry<T>> cell = cells.getAtSlot(slot);
+			if (cell != null) {
+				entries.addAll(cell);
+			}
+		}
+		Collections.sort(entries, new Comparator<Entry<T>>() {
+			@Override
+			public int compare(Entry<T> entry1, Entry<T> entry2) {
+				return Long.compare(entry1.sequenceNumber, entry2.sequenceNumber);
+			}
+		});
+
+		ArrayList<T> objects = new ArrayList<T>(size);
+		for (Entry<T> entry : entries) {
+			objects.add(entry.object);
+		}
+		return objects;
+	}
+
+	@Override
+	public String toString() {
+		return getObjectsInInsertionOrder().toString();
+	}
+
+	private void writeObject(ObjectOutputStream oos) throws IOException {
+		oos.defaultWriteObject();
+		List<T> objects = getObjectsInInsertionOrder();
+		oos.writeInt(objects.size());
+		for (T object : objects) {
+			oos.writeObject(object);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		ois.defaultReadObject();
+		init();
+		int size = ois.readInt();
+		for (int i = 0; i < size; i++) {
+			insert((T) ois.readObject());
+		}
+	}
+
+	private static int getCellKey(int cellX, int cellY) {
+		return (cellX << 16) | cellY;
+	}
+
+	/**
+	 * Hash table of the cells with open addressing and linear probing. In contrast to a {@link java.util.HashMap}, the int keys are not boxed.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 * @param <V>
+	 */
+	private static final class CellTable<V> {
+		private static final int INITIAL_CAPACITY = 16;
+
+		private int[] keys = new int[INITIAL_CAPACITY];
+		private Object[] values = new Object[INITIAL_CAPACITY];
+		private int size = 0;
+
+		int capacity() {
+			return values.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		V getAtSlot(int slot) {
+			return (V) values[slot];
+		}
+
+		V get(int key) {
+			int mask = values.length - 1;
+			for (int slot = getHomeSlot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+				if (keys[slot] == key) {
+					return getAtSlot(slot);
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Adds the value for the given key. The key must not be in the table yet.
+		 */
+		void put(int key, V value) {
+			if (2 * (size + 1) > values.length) { // keep the load factor at most 1/2
+				resize(2 * values.length);
+			}
+			insert(key, value);
+			size++;
+		}
+
+		void remove(int key) {
+			int mask = values.length - 1;
+			int slot = getHomeSlot(key, mask);
+			while (values[slot] != null && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			if (values[slot] == null) {
+				return; // the key is not in the table
+			}
+
+			values[slot] = null;
+			size--;
+
+			// move the following entries of the probe sequence back, so that no gap is left between them and their home slot
+			int emptySlot = slot;
+			for (int curr = (slot + 1) & mask; values[curr] != null; curr = (curr + 1) & mask) {
+				int home = getHomeSlot(keys[curr], mask);
+				if (((curr - home) & mask) >= ((curr - emptySlot) & mask)) {
+					keys[emptySlot] = keys[curr];
+					values[emptySlot] = values[curr];
+					values[curr] = null;
+					emptySlot = curr;
+				}
+			}
+		}
+
+		private void insert(int key, Object value) {
+			int mask = values.length - 1;
+			int slot = getHomeSlot(key, mask);
+			while (values[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			values[slot] = value;
+		}
+
+		private void resize(int newCapacity) {
+			int[] oldKeys = keys;
+			Object[] oldValues = values;
+			keys = new int[newCapacity];
+			values = new Object[newCapacity];
+
+			for (int slot = 0; slot < oldValues.length; slot++) {
+				if (oldValues[slot] != null) {
+					insert(oldKeys[slot], oldValues[slot]);
+				}
+			}
+		}
+
+		private static int getHomeSlot(int key, int mask) {
+			int hash = key * 0x9E3779B9;
+			return (hash ^ (hash >>> 16)) & mask;
+		}
+	}
+
+	/**
+	 * An object of the list with the position it has been inserted at and its insertion sequence number.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 * @param <T>
+	 */
+	private static final class Entry<T> {
+		final T object;
+		final ShortPoint2D pos;
+		final long sequenceNumber;
+
+		Entry(T object, ShortPoint2D pos, long sequenceNumber) {
+			this.object = object;
+			this.pos = pos;
+			this.sequenceNumber = sequenceNumber;
+		}
+	}
+}
@@ -15,10 +15,12 @@
 package jsettlers.logic.map.grid.partition.manager.materials;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 
 import jsettlers.common.map.partition.IPartitionSettings;
 import jsettlers.common.material.EMaterialType;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
 import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IJoblessSupplier;
 import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IManagerBearer;
 import jsettlers.logic.map.grid.partition.manager.materials.offers.MaterialOffer;
@@ -37,12 +39,23 @@ import jsettlers.logic.map.grid.partition.manager.materials.requests.SimpleMater
 public final class MaterialsManager implements Serializable {
 	private static final long serialVersionUID = 6395951461349453696L;
 
+	/**
+	 * Maximum number of jobs distributed in one call of {@link #distributeJobs()} in batched mode.
+	 */
+	private static final int MAX_BATCHED_JOBS_PER_CALL = 32;
+	/**
+	 * Number of the closest jobless bearers of every job that are considered for the assignment.
+	 */
+	private static final int CANDIDATES_PER_JOB = 4;
+
 	private final OffersList offersList;
 	private final AbstractMaterialRequestPriorityQueue[] requestQueues;
 	private final IJoblessSupplier joblessSupplier;
 
 	private final IPartitionSettings settings;
 
+	private transient MinimumCostAssignment minimumCostAssignment;
+
 	/**
 	 * Creates a new {@link MaterialsManager} that uses the given {@link IJoblessSupplier} and {@link OffersList} for it's operations.
 	 * 
@@ -82,6 +95,11 @@ public final class MaterialsManager implements Serializable {
 	}
 
 	public void distributeJobs() {
+		if (MatchConstants.ENABLE_BATCHED_MATERIAL_DISTRIBUTION) {
+			distributeJobsBatched();
+			return;
+		}
+
 		for (int i = 0; i < EMaterialType.NUMBER_OF_DROPPABLE_MATERIALS && !joblessSupplier.isEmpty(); i++) {
 			distributeJobForMaterial(settings.getMaterialTypeForPrio(i));
 		}
@@ -110,6 +128,133 @@ public final class MaterialsManager implements Serializable {
 		}
 	}
 
+	/**
+	 * Distributes the jobs in rounds. In every round, at most one job per material is selected like in the greedy distribution. Afterwards the jobless
+	 * bearers are assigned to the jobs of the round, so that the sum of the distances from the bearers to the offers is minimal. The number of jobs per
+	 * call is limited by {@link #MAX_BATCHED_JOBS_PER_CALL}.
+	 */
+	private void distributeJobsBatched() {
+		int distributedJobs = 0;
+
+		while (distributedJobs < MAX_BATCHED_JOBS_PER_CALL && !joblessSupplier.isEmpty()) {
+			ArrayList<IManagerBearer> jobless = new ArrayList<IManagerBearer>();
+			for (IManagerBearer curr : joblessSupplier.getJobless()) {
+				jobless.add(curr);
+			}
+
+			int maxJobs = Math.min(jobless.size(), MAX_BATCHED_JOBS_PER_CALL - distributedJobs);
+			ArrayList<Job> jobs = new ArrayList<Job>();
+			for (int i = 0; i < EMaterialType.NUMBER_OF_DROPPABLE_MATERIALS && jobs.size() < maxJobs; i++) {
+				Job job = createJob(settings.getMaterialTypeForPrio(i));
+				if (job != null) {
+					jobs.add(job);
+				}
+			}
+
+			if (jobs.isEmpty()) {
+				return;
+			}
+
+			assignBearers(jobs, jobless);
+			distributedJobs += jobs.size();
+		}
+	}
+
+	private Job createJob(EMaterialType materialType) {
+		if (offersList.isEmpty(materialType))
+			return null;
+
+		MaterialRequestObject request = requestQueues[materialType.ordinal].getHighestRequest();
+		if (request == null)
+			return null;
+
+		MaterialOffer offer = offersList.removeOfferCloseTo(materialType, request.getPos());
+
+		assert offer != null : "The offer can't be null here!";
+
+		return new Job(materialType, offer.getPos(), request);
+	}
+
+	private void assignBearers(ArrayList<Job> jobs, ArrayList<IManagerBearer> jobless) {
+		ArrayList<IManagerBearer> candidates = getCandidates(jobs, jobless);
+
+		int[][] costs = new int[jobs.size()][candidates.size()];
+		for (int i = 0; i < jobs.size(); i++) {
+			ShortPoint2D offerPosition = jobs.get(i).offerPosition;
+			for (int j = 0; j < candidates.size(); j++) {
+				costs[i][j] = offerPosition.getOnGridDistTo(candidates.get(j).getPos());
+			}
+		}
+
+		if (minimumCostAssignment == null) {
+			minimumCostAssignment = new MinimumCostAssignment();
+		}
+		int[] assignment = new int[jobs.size()];
+		minimumCostAssignment.solve(costs, jobs.size(), candidates.size(), assignment);
+
+		for (int i = 0; i < jobs.size(); i++) {
+			Job job = jobs.get(i);
+			IManagerBearer bearer = candidates.get(assignment[i]);
+			joblessSupplier.removeJobless(bearer);
+
+			if (!bearer.deliver(job.materialType, job.offerPosition, job.request)) {
+				offersList.addOffer(job.offerPosition, job.materialType);
+			}
+		}
+	}
+
+	/**
+	 * Selects the {@link #CANDIDATES_PER_JOB} closest jobless bearers of every job. If this are less bearers than jobs, further bearers are added.
+	 */
+	private static ArrayList<IManagerBearer> getCandidates(ArrayList<Job> jobs, ArrayList<IManagerBearer> jobless) {
+		if (jobless.size() <= jobs.size() * CANDIDATES_PER_JOB) {
+			return jobless;
+		}
+
+		ArrayList<IManagerBearer> candidates = new ArrayList<IManagerBearer>();
+		IManagerBearer[] closest = new IManagerBearer[CANDIDATES_PER_JOB];
+		int[] closestDistances = new int[CANDIDATES_PER_JOB];
+
+		for (Job job : jobs) {
+			int found = 0;
+			for (IManagerBearer curr : jobless) {
+				int distance = job.offerPosition.getOnGridDistTo(curr.getPos());
+
+				int idx = found;
+				while (idx > 0 && closestDistances[idx - 1] > distance) {
+					idx--;
+				}
+				if (idx < CANDIDATES_PER_JOB) {
+					int last = Math.min(found, CANDIDATES_PER_JOB - 1);
+					System.arraycopy(closest, idx, closest, idx + 1, last - idx);
+					System.arraycopy(closestDistances, idx, closestDistances, idx + 1, last - idx);
+					closest[idx] = curr;
+					closestDistances[idx] = distance;
+					found = Math.min(found + 1, CANDIDATES_PER_JOB);
+				}
+			}
+
+			for (int i = 0; i < found; i++) {
+				addIfAbsent(candidates, closest[i]);
+			}
+		}
+
+		for (int i = 0; candidates.size() < jobs.size(); i++) {
+			addIfAbsent(candidates, jobless.get(i));
+		}
+
+		return candidates;
+	}
+
+	private static void addIfAbsent(ArrayList<IManagerBearer> candidates, IManagerBearer bearer) {
+		for (IManagerBearer curr : candidates) {
+			if (curr == bearer) {
+				return;
+			}
+		}
+		candidates.add(bearer);
+	}
+
 	public void movePositionTo(ShortPoint2D position, MaterialsManager newManager) {
 		for (int i = 0; i < EMaterialType.NUMBER_OF_MATERIALS; i++) {
 			requestQueues[i].moveObjectsOfPositionTo(position, newManager.requestQueues[i]);
@@ -121,4 +266,22 @@ public final class MaterialsManager implements Serializable {
 			requestQueues[i].mergeInto(newManager.requestQueues[i]);
 		}
 	}
+
+	/**
+	 * A transport job selected by the batched distribution.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private static final class Job {
+		final EMaterialType materialType;
+		final ShortPoint2D offerPosition;
+		final MaterialRequestObject request;
+
+		Job(EMaterialType materialType, ShortPoint2D offerPosition, MaterialRequestObject request) {
+			this.materialType = materialType;
+			this.offerPosition = offerPosition;
+			this.request = request;
+		}
+	}
 }
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager.materials;
+
+/**
+ * This class solves the assignment problem for a rectangular cost matrix with the hungarian method. Every row is assigned to a different column so
+ * that the sum of the costs is minimal.
+ * <p />
+ * The runtime is in O(rows^2 * columns). The arrays are reused by the following calls.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+final class MinimumCostAssignment {
+	private int[] rowPotentials = new int[0];
+	private int[] columnPotentials = new int[0];
+	private int[] columnAssignments = new int[0];
+	private int[] way = new int[0];
+	private int[] minSlack = new int[0];
+	private boolean[] used = new boolean[0];
+
+	/**
+	 * Calculates the assignment with the minimal costs.
+	 * 
+	 * @param costs
+	 *            The costs[row][column] of assigning the row to the column.
+	 * @param rows
+	 *            The number of rows to be assigned.
+	 * @param columns
+	 *            The number of columns. This must be greater or equal to rows.
+	 * @param assignment
+	 *            Receives the assigned column of every row.
+	 */
+	void solve(int[][] costs, int rows, int columns, int[] assignment) {
+		assert rows <= columns : "there must be at least as many columns as rows";
+		ensureCapacity(rows, columns);
+
+		for (int i = 0; i <= rows; i++) {
+			rowPotentials[i] = 0;
+		}
+		for (int j = 0; j <= columns; j++) {
+			columnPotentials[j] = 0;
+			columnAssignments[j] = 0;
+		}
+
+		// arrays are one based, column 0 is the virtual start column of every augmenting path
+		for (int row = 1; row <= rows; row++) {
+			columnAssignments[0] = row;
+			int currColumn = 0;
+
+			for (int j = 0; j <= columns; j++) {
+				minSlack[j] = Integer.MAX_VALUE;
+				used[j] = false;
+			}
+
+			do {
+				used[currColumn] = true;
+				int currRow = columnAssignments[currColumn];
+				int delta = Integer.MAX_VALUE;
+				int nextColumn = 0;
+
+				for (int j = 1; j <= columns; j++) {
+					if (!used[j]) {
+						int slack = costs[currRow - 1][j - 1] - rowPotentials[currRow] - columnPotentials[j];
+						if (slack < minSlack[j]) {
+							minSlack[j] = slack;
+							way[j] = currColumn;
+						}
+						if (minSlack[j] < delta) {
+							delta = minSlack[j];
+							nextColumn = j;
+						}
+					}
+				}
+
+				for (int j = 0; j <= columns; j++) {
+					if (used[j]) {
+						rowPotentials[columnAssignments[j]] += delta;
+						columnPotentials[j] -= delta;
+					} else {
+						minSlack[j] -= delta;
+					}
+				}
+				currColumn = nextColumn;
+			} while (columnAssignments[currColumn] != 0);
+
+			do { // invert the augmenting path
+				int prevColumn = way[currColumn];
+				columnAssignments[currColumn] = columnAssignments[prevColumn];
+				currColumn = prevColumn;
+			} while (currColumn != 0);
+		}
+
+		for (int j = 1; j <= columns; j++) {
+			if (columnAssignments[j] != 0) {
+				assignment[columnAssignments[j] - 1] = j - 1;
+			}
+		}
+	}
+
+	private void ensureCapacity(int rows, int columns) {
+		if (rowPotentials.length <= rows) {
+			rowPotentials = new int[rows + 1];
+		}
+		if (columnPotentials.length <= columns) {
+			columnPotentials = new int[columns + 1];
+			columnAssignments = new int[columns + 1];
+			way = new int[columns + 1];
+			minSlack = new int[columns + 1];
+			used = new boolean[columns + 1];
+		}
+	}
+}
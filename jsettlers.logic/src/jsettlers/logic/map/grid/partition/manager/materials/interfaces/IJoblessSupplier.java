@@ -46,4 +46,17 @@ public interface IJoblessSupplier extends Serializable {
 	 */
 	IManagerBearer removeJoblessCloseTo(ShortPoint2D position);
 
+	/**
+	 * 
+	 * @return Returns all jobless of this {@link IJoblessSupplier}.
+	 */
+	Iterable<? extends IManagerBearer> getJobless();
+
+	/**
+	 * Removes the given jobless from this {@link IJoblessSupplier}.
+	 * 
+	 * @param jobless
+	 *            The jobless to be removed.
+	 */
+	void removeJobless(IManagerBearer jobless);
 }
@@ -19,7 +19,7 @@ import java.io.Serializable;
 import jsettlers.common.material.EMaterialType;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.logic.map.grid.partition.data.IMaterialCounts;
-import jsettlers.logic.map.grid.partition.manager.datastructures.PositionableList;
+import jsettlers.logic.map.grid.partition.manager.datastructures.BucketedPositionableList;
 import jsettlers.logic.map.grid.partition.manager.datastructures.PositionableList.IMovedVisitor;
 
 /**
@@ -31,7 +31,7 @@ import jsettlers.logic.map.grid.partition.manager.datastructures.PositionableLis
 public final class OffersList implements IMaterialCounts, Serializable {
 	private static final long serialVersionUID = 3747575330300586115L;
 
-	private final PositionableList<MaterialOffer>[] offersLists;
+	private final BucketedPositionableList<MaterialOffer>[] offersLists;
 	private final short[] numberOfOffers = new short[EMaterialType.NUMBER_OF_MATERIALS];
 
 	/**
@@ -39,9 +39,9 @@ public final class OffersList implements IMaterialCounts, Serializable {
 	 */
 	@SuppressWarnings("unchecked")
 	public OffersList() {
-		offersLists = new PositionableList[EMaterialType.NUMBER_OF_MATERIALS];
+		offersLists = new BucketedPositionableList[EMaterialType.NUMBER_OF_MATERIALS];
 		for (int i = 0; i < EMaterialType.NUMBER_OF_MATERIALS; i++) {
-			offersLists[i] = new PositionableList<MaterialOffer>();
+			offersLists[i] = new BucketedPositionableList<MaterialOffer>();
 		}
 	}
 
@@ -54,7 +54,7 @@ public final class OffersList implements IMaterialCounts, Serializable {
 	 *            The material that is offered at the given position.
 	 */
 	public void addOffer(ShortPoint2D position, EMaterialType material) {
-		PositionableList<MaterialOffer> list = offersLists[material.ordinal];
+		BucketedPositionableList<MaterialOffer> list = offersLists[material.ordinal];
 
 		MaterialOffer existingOffer = list.getObjectAt(position);
 		if (existingOffer != null) {
@@ -88,7 +88,7 @@ public final class OffersList implements IMaterialCounts, Serializable {
 	 *         null if no offer for the given {@link EMaterialType} exists.
 	 */
 	public MaterialOffer removeOfferCloseTo(EMaterialType materialType, ShortPoint2D position) {
-		PositionableList<MaterialOffer> offerSlot = offersLists[materialType.ordinal];
+		BucketedPositionableList<MaterialOffer> offerSlot = offersLists[materialType.ordinal];
 		MaterialOffer offer = offerSlot.getObjectCloseTo(position);
 
 		decrementOfferAmount(offerSlot, materialType, offer);
@@ -105,14 +105,14 @@ public final class OffersList implements IMaterialCounts, Serializable {
 	 * @return The material offer removed at the given location of the given {@link EMaterialType} or null, if there was none.
 	 */
 	public MaterialOffer removeOfferAt(ShortPoint2D position, EMaterialType materialType) {
-		PositionableList<MaterialOffer> offerSlot = offersLists[materialType.ordinal];
+		BucketedPositionableList<MaterialOffer> offerSlot = offersLists[materialType.ordinal];
 		MaterialOffer offer = offerSlot.getObjectAt(position);
 
 		decrementOfferAmount(offerSlot, materialType, offer);
 		return offer;
 	}
 
-	private void decrementOfferAmount(PositionableList<MaterialOffer> offerSlot, EMaterialType materialType, MaterialOffer offer) {
+	private void decrementOfferAmount(BucketedPositionableList<MaterialOffer> offerSlot, EMaterialType materialType, MaterialOffer offer) {
 		if (offer != null) {
 			if (offer.decAmount() <= 0) { // if the offer is now empty.
 				offerSlot.remove(offer);
@@ -129,7 +129,7 @@ public final class OffersList implements IMaterialCounts, Serializable {
 	 * @return
 	 */
 	public MaterialOffer getOfferObjectAt(ShortPoint2D position, EMaterialType materialType) {
-		PositionableList<MaterialOffer> offerSlot = offersLists[materialType.ordinal];
+		BucketedPositionableList<MaterialOffer> offerSlot = offersLists[materialType.ordinal];
 		return offerSlot.getObjectAt(position);
 	}
 
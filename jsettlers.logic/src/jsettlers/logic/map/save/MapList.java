@@ -14,17 +14,28 @@
  *******************************************************************************/
 package jsettlers.logic.map.save;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import jsettlers.common.map.IMapData;
 import jsettlers.common.map.MapLoadException;
 import jsettlers.common.resources.ResourceManager;
 import jsettlers.common.utils.collections.ChangingList;
 import jsettlers.input.PlayerState;
+import jsettlers.logic.constants.Constants;
 import jsettlers.logic.map.grid.GameSerializer;
 import jsettlers.logic.map.grid.MainGrid;
 import jsettlers.logic.map.save.IMapLister.IMapListerCallable;
@@ -44,6 +55,20 @@ import jsettlers.logic.timer.RescheduleTimer;
  */
 public class MapList implements IMapListerCallable {
 	public static final String MAP_EXTENSION = ".map";
+	/**
+	 * Marks the data of a savegame containing a complete compressed snapshot, that can be referenced by delta savegames with the unique id of its
+	 * header. It is only written if {@link Constants#DELTA_SAVES_PER_CHECKPOINT} is positive.
+	 */
+	public static final int CHECKPOINT_MAGIC = 0x4A53434B;
+	/**
+	 * Marks the data of a savegame containing only the compressed {@link SnapshotDelta} to a checkpoint savegame. It is followed by the unique id of
+	 * the checkpoint.
+	 */
+	public static final int DELTA_MAGIC = 0x4A534454;
+
+	private static final int SNAPSHOT_BUFFER_SIZE = 4 * 1024 * 1024;
+	private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+	private static final int ASYNC_SAVE_THREAD_KEEP_ALIVE_SECONDS = 10;
 
 	private static IMapListFactory mapListFactory = new IMapListFactory() {
 		@Override
@@ -61,6 +86,27 @@ public class MapList implements IMapListerCallable {
 
 	private boolean fileListLoaded = false;
 
+	/**
+	 * The save thread is no daemon, so the JVM doesn't exit before a pending savegame is written. It terminates when it has been idle for some
+	 * seconds.
+	 */
+	private final ThreadPoolExecutor asyncSaveExecutor = new ThreadPoolExecutor(0, 1, ASYNC_SAVE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					return new Thread(runnable, "AsyncSaveThread");
+				}
+			});
+	private final Object asyncSaveLock = new Object();
+	private Future<?> pendingSave;
+
+	/**
+	 * Guards {@link #checkpoint}. It is only held to read or replace the checkpoint, never while compressing or writing a savegame, so listing the
+	 * maps isn't blocked by a running save.
+	 */
+	private final Object checkpointLock = new Object();
+	private Checkpoint checkpoint;
+
 	public MapList(File dir) {
 		this(new DirectoryMapLister(new File(dir, "maps")), new DirectoryMapLister(new File(dir, "save")));
 	}
@@ -81,7 +127,7 @@ public class MapList implements IMapListerCallable {
 	@Override
 	public synchronized void foundMap(IListedMap map) {
 		try {
-			MapLoader loader = MapLoader.getLoaderForListedMap(map);
+			MapLoader loader = MapLoader.getLoaderForListedMap(map, this);
 			MapType type = loader.getFileHeader().getType();
 			if (type == MapType.SAVED_SINGLE) {
 				savedMaps.add(loader);
@@ -185,7 +231,137 @@ public class MapList implements IMapListerCallable {
 		OutputStream outStream = saveDir.getOutputStream(header);
 
 		header.writeTo(outStream);
+		writeGameState(playerStates, grid, outStream);
+
+		loadFileList();
+	}
+
+	/**
+	 * Saves a map to disk without blocking the game for the disk access. The game state is serialized into memory on the calling thread, which is the
+	 * only part that needs the map logic to be paused: the movables, buildings and partitions are an object graph that can't be copied any cheaper
+	 * than by serializing it. Computing the delta, compressing the snapshot and writing it to disk is done by a single background thread, which keeps
+	 * the order of the savegames.
+	 * <p />
+	 * If {@link Constants#DELTA_SAVES_PER_CHECKPOINT} is positive, only every n-th savegame is a complete checkpoint. The others just contain the
+	 * delta to the last checkpoint.
+	 * 
+	 * @param playerStates
+	 * @param grid
+	 * @throws IOException
+	 */
+	public void saveMapAsynchronously(PlayerState[] playerStates, final MainGrid grid) throws IOException {
+		final MapFileHeader header = grid.generateSaveHeader();
+		final ByteArrayOutputStream snapshot = new ByteArrayOutputStream(SNAPSHOT_BUFFER_SIZE);
+		writeGameState(playerStates, grid, snapshot);
+
+		synchronized (asyncSaveLock) {
+			pendingSave = asyncSaveExecutor.submit(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						writeCompressedSnapshot(grid, header, snapshot);
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Blocks until all savegames started with {@link #saveMapAsynchronously(PlayerState[], MainGrid)} have been written to disk.
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void awaitPendingSaves() throws InterruptedException {
+		Future<?> save;
+		synchronized (asyncSaveLock) {
+			save = pendingSave;
+		}
+		if (save != null) {
+			try {
+				save.get();
+			} catch (ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void writeCompressedSnapshot(MainGrid game, MapFileHeader header, ByteArrayOutputStream snapshotStream) throws IOException {
+		byte[] snapshot = snapshotStream.toByteArray();
+		boolean writeCheckpoint = Constants.DELTA_SAVES_PER_CHECKPOINT > 0;
+		Checkpoint baseCheckpoint;
+		synchronized (checkpointLock) {
+			if (checkpoint != null && (!checkpoint.belongsTo(game, header) || checkpoint.deltas >= Constants.DELTA_SAVES_PER_CHECKPOINT)) {
+				checkpoint = null;
+			}
+			baseCheckpoint = checkpoint;
+			if (baseCheckpoint != null) {
+				baseCheckpoint.deltas++;
+			}
+		}
+
+		OutputStream outStream = saveDir.getOutputStream(header);
+		try {
+			header.writeTo(outStream);
+			DataOutputStream dataStream = new DataOutputStream(outStream);
+
+			if (baseCheckpoint != null) {
+				dataStream.writeInt(DELTA_MAGIC);
+				dataStream.writeUTF(baseCheckpoint.savegameId);
+				DataOutputStream compressedStream = new DataOutputStream(new GZIPOutputStream(outStream, COMPRESSION_BUFFER_SIZE));
+				SnapshotDelta.encode(baseCheckpoint.snapshot, snapshot, compressedStream);
+				compressedStream.close();
+			} else {
+				if (writeCheckpoint) {
+					dataStream.writeInt(CHECKPOINT_MAGIC);
+				}
+				GZIPOutputStream compressedStream = new GZIPOutputStream(outStream, COMPRESSION_BUFFER_SIZE);
+				compressedStream.write(snapshot);
+				compressedStream.finish();
+			}
+		} finally {
+			outStream.close();
+		}
+
+		if (baseCheckpoint == null && writeCheckpoint) {
+			synchronized (checkpointLock) {
+				checkpoint = new Checkpoint(game, header, snapshot);
+			}
+		}
+
+		synchronized (this) {
+			loadFileList();
+		}
+	}
+
+	/**
+	 * Forgets the checkpoint of the last game, so the next asynchronous save writes a new checkpoint. This needs to be called when a game is started
+	 * or loaded.
+	 */
+	public void resetCheckpoint() {
+		synchronized (checkpointLock) {
+			checkpoint = null;
+		}
+	}
+
+	/**
+	 * Finds the savegame containing the checkpoint with the given id.
+	 * 
+	 * @param checkpointId
+	 *            The unique id of the checkpoint savegame.
+	 * @return The {@link MapLoader} of the checkpoint or null if it does not exist.
+	 */
+	public MapLoader getCheckpointLoader(String checkpointId) {
+		for (MapLoader savegame : getSavedMaps().getItems()) {
+			if (savegame.getMapId().equals(checkpointId) && savegame.isCheckpoint()) {
+				return savegame;
+			}
+		}
+		return null;
+	}
 
+	private static void writeGameState(PlayerState[] playerStates, MainGrid grid, OutputStream outStream) throws IOException {
 		ObjectOutputStream oos = new ObjectOutputStream(outStream);
 		oos.writeObject(playerStates);
 		GameSerializer gameSerializer = new GameSerializer();
@@ -193,8 +369,6 @@ public class MapList implements IMapListerCallable {
 		RescheduleTimer.saveTo(oos);
 
 		oos.close();
-
-		loadFileList();
 	}
 
 	public ArrayList<MapLoader> getSavedMultiplayerMaps() {
@@ -214,7 +388,27 @@ public class MapList implements IMapListerCallable {
 		return defaultList;
 	}
 
-	public void deleteLoadableGame(MapLoader game) {
+	/**
+	 * Deletes the given savegame. If it is a checkpoint, the delta savegames based on it are deleted as well, because they can't be loaded without
+	 * it.
+	 * 
+	 * @param game
+	 */
+	public synchronized void deleteLoadableGame(MapLoader game) {
+		if (game.isCheckpoint()) {
+			String checkpointId = game.getMapId();
+			for (MapLoader savegame : getSavedMaps().getItems()) {
+				if (checkpointId.equals(savegame.getReferencedCheckpointId())) {
+					savegame.getFile().delete();
+				}
+			}
+			synchronized (checkpointLock) {
+				if (checkpoint != null && checkpointId.equals(checkpoint.savegameId)) {
+					checkpoint = null;
+				}
+			}
+		}
+
 		game.getFile().delete();
 		savedMaps.remove(game);
 		loadFileList();
@@ -224,4 +418,28 @@ public class MapList implements IMapListerCallable {
 		mapListFactory = factory;
 		defaultList = null;
 	}
+
+	/**
+	 * The snapshot of the last checkpoint savegame written for a game. It is only used for further saves of the same game, identified by its
+	 * {@link MainGrid} instance and map id.
+	 */
+	private static final class Checkpoint {
+		final WeakReference<MainGrid> game;
+		final String baseMapId;
+		final String savegameId;
+		final byte[] snapshot;
+		int deltas = 0;
+
+		Checkpoint(MainGrid game, MapFileHeader header, byte[] snapshot) {
+			this.game = new WeakReference<MainGrid>(game);
+			this.baseMapId = header.getBaseMapId();
+			this.savegameId = header.getUniqueId();
+			this.snapshot = snapshot;
+		}
+
+		boolean belongsTo(MainGrid game, MapFileHeader header) {
+			String otherBaseMapId = header.getBaseMapId();
+			return this.game.get() == game && (baseMapId == null ? otherBaseMapId == null : baseMapId.equals(otherBaseMapId));
+		}
+	}
 }
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.save;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * Encodes a savegame snapshot as delta to an earlier snapshot (the checkpoint).
+ * <p />
+ * Both snapshots are cut into chunks at content defined positions (gear rolling hash), so insertions and deletions only change the chunks they
+ * are located in. Chunks of the new snapshot that also exist in the checkpoint are encoded as copy operations, all other bytes are stored as
+ * literals. Unchanged grid arrays and entities therefore only cost a few bytes in the delta.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class SnapshotDelta {
+	private static final int VERSION = 1;
+
+	private static final int MIN_CHUNK_SIZE = 2 * 1024;
+	private static final int MAX_CHUNK_SIZE = 64 * 1024;
+	private static final long CHUNK_BOUNDARY_MASK = 0xFFF8000000000000L; // 13 bits => chunks of about 8 KiB above the minimum size
+	private static final long[] GEAR_TABLE = createGearTable();
+
+	private static final byte OPERATION_END = 0;
+	private static final byte OPERATION_COPY = 1;
+	private static final byte OPERATION_LITERAL = 2;
+
+	private SnapshotDelta() {
+	}
+
+	private static long[] createGearTable() {
+		Random random = new Random(0x5eed);
+		long[] table = new long[256];
+		for (int i = 0; i < table.length; i++) {
+			table[i] = random.nextLong();
+		}
+		return table;
+	}
+
+	/**
+	 * Writes the delta needed to create the given snapshot from the given checkpoint.
+	 * 
+	 * @param checkpoint
+	 *            The snapshot the delta refers to.
+	 * @param snapshot
+	 *            The snapshot to be encoded.
+	 * @param out
+	 * @throws IOException
+	 */
+	public static void encode(byte[] checkpoint, byte[] snapshot, DataOutput out) throws IOException {
+		out.writeInt(VERSION);
+		out.writeInt(checkpoint.length);
+		out.writeLong(crc(checkpoint));
+		out.writeInt(snapshot.length);
+
+		HashMap<Long, Integer> checkpointChunks = new HashMap<Long, Integer>();
+		int[] checkpointEnds = findChunkEnds(checkpoint);
+		for (int i = 0, start = 0; i < checkpointEnds.length; start = checkpointEnds[i], i++) {
+			Long hash = hashChunk(checkpoint, start, checkpointEnds[i]);
+			if (!checkpointChunks.containsKey(hash)) {
+				checkpointChunks.put(hash, start);
+			}
+		}
+
+		int copyStart = -1;
+		int copyLength = 0;
+		int literalStart = -1;
+		int literalLength = 0;
+
+		int[] snapshotEnds = findChunkEnds(snapshot);
+		for (int i = 0, start = 0; i < snapshotEnds.length; start = snapshotEnds[i], i++) {
+			int length = snapshotEnds[i] - start;
+			Integer checkpointStart = checkpointChunks.get(hashChunk(snapshot, start, snapshotEnds[i]));
+
+			if (checkpointStart != null && rangeEquals(checkpoint, checkpointStart, snapshot, start, length)) {
+				if (literalLength > 0) {
+					writeLiteral(out, snapshot, literalStart, literalLength);
+					literalLength = 0;
+				}
+				if (copyLength > 0 && copyStart + copyLength == checkpointStart) {
+					copyLength += length;
+				} else {
+					if (copyLength > 0) {
+						writeCopy(out, copyStart, copyLength);
+					}
+					copyStart = checkpointStart;
+					copyLength = length;
+				}
+			} else {
+				if (copyLength > 0) {
+					writeCopy(out, copyStart, copyLength);
+					copyLength = 0;
+				}
+				if (literalLength == 0) {
+					literalStart = start;
+				}
+				literalLength += length;
+			}
+		}
+
+		if (copyLength > 0) {
+			writeCopy(out, copyStart, copyLength);
+		}
+		if (literalLength > 0) {
+			writeLiteral(out, snapshot, literalStart, literalLength);
+		}
+		out.writeByte(OPERATION_END);
+	}
+
+	/**
+	 * Recreates a snapshot from its checkpoint and the delta written by {@link #encode(byte[], byte[], DataOutput)}.
+	 * 
+	 * @param checkpoint
+	 *            The snapshot the delta refers to.
+	 * @param in
+	 *            The input to read the delta from.
+	 * @return The recreated snapshot.
+	 * @throws IOException
+	 *             If the delta is corrupt or has not been created for the given checkpoint.
+	 */
+	public static byte[] decode(byte[] checkpoint, DataInput in) throws IOException {
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported delta version " + version);
+		}
+		if (in.readInt() != checkpoint.length || in.readLong() != crc(checkpoint)) {
+			throw new IOException("The delta does not belong to the given checkpoint.");
+		}
+
+		int snapshotLength = in.readInt();
+		if (snapshotLength < 0) {
+			throw new IOException("Invalid snapshot length " + snapshotLength);
+		}
+		// the buffer grows with the data actually read, so a corrupt length can't allocate an arbitrary amount of memory
+		byte[] snapshot = new byte[Math.min(snapshotLength, checkpoint.length)];
+		int position = 0;
+
+		byte operation;
+		while ((operation = in.readByte()) != OPERATION_END) {
+			switch (operation) {
+			case OPERATION_COPY:
+				int start = in.readInt();
+				int length = in.readInt();
+				checkRange(start, length, checkpoint.length);
+				checkRange(position, length, snapshotLength);
+				snapshot = ensureCapacity(snapshot, position + length, snapshotLength);
+				System.arraycopy(checkpoint, start, snapshot, position, length);
+				position += length;
+				break;
+			case OPERATION_LITERAL:
+				length = in.readInt();
+				checkRange(position, length, snapshotLength);
+				snapshot = ensureCapacity(snapshot, position + length, snapshotLength);
+				in.readFully(snapshot, position, length);
+				position += length;
+				break;
+			default:
+				throw new IOException("Unknown delta operation " + operation);
+			}
+		}
+
+		if (position != snapshotLength) {
+			throw new IOException("Delta is incomplete.");
+		}
+		return snapshot.length == snapshotLength ? snapshot : Arrays.copyOf(snapshot, snapshotLength);
+	}
+
+	private static void checkRange(int start, int length, int size) throws IOException {
+		if (start < 0 || length < 0 || length > size - start) {
+			throw new IOException("Delta operation [" + start + ", " + length + "] exceeds size " + size);
+		}
+	}
+
+	private static byte[] ensureCapacity(byte[] buffer, int capacity, int maximumCapacity) {
+		if (capacity <= buffer.length) {
+			return buffer;
+		}
+		return Arrays.copyOf(buffer, (int) Math.min(maximumCapacity, Math.max(capacity, 2L * buffer.length)));
+	}
+
+	private static void writeCopy(DataOutput out, int start, int length) throws IOException {
+		out.writeByte(OPERATION_COPY);
+		out.writeInt(start);
+		out.writeInt(length);
+	}
+
+	private static void writeLiteral(DataOutput out, byte[] data, int start, int length) throws IOException {
+		out.writeByte(OPERATION_LITERAL);
+		out.writeInt(length);
+		out.write(data, start, length);
+	}
+
+	/**
+	 * 
+	 * @param data
+	 * @return The exclusive end indexes of the chunks of the given data.
+	 */
+	static int[] findChunkEnds(byte[] data) {
+		int[] ends = new int[data.length / MIN_CHUNK_SIZE + 1];
+		int count = 0;
+
+		int chunkStart = 0;
+		long hash = 0;
+		for (int i = 0; i < data.length; i++) {
+			hash = (hash << 1) + GEAR_TABLE[data[i] & 0xFF];
+			int chunkLength = i + 1 - chunkStart;
+
+			if ((chunkLength >= MIN_CHUNK_SIZE && (hash & CHUNK_BOUNDARY_MASK) == 0) || chunkLength >= MAX_CHUNK_SIZE) {
+				ends[count++] = i + 1;
+				chunkStart = i + 1;
+				hash = 0;
+			}
+		}
+		if (chunkStart < data.length) {
+			ends[count++] = data.length;
+		}
+
+		int[] result = new int[count];
+		System.arraycopy(ends, 0, result, 0, count);
+		return result;
+	}
+
+	private static Long hashChunk(byte[] data, int start, int end) {
+		long hash = 0xcbf29ce484222325L; // FNV-1a
+		for (int i = start; i < end; i++) {
+			hash ^= data[i] & 0xFF;
+			hash *= 0x100000001b3L;
+		}
+		return hash ^ (end - start);
+	}
+
+	private static boolean rangeEquals(byte[] a, int aStart, byte[] b, int bStart, int length) {
+		for (int i = 0; i < length; i++) {
+			if (a[aStart + i] != b[bStart + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long crc(byte[] data) {
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length);
+		return crc.getValue();
+	}
+}
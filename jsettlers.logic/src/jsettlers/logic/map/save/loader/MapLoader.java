@@ -15,11 +15,15 @@
 package jsettlers.logic.map.save.loader;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import jsettlers.common.CommonConstants;
 import jsettlers.common.map.IMapData;
@@ -33,6 +37,8 @@ import jsettlers.logic.map.save.IGameCreator;
 import jsettlers.logic.map.save.IListedMap;
 import jsettlers.logic.map.save.MapFileHeader;
 import jsettlers.logic.map.save.MapFileHeader.MapType;
+import jsettlers.logic.map.save.MapList;
+import jsettlers.logic.map.save.SnapshotDelta;
 
 /**
  * This is the main map loader.
@@ -45,20 +51,44 @@ import jsettlers.logic.map.save.MapFileHeader.MapType;
 public abstract class MapLoader implements IGameCreator, Comparable<MapLoader>, IMapDefinition {
 	private final IListedMap file;
 	private final MapFileHeader header;
+	private final MapList checkpointList;
+
+	private boolean checkpointInfoLoaded = false;
+	private boolean checkpoint;
+	private String referencedCheckpointId;
 
 	public MapLoader(IListedMap file, MapFileHeader header) {
+		this(file, header, null);
+	}
+
+	/**
+	 * 
+	 * @param checkpointList
+	 *            The {@link MapList} containing the checkpoints of delta savegames. May be null if the map isn't a listed savegame.
+	 */
+	protected MapLoader(IListedMap file, MapFileHeader header, MapList checkpointList) {
 		this.file = file;
 		this.header = header;
+		this.checkpointList = checkpointList;
 	}
 
 	public static MapLoader getLoaderForListedMap(IListedMap listedMap) throws MapLoadException {
+		return getLoaderForListedMap(listedMap, null);
+	}
+
+	/**
+	 * 
+	 * @param checkpointList
+	 *            The {@link MapList} listing the given map. Delta savegames load their checkpoint from this list.
+	 */
+	public static MapLoader getLoaderForListedMap(IListedMap listedMap, MapList checkpointList) throws MapLoadException {
 		MapFileHeader header = loadHeader(listedMap);
 
 		switch (header.getType()) {
 		case NORMAL:
 			return new FreshMapLoader(listedMap, header);
 		case SAVED_SINGLE:
-			return new SavegameLoader(listedMap, header);
+			return new SavegameLoader(listedMap, header, checkpointList);
 		default:
 			throw new MapLoadException("Unkown EMapType: " + header.getType());
 		}
@@ -94,7 +124,102 @@ public abstract class MapLoader implements IGameCreator, Comparable<MapLoader>,
 	protected final InputStream getMapDataStream() throws IOException {
 		InputStream stream = new BufferedInputStream(file.getInputStream());
 		MapFileHeader.readFromStream(stream);
-		return stream;
+
+		stream.mark(4);
+		DataInputStream dataStream = new DataInputStream(stream);
+		int magic = dataStream.readInt();
+
+		if (magic == MapList.CHECKPOINT_MAGIC) {
+			return new BufferedInputStream(new GZIPInputStream(stream));
+
+		} else if (magic == MapList.DELTA_MAGIC) {
+			String checkpointId = dataStream.readUTF();
+			MapLoader checkpointLoader = checkpointList == null ? null : checkpointList.getCheckpointLoader(checkpointId);
+			if (checkpointLoader == null) {
+				stream.close();
+				throw new IOException("The checkpoint of savegame " + file.getFileName() + " does not exist anymore.");
+			}
+
+			byte[] checkpoint = readFully(checkpointLoader.getMapDataStream());
+			DataInputStream deltaStream = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)));
+			try {
+				return new ByteArrayInputStream(SnapshotDelta.decode(checkpoint, deltaStream));
+			} finally {
+				deltaStream.close();
+			}
+
+		}
+
+		// savegames written in the background without checkpoints are compressed
+		stream.reset();
+		stream.mark(2);
+		magic = stream.read() | (stream.read() << 8);
+		stream.reset();
+		if (magic == GZIPInputStream.GZIP_MAGIC) {
+			return new BufferedInputStream(new GZIPInputStream(stream));
+		} else {
+			return stream;
+		}
+	}
+
+	/**
+	 * 
+	 * @return true if this savegame is a checkpoint that can be referenced by delta savegames. The checkpoint is identified by the unique id of
+	 *         the header.
+	 */
+	public synchronized boolean isCheckpoint() {
+		loadCheckpointInfo();
+		return checkpoint;
+	}
+
+	/**
+	 * 
+	 * @return The unique id of the checkpoint savegame this delta savegame is based on or null if this map is no delta savegame.
+	 */
+	public synchronized String getReferencedCheckpointId() {
+		loadCheckpointInfo();
+		return referencedCheckpointId;
+	}
+
+	private void loadCheckpointInfo() {
+		if (checkpointInfoLoaded) {
+			return;
+		}
+		checkpointInfoLoaded = true;
+
+		DataInputStream stream = null;
+		try {
+			stream = new DataInputStream(new BufferedInputStream(file.getInputStream()));
+			MapFileHeader.readFromStream(stream);
+			int magic = stream.readInt();
+			if (magic == MapList.CHECKPOINT_MAGIC) {
+				checkpoint = true;
+			} else if (magic == MapList.DELTA_MAGIC) {
+				referencedCheckpointId = stream.readUTF();
+			}
+		} catch (IOException e) {
+		} finally {
+			try {
+				if (stream != null) {
+					stream.close();
+				}
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	private static byte[] readFully(InputStream stream) throws IOException {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[64 * 1024];
+			int read;
+			while ((read = stream.read(buffer)) >= 0) {
+				bytes.write(buffer, 0, read);
+			}
+			return bytes.toByteArray();
+		} finally {
+			stream.close();
+		}
 	}
 
 	@Override
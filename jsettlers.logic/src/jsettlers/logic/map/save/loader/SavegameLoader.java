@@ -24,6 +24,7 @@ import jsettlers.logic.map.grid.GameSerializer;
 import jsettlers.logic.map.grid.MainGrid;
 import jsettlers.logic.map.save.IListedMap;
 import jsettlers.logic.map.save.MapFileHeader;
+import jsettlers.logic.map.save.MapList;
 import jsettlers.logic.timer.RescheduleTimer;
 
 /**
@@ -37,6 +38,10 @@ public class SavegameLoader extends MapLoader {
 		super(file, header);
 	}
 
+	public SavegameLoader(IListedMap file, MapFileHeader header, MapList checkpointList) {
+		super(file, header, checkpointList);
+	}
+
 	@Override
 	public MainGridWithUiSettings loadMainGrid(boolean[] availablePlayers) throws MapLoadException {
 		try {
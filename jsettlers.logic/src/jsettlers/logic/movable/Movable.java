@@ -45,8 +45,9 @@ import jsettlers.logic.movable.interfaces.IIDable;
 import jsettlers.logic.movable.strategies.FleeStrategy;
 import jsettlers.logic.movable.strategies.soldiers.SoldierStrategy;
 import jsettlers.logic.player.Player;
-import jsettlers.logic.timer.IScheduledTimerable;
+import jsettlers.logic.timer.IPreparableTimerable;
 import jsettlers.logic.timer.RescheduleTimer;
+import jsettlers.logic.timer.ScheduledTimerableEntry;
 import jsettlers.network.synchronic.random.RandomSingleton;
 
 /**
@@ -55,7 +56,7 @@ import jsettlers.network.synchronic.random.RandomSingleton;
  * @author Andreas Eberle
  * 
  */
-public final class Movable implements IScheduledTimerable, IPathCalculatable, IIDable, IDebugable, Serializable, IViewDistancable, IGuiMovable,
+public final class Movable implements IPreparableTimerable, IPathCalculatable, IIDable, IDebugable, Serializable, IViewDistancable, IGuiMovable,
 		IAttackableMovable {
 	private static final long serialVersionUID = 2472076796407425256L;
 	private static final HashMap<Integer, Movable> movablesByID = new HashMap<Integer, Movable>();
@@ -64,6 +65,7 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, II
 
 	private final AbstractMovableGrid grid;
 	private final int id;
+	private final ScheduledTimerableEntry timerEntry;
 
 	private EMovableState state = EMovableState.DOING_NOTHING;
 
@@ -96,6 +98,10 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, II
 	private transient boolean selected = false;
 	private transient boolean soundPlayed = false;
 
+	private transient ShortPoint2D preparedPathStart;
+	private transient ShortPoint2D preparedPathTarget;
+	private transient Path preparedPath;
+
 	public Movable(AbstractMovableGrid grid, EMovableType movableType, ShortPoint2D position, Player player) {
 		this.grid = grid;
 		this.position = position;
@@ -105,7 +111,7 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, II
 
 		this.direction = EDirection.values[RandomSingleton.getInt(0, 5)];
 
-		RescheduleTimer.add(this, Constants.MOVABLE_INTERRUPT_PERIOD);
+		this.timerEntry = RescheduleTimer.add(this, Constants.MOVABLE_INTERRUPT_PERIOD);
 
 		this.id = nextID++;
 		movablesByID.put(this.id, this);
@@ -159,6 +165,43 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, II
 		}
 	}
 
+	/**
+	 * Calculates the path for a pending move to request, if it will be handled by the next {@link #timerEvent()}.
+	 */
+	@Override
+	public void prepareTimerEvent() {
+		preparedPathTarget = null;
+		preparedPath = null;
+
+		ShortPoint2D target = moveToRequest;
+		if (health > 0 && target != null && canHandleMoveToRequest() && grid.canCalculatePathConcurrently(this, target)) {
+			preparedPath = grid.calculatePathToConcurrently(this, target);
+			preparedPathStart = position;
+			preparedPathTarget = target;
+		}
+	}
+
+	private boolean canHandleMoveToRequest() {
+		switch (state) {
+		case TAKE:
+		case DROP: // TAKE and DROP can be interrupted like other actions as soon as the RAISE_UP animation is finished
+			return movableAction == EAction.RAISE_UP && isAnimationFinished();
+		case GOING_SINGLE_STEP:
+		case PLAYING_ACTION:
+		case PATHING:
+		case WAITING:
+			return isAnimationFinished();
+		case DOING_NOTHING:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private boolean isAnimationFinished() {
+		return animationStartTime + animationDuration - MatchConstants.clock.getTime() <= 0;
+	}
+
 	@Override
 	public int timerEvent() {
 		if (health <= 0) {
@@ -553,7 +596,15 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, II
 	final boolean goToPos(ShortPoint2D targetPos) {
 		assert state == EMovableState.DOING_NOTHING : "can't do goToPos() if state isn't DOING_NOTHING. curr state: " + state;
 
-		Path path = grid.calculatePathTo(this, targetPos);
+		Path path;
+		if (targetPos == preparedPathTarget && position.equals(preparedPathStart)) { // the path has been calculated by prepareTimerEvent()
+			path = preparedPath;
+		} else {
+			path = grid.calculatePathTo(this, targetPos);
+		}
+		preparedPathTarget = null;
+		preparedPath = null;
+
 		if (path == null) {
 			return false;
 		} else {
@@ -716,6 +767,7 @@ public final class Movable implements IScheduledTimerable, IPathCalculatable, II
 
 		grid.leavePosition(this.position, this);
 		this.health = -200;
+		RescheduleTimer.cancel(timerEntry);
 		this.strategy.strategyKilledEvent(path != null ? path.getTargetPos() : null);
 
 		movablesByID.remove(this.getID());
@@ -61,6 +61,26 @@ public abstract class AbstractMovableGrid extends AbstractStrategyGrid {
 
 	public abstract Path calculatePathTo(IPathCalculatable pathCalculatable, ShortPoint2D targetPos);
 
+	/**
+	 * Same as {@link #calculatePathTo(IPathCalculatable, ShortPoint2D)}, but this method can be called concurrently by multiple threads, as long as
+	 * the grid is not modified in the meantime. It may only be called if {@link #canCalculatePathConcurrently(IPathCalculatable, ShortPoint2D)}
+	 * returns true for the request.
+	 * 
+	 * @param pathCalculatable
+	 * @param targetPos
+	 * @return
+	 */
+	public abstract Path calculatePathToConcurrently(IPathCalculatable pathCalculatable, ShortPoint2D targetPos);
+
+	/**
+	 * 
+	 * @param pathCalculatable
+	 * @param targetPos
+	 * @return true if {@link #calculatePathToConcurrently(IPathCalculatable, ShortPoint2D)} finds the same path for this request as
+	 *         {@link #calculatePathTo(IPathCalculatable, ShortPoint2D)}.
+	 */
+	public abstract boolean canCalculatePathConcurrently(IPathCalculatable pathCalculatable, ShortPoint2D targetPos);
+
 	public abstract Path searchDijkstra(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType);
 
 	public abstract Path searchInArea(IPathCalculatable pathCalculateable, short centerX, short centerY, short radius, ESearchType searchType);
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.timer;
+
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * An {@link IScheduledTimerable} that can do the expensive, read only part of its next {@link #timerEvent()} in advance.
+ * <p />
+ * If {@link jsettlers.logic.constants.MatchConstants#ENABLE_PARALLEL_TIMERABLE_PREPARATION} is enabled, the {@link RescheduleTimer} calls
+ * {@link #prepareTimerEvent()} of all timerables due in a tick in parallel, grouped by map region. Afterwards, the {@link #timerEvent()}s are called
+ * one after the other in the usual order, so all changes of the game state still happen deterministically.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public interface IPreparableTimerable extends IScheduledTimerable {
+
+	/**
+	 * Prepares the next call to {@link #timerEvent()}. This method is called concurrently with the preparation of other timerables. Therefore it must
+	 * not change any state but the state of this object and it's result must only depend on the game state at the beginning of the tick.
+	 */
+	void prepareTimerEvent();
+
+	/**
+	 * 
+	 * @return The position used to group the timerables by map region.
+	 */
+	ShortPoint2D getPos();
+}
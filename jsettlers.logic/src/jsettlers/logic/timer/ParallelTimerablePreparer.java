@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.timer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Executes {@link IPreparableTimerable#prepareTimerEvent()} of a set of timerables on a {@link ForkJoinPool}. The timerables are sorted by map
+ * region and the tasks are only split at region borders, so every worker handles whole regions.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+final class ParallelTimerablePreparer {
+	private static final int REGION_BITS = 5; // 32x32 tiles per region
+	private static final int MIN_TIMERABLES_PER_TASK = 32;
+
+	private static final Comparator<IPreparableTimerable> REGION_COMPARATOR = new Comparator<IPreparableTimerable>() {
+		@Override
+		public int compare(IPreparableTimerable o1, IPreparableTimerable o2) {
+			int region1 = getRegion(o1);
+			int region2 = getRegion(o2);
+			return region1 < region2 ? -1 : (region1 == region2 ? 0 : 1);
+		}
+	};
+
+	private static ForkJoinPool pool;
+
+	private IPreparableTimerable[] timerables = new IPreparableTimerable[64];
+	private int size = 0;
+
+	void add(IPreparableTimerable timerable) {
+		if (size >= timerables.length) {
+			timerables = Arrays.copyOf(timerables, timerables.length * 2);
+		}
+		timerables[size++] = timerable;
+	}
+
+	/**
+	 * Prepares all added timerables and clears the list afterwards.
+	 */
+	void prepareAll() {
+		if (size >= MIN_TIMERABLES_PER_TASK) {
+			Arrays.sort(timerables, 0, size, REGION_COMPARATOR);
+			getPool().invoke(new PreparationTask(timerables, 0, size));
+		} else {
+			prepare(timerables, 0, size);
+		}
+
+		Arrays.fill(timerables, 0, size, null);
+		size = 0;
+	}
+
+	private static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	private static int getRegion(IPreparableTimerable timerable) {
+		ShortPoint2D pos = timerable.getPos();
+		return ((pos.y >> REGION_BITS) << 16) | (pos.x >> REGION_BITS);
+	}
+
+	private static void prepare(IPreparableTimerable[] timerables, int from, int to) {
+		for (int i = from; i < to; i++) {
+			try {
+				timerables[i].prepareTimerEvent();
+			} catch (Throwable t) {
+				System.err.println("ParallelTimerablePreparer catched: ");
+				t.printStackTrace();
+			}
+		}
+	}
+
+	private static class PreparationTask extends RecursiveAction {
+		private static final long serialVersionUID = -3186337716420785314L;
+
+		private final IPreparableTimerable[] timerables;
+		private final int from;
+		private final int to;
+
+		PreparationTask(IPreparableTimerable[] timerables, int from, int to) {
+			this.timerables = timerables;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from >= 2 * MIN_TIMERABLES_PER_TASK) {
+				int split = findRegionBorder((from + to) / 2);
+				if (split > from && split < to) {
+					invokeAll(new PreparationTask(timerables, from, split), new PreparationTask(timerables, split, to));
+					return;
+				}
+			}
+			prepare(timerables, from, to);
+		}
+
+		private int findRegionBorder(int middle) {
+			int region = getRegion(timerables[middle]);
+			int split = middle;
+			while (split < to && getRegion(timerables[split]) == region) {
+				split++;
+			}
+			if (split == to) {
+				split = middle;
+				while (split > from && getRegion(timerables[split - 1]) == region) {
+					split--;
+				}
+			}
+			return split;
+		}
+	}
+}
@@ -18,29 +18,61 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
 
 import jsettlers.common.map.MapLoadException;
+import jsettlers.common.utils.collections.list.DoubleLinkedList;
 import jsettlers.logic.constants.MatchConstants;
 import jsettlers.network.client.interfaces.IGameClock;
 import jsettlers.network.synchronic.timer.INetworkTimerable;
 
+/**
+ * This timer schedules {@link IScheduledTimerable}s with a resolution of {@link #TIME_SLICE} milliseconds.
+ * <p />
+ * It is implemented as a hierarchical timing wheel. The first level has a slot for every tick of the next {@link #ROOT_SLOTS} ticks. Every
+ * following level has {@link #LEVEL_SLOTS} slots, each covering a full revolution of the level below it. When a lower level completes a revolution,
+ * the next slot of the level above is cascaded down. The slots are intrusive {@link DoubleLinkedList}s of {@link ScheduledTimerableEntry}s, so
+ * scheduling, rescheduling and cancelling are O(1) and don't allocate after the first scheduling.
+ * <p />
+ * Timerables scheduled to the same tick are executed in the order they have been scheduled, as long as their delay fits into the first level. If
+ * {@link MatchConstants#ENABLE_PARALLEL_TIMERABLE_PREPARATION} is enabled, the {@link IPreparableTimerable}s of a tick are prepared in parallel
+ * before.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
 public final class RescheduleTimer implements INetworkTimerable, Serializable {
-	private static final long serialVersionUID = -1962430988827211391L;
+	private static final long serialVersionUID = 5263817432591780437L;
 
-	private static final int FUTURE_TIME = 32000;
 	private static final short TIME_SLICE = 25; // ms
-	private static final int TIME_SLOTS = FUTURE_TIME / TIME_SLICE;
+
+	private static final int ROOT_BITS = 11; // 2048 slots * 25ms = 51.2s
+	private static final int ROOT_SLOTS = 1 << ROOT_BITS;
+	private static final int ROOT_MASK = ROOT_SLOTS - 1;
+
+	private static final int LEVEL_BITS = 6;
+	private static final int LEVEL_SLOTS = 1 << LEVEL_BITS;
+	private static final int LEVEL_MASK = LEVEL_SLOTS - 1;
+	private static final int UPPER_LEVELS = 3; // covers 2^29 ticks => more than 155 days
+
+	private static final int MAX_DELAY_TICKS = (1 << (ROOT_BITS + UPPER_LEVELS * LEVEL_BITS)) - 1;
 
 	private static RescheduleTimer uniIns;
 
+	private final DoubleLinkedList<ScheduledTimerableEntry>[] rootSlots = DoubleLinkedList.getArray(ROOT_SLOTS);
 	@SuppressWarnings("unchecked")
-	private final ArrayList<IScheduledTimerable> timerables[] = new ArrayList[TIME_SLOTS];
-	private int currTimeSlot = 0;
+	private final DoubleLinkedList<ScheduledTimerableEntry>[][] upperSlots = new DoubleLinkedList[UPPER_LEVELS][];
+	private int currentTick = 0;
+
+	private transient ParallelTimerablePreparer preparer;
+
+	private transient int firedInCurrentTick;
+	private transient int cancelledInCurrentTick;
+	private transient int firedInLastTick;
+	private transient int cancelledInLastTick;
 
 	protected RescheduleTimer() {
-		for (int i = 0; i < TIME_SLOTS; i++) {
-			timerables[i] = new ArrayList<IScheduledTimerable>();
+		for (int i = 0; i < UPPER_LEVELS; i++) {
+			upperSlots[i] = DoubleLinkedList.getArray(LEVEL_SLOTS);
 		}
 	}
 
@@ -56,22 +88,73 @@ public final class RescheduleTimer implements INetworkTimerable, Serializable {
 	 * 
 	 * @param t
 	 * @param delay
+	 * @return The {@link ScheduledTimerableEntry} that can be used to cancel the scheduling or null if the delay was not positive and therefore
+	 *         nothing has been scheduled.
 	 */
-	public static void add(IScheduledTimerable t, int delay) {
-		get().addTimerable(t, delay);
+	public static ScheduledTimerableEntry add(IScheduledTimerable t, int delay) {
+		return get().addTimerable(t, delay);
 	}
 
-	private void addTimerable(IScheduledTimerable t, int delay) {
+	/**
+	 * Removes the given entry from the timer. The timerable of the entry will not be called by this entry anymore. If the entry is currently executed,
+	 * it will not be rescheduled.
+	 * 
+	 * @param entry
+	 *            The entry to be cancelled. If it is null or not scheduled anymore, nothing happens.
+	 */
+	public static void cancel(ScheduledTimerableEntry entry) {
+		if (entry == null || entry.timerable == null) {
+			return;
+		}
+
+		if (entry.slot != null) {
+			entry.slot.remove(entry);
+			entry.slot = null;
+		}
+		entry.timerable = null;
+
+		if (uniIns != null) {
+			uniIns.cancelledInCurrentTick++;
+		}
+	}
+
+	ScheduledTimerableEntry addTimerable(IScheduledTimerable t, int delay) {
 		if (delay <= 0) {
-			return; // don't schedule if requested delay is negative or zero
+			return null; // don't schedule if requested delay is negative or zero
 		}
 
-		int delaySlots = delay / TIME_SLICE;
-		delaySlots = delaySlots > 0 ? delaySlots : 1; // ensure at least one slot delay
+		ScheduledTimerableEntry entry = new ScheduledTimerableEntry(t);
+		schedule(entry, delay);
+		return entry;
+	}
 
-		assert delaySlots < TIME_SLOTS : "SCHEDULED TO FAR IN THE FUTURE! " + delay + "ms";
+	private void schedule(ScheduledTimerableEntry entry, int delay) {
+		int delayTicks = delay / TIME_SLICE;
+		delayTicks = delayTicks > 0 ? delayTicks : 1; // ensure at least one slot delay
+		delayTicks = delayTicks < MAX_DELAY_TICKS ? delayTicks : MAX_DELAY_TICKS;
 
-		timerables[(currTimeSlot + delaySlots) % TIME_SLOTS].add(t);
+		entry.expirationTick = currentTick + delayTicks;
+		insert(entry);
+	}
+
+	private void insert(ScheduledTimerableEntry entry) {
+		int remainingTicks = entry.expirationTick - currentTick;
+
+		DoubleLinkedList<ScheduledTimerableEntry> slot;
+		if (remainingTicks < ROOT_SLOTS) {
+			slot = rootSlots[entry.expirationTick & ROOT_MASK];
+		} else {
+			int level = 0;
+			int shift = ROOT_BITS;
+			while (level < UPPER_LEVELS - 1 && (remainingTicks >>> (shift + LEVEL_BITS)) != 0) {
+				level++;
+				shift += LEVEL_BITS;
+			}
+			slot = upperSlots[level][(entry.expirationTick >>> shift) & LEVEL_MASK];
+		}
+
+		entry.slot = slot;
+		slot.pushEnd(entry);
 	}
 
 	private static synchronized RescheduleTimer get() {
@@ -83,13 +166,34 @@ public final class RescheduleTimer implements INetworkTimerable, Serializable {
 
 	@Override
 	public void timerEvent() {
-		ArrayList<IScheduledTimerable> queue = timerables[currTimeSlot];
+		int rootIndex = currentTick & ROOT_MASK;
+		if (rootIndex == 0) {
+			cascade(0, ROOT_BITS);
+		}
+
+		DoubleLinkedList<ScheduledTimerableEntry> queue = rootSlots[rootIndex];
+
+		if (MatchConstants.ENABLE_PARALLEL_TIMERABLE_PREPARATION) {
+			prepareTimerables(queue);
+		}
+
+		while (!queue.isEmpty()) {
+			ScheduledTimerableEntry entry = queue.popFront();
+			entry.slot = null;
+			IScheduledTimerable curr = entry.timerable;
 
-		for (IScheduledTimerable curr : queue) {
 			try {
 				int delay = curr.timerEvent();
-				addTimerable(curr, delay);
+
+				if (entry.timerable != null) { // the entry could have been cancelled during the timerEvent()
+					if (delay > 0) {
+						schedule(entry, delay);
+					} else {
+						entry.timerable = null;
+					}
+				}
 			} catch (Throwable t) {
+				entry.timerable = null;
 				System.err.println("RescheduleTimer catched: ");
 				t.printStackTrace();
 				try {
@@ -99,10 +203,84 @@ public final class RescheduleTimer implements INetworkTimerable, Serializable {
 					t2.printStackTrace();
 				}
 			}
+			firedInCurrentTick++;
 		}
 
-		queue.clear();
-		currTimeSlot = (currTimeSlot + 1) % TIME_SLOTS;
+		currentTick++;
+
+		firedInLastTick = firedInCurrentTick;
+		cancelledInLastTick = cancelledInCurrentTick;
+		firedInCurrentTick = 0;
+		cancelledInCurrentTick = 0;
+	}
+
+	private void prepareTimerables(DoubleLinkedList<ScheduledTimerableEntry> queue) {
+		if (preparer == null) {
+			preparer = new ParallelTimerablePreparer();
+		}
+
+		for (ScheduledTimerableEntry entry : queue) {
+			if (entry.timerable instanceof IPreparableTimerable) {
+				preparer.add((IPreparableTimerable) entry.timerable);
+			}
+		}
+		preparer.prepareAll();
+	}
+
+	/**
+	 * Moves the entries of the current slot of the given upper level to the levels below. If the given level completed a revolution too, the level
+	 * above it is cascaded first.
+	 * 
+	 * @param level
+	 * @param shift
+	 */
+	private void cascade(int level, int shift) {
+		if (level >= UPPER_LEVELS) {
+			return;
+		}
+
+		int index = (currentTick >>> shift) & LEVEL_MASK;
+		if (index == 0) {
+			cascade(level + 1, shift + LEVEL_BITS);
+		}
+
+		DoubleLinkedList<ScheduledTimerableEntry> slot = upperSlots[level][index];
+		while (!slot.isEmpty()) {
+			insert(slot.popFront());
+		}
+	}
+
+	/**
+	 * 
+	 * @return Number of timerables that have been executed in the last tick of the timer.
+	 */
+	public static int getFiredInLastTick() {
+		return uniIns != null ? uniIns.firedInLastTick : 0;
+	}
+
+	/**
+	 * 
+	 * @return Number of scheduled entries that have been cancelled since the tick before the last tick of the timer.
+	 */
+	public static int getCancelledInLastTick() {
+		return uniIns != null ? uniIns.cancelledInLastTick : 0;
+	}
+
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		ois.defaultReadObject();
+
+		restoreSlotReferences(rootSlots);
+		for (DoubleLinkedList<ScheduledTimerableEntry>[] level : upperSlots) {
+			restoreSlotReferences(level);
+		}
+	}
+
+	private static void restoreSlotReferences(DoubleLinkedList<ScheduledTimerableEntry>[] slots) {
+		for (DoubleLinkedList<ScheduledTimerableEntry> slot : slots) {
+			for (ScheduledTimerableEntry entry : slot) {
+				entry.slot = slot;
+			}
+		}
 	}
 
 	public static void loadFrom(ObjectInputStream ois) throws MapLoadException {
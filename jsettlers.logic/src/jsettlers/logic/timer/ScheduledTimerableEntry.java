@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.timer;
+
+import jsettlers.common.utils.collections.list.DoubleLinkedList;
+import jsettlers.common.utils.collections.list.DoubleLinkedListItem;
+
+/**
+ * Handle of a single scheduling of an {@link IScheduledTimerable} in the {@link RescheduleTimer}. The entry is linked directly into the slot list
+ * of the timer wheel, so it can be cancelled in O(1) with {@link RescheduleTimer#cancel(ScheduledTimerableEntry)}.
+ * <p />
+ * If the timerable reschedules itself by returning a positive delay from {@link IScheduledTimerable#timerEvent()}, the same entry is reused.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class ScheduledTimerableEntry extends DoubleLinkedListItem<ScheduledTimerableEntry> {
+	private static final long serialVersionUID = -2750325716322720713L;
+
+	IScheduledTimerable timerable;
+	int expirationTick;
+
+	/**
+	 * The slot list this entry is currently linked into or null if it is not linked (currently executed or cancelled). This is restored by the
+	 * {@link RescheduleTimer} after deserialization.
+	 */
+	transient DoubleLinkedList<ScheduledTimerableEntry> slot;
+
+	ScheduledTimerableEntry(IScheduledTimerable timerable) {
+		this.timerable = timerable;
+	}
+
+	/**
+	 * 
+	 * @return true if this entry has neither been cancelled nor dropped out of the timer.
+	 */
+	public boolean isScheduled() {
+		return timerable != null;
+	}
+}
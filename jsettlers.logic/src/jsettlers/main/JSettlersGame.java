@@ -50,10 +50,12 @@ import jsettlers.logic.map.save.loader.MapLoader;
 import jsettlers.logic.movable.Movable;
 import jsettlers.logic.statistics.GameStatistics;
 import jsettlers.logic.timer.RescheduleTimer;
+import jsettlers.network.NetworkConstants.SimulationFlags;
 import jsettlers.network.client.OfflineNetworkConnector;
 import jsettlers.network.client.interfaces.IGameClock;
 import jsettlers.network.client.interfaces.INetworkConnector;
 import jsettlers.network.synchronic.random.RandomSingleton;
+import jsettlers.network.synchronic.timer.IGameStateChecksumSupplier;
 
 /**
  * This class can start a Thread that loads and sets up a game and wait's for its termination.
@@ -69,6 +71,7 @@ public class JSettlersGame {
 	private final long randomSeed;
 	private final byte playerId;
 	private final boolean[] availablePlayers;
+	private final int simulationFlags;
 	private final INetworkConnector networkConnector;
 	private final boolean multiplayer;
 	private final DataInputStream replayFileInputStream;
@@ -82,17 +85,19 @@ public class JSettlersGame {
 	private PrintStream systemOutStream;
 
 	private JSettlersGame(IGameCreator mapCreator, long randomSeed, INetworkConnector networkConnector, byte playerId, boolean[] availablePlayers,
-			boolean controlAll, boolean multiplayer, DataInputStream replayFileInputStream) {
+			int simulationFlags, boolean controlAll, boolean multiplayer, DataInputStream replayFileInputStream) {
 		configureLogging(mapCreator);
 
 		System.out.println("JsettlersGame(): seed: " + randomSeed + " playerId: " + playerId + " availablePlayers: "
-				+ Arrays.toString(availablePlayers) + " multiplayer: " + multiplayer + " mapCreator: " + mapCreator);
+				+ Arrays.toString(availablePlayers) + " simulationFlags: " + simulationFlags + " multiplayer: " + multiplayer + " mapCreator: "
+				+ mapCreator);
 
 		this.mapCreator = mapCreator;
 		this.randomSeed = randomSeed;
 		this.networkConnector = networkConnector;
 		this.playerId = playerId;
 		this.availablePlayers = availablePlayers;
+		this.simulationFlags = simulationFlags;
 		this.multiplayer = multiplayer;
 		this.replayFileInputStream = replayFileInputStream;
 
@@ -109,20 +114,42 @@ public class JSettlersGame {
 	 * @param randomSeed
 	 * @param networkConnector
 	 * @param playerId
+	 * @param simulationFlags
+	 *            The {@link SimulationFlags} negotiated at the start of the match.
 	 */
-	public JSettlersGame(IGameCreator mapCreator, long randomSeed, INetworkConnector networkConnector, byte playerId, boolean[] availablePlayers) {
-		this(mapCreator, randomSeed, networkConnector, playerId, availablePlayers, CommonConstants.CONTROL_ALL, true, null);
+	public JSettlersGame(IGameCreator mapCreator, long randomSeed, INetworkConnector networkConnector, byte playerId, boolean[] availablePlayers,
+			int simulationFlags) {
+		this(mapCreator, randomSeed, networkConnector, playerId, availablePlayers, simulationFlags, CommonConstants.CONTROL_ALL, true, null);
 	}
 
 	/**
-	 * Creates a new {@link JSettlersGame} object with an {@link OfflineNetworkConnector}.
+	 * Creates a new {@link JSettlersGame} object with an {@link OfflineNetworkConnector}. Offline games run without {@link SimulationFlags}, because
+	 * the auto replay references are recorded without them.
 	 *
 	 * @param mapCreator
 	 * @param randomSeed
 	 * @param playerId
 	 */
 	public JSettlersGame(IGameCreator mapCreator, long randomSeed, byte playerId, boolean[] availablePlayers) {
-		this(mapCreator, randomSeed, new OfflineNetworkConnector(), playerId, availablePlayers, true, false, null);
+		this(mapCreator, randomSeed, new OfflineNetworkConnector(), playerId, availablePlayers, 0, true, false, null);
+	}
+
+	/**
+	 * Creates a game replaying the given tasks, starting with the state given by the map creator.
+	 * 
+	 * @param mapCreator
+	 *            The map or savegame to start with.
+	 * @param networkConnector
+	 * @param replayStartInformation
+	 * @param replayTasksStream
+	 *            Stream of the {@link jsettlers.network.client.task.packets.SyncTasksPacket}s to be replayed.
+	 * @return
+	 */
+	public static JSettlersGame loadFromReplayStream(IGameCreator mapCreator, INetworkConnector networkConnector,
+			ReplayStartInformation replayStartInformation, DataInputStream replayTasksStream) {
+		return new JSettlersGame(mapCreator, replayStartInformation.getRandomSeed(), networkConnector,
+				(byte) replayStartInformation.getPlayerId(), replayStartInformation.getAvailablePlayers(), replayStartInformation.getSimulationFlags(),
+				true, false, replayTasksStream);
 	}
 
 	public static JSettlersGame loadFromReplayFile(File loadableReplayFile, INetworkConnector networkConnector,
@@ -132,7 +159,8 @@ public class JSettlersGame {
 
 		MapLoader mapCreator = MapList.getDefaultList().getMapById(replayStartInformation.getMapId());
 		return new JSettlersGame(mapCreator, replayStartInformation.getRandomSeed(), networkConnector,
-				(byte) replayStartInformation.getPlayerId(), replayStartInformation.getAvailablePlayers(), true, false, replayFileInputStream);
+				(byte) replayStartInformation.getPlayerId(), replayStartInformation.getAvailablePlayers(), replayStartInformation.getSimulationFlags(),
+				true, false, replayFileInputStream);
 	}
 
 	/**
@@ -174,6 +202,7 @@ public class JSettlersGame {
 
 				IGameClock gameClock = MatchConstants.clock = networkConnector.getGameClock();
 				gameClock.setReplayLogStream(replayFileStream);
+				MatchConstants.setSimulationFlags(simulationFlags);
 				RandomSingleton.load(randomSeed);
 				Movable.resetState();
 
@@ -182,7 +211,14 @@ public class JSettlersGame {
 
 				MainGridWithUiSettings gridWithUiState = mapCreator.loadMainGrid(availablePlayers);
 				mainGrid = gridWithUiState.getMainGrid();
+				MapList.getDefaultList().resetCheckpoint();
 				PlayerState playerState = gridWithUiState.getPlayerState(playerId);
+				gameClock.setGameStateChecksumSupplier(new IGameStateChecksumSupplier() {
+					@Override
+					public long getGameStateChecksum() {
+						return mainGrid.getGameStateChecksum() * 31 + RandomSingleton.getStateHash();
+					}
+				});
 
 				RescheduleTimer.schedule(gameClock); // schedule timer
 
@@ -254,7 +290,7 @@ public class JSettlersGame {
 			DataOutputStream replayFileStream = new DataOutputStream(ResourceManager.writeFile(replayFilename));
 
 			ReplayStartInformation replayInfo = new ReplayStartInformation(randomSeed, mapCreator.getMapName(), mapCreator.getMapId(), playerId,
-					availablePlayers);
+					availablePlayers, simulationFlags);
 			replayInfo.serialize(replayFileStream);
 			replayFileStream.flush();
 
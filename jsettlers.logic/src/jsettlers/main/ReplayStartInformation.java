@@ -24,22 +24,33 @@ import java.io.IOException;
  * 
  */
 public class ReplayStartInformation {
+	/**
+	 * Written instead of the number of players to mark that the simulation flags follow. Replays written before the flags were added start with the
+	 * (positive) number of players at this position.
+	 */
+	private static final byte SIMULATION_FLAGS_MARKER = -1;
 
 	private long randomSeed;
 	private String mapName;
 	private String mapId;
 	private int playerId;
 	private boolean[] availablePlayers;
+	private int simulationFlags;
 
 	public ReplayStartInformation() {
 	}
 
 	public ReplayStartInformation(long randomSeed, String mapName, String mapId, int playerId, boolean[] availablePlayers) {
+		this(randomSeed, mapName, mapId, playerId, availablePlayers, 0);
+	}
+
+	public ReplayStartInformation(long randomSeed, String mapName, String mapId, int playerId, boolean[] availablePlayers, int simulationFlags) {
 		this.randomSeed = randomSeed;
 		this.playerId = playerId;
 		this.mapName = mapName;
 		this.mapId = mapId;
 		this.availablePlayers = availablePlayers;
+		this.simulationFlags = simulationFlags;
 	}
 
 	public long getRandomSeed() {
@@ -62,11 +73,20 @@ public class ReplayStartInformation {
 		return availablePlayers;
 	}
 
+	/**
+	 * @return The {@link jsettlers.network.NetworkConstants.SimulationFlags} the recorded game was played with.
+	 */
+	public int getSimulationFlags() {
+		return simulationFlags;
+	}
+
 	public void serialize(DataOutputStream oos) throws IOException {
 		oos.writeLong(randomSeed);
 		oos.writeByte(playerId);
 		oos.writeUTF(mapName);
 		oos.writeUTF(mapId);
+		oos.writeByte(SIMULATION_FLAGS_MARKER);
+		oos.writeInt(simulationFlags);
 
 		oos.writeByte(availablePlayers.length);
 		for (boolean curr : availablePlayers) {
@@ -80,7 +100,15 @@ public class ReplayStartInformation {
 		mapName = ois.readUTF();
 		mapId = ois.readUTF();
 
-		availablePlayers = new boolean[ois.readByte()];
+		byte numberOfPlayers = ois.readByte();
+		if (numberOfPlayers == SIMULATION_FLAGS_MARKER) {
+			simulationFlags = ois.readInt();
+			numberOfPlayers = ois.readByte();
+		} else {
+			simulationFlags = 0; // replays of older versions were played without any simulation flags
+		}
+
+		availablePlayers = new boolean[numberOfPlayers];
 		for (int i = 0; i < availablePlayers.length; i++) {
 			availablePlayers[i] = ois.readBoolean();
 		}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.replay;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+import jsettlers.main.ReplayStartInformation;
+import jsettlers.network.NetworkConstants;
+
+/**
+ * Reader of the indexed replay container written by {@link IndexedReplayWriter}.
+ * <p />
+ * Format: MAGIC, VERSION, {@link ReplayStartInformation}, a stream of records (tasks packets and snapshots), the index record and the footer
+ * (offset of the index record, MAGIC). The index maps every tasks packet to its lockstep and every snapshot to its game time, so a replay can
+ * be started at any snapshot with only the tasks packets after it.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class IndexedReplay implements Closeable {
+	static final int MAGIC = 0x4A535250;
+	static final int VERSION = 1;
+
+	static final byte RECORD_TASKS = 1;
+	static final byte RECORD_SNAPSHOT = 2;
+	static final byte RECORD_INDEX = 3;
+
+	private final RandomAccessFile file;
+	private final ReplayStartInformation startInformation = new ReplayStartInformation();
+
+	private final int[] taskLocksteps;
+	private final long[] taskOffsets;
+	private final int[] snapshotTimes;
+	private final long[] snapshotOffsets;
+
+	public IndexedReplay(File replayFile) throws IOException {
+		this.file = new RandomAccessFile(replayFile, "r");
+		try {
+			if (file.readInt() != MAGIC) {
+				throw new IOException("No indexed replay: " + replayFile);
+			}
+			int version = file.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported indexed replay version " + version);
+			}
+			startInformation.deserialize(new DataInputStream(new RandomAccessFileInputStream(file)));
+
+			file.seek(file.length() - 12);
+			long indexOffset = file.readLong();
+			if (file.readInt() != MAGIC) {
+				throw new IOException("Indexed replay " + replayFile + " has not been closed correctly.");
+			}
+
+			file.seek(indexOffset);
+			if (file.readByte() != RECORD_INDEX) {
+				throw new IOException("Corrupt index in " + replayFile);
+			}
+			taskLocksteps = new int[file.readInt()];
+			taskOffsets = new long[taskLocksteps.length];
+			for (int i = 0; i < taskLocksteps.length; i++) {
+				taskLocksteps[i] = file.readInt();
+				taskOffsets[i] = file.readLong();
+			}
+			snapshotTimes = new int[file.readInt()];
+			snapshotOffsets = new long[snapshotTimes.length];
+			for (int i = 0; i < snapshotTimes.length; i++) {
+				snapshotTimes[i] = file.readInt();
+				snapshotOffsets[i] = file.readLong();
+			}
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	public ReplayStartInformation getStartInformation() {
+		return startInformation;
+	}
+
+	public int[] getSnapshotTimes() {
+		return snapshotTimes.clone();
+	}
+
+	/**
+	 * 
+	 * @param gameTime
+	 * @return The index of the latest snapshot taken at or before the given game time or -1 if there is no such snapshot.
+	 */
+	public int findSnapshotBefore(int gameTime) {
+		int result = -1;
+		for (int i = 0; i < snapshotTimes.length && snapshotTimes[i] <= gameTime; i++) {
+			result = i;
+		}
+		return result;
+	}
+
+	/**
+	 * 
+	 * @param snapshotIndex
+	 * @return The savegame file (including its header) of the given snapshot.
+	 * @throws IOException
+	 */
+	public synchronized byte[] readSnapshot(int snapshotIndex) throws IOException {
+		file.seek(snapshotOffsets[snapshotIndex]);
+		if (file.readByte() != RECORD_SNAPSHOT) {
+			throw new IOException("Corrupt snapshot record " + snapshotIndex);
+		}
+		file.readInt(); // game time
+		byte[] savegame = new byte[file.readInt()];
+		file.readFully(savegame);
+		return savegame;
+	}
+
+	/**
+	 * Creates a stream in the format of the plain replay log containing all tasks packets that need to be executed after the given game time.
+	 * 
+	 * @param gameTime
+	 *            The game time of the snapshot to continue from or -1 to get all tasks packets.
+	 * @return
+	 * @throws IOException
+	 */
+	public synchronized DataInputStream getTasksAfter(int gameTime) throws IOException {
+		int lastExecutedLockstep = gameTime < 0 ? -1 : gameTime / NetworkConstants.Client.LOCKSTEP_PERIOD;
+
+		ByteArrayOutputStream tasks = new ByteArrayOutputStream();
+		byte[] buffer = new byte[0];
+		for (int i = 0; i < taskLocksteps.length; i++) {
+			if (taskLocksteps[i] <= lastExecutedLockstep) {
+				continue;
+			}
+
+			file.seek(taskOffsets[i]);
+			if (file.readByte() != RECORD_TASKS) {
+				throw new IOException("Corrupt tasks record " + i);
+			}
+			int length = file.readInt();
+			if (buffer.length < length) {
+				buffer = new byte[length];
+			}
+			file.readFully(buffer, 0, length);
+			tasks.write(buffer, 0, length);
+		}
+		return new DataInputStream(new ByteArrayInputStream(tasks.toByteArray()));
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	private static class RandomAccessFileInputStream extends InputStream {
+		private final RandomAccessFile file;
+
+		RandomAccessFileInputStream(RandomAccessFile file) {
+			this.file = file;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return file.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return file.read(b, off, len);
+		}
+	}
+}
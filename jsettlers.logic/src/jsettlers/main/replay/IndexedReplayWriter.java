@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import jsettlers.main.ReplayStartInformation;
+import jsettlers.network.client.task.packets.SyncTasksPacket;
+
+/**
+ * Writes an indexed replay container. In contrast to the plain replay log, the container can hold snapshots (savegames) of the game state. The
+ * records are written as a stream, the index of all records is appended when the writer is closed. See {@link IndexedReplay} for the format.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class IndexedReplayWriter implements Closeable {
+	private final CountingOutputStream countingStream;
+	private final DataOutputStream stream;
+
+	private final List<long[]> taskRecords = new ArrayList<long[]>(); // lockstep, offset
+	private final List<long[]> snapshotRecords = new ArrayList<long[]>(); // game time, offset
+
+	public IndexedReplayWriter(File file, ReplayStartInformation startInformation) throws IOException {
+		this.countingStream = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		this.stream = new DataOutputStream(countingStream);
+
+		stream.writeInt(IndexedReplay.MAGIC);
+		stream.writeInt(IndexedReplay.VERSION);
+		startInformation.serialize(stream);
+	}
+
+	/**
+	 * Appends the given tasks packet. The packets must be written in the order of their locksteps.
+	 * 
+	 * @param tasksPacket
+	 * @throws IOException
+	 */
+	public void writeTasksPacket(SyncTasksPacket tasksPacket) throws IOException {
+		ByteArrayOutputStream packetBytes = new ByteArrayOutputStream();
+		DataOutputStream packetStream = new DataOutputStream(packetBytes);
+		tasksPacket.serialize(packetStream);
+		packetStream.flush();
+
+		taskRecords.add(new long[] { tasksPacket.getLockstepNumber(), countingStream.count });
+		stream.writeByte(IndexedReplay.RECORD_TASKS);
+		stream.writeInt(packetBytes.size());
+		packetBytes.writeTo(stream);
+	}
+
+	/**
+	 * Appends a snapshot of the game state.
+	 * 
+	 * @param gameTime
+	 *            The game time the snapshot has been taken at. All tasks packets of locksteps up to this time must already be contained in the
+	 *            snapshot.
+	 * @param savegame
+	 *            The complete savegame file including its header.
+	 * @throws IOException
+	 */
+	public void writeSnapshot(int gameTime, byte[] savegame) throws IOException {
+		snapshotRecords.add(new long[] { gameTime, countingStream.count });
+		stream.writeByte(IndexedReplay.RECORD_SNAPSHOT);
+		stream.writeInt(gameTime);
+		stream.writeInt(savegame.length);
+		stream.write(savegame);
+	}
+
+	@Override
+	public void close() throws IOException {
+		long indexOffset = countingStream.count;
+		stream.writeByte(IndexedReplay.RECORD_INDEX);
+		writeIndex(taskRecords);
+		writeIndex(snapshotRecords);
+
+		stream.writeLong(indexOffset);
+		stream.writeInt(IndexedReplay.MAGIC);
+		stream.close();
+	}
+
+	private void writeIndex(List<long[]> records) throws IOException {
+		stream.writeInt(records.size());
+		for (long[] record : records) {
+			stream.writeInt((int) record[0]);
+			stream.writeLong(record[1]);
+		}
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+		private final OutputStream out;
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+}
@@ -14,18 +14,33 @@
  *******************************************************************************/
 package jsettlers.main.replay;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+import jsettlers.common.map.MapLoadException;
 import jsettlers.common.utils.MutableInt;
 import jsettlers.graphics.startscreen.interfaces.IGameExitListener;
 import jsettlers.graphics.startscreen.interfaces.IStartedGame;
 import jsettlers.graphics.startscreen.interfaces.IStartingGame;
+import jsettlers.input.GuiTaskExecutor;
+import jsettlers.input.PlayerState;
 import jsettlers.input.tasks.EGuiAction;
 import jsettlers.input.tasks.SimpleGuiTask;
 import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.map.save.IGameCreator;
+import jsettlers.logic.map.save.IListedMap;
 import jsettlers.logic.map.save.MapList;
 import jsettlers.logic.map.save.loader.MapLoader;
 import jsettlers.main.JSettlersGame;
@@ -34,8 +49,12 @@ import jsettlers.main.ReplayStartInformation;
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.client.OfflineNetworkConnector;
 import jsettlers.network.client.interfaces.INetworkConnector;
+import jsettlers.network.client.task.packets.SyncTasksPacket;
+import jsettlers.network.infrastructure.log.ConsoleLogger;
+import jsettlers.network.infrastructure.log.Logger;
 
 public class ReplayTool {
+	private static final Logger LOGGER = new ConsoleLogger("ReplayTool");
 
 	public static void replayAndCreateSavegame(File replayFile, int targetGameTimeMs, String newReplayFile) throws IOException {
 
@@ -50,6 +69,11 @@ public class ReplayTool {
 		networkConnector.scheduleTaskAt(targetGameTimeMs / NetworkConstants.Client.LOCKSTEP_PERIOD,
 				new SimpleGuiTask(EGuiAction.QUICK_SAVE, (byte) 0));
 		MatchConstants.clock.fastForwardTo(targetGameTimeMs);
+		try {
+			MapList.getDefaultList().awaitPendingSaves();
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		}
 
 		// create a replay basing on the savegame and containing the remaining tasks.
 		MapLoader newSavegame = MapList.getDefaultList().getSavedMaps().getItems().get(0);
@@ -58,7 +82,169 @@ public class ReplayTool {
 		awaitShutdown(startedGame);
 	}
 
-	private static void awaitShutdown(IStartedGame startedGame) {
+	/**
+	 * Creates an {@link IndexedReplay} of the given plain replay log, containing a snapshot of the game state every snapshotIntervalMs up to the
+	 * given game time.
+	 * 
+	 * @param replayFile
+	 *            The plain replay log.
+	 * @param indexedReplayFile
+	 *            The file of the indexed replay to be created.
+	 * @param snapshotIntervalMs
+	 *            The game time between two snapshots.
+	 * @param lastSnapshotTimeMs
+	 *            No snapshots are created after this game time.
+	 * @throws IOException
+	 */
+	public static void createIndexedReplay(File replayFile, File indexedReplayFile, int snapshotIntervalMs, int lastSnapshotTimeMs)
+			throws IOException {
+		ReplayStartInformation replayStartInformation = new ReplayStartInformation();
+		IndexedReplayWriter writer;
+		DataInputStream replayStream = new DataInputStream(new BufferedInputStream(new FileInputStream(replayFile)));
+		try {
+			replayStartInformation.deserialize(replayStream);
+			writer = new IndexedReplayWriter(indexedReplayFile, replayStartInformation);
+			for (SyncTasksPacket tasksPacket : readTasksPackets(replayStream)) {
+				writer.writeTasksPacket(tasksPacket);
+			}
+		} finally {
+			replayStream.close();
+		}
+
+		IStartedGame startedGame = startPausedReplay(replayFile);
+		int interval = Math.max(1, snapshotIntervalMs / NetworkConstants.Client.LOCKSTEP_PERIOD) * NetworkConstants.Client.LOCKSTEP_PERIOD;
+
+		try {
+			for (int gameTime = interval; gameTime <= lastSnapshotTimeMs; gameTime += interval) {
+				MatchConstants.clock.fastForwardTo(gameTime);
+				writer.writeSnapshot(MatchConstants.clock.getTime(), createSnapshot(startedGame, (byte) replayStartInformation.getPlayerId()));
+				LOGGER.info("Created snapshot at game time " + MatchConstants.clock.getTime());
+			}
+		} finally {
+			writer.close();
+			awaitShutdown(startedGame);
+		}
+	}
+
+	/**
+	 * Saves the given game the same way a quick save does and returns the complete savegame. The savegame file is deleted again. The game needs to be
+	 * paused.
+	 * 
+	 * @param startedGame
+	 *            The game to save.
+	 * @param playerId
+	 *            The player the savegame is created for.
+	 * @return The data of the savegame, including its header.
+	 * @throws IOException
+	 */
+	public static byte[] createSnapshot(IStartedGame startedGame, byte playerId) throws IOException {
+		MainGrid mainGrid = ((GameRunner) startedGame).getMainGrid();
+		PlayerState[] playerStates = GuiTaskExecutor.createPlayerStates(mainGrid.getGuiInputGrid(), playerId, null);
+
+		MapList mapList = MapList.getDefaultList();
+		mapList.resetCheckpoint(); // a snapshot must be a complete savegame, not the delta to an earlier one
+		try {
+			mainGrid.getGuiInputGrid().save(playerStates);
+			mapList.awaitPendingSaves();
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		}
+
+		MapLoader savegame = Collections.min(mapList.getSavedMaps().getItems()); // savegames are ordered by their creation date descending
+		ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+		InputStream in = savegame.getFile().getInputStream();
+		try {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				snapshot.write(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		mapList.deleteLoadableGame(savegame);
+
+		return snapshot.toByteArray();
+	}
+
+	/**
+	 * Starts the given {@link IndexedReplay} at the latest snapshot before the given game time and plays it forward to the target time. Only the game
+	 * time since the snapshot needs to be simulated.
+	 * 
+	 * @param indexedReplayFile
+	 * @param targetGameTimeMs
+	 * @return The started game. Its clock is paused.
+	 * @throws IOException
+	 * @throws MapLoadException
+	 */
+	public static IStartedGame startIndexedReplayAt(File indexedReplayFile, int targetGameTimeMs) throws IOException, MapLoadException {
+		IndexedReplay replay = new IndexedReplay(indexedReplayFile);
+		try {
+			ReplayStartInformation replayStartInformation = replay.getStartInformation();
+			int snapshotIndex = replay.findSnapshotBefore(targetGameTimeMs);
+
+			IGameCreator mapCreator;
+			DataInputStream tasksStream;
+			if (snapshotIndex >= 0) {
+				int snapshotTime = replay.getSnapshotTimes()[snapshotIndex];
+				mapCreator = MapLoader.getLoaderForListedMap(new InMemoryListedMap("snapshot-" + snapshotTime, replay.readSnapshot(snapshotIndex)));
+				tasksStream = replay.getTasksAfter(snapshotTime);
+				LOGGER.info("Starting indexed replay at snapshot of game time " + snapshotTime);
+			} else {
+				mapCreator = MapList.getDefaultList().getMapById(replayStartInformation.getMapId());
+				tasksStream = replay.getTasksAfter(-1);
+			}
+
+			OfflineNetworkConnector networkConnector = new OfflineNetworkConnector();
+			networkConnector.getGameClock().setPausing(true);
+			JSettlersGame game = JSettlersGame.loadFromReplayStream(mapCreator, networkConnector, replayStartInformation, tasksStream);
+			IStartedGame startedGame = waitForGameStartup(game.start());
+
+			MatchConstants.clock.fastForwardTo(targetGameTimeMs);
+			return startedGame;
+		} finally {
+			replay.close();
+		}
+	}
+
+	private static List<SyncTasksPacket> readTasksPackets(DataInputStream replayStream) throws IOException {
+		List<SyncTasksPacket> tasksPackets = new ArrayList<SyncTasksPacket>();
+		while (true) {
+			replayStream.mark(1);
+			if (replayStream.read() < 0) {
+				return tasksPackets;
+			}
+			replayStream.reset();
+
+			SyncTasksPacket tasksPacket = new SyncTasksPacket();
+			tasksPacket.deserialize(replayStream);
+			tasksPackets.add(tasksPacket);
+		}
+	}
+
+	/**
+	 * Loads the given replay and starts the game with a paused clock. The game can then be played forward with
+	 * {@link jsettlers.network.client.interfaces.IGameClock#fastForwardTo(int)} of {@link MatchConstants#clock} and must be stopped with
+	 * {@link #awaitShutdown(IStartedGame)}.
+	 * 
+	 * @param replayFile
+	 *            The replay file to load.
+	 * @return The started game.
+	 * @throws IOException
+	 */
+	public static IStartedGame startPausedReplay(File replayFile) throws IOException {
+		OfflineNetworkConnector networkConnector = new OfflineNetworkConnector();
+		networkConnector.getGameClock().setPausing(true);
+		JSettlersGame game = loadGameFromReplay(replayFile, networkConnector, new ReplayStartInformation());
+		return waitForGameStartup(game.start());
+	}
+
+	/**
+	 * Stops the given game and blocks until it has exited.
+	 * 
+	 * @param startedGame
+	 */
+	public static void awaitShutdown(IStartedGame startedGame) {
 		final MutableInt gameStopped = new MutableInt(0);
 
 		startedGame.setGameExitListener(new IGameExitListener() {
@@ -97,13 +283,39 @@ public class ReplayTool {
 		return JSettlersGame.loadFromReplayFile(loadableReplayFile, networkConnector, replayStartInformation);
 	}
 
+	private static class InMemoryListedMap implements IListedMap {
+		private final String fileName;
+		private final byte[] data;
+
+		InMemoryListedMap(String fileName, byte[] data) {
+			this.fileName = fileName;
+			this.data = data;
+		}
+
+		@Override
+		public String getFileName() {
+			return fileName;
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteArrayInputStream(data);
+		}
+
+		@Override
+		public void delete() {
+			// nothing to delete, the data is only held in memory
+		}
+	}
+
 	private static void createReplayOfRemainingTasks(MapLoader newSavegame, ReplayStartInformation replayStartInformation, String newReplayFile)
 			throws IOException {
 		System.out.println("Creating new replay file (" + newReplayFile + ")...");
 		new File(newReplayFile).getParentFile().mkdirs();
 
 		ReplayStartInformation replayInfo = new ReplayStartInformation(0, newSavegame.getMapName(),
-				newSavegame.getMapId(), replayStartInformation.getPlayerId(), replayStartInformation.getAvailablePlayers());
+				newSavegame.getMapId(), replayStartInformation.getPlayerId(), replayStartInformation.getAvailablePlayers(),
+				replayStartInformation.getSimulationFlags());
 
 		DataOutputStream dos = new DataOutputStream(new FileOutputStream(newReplayFile));
 		replayInfo.serialize(dos);
@@ -17,6 +17,7 @@ package jsettlers.mapcreator.tools.buffers;
 import java.util.Iterator;
 
 import jsettlers.common.map.shapes.IMapArea;
+import jsettlers.common.map.shapes.IMapAreaVisitor;
 import jsettlers.common.position.ShortPoint2D;
 
 public class ByteMapArea implements IMapArea {
@@ -43,6 +44,16 @@ public class ByteMapArea implements IMapArea {
 		return new It();
 	}
 
+	@Override
+	public boolean traverse(IMapAreaVisitor visitor) {
+		for (ShortPoint2D position : this) {
+			if (!visitor.visit(position.x, position.y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private class It implements Iterator<ShortPoint2D> {
 		private int x = 0;
 		private int y = 0;
@@ -52,6 +52,32 @@ public final class NetworkConstants {
 		public static final int BROADCAST_BUFFER_LENGTH = BROADCAST_MESSAGE.length();
 
 		public static final long OPEN_MATCHES_SEND_INTERVAL_MS = 5 * 1000;
+
+		/**
+		 * Number of selector threads used by the dedicated server to handle all connections with non blocking IO.
+		 */
+		public static final int NIO_SELECTOR_THREADS = 2;
+		/**
+		 * Size of the pooled direct buffers used by the non blocking IO channels.
+		 */
+		public static final int NIO_BUFFER_SIZE = 16 * 1024;
+		/**
+		 * Maximum data length of a packet received by the non blocking IO channels. Channels receiving a longer packet are closed.
+		 */
+		public static final int NIO_MAX_PACKET_LENGTH = 1024 * 1024;
+		/**
+		 * Number of threads sending the lockstep packets of all matches.
+		 */
+		public static final int LOCKSTEP_SCHEDULER_THREADS = 4;
+		/**
+		 * Number of locksteps between two game state checksums reported by the clients. 0 disables the desync detection.
+		 */
+		public static final int GAME_STATE_CHECKSUM_INTERVAL = 20;
+		/**
+		 * The {@link SimulationFlags} enabled for the matches of this server. A flag is only enabled in a match if the clients of all players support
+		 * it.
+		 */
+		public static final int SIMULATION_FLAGS = SimulationFlags.SUPPORTED;
 	}
 
 	public final static class Client {
@@ -76,6 +102,48 @@ public final class NetworkConstants {
 		public static int LOCKSTEP_DEFAULT_LEAD_STEPS = 3;
 	}
 
+	/**
+	 * This class contains the bits of the simulation flags. Every flag switches an alternative implementation of a part of the game logic that
+	 * changes the results of the simulation. Therefore the flags are negotiated at match start and all clients of a match use the same flags.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	public final static class SimulationFlags {
+		private SimulationFlags() {
+		}
+
+		/**
+		 * The paths of pending move requests are calculated in parallel before the timer events of a tick.
+		 */
+		public static final int PARALLEL_TIMERABLE_PREPARATION = 1 << 0;
+
+		/**
+		 * Long paths are searched in a corridor of the coarse cluster graph instead of the whole map.
+		 */
+		public static final int HIERARCHICAL_ASTAR = 1 << 1;
+
+		/**
+		 * Paths of requesters that don't need their players ground are reused from a cache of recently calculated paths.
+		 */
+		public static final int PATH_CACHE = 1 << 2;
+
+		/**
+		 * Searches for the nearest position of a search type expand once from the searching movable.
+		 */
+		public static final int MULTI_TARGET_DIJKSTRA = 1 << 3;
+
+		/**
+		 * The materials managers assign the jobless bearers to several jobs at once, minimizing the total distance.
+		 */
+		public static final int BATCHED_MATERIAL_DISTRIBUTION = 1 << 4;
+
+		/**
+		 * All flags supported by this version of the clients.
+		 */
+		public static final int SUPPORTED = PARALLEL_TIMERABLE_PREPARATION | HIERARCHICAL_ASTAR | PATH_CACHE | MULTI_TARGET_DIJKSTRA | BATCHED_MATERIAL_DISTRIBUTION;
+	}
+
 	/**
 	 * This class contains constants used to represent messages used in network library. These constants can be used for internationalization.
 	 * 
@@ -144,7 +212,10 @@ public final class NetworkConstants {
 		CHAT_MESSAGE,
 		TIME_SYNC,
 
-		CHANGE_START_FINISHED;
+		CHANGE_START_FINISHED,
+
+		// keys added later must be appended to keep the ordinals of older clients
+		GAME_STATE_CHECKSUM;
 
 		private static final ENetworkKey[] values = ENetworkKey.values();
 		private final byte ordinal;
@@ -164,5 +235,20 @@ public final class NetworkConstants {
 				throw new IOException(ex);
 			}
 		}
+
+		/**
+		 * 
+		 * @return The byte this key is serialized as.
+		 */
+		public byte getOrdinal() {
+			return ordinal;
+		}
+
+		public static ENetworkKey fromOrdinal(byte ordinal) throws IOException {
+			if (ordinal < 0 || ordinal >= values.length) {
+				throw new IOException("Unknown network key: " + ordinal);
+			}
+			return values[ordinal];
+		}
 	}
 }
@@ -17,6 +17,7 @@ package jsettlers.network.client;
 import jsettlers.network.client.interfaces.IGameClock;
 import jsettlers.network.client.task.ISyncTasksPacketScheduler;
 import jsettlers.network.client.time.ISynchronizableClock;
+import jsettlers.network.synchronic.timer.IGameStateChecksumListener;
 
 /**
  * This interface combines the three interfaces {@link IGameClock}, {@link ISynchronizableClock}, {@link ISyncTasksPacketScheduler}.
@@ -26,4 +27,14 @@ import jsettlers.network.client.time.ISynchronizableClock;
  */
 public interface INetworkClientClock extends IGameClock, ISynchronizableClock, ISyncTasksPacketScheduler {
 
+	/**
+	 * Sets the listener receiving the game state checksums.
+	 * 
+	 * @param checksumListener
+	 *            The listener or <code>null</code> to disable the checksum calculation.
+	 * @param intervalLocksteps
+	 *            The number of locksteps between two checksums.
+	 */
+	void setGameStateChecksumListener(IGameStateChecksumListener checksumListener, int intervalLocksteps);
+
 }
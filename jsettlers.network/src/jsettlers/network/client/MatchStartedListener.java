@@ -41,7 +41,7 @@ public class MatchStartedListener extends PacketChannelListener<MatchStartPacket
 
 	@Override
 	protected void receivePacket(ENetworkKey key, MatchStartPacket packet) throws IOException {
-		networkClient.matchStartedEvent();
+		networkClient.matchStartedEvent(packet.getTaskEncoding(), packet.getChecksumInterval());
 
 		if (matchStartedListener != null)
 			matchStartedListener.receivePacket(packet);
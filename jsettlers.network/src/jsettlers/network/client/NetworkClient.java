@@ -33,7 +33,9 @@ import jsettlers.network.client.time.TimeSynchronizationListener;
 import jsettlers.network.common.packets.ArrayOfMatchInfosPacket;
 import jsettlers.network.common.packets.BooleanMessagePacket;
 import jsettlers.network.common.packets.ChatMessagePacket;
+import jsettlers.network.common.packets.GameStateChecksumPacket;
 import jsettlers.network.common.packets.IdPacket;
+import jsettlers.network.common.packets.IdentifyUserPacket;
 import jsettlers.network.common.packets.MapInfoPacket;
 import jsettlers.network.common.packets.MatchInfoPacket;
 import jsettlers.network.common.packets.MatchInfoUpdatePacket;
@@ -47,6 +49,7 @@ import jsettlers.network.infrastructure.channel.packet.EmptyPacket;
 import jsettlers.network.infrastructure.channel.packet.Packet;
 import jsettlers.network.infrastructure.channel.reject.RejectPacket;
 import jsettlers.network.server.match.EPlayerState;
+import jsettlers.network.synchronic.timer.IGameStateChecksumListener;
 import jsettlers.network.synchronic.timer.NetworkTimer;
 
 /**
@@ -66,6 +69,7 @@ public class NetworkClient implements ITaskScheduler, INetworkConnector, INetwor
 	private PlayerInfoPacket playerInfo;
 
 	private MatchInfoPacket matchInfo;
+	private byte taskEncoding = TaskPacket.ENCODING_DEFAULT;
 
 	/**
 	 * 
@@ -111,7 +115,8 @@ public class NetworkClient implements ITaskScheduler, INetworkConnector, INetwor
 		channel.registerListener(new IdentifiedUserListener(this));
 		channel.registerListener(generateDefaultListener(NetworkConstants.ENetworkKey.ARRAY_OF_MATCHES, ArrayOfMatchInfosPacket.class,
 				matchesReceiver));
-		channel.sendPacketAsync(NetworkConstants.ENetworkKey.IDENTIFY_USER, playerInfo);
+		channel.sendPacketAsync(NetworkConstants.ENetworkKey.IDENTIFY_USER, new IdentifyUserPacket(playerInfo,
+				NetworkConstants.SimulationFlags.SUPPORTED, TaskPacket.ENCODING_COMPACT));
 	}
 
 	/**
@@ -190,6 +195,7 @@ public class NetworkClient implements ITaskScheduler, INetworkConnector, INetwor
 
 	@Override
 	public void scheduleTask(TaskPacket task) {
+		task.setEncoding(taskEncoding);
 		channel.sendPacketAsync(NetworkConstants.ENetworkKey.SYNCHRONOUS_TASK, task);
 	}
 
@@ -237,12 +243,22 @@ public class NetworkClient implements ITaskScheduler, INetworkConnector, INetwor
 		}
 	}
 
-	void matchStartedEvent() {
+	void matchStartedEvent(byte taskEncoding, int checksumInterval) {
 		this.state = EPlayerState.IN_RUNNING_MATCH;
+		this.taskEncoding = taskEncoding;
 		channel.removeListener(NetworkConstants.ENetworkKey.MATCH_STARTED);
 
 		startTimeSynchronization(clock);
 		channel.initPinging();
+
+		if (checksumInterval > 0) { // only servers comparing the checksums know the key
+			clock.setGameStateChecksumListener(new IGameStateChecksumListener() {
+				@Override
+				public void checksumCalculated(int lockstep, long checksum) {
+					channel.sendPacketAsync(NetworkConstants.ENetworkKey.GAME_STATE_CHECKSUM, new GameStateChecksumPacket(lockstep, checksum));
+				}
+			}, checksumInterval);
+		}
 	}
 
 	private void startTimeSynchronization(ISynchronizableClock clock) {
@@ -18,6 +18,8 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 
+import jsettlers.network.synchronic.timer.IGameStateChecksumListener;
+import jsettlers.network.synchronic.timer.IGameStateChecksumSupplier;
 import jsettlers.network.synchronic.timer.INetworkTimerable;
 import jsettlers.network.synchronic.timer.ITaskExecutor;
 
@@ -77,4 +79,12 @@ public interface IGameClock extends IPausingSupplier {
 	 */
 	void fastForwardTo(int targetGameTime);
 
+	/**
+	 * Sets the supplier of the game state checksums that are reported to the {@link IGameStateChecksumListener} of the clock.
+	 * 
+	 * @param checksumSupplier
+	 *            The supplier or <code>null</code> to disable the checksum calculation.
+	 */
+	void setGameStateChecksumSupplier(IGameStateChecksumSupplier checksumSupplier);
+
 }
@@ -14,6 +14,7 @@
  *******************************************************************************/
 package jsettlers.network.client.task.packets;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -24,22 +25,38 @@ import jsettlers.network.infrastructure.channel.IDeserializingable;
 import jsettlers.network.infrastructure.channel.packet.Packet;
 
 /**
+ * A task that is sent to all clients of a match and executed synchronously.
+ * <p />
+ * Tasks can be written with two encodings. The {@link #ENCODING_DEFAULT} writes the fields with fixed width. The {@link #ENCODING_COMPACT} starts
+ * with an empty class name as marker, followed by the class name and the data written by {@link #serializeTaskCompact(DataOutputStream)}.
+ * Deserialization detects the encoding of every task, so both encodings can be mixed in a stream.
  * 
  * @author Andreas Eberle
  * 
  */
 public abstract class TaskPacket extends Packet {
+	public static final byte ENCODING_DEFAULT = 0;
+	public static final byte ENCODING_COMPACT = 1;
+
 	public static final IDeserializingable<TaskPacket> DEFAULT_DESERIALIZER = new IDeserializingable<TaskPacket>() {
 
 		@Override
 		public TaskPacket deserialize(ENetworkKey key, DataInputStream dis) throws IOException {
 			try {
 				dis.readInt(); // read the length in bytes from the stream. We don't need it here, only the server needs it.
-				String className = dis.readUTF();
+				int classNameLength = dis.readUnsignedShort();
+				boolean compact = classNameLength == 0;
+				String className = compact ? dis.readUTF() : readUTF(dis, classNameLength);
+
 				@SuppressWarnings("unchecked")
 				Class<? extends TaskPacket> taskClass = (Class<? extends TaskPacket>) Class.forName(className);
 				TaskPacket packet = taskClass.newInstance();
-				packet.deserializeTask(dis);
+				if (compact) {
+					packet.encoding = ENCODING_COMPACT;
+					packet.deserializeTaskCompact(dis);
+				} else {
+					packet.deserializeTask(dis);
+				}
 				return packet;
 			} catch (Exception e) {
 				throw new IOException(e);
@@ -47,25 +64,69 @@ public abstract class TaskPacket extends Packet {
 		}
 	};
 
+	private byte encoding = ENCODING_DEFAULT;
+
 	@Override
 	public final void serialize(DataOutputStream dos) throws IOException {
 		ByteArrayOutputStream bufferOutStream = new ByteArrayOutputStream();
 		DataOutputStream bufferDataOutStream = new DataOutputStream(bufferOutStream);
 
-		bufferDataOutStream.writeUTF(this.getClass().getName());
-		serializeTask(bufferDataOutStream);
+		if (encoding == ENCODING_COMPACT) {
+			bufferDataOutStream.writeShort(0); // empty class name marks the compact encoding
+			bufferDataOutStream.writeUTF(this.getClass().getName());
+			serializeTaskCompact(bufferDataOutStream);
+		} else {
+			bufferDataOutStream.writeUTF(this.getClass().getName());
+			serializeTask(bufferDataOutStream);
+		}
 		bufferDataOutStream.flush();
 
 		dos.writeInt(bufferOutStream.size());
 		bufferOutStream.writeTo(dos);
 	}
 
+	/**
+	 * Sets the encoding used when this task is serialized.
+	 * 
+	 * @param encoding
+	 *            {@link #ENCODING_DEFAULT} or {@link #ENCODING_COMPACT}.
+	 */
+	public void setEncoding(byte encoding) {
+		this.encoding = encoding;
+	}
+
+	public byte getEncoding() {
+		return encoding;
+	}
+
 	protected abstract void serializeTask(DataOutputStream dos) throws IOException;
 
+	/**
+	 * Writes the task with the compact encoding. Subclasses with large data should override this method together with
+	 * {@link #deserializeTaskCompact(DataInputStream)}. By default, the normal serialization is used.
+	 * 
+	 * @param dos
+	 * @throws IOException
+	 */
+	protected void serializeTaskCompact(DataOutputStream dos) throws IOException {
+		serializeTask(dos);
+	}
+
+	protected void deserializeTaskCompact(DataInputStream dis) throws IOException {
+		deserializeTask(dis);
+	}
+
 	@Override
 	public final void deserialize(DataInputStream dis) throws IOException {
 	}
 
 	protected abstract void deserializeTask(DataInputStream dis) throws IOException;
 
+	private static String readUTF(DataInputStream dis, int utfLength) throws IOException {
+		byte[] utf = new byte[2 + utfLength];
+		utf[0] = (byte) (utfLength >>> 8);
+		utf[1] = (byte) utfLength;
+		dis.readFully(utf, 2, utfLength);
+		return new DataInputStream(new ByteArrayInputStream(utf)).readUTF();
+	}
 }
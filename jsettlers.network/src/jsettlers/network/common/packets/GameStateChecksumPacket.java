@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.common.packets;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import jsettlers.network.infrastructure.channel.packet.Packet;
+
+/**
+ * This packet is sent by the clients to report the checksum of their game state in the given lockstep. The server compares the checksums of all
+ * players to detect desynchronized clients.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class GameStateChecksumPacket extends Packet {
+
+	private int lockstep;
+	private long checksum;
+
+	public GameStateChecksumPacket() {
+	}
+
+	public GameStateChecksumPacket(int lockstep, long checksum) {
+		this.lockstep = lockstep;
+		this.checksum = checksum;
+	}
+
+	@Override
+	public void serialize(DataOutputStream dos) throws IOException {
+		dos.writeInt(lockstep);
+		dos.writeLong(checksum);
+	}
+
+	@Override
+	public void deserialize(DataInputStream dis) throws IOException {
+		lockstep = dis.readInt();
+		checksum = dis.readLong();
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + lockstep;
+		result = prime * result + (int) (checksum ^ (checksum >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		GameStateChecksumPacket other = (GameStateChecksumPacket) obj;
+		if (lockstep != other.lockstep)
+			return false;
+		if (checksum != other.checksum)
+			return false;
+		return true;
+	}
+
+	public int getLockstep() {
+		return lockstep;
+	}
+
+	public long getChecksum() {
+		return checksum;
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.common.packets;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import jsettlers.network.client.task.packets.TaskPacket;
+import jsettlers.network.infrastructure.channel.packet.Packet;
+
+/**
+ * This packet is sent by a client to identify itself at the server. It contains the {@link PlayerInfoPacket} of the user, the
+ * {@link jsettlers.network.NetworkConstants.SimulationFlags} and the best task encoding supported by the client.
+ * <p />
+ * NOTE: The flags and the encoding are written after the player info, so that older servers can still read this packet as {@link PlayerInfoPacket}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class IdentifyUserPacket extends Packet {
+	private PlayerInfoPacket playerInfo;
+	private int supportedSimulationFlags;
+	private byte supportedTaskEncoding;
+
+	public IdentifyUserPacket() {
+	}
+
+	public IdentifyUserPacket(PlayerInfoPacket playerInfo, int supportedSimulationFlags, byte supportedTaskEncoding) {
+		this.playerInfo = playerInfo;
+		this.supportedSimulationFlags = supportedSimulationFlags;
+		this.supportedTaskEncoding = supportedTaskEncoding;
+	}
+
+	@Override
+	public void serialize(DataOutputStream dos) throws IOException {
+		playerInfo.serialize(dos);
+		dos.writeInt(supportedSimulationFlags);
+		dos.writeByte(supportedTaskEncoding);
+	}
+
+	@Override
+	public void deserialize(DataInputStream dis) throws IOException {
+		playerInfo = new PlayerInfoPacket();
+		playerInfo.deserialize(dis);
+		supportedSimulationFlags = dis.available() >= 4 ? dis.readInt() : 0; // older clients only send the player info
+		supportedTaskEncoding = dis.available() > 0 ? dis.readByte() : TaskPacket.ENCODING_DEFAULT;
+	}
+
+	public PlayerInfoPacket getPlayerInfo() {
+		return playerInfo;
+	}
+
+	public int getSupportedSimulationFlags() {
+		return supportedSimulationFlags;
+	}
+
+	public byte getSupportedTaskEncoding() {
+		return supportedTaskEncoding;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((playerInfo == null) ? 0 : playerInfo.hashCode());
+		result = prime * result + supportedSimulationFlags;
+		result = prime * result + supportedTaskEncoding;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		IdentifyUserPacket other = (IdentifyUserPacket) obj;
+		if (playerInfo == null) {
+			if (other.playerInfo != null)
+				return false;
+		} else if (!playerInfo.equals(other.playerInfo))
+			return false;
+		if (supportedSimulationFlags != other.supportedSimulationFlags)
+			return false;
+		if (supportedTaskEncoding != other.supportedTaskEncoding)
+			return false;
+		return true;
+	}
+}
@@ -18,6 +18,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 
+import jsettlers.network.client.task.packets.TaskPacket;
 import jsettlers.network.infrastructure.channel.packet.Packet;
 
 /**
@@ -30,6 +31,9 @@ public class MatchStartPacket extends Packet {
 
 	private MatchInfoPacket matchInfo;
 	private long randomSeed;
+	private int simulationFlags = 0;
+	private byte taskEncoding = TaskPacket.ENCODING_DEFAULT;
+	private int checksumInterval = 0;
 
 	public MatchStartPacket() {
 	}
@@ -39,10 +43,28 @@ public class MatchStartPacket extends Packet {
 		this.randomSeed = seed;
 	}
 
+	public MatchStartPacket(MatchInfoPacket matchInfo, long seed, int simulationFlags) {
+		this(matchInfo, seed);
+		this.simulationFlags = simulationFlags;
+	}
+
+	public MatchStartPacket(MatchInfoPacket matchInfo, long seed, int simulationFlags, byte taskEncoding) {
+		this(matchInfo, seed, simulationFlags);
+		this.taskEncoding = taskEncoding;
+	}
+
+	public MatchStartPacket(MatchInfoPacket matchInfo, long seed, int simulationFlags, byte taskEncoding, int checksumInterval) {
+		this(matchInfo, seed, simulationFlags, taskEncoding);
+		this.checksumInterval = checksumInterval;
+	}
+
 	@Override
 	public void serialize(DataOutputStream dos) throws IOException {
 		matchInfo.serialize(dos);
 		dos.writeLong(randomSeed);
+		dos.writeInt(simulationFlags); // older clients ignore this
+		dos.writeByte(taskEncoding); // older clients ignore this
+		dos.writeInt(checksumInterval); // older clients ignore this
 	}
 
 	@Override
@@ -51,6 +73,9 @@ public class MatchStartPacket extends Packet {
 		match.deserialize(dis);
 		this.matchInfo = match;
 		randomSeed = dis.readLong();
+		simulationFlags = dis.available() >= 4 ? dis.readInt() : 0; // older servers don't enable any simulation flags
+		taskEncoding = dis.available() > 0 ? dis.readByte() : TaskPacket.ENCODING_DEFAULT; // older servers don't send the encoding
+		checksumInterval = dis.available() >= 4 ? dis.readInt() : 0; // older servers don't compare checksums
 	}
 
 	@Override
@@ -59,6 +84,9 @@ public class MatchStartPacket extends Packet {
 		int result = 1;
 		result = prime * result + ((matchInfo == null) ? 0 : matchInfo.hashCode());
 		result = prime * result + (int) (randomSeed ^ (randomSeed >>> 32));
+		result = prime * result + simulationFlags;
+		result = prime * result + taskEncoding;
+		result = prime * result + checksumInterval;
 		return result;
 	}
 
@@ -78,6 +106,12 @@ public class MatchStartPacket extends Packet {
 			return false;
 		if (randomSeed != other.randomSeed)
 			return false;
+		if (simulationFlags != other.simulationFlags)
+			return false;
+		if (taskEncoding != other.taskEncoding)
+			return false;
+		if (checksumInterval != other.checksumInterval)
+			return false;
 		return true;
 	}
 
@@ -94,4 +128,25 @@ public class MatchStartPacket extends Packet {
 	public long getRandomSeed() {
 		return randomSeed;
 	}
+
+	/**
+	 * @return The {@link jsettlers.network.NetworkConstants.SimulationFlags} all clients of the match shall use.
+	 */
+	public int getSimulationFlags() {
+		return simulationFlags;
+	}
+
+	/**
+	 * @return the encoding the clients shall use for their tasks.
+	 */
+	public byte getTaskEncoding() {
+		return taskEncoding;
+	}
+
+	/**
+	 * @return The number of locksteps between two game state checksums the clients shall report or 0 if the server doesn't compare checksums.
+	 */
+	public int getChecksumInterval() {
+		return checksumInterval;
+	}
 }
@@ -15,7 +15,6 @@
 package jsettlers.network.infrastructure.channel;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -53,8 +52,7 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 	private final DataOutputStream outStream;
 	private final DataInputStream inStream;
 
-	private final ByteArrayOutputStream byteBufferOutStream = new ByteArrayOutputStream();
-	private final DataOutputStream bufferDataOutStream = new DataOutputStream(byteBufferOutStream);
+	private final PacketFrameBuffer frameBuffer = new PacketFrameBuffer();
 
 	private final HashMap<ENetworkKey, IChannelListener> listenerRegistry = new HashMap<ENetworkKey, IChannelListener>();
 
@@ -92,6 +90,25 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 		thread = new Thread(this, "ChannelForSocket_" + socket);
 	}
 
+	/**
+	 * Constructor for subclasses bringing their own transport instead of an {@link ISocket}. Such subclasses need to override
+	 * {@link #startReceiving()}, {@link #sendPacket(ENetworkKey, Packet)}, {@link #close()} and {@link #isClosed()}. Received packets must be passed to
+	 * {@link #receivePacket(ENetworkKey, int, DataInputStream)}.
+	 * 
+	 * @param logger
+	 */
+	protected Channel(Logger logger) {
+		this.logger = new SwitchableLogger(logger);
+		this.socket = null;
+		this.outStream = null;
+		this.inStream = null;
+
+		pingPacketListener = new PingPacketListener(this.logger, this);
+		registerListener(pingPacketListener);
+
+		thread = null;
+	}
+
 	/**
 	 * Starts the message receiving of this {@link Channel}.
 	 * <p />
@@ -104,6 +121,10 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 	 */
 	public void start() {
 		started = true;
+		startReceiving();
+	}
+
+	protected void startReceiving() {
 		thread.start();
 	}
 
@@ -112,23 +133,15 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 			return;
 
 		try {
-			sendPacketData(key, packet);
+			frameBuffer.reset();
+			frameBuffer.appendFrame(key, packet);
+			writeFrames();
 		} catch (IOException e) {
 		}
 	}
 
-	private void sendPacketData(ENetworkKey key, Packet packet) throws IOException {
-		bufferDataOutStream.flush();
-		byteBufferOutStream.reset();
-
-		packet.serialize(bufferDataOutStream); // write packet to buffer to calculate length
-		bufferDataOutStream.flush();
-		final int length = byteBufferOutStream.size();
-
-		key.writeTo(outStream); // write key, length and the data
-		outStream.writeInt(length);
-		byteBufferOutStream.writeTo(outStream);
-
+	private void writeFrames() throws IOException {
+		frameBuffer.writeTo(outStream); // key, length and data of all frames in one write
 		outStream.flush();
 	}
 
@@ -157,26 +170,7 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 				int length = inStream.readInt();
 
 				DataInputStream bufferIn = readBytesToBuffer(inStream, length);
-
-				IChannelListener listener = listenerRegistry.get(key);
-
-				if (listener != null) {
-					try {
-						listener.receive(key, length, bufferIn);
-						if (bufferIn.available() > 0) {
-							logger.warn("Deserialization did not read all bytes of input: " + key + " " + length + " " + bufferIn.available());
-						}
-					} catch (Exception e) { // ignore exceptions thrown in receive
-						e.printStackTrace();
-					}
-				} else {
-					logger.warn("NO LISTENER FOUND for key: " + key + "   (" + socket + ")");
-
-					if (key != NetworkConstants.ENetworkKey.REJECT_PACKET) { // prevent endless loop
-						sendPacket(NetworkConstants.ENetworkKey.REJECT_PACKET,
-								new RejectPacket(NetworkConstants.ENetworkMessage.NO_LISTENER_FOUND, key));
-					}
-				}
+				receivePacket(key, length, bufferIn);
 
 			} catch (Exception e) {
 				try {
@@ -188,10 +182,51 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 
 		close(); // release the resources
 
+		notifyChannelClosed();
+		logger.info("Channel listener shut down: " + socket);
+	}
+
+	/**
+	 * Passes a received packet to the registered listener.
+	 * 
+	 * @param key
+	 *            The key of the received packet.
+	 * @param length
+	 *            The length of the packet's data.
+	 * @param bufferIn
+	 *            Stream containing the packet's data.
+	 * @throws IOException
+	 */
+	protected final void receivePacket(ENetworkKey key, int length, DataInputStream bufferIn) throws IOException {
+		IChannelListener listener = listenerRegistry.get(key);
+
+		if (listener != null) {
+			try {
+				listener.receive(key, length, bufferIn);
+				if (bufferIn.available() > 0) {
+					logger.warn("Deserialization did not read all bytes of input: " + key + " " + length + " " + bufferIn.available());
+				}
+			} catch (Exception e) { // ignore exceptions thrown in receive
+				e.printStackTrace();
+			}
+		} else {
+			logger.warn("NO LISTENER FOUND for key: " + key + "   (" + this + ")");
+
+			if (key != NetworkConstants.ENetworkKey.REJECT_PACKET) { // prevent endless loop
+				sendPacket(NetworkConstants.ENetworkKey.REJECT_PACKET,
+						new RejectPacket(NetworkConstants.ENetworkMessage.NO_LISTENER_FOUND, key));
+			}
+		}
+	}
+
+	protected final void notifyChannelClosed() {
 		if (channelClosedListener != null) {
 			channelClosedListener.channelClosed();
 		}
-		logger.info("Channel listener shut down: " + socket);
+	}
+
+	protected final SwitchableLogger getLogger() {
+		return logger;
 	}
 
 	private DataInputStream readBytesToBuffer(DataInputStream inStream, int length) throws IOException {
@@ -278,4 +313,9 @@ public class Channel implements Runnable, IRoundTripTimeSupplier {
 	public void setLogger(Logger newLogger) {
 		this.logger.setLogger(newLogger);
 	}
+
+	@Override
+	public String toString() {
+		return "Channel(" + socket + ")";
+	}
 }
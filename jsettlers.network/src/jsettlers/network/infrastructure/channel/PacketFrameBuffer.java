@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.infrastructure.channel.packet.Packet;
+
+/**
+ * Buffer collecting complete packet frames (key, length and data) as they are sent over a {@link Channel}. Several frames can be appended to be
+ * written to the socket with a single write.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class PacketFrameBuffer extends ByteArrayOutputStream {
+	private static final int HEADER_LENGTH = 5; // key (byte) + length (int)
+
+	private final DataOutputStream dataStream = new DataOutputStream(this);
+
+	/**
+	 * Appends the frame of the given packet to this buffer.
+	 * 
+	 * @param key
+	 * @param packet
+	 * @throws IOException
+	 */
+	public void appendFrame(ENetworkKey key, Packet packet) throws IOException {
+		int frameStart = count;
+		key.writeTo(dataStream);
+		dataStream.writeInt(0); // placeholder for the length
+
+		packet.serialize(dataStream);
+		dataStream.flush();
+
+		int length = count - frameStart - HEADER_LENGTH;
+		buf[frameStart + 1] = (byte) (length >>> 24);
+		buf[frameStart + 2] = (byte) (length >>> 16);
+		buf[frameStart + 3] = (byte) (length >>> 8);
+		buf[frameStart + 4] = (byte) length;
+	}
+
+	/**
+	 * Gives direct access to the internal buffer. Only the first {@link #size()} bytes are valid.
+	 * 
+	 * @return
+	 */
+	public byte[] getBuffer() {
+		return buf;
+	}
+}
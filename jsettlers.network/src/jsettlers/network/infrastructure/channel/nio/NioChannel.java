@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.nio;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jsettlers.network.NetworkConstants;
+import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.infrastructure.channel.Channel;
+import jsettlers.network.infrastructure.channel.PacketFrameBuffer;
+import jsettlers.network.infrastructure.channel.packet.Packet;
+import jsettlers.network.infrastructure.log.Logger;
+
+/**
+ * A {@link Channel} using non blocking IO. Instead of having an own receiver thread, the channel is served by a {@link NioSelectorThread} of its
+ * {@link NioChannelGroup}. The wire format is the same as the one of {@link Channel}, so both can talk to each other.
+ * <p />
+ * Sending serializes the packet frames into a pooled direct buffer and tries to write it immediately. If the socket cannot take all data, the remaining
+ * frames are queued and written with a single gathering write as soon as the socket is writable again.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class NioChannel extends Channel {
+	private static final int HEADER_LENGTH = 5; // key (byte) + length (int)
+
+	private static final ThreadLocal<PacketFrameBuffer> FRAME_BUFFERS = new ThreadLocal<PacketFrameBuffer>() {
+		@Override
+		protected PacketFrameBuffer initialValue() {
+			return new PacketFrameBuffer();
+		}
+	};
+
+	private final SocketChannel socketChannel;
+	private final NioSelectorThread selectorThread;
+	private final ByteBufferPool bufferPool;
+	private final AtomicBoolean closed = new AtomicBoolean(false);
+
+	private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<ByteBuffer>();
+	private ByteBuffer[] gatheringBuffers = new ByteBuffer[8];
+	private boolean writeInterest = false;
+
+	private final ByteBufferInputStream frameStream = new ByteBufferInputStream();
+	private final DataInputStream frameDataStream = new DataInputStream(frameStream);
+	private ByteBuffer readBuffer;
+	private SelectionKey selectionKey;
+
+	NioChannel(Logger logger, SocketChannel socketChannel, NioSelectorThread selectorThread, ByteBufferPool bufferPool) {
+		super(logger);
+		this.socketChannel = socketChannel;
+		this.selectorThread = selectorThread;
+		this.bufferPool = bufferPool;
+		this.readBuffer = bufferPool.acquire();
+	}
+
+	@Override
+	protected void startReceiving() {
+		selectorThread.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					int operations = SelectionKey.OP_READ;
+					synchronized (writeQueue) {
+						if (writeInterest) {
+							operations |= SelectionKey.OP_WRITE;
+						}
+					}
+					selectionKey = socketChannel.register(selectorThread.getSelector(), operations, NioChannel.this);
+				} catch (IOException e) {
+					close();
+				}
+			}
+		});
+	}
+
+	@Override
+	public void sendPacket(ENetworkKey key, Packet packet) {
+		if (isClosed()) {
+			return;
+		}
+
+		try {
+			PacketFrameBuffer frameBuffer = FRAME_BUFFERS.get();
+			frameBuffer.reset();
+			frameBuffer.appendFrame(key, packet);
+			enqueue(toByteBuffer(frameBuffer));
+		} catch (IOException e) {
+			close();
+		}
+	}
+
+	private ByteBuffer toByteBuffer(PacketFrameBuffer frameBuffer) {
+		int length = frameBuffer.size();
+		ByteBuffer frames;
+		if (length <= bufferPool.getBufferSize()) {
+			frames = bufferPool.acquire();
+		} else {
+			frames = ByteBuffer.allocate(length);
+		}
+
+		frames.put(frameBuffer.getBuffer(), 0, length);
+		frames.flip();
+		return frames;
+	}
+
+	private void enqueue(ByteBuffer frame) throws IOException {
+		synchronized (writeQueue) {
+			writeQueue.add(frame);
+
+			if (!writeInterest) {
+				writeQueuedFrames();
+
+				if (!writeQueue.isEmpty()) {
+					writeInterest = true;
+					selectorThread.execute(new Runnable() {
+						@Override
+						public void run() {
+							if (selectionKey != null && selectionKey.isValid()) {
+								selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+							}
+						}
+					});
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes as many queued frames as the socket currently accepts with gathering writes. Must be called while holding the lock of the write queue.
+	 * 
+	 * @throws IOException
+	 */
+	private void writeQueuedFrames() throws IOException {
+		while (!writeQueue.isEmpty()) {
+			int count = writeQueue.size();
+			if (gatheringBuffers.length < count) {
+				gatheringBuffers = new ByteBuffer[Math.max(count, 2 * gatheringBuffers.length)];
+			}
+			writeQueue.toArray(gatheringBuffers);
+
+			long written = socketChannel.write(gatheringBuffers, 0, count);
+			Arrays.fill(gatheringBuffers, 0, count, null);
+
+			while (!writeQueue.isEmpty() && !writeQueue.peekFirst().hasRemaining()) {
+				bufferPool.release(writeQueue.pollFirst());
+			}
+
+			if (written == 0) {
+				return; // the socket's send buffer is full
+			}
+		}
+	}
+
+	void handleWrite() throws IOException {
+		synchronized (writeQueue) {
+			writeQueuedFrames();
+
+			if (writeQueue.isEmpty()) {
+				writeInterest = false;
+				selectionKey.interestOps(SelectionKey.OP_READ);
+			}
+		}
+	}
+
+	void handleRead() throws IOException {
+		int read = socketChannel.read(readBuffer);
+		if (read < 0) {
+			close();
+			return;
+		}
+
+		readBuffer.flip();
+		while (readBuffer.remaining() >= HEADER_LENGTH && !closed.get()) {
+			int frameStart = readBuffer.position();
+			ENetworkKey key = ENetworkKey.fromOrdinal(readBuffer.get(frameStart));
+			int length = readBuffer.getInt(frameStart + 1);
+			if (length < 0) {
+				throw new IOException("Received negative packet length: " + length);
+			} else if (length > NetworkConstants.Server.NIO_MAX_PACKET_LENGTH) {
+				throw new IOException("Received packet length exceeds the maximum: " + length);
+			}
+
+			int frameEnd = frameStart + HEADER_LENGTH + length;
+			if (frameEnd > readBuffer.limit()) {
+				if (HEADER_LENGTH + length > readBuffer.capacity()) {
+					growReadBuffer(HEADER_LENGTH + length);
+					return;
+				}
+				break; // wait for the rest of the frame
+			}
+
+			int limit = readBuffer.limit();
+			readBuffer.position(frameStart + HEADER_LENGTH);
+			readBuffer.limit(frameEnd);
+			frameStream.setBuffer(readBuffer);
+			receivePacket(key, length, frameDataStream);
+			readBuffer.limit(limit);
+			readBuffer.position(frameEnd);
+		}
+
+		if (!closed.get()) {
+			readBuffer.compact();
+		}
+	}
+
+	private void growReadBuffer(int neededCapacity) {
+		ByteBuffer newReadBuffer = ByteBuffer.allocate(neededCapacity);
+		newReadBuffer.put(readBuffer);
+		bufferPool.release(readBuffer);
+		readBuffer = newReadBuffer;
+	}
+
+	@Override
+	public void close() {
+		if (!closed.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			socketChannel.close();
+		} catch (IOException e) {
+		}
+		if (selectionKey != null) {
+			selectionKey.cancel();
+		}
+
+		synchronized (writeQueue) {
+			for (ByteBuffer buffer : writeQueue) {
+				bufferPool.release(buffer);
+			}
+			writeQueue.clear();
+		}
+
+		selectorThread.execute(new Runnable() { // the selector thread might still be reading
+			@Override
+			public void run() {
+				bufferPool.release(readBuffer);
+			}
+		});
+
+		notifyChannelClosed();
+		getLogger().info("Channel shut down: " + this);
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed.get() || !socketChannel.isOpen();
+	}
+
+	@Override
+	public String toString() {
+		return "NioChannel(" + socketChannel.socket() + ")";
+	}
+}
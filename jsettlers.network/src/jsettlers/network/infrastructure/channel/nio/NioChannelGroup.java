@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.nio;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+
+import jsettlers.network.infrastructure.log.Logger;
+
+/**
+ * A group of {@link NioSelectorThread}s sharing a {@link ByteBufferPool}. New {@link NioChannel}s are distributed round robin over the selector
+ * threads, so a few threads can serve hundreds of connections.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class NioChannelGroup {
+	private static final int MAX_POOLED_BUFFERS_PER_THREAD = 256;
+
+	private final NioSelectorThread[] selectorThreads;
+	private final ByteBufferPool bufferPool;
+
+	private int nextSelectorThread = 0;
+
+	public NioChannelGroup(String name, int numberOfSelectorThreads, int bufferSize) throws IOException {
+		this.bufferPool = new ByteBufferPool(bufferSize, numberOfSelectorThreads * MAX_POOLED_BUFFERS_PER_THREAD);
+		this.selectorThreads = new NioSelectorThread[numberOfSelectorThreads];
+		for (int i = 0; i < numberOfSelectorThreads; i++) {
+			selectorThreads[i] = new NioSelectorThread(name + "-Selector-" + i);
+			selectorThreads[i].start();
+		}
+	}
+
+	/**
+	 * Creates a {@link NioChannel} for the given connected socket channel. The channel still needs to be started.
+	 * 
+	 * @param logger
+	 * @param socketChannel
+	 * @return
+	 * @throws IOException
+	 */
+	public synchronized NioChannel createChannel(Logger logger, SocketChannel socketChannel) throws IOException {
+		socketChannel.configureBlocking(false);
+		socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+		NioSelectorThread selectorThread = selectorThreads[nextSelectorThread];
+		nextSelectorThread = (nextSelectorThread + 1) % selectorThreads.length;
+
+		return new NioChannel(logger, socketChannel, selectorThread, bufferPool);
+	}
+
+	/**
+	 * Closes all channels of this group and stops the selector threads.
+	 */
+	public void shutdown() {
+		for (NioSelectorThread selectorThread : selectorThreads) {
+			selectorThread.shutdown();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.nio;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread handling the reading and writing of many {@link NioChannel}s with one {@link Selector}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+final class NioSelectorThread extends Thread {
+	private final Selector selector;
+	private final ConcurrentLinkedQueue<Runnable> pendingTasks = new ConcurrentLinkedQueue<Runnable>();
+
+	private volatile boolean running = true;
+
+	NioSelectorThread(String name) throws IOException {
+		super(name);
+		super.setDaemon(true);
+		this.selector = Selector.open();
+	}
+
+	Selector getSelector() {
+		return selector;
+	}
+
+	/**
+	 * Executes the given task in this selector thread.
+	 * 
+	 * @param task
+	 */
+	void execute(Runnable task) {
+		pendingTasks.offer(task);
+		selector.wakeup();
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			try {
+				selector.select();
+			} catch (IOException e) {
+				e.printStackTrace();
+				break;
+			}
+
+			runPendingTasks();
+
+			for (Iterator<SelectionKey> iter = selector.selectedKeys().iterator(); iter.hasNext();) {
+				SelectionKey key = iter.next();
+				iter.remove();
+				NioChannel channel = (NioChannel) key.attachment();
+
+				try {
+					if (key.isReadable()) {
+						channel.handleRead();
+					}
+					if (key.isValid() && key.isWritable()) {
+						channel.handleWrite();
+					}
+				} catch (IOException e) {
+					channel.close();
+				} catch (CancelledKeyException e) {
+					channel.close();
+				} catch (RuntimeException e) { // only close the failing channel and keep serving the others
+					e.printStackTrace();
+					channel.close();
+				}
+			}
+		}
+
+		for (SelectionKey key : selector.keys()) {
+			((NioChannel) key.attachment()).close();
+		}
+		runPendingTasks();
+
+		try {
+			selector.close();
+		} catch (IOException e) {
+		}
+	}
+
+	private void runPendingTasks() {
+		Runnable task;
+		while ((task = pendingTasks.poll()) != null) {
+			task.run();
+		}
+	}
+
+	void shutdown() {
+		running = false;
+		selector.wakeup();
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.packet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A {@link Packet} that has already been serialized. This is used to serialize a packet only once when it is sent to many channels.
+ * <p />
+ * Deserializing a {@link SerializedPacket} reads all remaining bytes of the received packet, so it contains the serialized data of the original
+ * packet afterwards.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class SerializedPacket extends Packet {
+	private byte[] data;
+
+	public SerializedPacket() {
+		this.data = new byte[0];
+	}
+
+	/**
+	 * Serializes the given packet.
+	 * 
+	 * @param packet
+	 *            The {@link Packet} to be serialized.
+	 * @throws IOException
+	 *             If the packet can not be serialized.
+	 */
+	public SerializedPacket(Packet packet) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(buffer);
+		packet.serialize(dos);
+		dos.flush();
+		this.data = buffer.toByteArray();
+	}
+
+	@Override
+	public void serialize(DataOutputStream dos) throws IOException {
+		dos.write(data);
+	}
+
+	@Override
+	public void deserialize(DataInputStream dis) throws IOException {
+		data = new byte[dis.available()]; // the channel supplies the data of every packet in its own buffer
+		dis.readFully(data);
+	}
+
+	public int getLength() {
+		return data.length;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o != null && o.getClass() == this.getClass() && Arrays.equals(data, ((SerializedPacket) o).data);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(data);
+	}
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Utility methods to write integers with a variable length encoding. Small values need less bytes: values below 128 need one byte, values below
+ * 16384 need two bytes.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class VarIntUtils {
+	private VarIntUtils() {
+	}
+
+	/**
+	 * Writes the given value as unsigned variable length integer. Negative values always need five bytes, use
+	 * {@link #writeSignedVarInt(DataOutputStream, int)} for them.
+	 * 
+	 * @param dos
+	 * @param value
+	 * @throws IOException
+	 */
+	public static void writeVarInt(DataOutputStream dos, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			dos.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		dos.writeByte(value);
+	}
+
+	public static int readVarInt(DataInputStream dis) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = dis.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length integer.");
+	}
+
+	/**
+	 * Writes the given value with zig zag encoding, so that values with a small absolute value need few bytes.
+	 * 
+	 * @param dos
+	 * @param value
+	 * @throws IOException
+	 */
+	public static void writeSignedVarInt(DataOutputStream dos, int value) throws IOException {
+		writeVarInt(dos, (value << 1) ^ (value >> 31));
+	}
+
+	public static int readSignedVarInt(DataInputStream dis) throws IOException {
+		int value = readVarInt(dis);
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -18,6 +18,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Scanner;
 
+import jsettlers.network.NetworkConstants;
 import jsettlers.network.server.match.Match;
 
 /**
@@ -29,7 +30,7 @@ import jsettlers.network.server.match.Match;
 public class DedicatedServerApp {
 
 	public static void main(String args[]) throws IOException {
-		GameServerThread gameServer = new GameServerThread(false);
+		GameServerThread gameServer = new GameServerThread(false, NetworkConstants.Server.NIO_SELECTOR_THREADS);
 		gameServer.start();
 
 		Scanner s = new Scanner(System.in);
@@ -43,6 +44,12 @@ public class DedicatedServerApp {
 				System.out.println("listing matches (" + matches.size() + "):");
 				for (Match match : matches) {
 					System.out.println("\t" + match);
+					if (match.isRunning()) {
+						System.out.println("\t\tlockstep timing: " + match.getLockstepStatistics());
+						if (match.getFirstDesyncLockstep() >= 0) {
+							System.out.println("\t\tDESYNC detected in lockstep " + match.getFirstDesyncLockstep());
+						}
+					}
 				}
 			}
 		}
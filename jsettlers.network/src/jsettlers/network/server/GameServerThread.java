@@ -15,12 +15,15 @@
 package jsettlers.network.server;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
 
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.infrastructure.channel.Channel;
+import jsettlers.network.infrastructure.channel.nio.NioChannelGroup;
 import jsettlers.network.infrastructure.channel.socket.ISocketFactory;
 import jsettlers.network.infrastructure.log.Logger;
 import jsettlers.network.infrastructure.log.LoggerManager;
@@ -41,13 +44,35 @@ public class GameServerThread extends Thread {
 	private final ServerSocket serverSocket;
 	private final ServerManager manager;
 	private final LanServerBroadcastThread lanBroadcastThread;
+	private final NioChannelGroup nioChannelGroup;
 
 	private long counter = 0;
 	private boolean canceled = false;
 
 	public GameServerThread(boolean lan) throws IOException {
+		this(lan, 0);
+	}
+
+	/**
+	 * 
+	 * @param lan
+	 *            If true, the server address is broadcasted in the local network.
+	 * @param nioSelectorThreads
+	 *            Number of selector threads serving the client connections with non blocking IO. If 0, every client gets a {@link Channel} with
+	 *            its own receiver thread.
+	 * @throws IOException
+	 */
+	public GameServerThread(boolean lan, int nioSelectorThreads) throws IOException {
 		super("GameServer");
-		this.serverSocket = new ServerSocket(NetworkConstants.Server.SERVER_PORT);
+		if (nioSelectorThreads > 0) {
+			ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+			this.serverSocket = serverSocketChannel.socket();
+			this.serverSocket.bind(new InetSocketAddress(NetworkConstants.Server.SERVER_PORT));
+			this.nioChannelGroup = new NioChannelGroup("GameServer", nioSelectorThreads, NetworkConstants.Server.NIO_BUFFER_SIZE);
+		} else {
+			this.serverSocket = new ServerSocket(NetworkConstants.Server.SERVER_PORT);
+			this.nioChannelGroup = null;
+		}
 		this.manager = new ServerManager(new InMemoryDB());
 
 		this.setDaemon(true);
@@ -68,7 +93,12 @@ public class GameServerThread extends Thread {
 			try {
 				Socket clientSocket = serverSocket.accept();
 
-				Channel clientChannel = new Channel(LOGGER, ISocketFactory.DEFAULT_FACTORY.generateSocket(clientSocket));
+				Channel clientChannel;
+				if (nioChannelGroup != null) {
+					clientChannel = nioChannelGroup.createChannel(LOGGER, clientSocket.getChannel());
+				} else {
+					clientChannel = new Channel(LOGGER, ISocketFactory.DEFAULT_FACTORY.generateSocket(clientSocket));
+				}
 				manager.identifyNewChannel(clientChannel);
 				clientChannel.start();
 
@@ -129,6 +159,9 @@ public class GameServerThread extends Thread {
 			lanBroadcastThread.shutdown();
 
 		manager.shutdown();
+
+		if (nioChannelGroup != null)
+			nioChannelGroup.shutdown();
 	}
 
 	public boolean isLanBroadcasterAlive() {
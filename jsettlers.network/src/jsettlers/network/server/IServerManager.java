@@ -15,6 +15,7 @@
 package jsettlers.network.server;
 
 import jsettlers.network.common.packets.ChatMessagePacket;
+import jsettlers.network.common.packets.GameStateChecksumPacket;
 import jsettlers.network.common.packets.OpenNewMatchPacket;
 import jsettlers.network.common.packets.TimeSyncPacket;
 import jsettlers.network.server.match.Player;
@@ -55,6 +56,15 @@ public interface IServerManager {
 	 */
 	void distributeTimeSync(Player player, TimeSyncPacket packet);
 
+	/**
+	 * Compares the game state checksum reported by the given {@link Player} with the checksums of the other players in the match.
+	 * 
+	 * @param player
+	 *            The player that sent the {@link GameStateChecksumPacket}.
+	 * @param packet
+	 */
+	void reportGameStateChecksum(Player player, GameStateChecksumPacket packet);
+
 	void joinMatch(String matchId, Player player);
 
 	void setReadyStateForPlayer(Player player, boolean ready);
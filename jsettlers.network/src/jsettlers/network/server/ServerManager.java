@@ -18,6 +18,7 @@ import java.util.Timer;
 
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.common.packets.ChatMessagePacket;
+import jsettlers.network.common.packets.GameStateChecksumPacket;
 import jsettlers.network.common.packets.OpenNewMatchPacket;
 import jsettlers.network.common.packets.TimeSyncPacket;
 import jsettlers.network.infrastructure.channel.Channel;
@@ -25,6 +26,7 @@ import jsettlers.network.infrastructure.channel.reject.RejectPacket;
 import jsettlers.network.server.db.IDBFacade;
 import jsettlers.network.server.exceptions.NotAllPlayersReadyException;
 import jsettlers.network.server.listeners.ChatMessageForwardingListener;
+import jsettlers.network.server.listeners.GameStateChecksumListener;
 import jsettlers.network.server.listeners.IdentifyUserListener;
 import jsettlers.network.server.listeners.ReadyStatePacketListener;
 import jsettlers.network.server.listeners.ServerChannelClosedListener;
@@ -37,6 +39,7 @@ import jsettlers.network.server.listeners.matches.StartMatchListener;
 import jsettlers.network.server.match.Match;
 import jsettlers.network.server.match.MatchesListSendingTimerTask;
 import jsettlers.network.server.match.Player;
+import jsettlers.network.server.match.lockstep.LockstepScheduler;
 
 /**
  * This class is the central access point to the servers externally reachable functions.
@@ -48,7 +51,7 @@ public class ServerManager implements IServerManager {
 
 	private final IDBFacade database;
 	private final Timer sendMatchesListTimer = new Timer("SendMatchesListTimer", true);
-	private final Timer matchesTaskDistributionTimer = new Timer("MatchesTaskDistributionTimer", true);
+	private final LockstepScheduler lockstepScheduler = new LockstepScheduler("LockstepScheduler", NetworkConstants.Server.LOCKSTEP_SCHEDULER_THREADS);
 	private final MatchesListSendingTimerTask matchSendingTask;
 
 	public ServerManager(IDBFacade db) {
@@ -62,7 +65,7 @@ public class ServerManager implements IServerManager {
 
 	public synchronized void shutdown() {
 		sendMatchesListTimer.cancel();
-		matchesTaskDistributionTimer.cancel();
+		lockstepScheduler.shutdown();
 	}
 
 	public void identifyNewChannel(Channel channel) {
@@ -84,6 +87,7 @@ public class ServerManager implements IServerManager {
 			channel.registerListener(new JoinMatchListener(this, player));
 			channel.registerListener(new ChatMessageForwardingListener(this, player));
 			channel.registerListener(new TimeSyncForwardingListener(this, player));
+			channel.registerListener(new GameStateChecksumListener(this, player));
 			channel.registerListener(new ReadyStatePacketListener(this, player));
 			channel.registerListener(new StartFinishedSignalListener(this, player));
 
@@ -132,7 +136,7 @@ public class ServerManager implements IServerManager {
 	@Override
 	public void startMatch(Player player) {
 		try {
-			player.startMatch(matchesTaskDistributionTimer);
+			player.startMatch(lockstepScheduler);
 		} catch (IllegalStateException e) {
 			e.printStackTrace();
 			player.sendPacket(NetworkConstants.ENetworkKey.REJECT_PACKET,
@@ -161,6 +165,15 @@ public class ServerManager implements IServerManager {
 		}
 	}
 
+	@Override
+	public void reportGameStateChecksum(Player player, GameStateChecksumPacket packet) {
+		try {
+			player.reportGameStateChecksum(packet);
+		} catch (IllegalStateException e) {
+			e.printStackTrace();
+		}
+	}
+
 	@Override
 	public void joinMatch(String matchId, Player player) {
 		Match match = database.getMatchById(matchId);
@@ -18,7 +18,7 @@ import java.io.IOException;
 
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.NetworkConstants.ENetworkKey;
-import jsettlers.network.common.packets.PlayerInfoPacket;
+import jsettlers.network.common.packets.IdentifyUserPacket;
 import jsettlers.network.infrastructure.channel.Channel;
 import jsettlers.network.infrastructure.channel.GenericDeserializer;
 import jsettlers.network.infrastructure.channel.listeners.PacketChannelListener;
@@ -32,20 +32,20 @@ import jsettlers.network.server.match.Player;
  * @author Andreas Eberle
  * 
  */
-public class IdentifyUserListener extends PacketChannelListener<PlayerInfoPacket> {
+public class IdentifyUserListener extends PacketChannelListener<IdentifyUserPacket> {
 
 	private final Channel channel;
 	private final IServerManager serverManager;
 
 	public IdentifyUserListener(Channel channel, IServerManager userAcceptor) {
-		super(ENetworkKey.IDENTIFY_USER, new GenericDeserializer<PlayerInfoPacket>(PlayerInfoPacket.class));
+		super(ENetworkKey.IDENTIFY_USER, new GenericDeserializer<IdentifyUserPacket>(IdentifyUserPacket.class));
 		this.channel = channel;
 		this.serverManager = userAcceptor;
 	}
 
 	@Override
-	protected void receivePacket(ENetworkKey key, PlayerInfoPacket playerInfo) throws IOException {
-		Player player = new Player(playerInfo, channel);
+	protected void receivePacket(ENetworkKey key, IdentifyUserPacket packet) throws IOException {
+		Player player = new Player(packet.getPlayerInfo(), channel, packet.getSupportedSimulationFlags(), packet.getSupportedTaskEncoding());
 		if (serverManager.acceptNewPlayer(player)) {
 			channel.sendPacket(NetworkConstants.ENetworkKey.IDENTIFY_USER, new EmptyPacket());
 			serverManager.sendMatchesToPlayer(player);
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.server.match;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Compares the game state checksums reported by the players of a match. A desync is detected as soon as two players report different checksums
+ * for the same lockstep.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class GameStateChecksumComparator {
+	/**
+	 * Number of locksteps a reported checksum is kept to wait for the reports of slower players.
+	 */
+	private static final int MAX_PENDING_LOCKSTEPS = 1000;
+
+	private final TreeMap<Integer, LockstepChecksum> pendingChecksums = new TreeMap<Integer, LockstepChecksum>();
+
+	private int firstDesyncLockstep = -1;
+	private int desyncs = 0;
+
+	/**
+	 * Adds the checksum reported by a player.
+	 * 
+	 * @param playerId
+	 *            Id of the reporting player.
+	 * @param lockstep
+	 *            The lockstep the checksum has been calculated in.
+	 * @param checksum
+	 *            The reported checksum.
+	 * @param numberOfPlayers
+	 *            The number of players expected to report a checksum for the lockstep.
+	 * @return The id of a player that reported a different checksum for the lockstep or <code>null</code> if no desync has been detected.
+	 */
+	public synchronized String addChecksum(String playerId, int lockstep, long checksum, int numberOfPlayers) {
+		LockstepChecksum lockstepChecksum = pendingChecksums.get(lockstep);
+		if (lockstepChecksum == null) {
+			lockstepChecksum = new LockstepChecksum(playerId, checksum);
+			pendingChecksums.put(lockstep, lockstepChecksum);
+			removeOutdatedChecksums(lockstep);
+		}
+
+		String desyncedPlayerId = null;
+		if (lockstepChecksum.checksum != checksum) {
+			desyncedPlayerId = lockstepChecksum.playerId;
+			if (!lockstepChecksum.desynced) {
+				lockstepChecksum.desynced = true;
+				desyncs++;
+				if (firstDesyncLockstep < 0 || lockstep < firstDesyncLockstep) {
+					firstDesyncLockstep = lockstep;
+				}
+			}
+		}
+
+		lockstepChecksum.reports++;
+		if (lockstepChecksum.reports >= numberOfPlayers) {
+			pendingChecksums.remove(lockstep);
+		}
+		return desyncedPlayerId;
+	}
+
+	private void removeOutdatedChecksums(int lockstep) {
+		for (Iterator<Entry<Integer, LockstepChecksum>> iter = pendingChecksums.entrySet().iterator(); iter.hasNext();) {
+			if (iter.next().getKey() >= lockstep - MAX_PENDING_LOCKSTEPS) {
+				break;
+			}
+			iter.remove();
+		}
+	}
+
+	/**
+	 * @return The first lockstep a desync has been detected in or -1 if all checksums matched.
+	 */
+	public synchronized int getFirstDesyncLockstep() {
+		return firstDesyncLockstep;
+	}
+
+	/**
+	 * @return The number of locksteps with differing checksums.
+	 */
+	public synchronized int getNumberOfDesyncs() {
+		return desyncs;
+	}
+
+	/**
+	 * The first checksum reported for a lockstep.
+	 */
+	private static class LockstepChecksum {
+		final String playerId;
+		final long checksum;
+		int reports;
+		boolean desynced;
+
+		LockstepChecksum(String playerId, long checksum) {
+			this.playerId = playerId;
+			this.checksum = checksum;
+		}
+	}
+}
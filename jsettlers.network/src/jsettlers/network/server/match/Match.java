@@ -14,14 +14,16 @@
  *******************************************************************************/
 package jsettlers.network.server.match;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.LinkedList;
-import java.util.Timer;
 import java.util.UUID;
 
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.NetworkConstants.ENetworkKey;
 import jsettlers.network.NetworkConstants.ENetworkMessage;
+import jsettlers.network.client.task.packets.TaskPacket;
+import jsettlers.network.common.packets.GameStateChecksumPacket;
 import jsettlers.network.common.packets.MapInfoPacket;
 import jsettlers.network.common.packets.MatchInfoPacket;
 import jsettlers.network.common.packets.MatchInfoUpdatePacket;
@@ -29,9 +31,13 @@ import jsettlers.network.common.packets.MatchStartPacket;
 import jsettlers.network.common.packets.PlayerInfoPacket;
 import jsettlers.network.common.packets.TimeSyncPacket;
 import jsettlers.network.infrastructure.channel.packet.Packet;
+import jsettlers.network.infrastructure.channel.packet.SerializedPacket;
 import jsettlers.network.infrastructure.log.Logger;
 import jsettlers.network.infrastructure.log.LoggerManager;
 import jsettlers.network.server.exceptions.NotAllPlayersReadyException;
+import jsettlers.network.server.match.lockstep.LockstepScheduler;
+import jsettlers.network.server.match.lockstep.LockstepTimingStatistics;
+import jsettlers.network.server.match.lockstep.ScheduledLockstep;
 import jsettlers.network.server.match.lockstep.TaskCollectingListener;
 import jsettlers.network.server.match.lockstep.TaskSendingTimerTask;
 
@@ -51,10 +57,14 @@ public class Match {
 	private final MapInfoPacket map;
 	private final String name;
 	private final long randomSeed;
+	private final GameStateChecksumComparator checksumComparator = new GameStateChecksumComparator();
 
 	private EMatchState state = EMatchState.OPENED;
 	private TaskCollectingListener taskCollectingListener;
 	private TaskSendingTimerTask taskSendingTimerTask;
+	private ScheduledLockstep scheduledLockstep;
+	private int simulationFlags = 0;
+	private byte taskEncoding = TaskPacket.ENCODING_DEFAULT;
 
 	public Match(String name, int maxPlayers, MapInfoPacket map, long randomSeed) {
 		this.maxPlayers = maxPlayers;
@@ -162,15 +172,26 @@ public class Match {
 	 * @param packet
 	 */
 	public void sendMessage(Player sendingPlayer, ENetworkKey key, Packet packet) {
+		Packet serializedPacket = serializeOnce(packet);
+
 		synchronized (players) {
 			for (Player curr : players) {
 				if (sendingPlayer == null || !curr.getId().equals(sendingPlayer.getId())) {
-					curr.sendPacket(key, packet);
+					curr.sendPacket(key, serializedPacket);
 				}
 			}
 		}
 	}
 
+	private Packet serializeOnce(Packet packet) {
+		try {
+			return new SerializedPacket(packet);
+		} catch (IOException e) {
+			logger.error(e);
+			return packet;
+		}
+	}
+
 	public void join(Player player) {
 		synchronized (players) {
 			players.add(player);
@@ -203,24 +224,32 @@ public class Match {
 		}
 	}
 
-	public synchronized void startMatch(Timer timer) throws NotAllPlayersReadyException {
+	public synchronized void startMatch(LockstepScheduler scheduler) throws NotAllPlayersReadyException {
 		if (state == EMatchState.RUNNING || state == EMatchState.FINISHED) {
 			return; // match already started
 		}
 
+		int negotiatedSimulationFlags = NetworkConstants.Server.SIMULATION_FLAGS;
+		byte negotiatedTaskEncoding = TaskPacket.ENCODING_COMPACT;
 		synchronized (players) {
 			for (Player player : players) {
 				if (!player.getPlayerInfo().isReady()) {
 					throw new NotAllPlayersReadyException();
 				}
+				// the compact encoding and the simulation flags are only used if all clients support them
+				negotiatedSimulationFlags &= player.getSupportedSimulationFlags();
+				negotiatedTaskEncoding = (byte) Math.min(negotiatedTaskEncoding, player.getSupportedTaskEncoding());
 			}
 		}
+		this.simulationFlags = negotiatedSimulationFlags;
+		this.taskEncoding = negotiatedTaskEncoding;
 
 		state = EMatchState.RUNNING;
 
 		this.taskCollectingListener = new TaskCollectingListener();
 		this.taskSendingTimerTask = new TaskSendingTimerTask(logger, taskCollectingListener, this);
-		timer.schedule(taskSendingTimerTask, NetworkConstants.Client.LOCKSTEP_PERIOD, NetworkConstants.Client.LOCKSTEP_PERIOD / 2 - 2);
+		this.scheduledLockstep = scheduler.schedule(taskSendingTimerTask, NetworkConstants.Client.LOCKSTEP_PERIOD,
+				NetworkConstants.Client.LOCKSTEP_PERIOD / 2 - 2);
 
 		synchronized (players) {
 			int i = 0;
@@ -236,7 +265,8 @@ public class Match {
 
 	private void sendMatchStartPacketToPlayer(Player player) {
 		player.matchStarted(taskCollectingListener);
-		player.sendPacket(NetworkConstants.ENetworkKey.MATCH_STARTED, new MatchStartPacket(new MatchInfoPacket(this), 0L));
+		player.sendPacket(NetworkConstants.ENetworkKey.MATCH_STARTED, new MatchStartPacket(new MatchInfoPacket(this), 0L, simulationFlags,
+				taskEncoding, NetworkConstants.Server.GAME_STATE_CHECKSUM_INTERVAL));
 	}
 
 	public void distributeTimeSync(Player player, TimeSyncPacket packet) {
@@ -244,13 +274,40 @@ public class Match {
 		taskSendingTimerTask.receivedLockstepAcknowledge(packet.getTime() / NetworkConstants.Client.LOCKSTEP_PERIOD);
 	}
 
+	public void receivedGameStateChecksum(Player player, GameStateChecksumPacket packet) {
+		int numberOfPlayers;
+		synchronized (players) {
+			numberOfPlayers = players.size();
+		}
+
+		String otherPlayerId = checksumComparator.addChecksum(player.getId(), packet.getLockstep(), packet.getChecksum(), numberOfPlayers);
+		if (otherPlayerId != null) {
+			logger.warn("DESYNC in lockstep " + packet.getLockstep() + ": player " + player.getId() + " reported checksum "
+					+ Long.toHexString(packet.getChecksum()) + " that differs from the checksum of player " + otherPlayerId);
+		}
+	}
+
+	/**
+	 * @return The first lockstep the players reported different game state checksums for or -1 if no desync has been detected.
+	 */
+	public int getFirstDesyncLockstep() {
+		return checksumComparator.getFirstDesyncLockstep();
+	}
+
+	/**
+	 * @return The timing statistics of the lockstep packets of this match or <code>null</code> if the match has not been started.
+	 */
+	public LockstepTimingStatistics getLockstepStatistics() {
+		return scheduledLockstep != null ? scheduledLockstep.getStatistics() : null;
+	}
+
 	public Logger getMatchLogger() {
 		return logger;
 	}
 
 	private void shutdownMatch() {
 		if (state == EMatchState.RUNNING) {
-			taskSendingTimerTask.cancel();
+			scheduledLockstep.cancel();
 			taskSendingTimerTask = null;
 
 			synchronized (players) {
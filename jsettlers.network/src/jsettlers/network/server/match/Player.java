@@ -14,18 +14,19 @@
  *******************************************************************************/
 package jsettlers.network.server.match;
 
-import java.util.Timer;
-
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.NetworkConstants.ENetworkKey;
 import jsettlers.network.NetworkConstants.ENetworkMessage;
+import jsettlers.network.client.task.packets.TaskPacket;
 import jsettlers.network.common.packets.ChatMessagePacket;
+import jsettlers.network.common.packets.GameStateChecksumPacket;
 import jsettlers.network.common.packets.PlayerInfoPacket;
 import jsettlers.network.common.packets.TimeSyncPacket;
 import jsettlers.network.infrastructure.channel.Channel;
 import jsettlers.network.infrastructure.channel.packet.Packet;
 import jsettlers.network.infrastructure.log.LoggerManager;
 import jsettlers.network.server.exceptions.NotAllPlayersReadyException;
+import jsettlers.network.server.match.lockstep.LockstepScheduler;
 import jsettlers.network.server.match.lockstep.TaskCollectingListener;
 
 /**
@@ -36,13 +37,35 @@ import jsettlers.network.server.match.lockstep.TaskCollectingListener;
 public class Player {
 	private final PlayerInfoPacket playerInfo;
 	private final Channel channel;
+	private final int supportedSimulationFlags;
+	private final byte supportedTaskEncoding;
 
 	private EPlayerState state = EPlayerState.LOGGED_IN;
 	private Match match;
 
 	public Player(PlayerInfoPacket playerInfo, Channel channel) {
+		this(playerInfo, channel, 0, TaskPacket.ENCODING_DEFAULT);
+	}
+
+	public Player(PlayerInfoPacket playerInfo, Channel channel, int supportedSimulationFlags, byte supportedTaskEncoding) {
 		this.playerInfo = playerInfo;
 		this.channel = channel;
+		this.supportedSimulationFlags = supportedSimulationFlags;
+		this.supportedTaskEncoding = supportedTaskEncoding;
+	}
+
+	/**
+	 * @return the {@link jsettlers.network.NetworkConstants.SimulationFlags} supported by the client of this player.
+	 */
+	public int getSupportedSimulationFlags() {
+		return supportedSimulationFlags;
+	}
+
+	/**
+	 * @return the best task encoding supported by the client of this player.
+	 */
+	public byte getSupportedTaskEncoding() {
+		return supportedTaskEncoding;
 	}
 
 	public PlayerInfoPacket getPlayerInfo() {
@@ -85,9 +108,9 @@ public class Player {
 		return state == EPlayerState.IN_MATCH || state == EPlayerState.IN_RUNNING_MATCH;
 	}
 
-	public void startMatch(Timer timer) throws IllegalStateException, NotAllPlayersReadyException {
+	public void startMatch(LockstepScheduler scheduler) throws IllegalStateException, NotAllPlayersReadyException {
 		EPlayerState.assertState(state, EPlayerState.IN_MATCH);
-		match.startMatch(timer);
+		match.startMatch(scheduler);
 	}
 
 	void matchStarted(TaskCollectingListener taskListener) {
@@ -105,6 +128,11 @@ public class Player {
 		match.distributeTimeSync(this, packet);
 	}
 
+	public void reportGameStateChecksum(GameStateChecksumPacket packet) throws IllegalStateException {
+		EPlayerState.assertState(state, EPlayerState.IN_RUNNING_MATCH);
+		match.receivedGameStateChecksum(this, packet);
+	}
+
 	public void setReady(boolean ready) throws IllegalStateException {
 		EPlayerState.assertState(state, EPlayerState.IN_MATCH);
 		if (playerInfo.isReady() != ready) { // only update if there is a real change
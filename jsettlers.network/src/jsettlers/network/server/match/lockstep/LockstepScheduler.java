@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.server.match.lockstep;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes the periodic lockstep tasks of many matches. The tasks are sharded over a fixed number of threads, each running a hashed timing wheel.
+ * New tasks are put on the shard with the fewest tasks, so a slow match only delays the matches of its own shard.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class LockstepScheduler {
+	private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final int WHEEL_SIZE = 256;
+
+	private final LockstepSchedulerShard[] shards;
+
+	public LockstepScheduler(String name, int numberOfThreads) {
+		this.shards = new LockstepSchedulerShard[numberOfThreads];
+		for (int i = 0; i < numberOfThreads; i++) {
+			shards[i] = new LockstepSchedulerShard(name + "-" + i, TICK_NANOS, WHEEL_SIZE);
+			shards[i].start();
+		}
+	}
+
+	/**
+	 * Schedules the given task for repeated execution with a fixed rate. If an execution is more than a period late, the missed executions are
+	 * skipped.
+	 * 
+	 * @param task
+	 *            The task to be executed.
+	 * @param delayMs
+	 *            The delay before the first execution.
+	 * @param periodMs
+	 *            The time between the starts of two executions.
+	 * @return The handle to cancel the task and to get its timing statistics.
+	 */
+	public synchronized ScheduledLockstep schedule(Runnable task, long delayMs, long periodMs) {
+		LockstepSchedulerShard shard = shards[0];
+		for (int i = 1; i < shards.length; i++) {
+			if (shards[i].getNumberOfTasks() < shard.getNumberOfTasks()) {
+				shard = shards[i];
+			}
+		}
+
+		return shard.schedule(task, TimeUnit.MILLISECONDS.toNanos(delayMs), TimeUnit.MILLISECONDS.toNanos(periodMs));
+	}
+
+	public void shutdown() {
+		for (LockstepSchedulerShard shard : shards) {
+			shard.shutdown();
+		}
+	}
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.server.match.lockstep;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A thread executing periodic tasks with a hashed timing wheel. Every bucket of the wheel holds the tasks whose deadline falls into a tick with the
+ * same index modulo the wheel size. Scheduling and canceling are O(1), a tick only looks at the tasks of its bucket.
+ * <p />
+ * The thread doesn't wake up for every tick. It parks until the end of the next tick with a non empty bucket, or until a new task is scheduled.
+ * Without tasks it parks until a task is scheduled.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+final class LockstepSchedulerShard extends Thread {
+	private final long tickNanos;
+	private final int wheelMask;
+	private final ArrayList<ArrayList<ScheduledLockstep>> wheel;
+	private final ConcurrentLinkedQueue<ScheduledLockstep> newTasks = new ConcurrentLinkedQueue<ScheduledLockstep>();
+	private final ArrayList<ScheduledLockstep> dueTasks = new ArrayList<ScheduledLockstep>();
+	private final AtomicInteger activeTasks = new AtomicInteger();
+
+	private final long startNanos = System.nanoTime();
+	private long currentTick = 0;
+	private int tasksInWheel = 0;
+	private volatile boolean running = true;
+
+	LockstepSchedulerShard(String name, long tickNanos, int wheelSize) {
+		super(name);
+		assert Integer.bitCount(wheelSize) == 1 : "wheel size must be a power of two";
+
+		this.tickNanos = tickNanos;
+		this.wheelMask = wheelSize - 1;
+		this.wheel = new ArrayList<ArrayList<ScheduledLockstep>>(wheelSize);
+		for (int i = 0; i < wheelSize; i++) {
+			wheel.add(new ArrayList<ScheduledLockstep>());
+		}
+
+		super.setDaemon(true);
+	}
+
+	ScheduledLockstep schedule(Runnable task, long delayNanos, long periodNanos) {
+		ScheduledLockstep scheduled = new ScheduledLockstep(task, System.nanoTime() + delayNanos, periodNanos, this);
+		activeTasks.incrementAndGet();
+		newTasks.offer(scheduled);
+		LockSupport.unpark(this); // the new task may be due before the tick the thread is waiting for
+		return scheduled;
+	}
+
+	void taskCanceled() {
+		activeTasks.decrementAndGet(); // the task itself is removed from the wheel when its bucket is processed
+	}
+
+	int getNumberOfTasks() {
+		return activeTasks.get();
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			ScheduledLockstep newTask;
+			while ((newTask = newTasks.poll()) != null) {
+				insert(newTask, currentTick);
+			}
+
+			long nextTick = getNextOccupiedTick();
+			if (nextTick < 0) {
+				LockSupport.park(this); // there is nothing to do until a task is scheduled
+				continue;
+			}
+
+			if (waitUntil(startNanos + (nextTick + 1) * tickNanos)) {
+				currentTick = nextTick; // the ticks in between have empty buckets
+				processBucket(wheel.get((int) (currentTick & wheelMask)));
+				currentTick++;
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @return The first tick starting from the current tick whose bucket contains tasks or -1 if the wheel is empty. The tasks of this bucket might
+	 *         be due in a later round of the wheel.
+	 */
+	private long getNextOccupiedTick() {
+		if (tasksInWheel == 0) {
+			return -1;
+		}
+
+		for (long tick = currentTick;; tick++) {
+			if (!wheel.get((int) (tick & wheelMask)).isEmpty()) {
+				return tick;
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @return true if the deadline has been reached, false if the waiting has been stopped by a new task or the shutdown.
+	 */
+	private boolean waitUntil(long deadlineNanos) {
+		long remaining;
+		while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+			if (!running || !newTasks.isEmpty()) {
+				return false;
+			}
+			LockSupport.parkNanos(this, remaining);
+		}
+		return running;
+	}
+
+	private void processBucket(ArrayList<ScheduledLockstep> bucket) {
+		for (int i = bucket.size() - 1; i >= 0; i--) {
+			ScheduledLockstep task = bucket.get(i);
+			if (task.isCanceled() || task.deadlineTick <= currentTick) {
+				bucket.set(i, bucket.get(bucket.size() - 1)); // order inside a bucket does not matter
+				bucket.remove(bucket.size() - 1);
+				tasksInWheel--;
+
+				if (!task.isCanceled()) {
+					dueTasks.add(task);
+				}
+			} // else the task is due in a later round of the wheel
+		}
+
+		for (ScheduledLockstep task : dueTasks) {
+			execute(task);
+			if (!task.isCanceled()) {
+				reschedule(task);
+				insert(task, currentTick + 1); // the current bucket has already been processed
+			}
+		}
+		dueTasks.clear();
+	}
+
+	private void execute(ScheduledLockstep task) {
+		long start = System.nanoTime();
+		try {
+			task.task.run();
+		} catch (Throwable t) { // a failing task must not stop the other tasks of this shard
+			t.printStackTrace();
+		}
+		long end = System.nanoTime();
+
+		task.getStatistics().addExecution(Math.max(0, start - task.deadlineNanos), end - start);
+	}
+
+	private void reschedule(ScheduledLockstep task) {
+		task.deadlineNanos += task.periodNanos;
+
+		long now = System.nanoTime();
+		if (task.deadlineNanos < now) { // more than a period late => skip the missed executions instead of running them in a burst
+			int skipped = (int) ((now - task.deadlineNanos) / task.periodNanos) + 1;
+			task.deadlineNanos += skipped * task.periodNanos;
+			task.getStatistics().addSkippedExecutions(skipped);
+		}
+	}
+
+	private void insert(ScheduledLockstep task, long minimumTick) {
+		long deadlineTick = (task.deadlineNanos - startNanos + tickNanos - 1) / tickNanos - 1; // the first tick ending at or after the deadline
+		task.deadlineTick = Math.max(deadlineTick, minimumTick);
+		wheel.get((int) (task.deadlineTick & wheelMask)).add(task);
+		tasksInWheel++;
+	}
+
+	void shutdown() {
+		running = false;
+		LockSupport.unpark(this);
+	}
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.server.match.lockstep;
+
+/**
+ * Timing statistics of a {@link ScheduledLockstep}. The lateness is the time between the deadline of an execution and its actual start, the jitter
+ * is the standard deviation of the lateness.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class LockstepTimingStatistics {
+	private long executions;
+	private long skippedExecutions;
+	private long latenessSumNanos;
+	private double latenessSquareSumMs;
+	private long maxLatenessNanos;
+	private long executionSumNanos;
+	private long maxExecutionNanos;
+
+	synchronized void addExecution(long latenessNanos, long executionNanos) {
+		executions++;
+		latenessSumNanos += latenessNanos;
+		double latenessMs = latenessNanos / 1e6;
+		latenessSquareSumMs += latenessMs * latenessMs;
+		maxLatenessNanos = Math.max(maxLatenessNanos, latenessNanos);
+		executionSumNanos += executionNanos;
+		maxExecutionNanos = Math.max(maxExecutionNanos, executionNanos);
+	}
+
+	synchronized void addSkippedExecutions(int skipped) {
+		skippedExecutions += skipped;
+	}
+
+	public synchronized long getExecutions() {
+		return executions;
+	}
+
+	/**
+	 * @return Number of executions that were dropped, because the task was more than one period late.
+	 */
+	public synchronized long getSkippedExecutions() {
+		return skippedExecutions;
+	}
+
+	public synchronized float getAverageLatenessMs() {
+		return executions > 0 ? latenessSumNanos / 1e6f / executions : 0;
+	}
+
+	public synchronized float getMaxLatenessMs() {
+		return maxLatenessNanos / 1e6f;
+	}
+
+	public synchronized float getJitterMs() {
+		if (executions == 0) {
+			return 0;
+		}
+		double average = latenessSumNanos / 1e6 / executions;
+		return (float) Math.sqrt(Math.max(0, latenessSquareSumMs / executions - average * average));
+	}
+
+	public synchronized float getAverageExecutionMs() {
+		return executions > 0 ? executionSumNanos / 1e6f / executions : 0;
+	}
+
+	public synchronized float getMaxExecutionMs() {
+		return maxExecutionNanos / 1e6f;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("executions: %d  skipped: %d  lateness avg/max: %.2f/%.2f ms  jitter: %.2f ms  execution avg/max: %.2f/%.2f ms",
+				executions, skippedExecutions, getAverageLatenessMs(), getMaxLatenessMs(), getJitterMs(), getAverageExecutionMs(),
+				getMaxExecutionMs());
+	}
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.server.match.lockstep;
+
+/**
+ * A periodic task scheduled on a {@link LockstepScheduler}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class ScheduledLockstep {
+	final Runnable task;
+	final long periodNanos;
+	final LockstepSchedulerShard shard;
+	private final LockstepTimingStatistics statistics = new LockstepTimingStatistics();
+
+	long deadlineNanos;
+	long deadlineTick;
+	private volatile boolean canceled = false;
+
+	ScheduledLockstep(Runnable task, long firstDeadlineNanos, long periodNanos, LockstepSchedulerShard shard) {
+		this.task = task;
+		this.deadlineNanos = firstDeadlineNanos;
+		this.periodNanos = periodNanos;
+		this.shard = shard;
+	}
+
+	/**
+	 * Cancels this task. An execution that is currently running is not interrupted.
+	 */
+	public void cancel() {
+		if (!canceled) {
+			canceled = true;
+			shard.taskCanceled();
+		}
+	}
+
+	public boolean isCanceled() {
+		return canceled;
+	}
+
+	public LockstepTimingStatistics getStatistics() {
+		return statistics;
+	}
+}
@@ -15,7 +15,6 @@
 package jsettlers.network.server.match.lockstep;
 
 import java.util.List;
-import java.util.TimerTask;
 
 import jsettlers.network.NetworkConstants;
 import jsettlers.network.infrastructure.channel.ping.IPingUpdateListener;
@@ -27,11 +26,12 @@ import jsettlers.network.server.packets.ServersideSyncTasksPacket;
 import jsettlers.network.server.packets.ServersideTaskPacket;
 
 /**
+ * Periodically sends the collected tasks of a match as lockstep packets. This task is executed by a {@link LockstepScheduler}.
  * 
  * @author Andreas Eberle
  * 
  */
-public class TaskSendingTimerTask extends TimerTask {
+public class TaskSendingTimerTask implements Runnable {
 	private final Logger logger;
 	private final TaskCollectingListener taskCollectingListener;
 	private final Match match;
@@ -31,10 +31,22 @@ public final class RandomSingleton extends Random {
 
 	private static RandomSingleton uniIns;
 
+	/**
+	 * Rolling hash of all numbers drawn from this generator. It is used for the game state checksum.
+	 */
+	private long drawHash;
+
 	private RandomSingleton(long seed) {
 		super(seed);
 	}
 
+	@Override
+	protected int next(int bits) {
+		int result = super.next(bits);
+		drawHash = drawHash * 31 + result;
+		return result;
+	}
+
 	/**
 	 * loads the list of double random numbers with the given seed.
 	 */
@@ -59,6 +71,15 @@ public final class RandomSingleton extends Random {
 		return uniIns;
 	}
 
+	/**
+	 * 
+	 * @return A hash of all numbers drawn since the random number generator has been created. Two generators with the same seed return the same
+	 *         hash as long as the same numbers have been drawn from them.
+	 */
+	public static long getStateHash() {
+		return uniIns.drawHash;
+	}
+
 	/**
 	 * @param min
 	 * @param max
@@ -68,6 +68,10 @@ public final class NetworkTimer extends TimerTask implements INetworkClientClock
 
 	private ITaskExecutor taskExecutor;
 	private DataOutputStream replayLogStream;
+	private TimerableStatistics statistics;
+	private IGameStateChecksumSupplier checksumSupplier;
+	private IGameStateChecksumListener checksumListener;
+	private int checksumIntervalMs;
 
 	public NetworkTimer() {
 		super();
@@ -138,7 +142,13 @@ public final class NetworkTimer extends TimerTask implements INetworkClientClock
 				System.out.println("Executing SyncTaskPacket(" + tasksPacket + ") in " + getLockstepText(lockstep));
 
 				try {
-					executeTasksPacket(tasksPacket);
+					if (statistics != null) {
+						long start = System.nanoTime();
+						executeTasksPacket(tasksPacket);
+						statistics.addExecution(TimerableStatistics.TASKS_KEY, System.nanoTime() - start);
+					} else {
+						executeTasksPacket(tasksPacket);
+					}
 				} catch (Throwable t) {
 					System.err.println("Error during execution of scheduled task:");
 					t.printStackTrace();
@@ -153,8 +163,20 @@ public final class NetworkTimer extends TimerTask implements INetworkClientClock
 			addNewTimerables();
 			handleRemovedTimerables();
 
-			for (ScheduledTimerable curr : timerables) {
-				curr.checkExecution(TIME_SLICE);
+			if (statistics != null) {
+				for (ScheduledTimerable curr : timerables) {
+					long start = System.nanoTime();
+					curr.checkExecution(TIME_SLICE);
+					statistics.addExecution(curr.getTimerable(), System.nanoTime() - start);
+				}
+			} else {
+				for (ScheduledTimerable curr : timerables) {
+					curr.checkExecution(TIME_SLICE);
+				}
+			}
+
+			if (checksumListener != null && checksumSupplier != null && time % checksumIntervalMs == 0) {
+				checksumListener.checksumCalculated(lockstep, checksumSupplier.getGameStateChecksum());
 			}
 		} catch (Throwable t) {
 			System.err.println("WARNING: Networking Timer catched Throwable!!!");
@@ -318,6 +340,27 @@ public final class NetworkTimer extends TimerTask implements INetworkClientClock
 		}
 	}
 
+	/**
+	 * Enables the collection of execution times of the scheduled timerables and tasks.
+	 * 
+	 * @param statistics
+	 *            The {@link TimerableStatistics} to collect the times in or <code>null</code> to disable the collection.
+	 */
+	public void setTimerableStatistics(TimerableStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	@Override
+	public void setGameStateChecksumSupplier(IGameStateChecksumSupplier checksumSupplier) {
+		this.checksumSupplier = checksumSupplier;
+	}
+
+	@Override
+	public void setGameStateChecksumListener(IGameStateChecksumListener checksumListener, int intervalLocksteps) {
+		this.checksumIntervalMs = intervalLocksteps * NetworkConstants.Client.LOCKSTEP_PERIOD;
+		this.checksumListener = checksumListener;
+	}
+
 	@Override
 	public void setTime(int newTime) {
 		this.time = newTime;
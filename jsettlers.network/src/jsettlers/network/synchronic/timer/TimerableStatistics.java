@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.synchronic.timer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects the execution time spent in the timerables and task packets executed by a {@link NetworkTimer}. The times are grouped by the class
+ * name of the timerable. This is meant for profiling tools and therefore not enabled by default.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public final class TimerableStatistics {
+	public static final String TASKS_KEY = "tasks";
+
+	private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	synchronized void addExecution(Object executed, long nanos) {
+		addExecution(executed.getClass().getName(), nanos);
+	}
+
+	synchronized void addExecution(String key, long nanos) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(key, entry);
+		}
+		entry.executions++;
+		entry.nanos += nanos;
+	}
+
+	/**
+	 * 
+	 * @return A snapshot of the accumulated execution times in nanoseconds by key.
+	 */
+	public synchronized Map<String, Long> getNanosByKey() {
+		Map<String, Long> result = new HashMap<String, Long>();
+		for (Map.Entry<String, Entry> curr : entries.entrySet()) {
+			result.put(curr.getKey(), curr.getValue().nanos);
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * 
+	 * @return A snapshot of the number of executions by key.
+	 */
+	public synchronized Map<String, Long> getExecutionsByKey() {
+		Map<String, Long> result = new HashMap<String, Long>();
+		for (Map.Entry<String, Entry> curr : entries.entrySet()) {
+			result.put(curr.getKey(), curr.getValue().executions);
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	public synchronized void reset() {
+		entries.clear();
+	}
+
+	private static class Entry {
+		private long executions;
+		private long nanos;
+	}
+}
@@ -21,6 +21,8 @@ import java.util.LinkedList;
 
 import jsettlers.network.client.task.packets.SyncTasksPacket;
 import jsettlers.network.client.task.packets.TaskPacket;
+import jsettlers.network.synchronic.timer.IGameStateChecksumListener;
+import jsettlers.network.synchronic.timer.IGameStateChecksumSupplier;
 import jsettlers.network.synchronic.timer.INetworkTimerable;
 import jsettlers.network.synchronic.timer.ITaskExecutor;
 
@@ -36,6 +38,10 @@ public class NetworkClientClockMock implements INetworkClientClock {
 	private LinkedList<TaskPacket> bufferedTasks = new LinkedList<TaskPacket>();
 	private int time;
 	private int maxAllowedLockstep;
+	private IGameStateChecksumListener checksumListener;
+	private IGameStateChecksumSupplier checksumSupplier;
+	private ITaskExecutor taskExecutor;
+	private float gameSpeed = 1;
 
 	public NetworkClientClockMock() {
 		this(0);
@@ -69,12 +75,20 @@ public class NetworkClientClockMock implements INetworkClientClock {
 
 	@Override
 	public void setTaskExecutor(ITaskExecutor taskExecutor) {
-		throw new UnsupportedOperationException("not mocked");
+		this.taskExecutor = taskExecutor;
+	}
+
+	public ITaskExecutor getTaskExecutor() {
+		return taskExecutor;
 	}
 
 	@Override
 	public void multiplyGameSpeed(float factor) {
-		throw new UnsupportedOperationException("not mocked");
+		gameSpeed *= factor;
+	}
+
+	public float getGameSpeed() {
+		return gameSpeed;
 	}
 
 	@Override
@@ -162,4 +176,22 @@ public class NetworkClientClockMock implements INetworkClientClock {
 		time = targetGameTime;
 	}
 
+	@Override
+	public void setGameStateChecksumSupplier(IGameStateChecksumSupplier checksumSupplier) {
+		this.checksumSupplier = checksumSupplier;
+	}
+
+	public IGameStateChecksumSupplier getGameStateChecksumSupplier() {
+		return checksumSupplier;
+	}
+
+	@Override
+	public void setGameStateChecksumListener(IGameStateChecksumListener checksumListener, int intervalLocksteps) {
+		this.checksumListener = checksumListener;
+	}
+
+	public IGameStateChecksumListener getGameStateChecksumListener() {
+		return checksumListener;
+	}
+
 }
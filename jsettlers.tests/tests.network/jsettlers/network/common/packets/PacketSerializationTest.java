@@ -88,6 +88,12 @@ public class PacketSerializationTest {
 						d(OpenNewMatchPacket.class) },
 				{ new RejectPacket(NetworkConstants.ENetworkMessage.UNAUTHORIZED, NetworkConstants.ENetworkKey.IDENTIFY_USER), d(RejectPacket.class) },
 				{ new MatchStartPacket(createMatchInfoPacket(), 23424L), d(MatchStartPacket.class) },
+				{ new MatchStartPacket(createMatchInfoPacket(), 23424L, 5), d(MatchStartPacket.class) },
+				{ new MatchStartPacket(createMatchInfoPacket(), 23424L, 5, TaskPacket.ENCODING_COMPACT), d(MatchStartPacket.class) },
+				{ new MatchStartPacket(createMatchInfoPacket(), 23424L, 5, TaskPacket.ENCODING_COMPACT, 20), d(MatchStartPacket.class) },
+				{ new GameStateChecksumPacket(2342, -2349879879787987234L), d(GameStateChecksumPacket.class) },
+				{ new IdentifyUserPacket(new PlayerInfoPacket("IDBLA82348", "Name", false), 3, TaskPacket.ENCODING_COMPACT),
+						d(IdentifyUserPacket.class) },
 				{ new MatchInfoUpdatePacket(ENetworkMessage.NO_LISTENER_FOUND, new PlayerInfoPacket("IDBLA82348-#�l�34r",
 						"NameBKUIH893428())/\"�/", true), createMatchInfoPacket()), d(MatchInfoUpdatePacket.class) },
 				{ new TimeSyncPacket(23424), d(TimeSyncPacket.class) },
@@ -99,6 +105,9 @@ public class PacketSerializationTest {
 				{ new TestTaskPacket("tesdfk��l9/&%/%&\"\\u8u23jo", 23424, (byte) -2), TaskPacket.DEFAULT_DESERIALIZER },
 				{ new SyncTasksPacket(234, Arrays.asList((TaskPacket) new TestTaskPacket("dsfdsdf", 23, (byte) -3),
 						(TaskPacket) new TestTaskPacket("dsfs��#��dsdf", 4345, (byte) 5))), d(SyncTasksPacket.class) },
+				{ compact(new TestTaskPacket("tesdfk��l9/&%/%&\"\\u8u23jo", 23424, (byte) -2)), TaskPacket.DEFAULT_DESERIALIZER },
+				{ new SyncTasksPacket(234, Arrays.asList(compact(new TestTaskPacket("dsfdsdf", 23, (byte) -3)),
+						(TaskPacket) new TestTaskPacket("dsfs��#��dsdf", 4345, (byte) 5))), d(SyncTasksPacket.class) },
 
 				{ new BooleanMessagePacket(true), d(BooleanMessagePacket.class) },
 				{ new ChatMessagePacket("authorId(, message)U)(Z", "message'**�##\"\\ppoisudf08u("), d(ChatMessagePacket.class) },
@@ -122,6 +131,11 @@ public class PacketSerializationTest {
 		return new GenericDeserializer<T>(classType);
 	}
 
+	private static TaskPacket compact(TaskPacket task) {
+		task.setEncoding(TaskPacket.ENCODING_COMPACT);
+		return task;
+	}
+
 	/**
 	 * Constructor to accept the parameters of the test.
 	 * 
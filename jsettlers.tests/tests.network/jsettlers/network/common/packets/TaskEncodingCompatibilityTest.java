@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.common.packets;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import jsettlers.network.client.task.packets.TaskPacket;
+import jsettlers.network.infrastructure.channel.packet.Packet;
+
+import org.junit.Test;
+
+/**
+ * Tests that the packets used to negotiate the task encoding can still be exchanged with clients and servers not knowing the encoding.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class TaskEncodingCompatibilityTest {
+	private static final PlayerInfoPacket PLAYER_INFO = new PlayerInfoPacket("id", "name", true);
+
+	@Test
+	public void testIdentifyUserPacketOfOldClient() throws IOException {
+		IdentifyUserPacket packet = new IdentifyUserPacket();
+		packet.deserialize(toStream(PLAYER_INFO));
+
+		assertEquals(PLAYER_INFO, packet.getPlayerInfo());
+		assertEquals(TaskPacket.ENCODING_DEFAULT, packet.getSupportedTaskEncoding());
+	}
+
+	@Test
+	public void testIdentifyUserPacketWithoutTaskEncoding() throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(buffer);
+		PLAYER_INFO.serialize(dos); // the format used before the task encoding was added
+		dos.writeInt(1);
+
+		IdentifyUserPacket packet = new IdentifyUserPacket();
+		packet.deserialize(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+
+		assertEquals(1, packet.getSupportedSimulationFlags());
+		assertEquals(TaskPacket.ENCODING_DEFAULT, packet.getSupportedTaskEncoding());
+	}
+
+	@Test
+	public void testIdentifyUserPacketReadByOldServer() throws IOException {
+		PlayerInfoPacket playerInfo = new PlayerInfoPacket();
+		playerInfo.deserialize(toStream(new IdentifyUserPacket(PLAYER_INFO, 1, TaskPacket.ENCODING_COMPACT)));
+
+		assertEquals(PLAYER_INFO, playerInfo);
+	}
+
+	@Test
+	public void testMatchStartPacketOfOldServer() throws IOException {
+		MatchInfoPacket matchInfo = new MatchInfoPacket("id", "name", (byte) 2, new MapInfoPacket("id", "name", "authorId", "author", 2),
+				new PlayerInfoPacket[] { PLAYER_INFO });
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(buffer);
+		matchInfo.serialize(dos); // the format used before the task encoding and the simulation flags were added
+		dos.writeLong(42L);
+
+		MatchStartPacket packet = new MatchStartPacket();
+		packet.deserialize(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+
+		assertEquals(new MatchStartPacket(matchInfo, 42L), packet);
+		assertEquals(TaskPacket.ENCODING_DEFAULT, packet.getTaskEncoding());
+		assertEquals(0, packet.getChecksumInterval());
+	}
+
+	@Test
+	public void testMatchStartPacketWithoutChecksumInterval() throws IOException {
+		MatchInfoPacket matchInfo = new MatchInfoPacket("id", "name", (byte) 2, new MapInfoPacket("id", "name", "authorId", "author", 2),
+				new PlayerInfoPacket[] { PLAYER_INFO });
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(buffer);
+		matchInfo.serialize(dos); // the format used before the checksum interval was added
+		dos.writeLong(42L);
+		dos.writeInt(1);
+		dos.writeByte(TaskPacket.ENCODING_COMPACT);
+
+		MatchStartPacket packet = new MatchStartPacket();
+		packet.deserialize(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+
+		assertEquals(1, packet.getSimulationFlags());
+		assertEquals(TaskPacket.ENCODING_COMPACT, packet.getTaskEncoding());
+		assertEquals(0, packet.getChecksumInterval());
+	}
+
+	@Test
+	public void testMatchStartPacketWithoutTaskEncoding() throws IOException {
+		MatchInfoPacket matchInfo = new MatchInfoPacket("id", "name", (byte) 2, new MapInfoPacket("id", "name", "authorId", "author", 2),
+				new PlayerInfoPacket[] { PLAYER_INFO });
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(buffer);
+		matchInfo.serialize(dos); // the format used before the task encoding was added
+		dos.writeLong(42L);
+		dos.writeInt(1);
+
+		MatchStartPacket packet = new MatchStartPacket();
+		packet.deserialize(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+
+		assertEquals(new MatchStartPacket(matchInfo, 42L, 1), packet);
+		assertEquals(TaskPacket.ENCODING_DEFAULT, packet.getTaskEncoding());
+	}
+
+	private static DataInputStream toStream(Packet packet) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(buffer);
+		packet.serialize(dos);
+		dos.flush();
+		return new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+	}
+}
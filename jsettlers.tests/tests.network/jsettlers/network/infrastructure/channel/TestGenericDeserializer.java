@@ -24,6 +24,7 @@ import jsettlers.network.NetworkConstants.ENetworkKey;
 import jsettlers.network.infrastructure.channel.Channel;
 import jsettlers.network.infrastructure.channel.GenericDeserializer;
 import jsettlers.network.infrastructure.channel.listeners.BufferingPacketListener;
+import jsettlers.network.infrastructure.channel.packet.SerializedPacket;
 
 import org.junit.After;
 import org.junit.Before;
@@ -67,4 +68,20 @@ public class TestGenericDeserializer {
 		assertEquals(packet2, packets.get(1));
 	}
 
+	@Test
+	public void testSerializedPacket() throws IOException, InterruptedException {
+		BufferingPacketListener<SerializedPacket> listener = new BufferingPacketListener<SerializedPacket>(ENetworkKey.TEST_PACKET,
+				new GenericDeserializer<SerializedPacket>(SerializedPacket.class));
+		c1.registerListener(listener);
+
+		SerializedPacket packet = new SerializedPacket(new TestPacket("serialized", 42));
+		c2.sendPacket(ENetworkKey.TEST_PACKET, packet);
+
+		Thread.sleep(10);
+
+		List<SerializedPacket> packets = listener.popBufferedPackets();
+		assertEquals(1, packets.size());
+		assertEquals(packet, packets.get(0));
+	}
+
 }
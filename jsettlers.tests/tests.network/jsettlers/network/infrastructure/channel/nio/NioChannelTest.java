@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.channel.nio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import jsettlers.network.NetworkConstants;
+import jsettlers.network.NetworkConstants.ENetworkKey;
+import jsettlers.network.infrastructure.channel.Channel;
+import jsettlers.network.infrastructure.channel.IChannelClosedListener;
+import jsettlers.network.infrastructure.channel.TestPacket;
+import jsettlers.network.infrastructure.channel.TestPacketListener;
+import jsettlers.network.infrastructure.channel.socket.ISocketFactory;
+import jsettlers.network.infrastructure.log.ConsoleLogger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for class {@link NioChannel}. The other side of the connection is a normal blocking {@link Channel}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class NioChannelTest {
+	private NioChannelGroup group;
+	private NioChannel nioChannel;
+	private Channel channel;
+	private Socket clientSocket;
+
+	@Before
+	public void setUp() throws IOException {
+		group = new NioChannelGroup("Test", 2, NetworkConstants.Server.NIO_BUFFER_SIZE);
+
+		ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+		serverSocketChannel.socket().bind(new InetSocketAddress("localhost", 0));
+		clientSocket = new Socket("localhost", serverSocketChannel.socket().getLocalPort());
+		SocketChannel acceptedChannel = serverSocketChannel.accept();
+		serverSocketChannel.close();
+
+		nioChannel = group.createChannel(new ConsoleLogger("NioChannelTest"), acceptedChannel);
+		channel = new Channel(ISocketFactory.DEFAULT_FACTORY.generateSocket(clientSocket));
+
+		nioChannel.start();
+		channel.start();
+	}
+
+	@After
+	public void tearDown() {
+		nioChannel.close();
+		channel.close();
+		group.shutdown();
+	}
+
+	@Test
+	public void testConnection() throws Exception {
+		TestPacketListener nioListener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		TestPacketListener listener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		nioChannel.registerListener(nioListener);
+		channel.registerListener(listener);
+		TestPacket testPacket = new TestPacket("dlkfjs", -23423);
+		nioChannel.sendPacket(ENetworkKey.TEST_PACKET, testPacket);
+		channel.sendPacket(ENetworkKey.TEST_PACKET, testPacket);
+
+		Thread.sleep(80);
+
+		assertEquals(1, nioListener.packets.size());
+		assertEquals(testPacket, nioListener.packets.get(0));
+
+		assertEquals(1, listener.packets.size());
+		assertEquals(testPacket, listener.packets.get(0));
+	}
+
+	@Test
+	public void testMultiPackets() throws Exception {
+		TestPacketListener nioListener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		TestPacketListener listener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		nioChannel.registerListener(nioListener);
+		channel.registerListener(listener);
+
+		final int NUMBER_OF_PACKETS = 5000;
+
+		for (int i = 0; i < NUMBER_OF_PACKETS; i++) {
+			nioChannel.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket(i));
+			channel.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket(i));
+		}
+
+		Thread.sleep(300);
+
+		assertEquals(NUMBER_OF_PACKETS, nioListener.packets.size());
+		assertEquals(NUMBER_OF_PACKETS, listener.packets.size());
+		for (int i = 0; i < NUMBER_OF_PACKETS; i++) {
+			assertEquals(i, nioListener.packets.get(i).getTestInt());
+			assertEquals(i, listener.packets.get(i).getTestInt());
+		}
+	}
+
+	@Test
+	public void testPacketsLargerThanBuffer() throws Exception {
+		TestPacketListener nioListener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		TestPacketListener listener = new TestPacketListener(ENetworkKey.TEST_PACKET);
+		nioChannel.registerListener(nioListener);
+		channel.registerListener(listener);
+
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; builder.length() < 3 * NetworkConstants.Server.NIO_BUFFER_SIZE; i++) {
+			builder.append(i);
+		}
+		TestPacket largePacket = new TestPacket(builder.toString(), 42);
+
+		nioChannel.sendPacket(ENetworkKey.TEST_PACKET, largePacket);
+		channel.sendPacket(ENetworkKey.TEST_PACKET, largePacket);
+		nioChannel.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket(7));
+		channel.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket(7));
+
+		Thread.sleep(200);
+
+		assertEquals(2, nioListener.packets.size());
+		assertEquals(largePacket, nioListener.packets.get(0));
+		assertEquals(7, nioListener.packets.get(1).getTestInt());
+
+		assertEquals(2, listener.packets.size());
+		assertEquals(largePacket, listener.packets.get(0));
+		assertEquals(7, listener.packets.get(1).getTestInt());
+	}
+
+	@Test
+	public void testTooLongPacketClosesChannel() throws Exception {
+		DataOutputStream out = new DataOutputStream(clientSocket.getOutputStream());
+		out.writeByte(ENetworkKey.TEST_PACKET.ordinal());
+		out.writeInt(NetworkConstants.Server.NIO_MAX_PACKET_LENGTH + 1);
+		out.flush();
+
+		Thread.sleep(40);
+		assertTrue(nioChannel.isClosed());
+	}
+
+	@Test
+	public void testCloseNioSide() throws InterruptedException {
+		assertFalse(nioChannel.isClosed());
+		assertFalse(channel.isClosed());
+
+		nioChannel.close();
+		assertTrue(nioChannel.isClosed());
+
+		Thread.sleep(40);
+		assertTrue(channel.isClosed());
+	}
+
+	@Test
+	public void testCloseOtherSide() throws InterruptedException {
+		final int[] closed = new int[1];
+		nioChannel.setChannelClosedListener(new IChannelClosedListener() {
+			@Override
+			public void channelClosed() {
+				closed[0]++;
+			}
+		});
+
+		channel.close();
+		assertTrue(channel.isClosed());
+
+		Thread.sleep(40);
+		assertTrue(nioChannel.isClosed());
+		assertEquals(1, closed[0]);
+	}
+
+	@Test
+	public void testSendingOnClosedChannel() {
+		nioChannel.close();
+		nioChannel.sendPacket(ENetworkKey.TEST_PACKET, new TestPacket("sdfsdf", 1434));
+	}
+}
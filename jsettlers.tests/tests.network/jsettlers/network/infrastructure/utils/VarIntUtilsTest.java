@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.infrastructure.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link VarIntUtils}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class VarIntUtilsTest {
+	private static final int[] VALUES = { 0, 1, -1, 63, -64, 64, 127, 128, 16383, 16384, -16385, Short.MAX_VALUE, Short.MIN_VALUE, 2097151,
+			Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+	@Test
+	public void testUnsignedRoundTrip() throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(buffer);
+		for (int value : VALUES) {
+			VarIntUtils.writeVarInt(dos, value);
+		}
+
+		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+		for (int value : VALUES) {
+			assertEquals(value, VarIntUtils.readVarInt(dis));
+		}
+		assertEquals(0, dis.available());
+	}
+
+	@Test
+	public void testSignedRoundTrip() throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(buffer);
+		for (int value : VALUES) {
+			VarIntUtils.writeSignedVarInt(dos, value);
+		}
+
+		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+		for (int value : VALUES) {
+			assertEquals(value, VarIntUtils.readSignedVarInt(dis));
+		}
+		assertEquals(0, dis.available());
+	}
+
+	@Test
+	public void testEncodedLength() throws IOException {
+		assertEquals(1, unsignedLength(0));
+		assertEquals(1, unsignedLength(127));
+		assertEquals(2, unsignedLength(128));
+		assertEquals(2, unsignedLength(16383));
+		assertEquals(3, unsignedLength(16384));
+		assertEquals(5, unsignedLength(-1));
+
+		assertEquals(1, signedLength(-64));
+		assertEquals(1, signedLength(63));
+		assertEquals(2, signedLength(64));
+	}
+
+	private static int unsignedLength(int value) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		VarIntUtils.writeVarInt(new DataOutputStream(buffer), value);
+		return buffer.size();
+	}
+
+	private static int signedLength(int value) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		VarIntUtils.writeSignedVarInt(new DataOutputStream(buffer), value);
+		return buffer.size();
+	}
+}
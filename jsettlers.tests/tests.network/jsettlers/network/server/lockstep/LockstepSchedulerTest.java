@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.server.lockstep;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jsettlers.network.server.match.lockstep.LockstepScheduler;
+import jsettlers.network.server.match.lockstep.ScheduledLockstep;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the {@link LockstepScheduler}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class LockstepSchedulerTest {
+	private final LockstepScheduler scheduler = new LockstepScheduler("TestScheduler", 2);
+
+	@After
+	public void tearDown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	public void testPeriodicExecution() throws InterruptedException {
+		CountingTask task = new CountingTask(0);
+		long startNanos = System.nanoTime();
+		ScheduledLockstep scheduled = scheduler.schedule(task, 20, 10);
+
+		waitForExecutions(task, 18, 5000);
+		scheduled.cancel();
+		Thread.sleep(10);
+
+		task.assertNotEarly(startNanos, 20, 10);
+		assertEquals(task.executions.get(), scheduled.getStatistics().getExecutions());
+	}
+
+	@Test
+	public void testCancel() throws InterruptedException {
+		CountingTask task = new CountingTask(0);
+		ScheduledLockstep scheduled = scheduler.schedule(task, 0, 5);
+
+		Thread.sleep(50);
+		scheduled.cancel();
+		Thread.sleep(10);
+		int executions = task.executions.get();
+		assertTrue(executions > 0);
+
+		Thread.sleep(50);
+		assertEquals(executions, task.executions.get());
+	}
+
+	@Test
+	public void testPeriodLongerThanWheel() throws InterruptedException {
+		CountingTask task = new CountingTask(0);
+		long startNanos = System.nanoTime();
+		scheduler.schedule(task, 300, 300);
+
+		waitForExecutions(task, 2, 5000);
+		task.assertNotEarly(startNanos, 300, 300);
+	}
+
+	@Test
+	public void testNewTaskWakesUpWaitingShard() throws InterruptedException {
+		LockstepScheduler scheduler = new LockstepScheduler("SingleShardScheduler", 1);
+		try {
+			CountingTask slowTask = new CountingTask(0);
+			scheduler.schedule(slowTask, 10000, 10000);
+			Thread.sleep(20); // the shard now waits for the slow task
+
+			CountingTask task = new CountingTask(0);
+			long startNanos = System.nanoTime();
+			scheduler.schedule(task, 10, 10);
+
+			waitForExecutions(task, 5, 5000);
+			task.assertNotEarly(startNanos, 10, 10);
+			assertEquals(0, slowTask.executions.get());
+		} finally {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void testSlowTaskDoesNotDelayOtherShard() throws InterruptedException {
+		CountingTask slowTask = new CountingTask(30);
+		CountingTask fastTask = new CountingTask(0);
+		ScheduledLockstep slow = scheduler.schedule(slowTask, 0, 10);
+		ScheduledLockstep fast = scheduler.schedule(fastTask, 0, 10);
+
+		Thread.sleep(300);
+		slow.cancel();
+		fast.cancel();
+
+		assertTrue(slow.getStatistics().getSkippedExecutions() >= 10);
+		assertTrue("fast executions: " + fastTask.executions.get(), fastTask.executions.get() >= 25);
+		assertTrue(fast.getStatistics().toString(), fast.getStatistics().getSkippedExecutions() <= 2);
+		assertTrue(fast.getStatistics().toString(), fast.getStatistics().getAverageLatenessMs() < 3);
+	}
+
+	@Test
+	public void testManyTasks() throws InterruptedException {
+		CountingTask[] tasks = new CountingTask[300];
+		ScheduledLockstep[] scheduled = new ScheduledLockstep[tasks.length];
+		long startNanos = System.nanoTime();
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i] = new CountingTask(0);
+			scheduled[i] = scheduler.schedule(tasks[i], i % 48, 48);
+		}
+
+		for (int i = 0; i < tasks.length; i++) {
+			waitForExecutions(tasks[i], 5, 5000);
+		}
+
+		for (int i = 0; i < tasks.length; i++) {
+			scheduled[i].cancel();
+			tasks[i].assertNotEarly(startNanos, i % 48, 48);
+		}
+	}
+
+	@Test
+	public void testFailingTaskKeepsRunning() throws InterruptedException {
+		final AtomicInteger executions = new AtomicInteger();
+		scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				executions.incrementAndGet();
+				throw new RuntimeException("test exception");
+			}
+		}, 0, 10);
+
+		Thread.sleep(55);
+		assertTrue(executions.get() >= 4);
+	}
+
+	private static void waitForExecutions(CountingTask task, int executions, long timeoutMs) throws InterruptedException {
+		long end = System.currentTimeMillis() + timeoutMs;
+		while (task.executions.get() < executions && System.currentTimeMillis() < end) {
+			Thread.sleep(5);
+		}
+		assertTrue("executions: " + task.executions.get(), task.executions.get() >= executions);
+	}
+
+	private static class CountingTask implements Runnable {
+		final AtomicInteger executions = new AtomicInteger();
+		private final List<Long> executionNanos = new ArrayList<Long>();
+		private final int sleepMs;
+
+		CountingTask(int sleepMs) {
+			this.sleepMs = sleepMs;
+		}
+
+		/**
+		 * Asserts that the n-th execution did not start before the deadline of the n-th period. Late and skipped executions are allowed.
+		 */
+		synchronized void assertNotEarly(long scheduleNanos, long delayMs, long periodMs) {
+			for (int i = 0; i < executionNanos.size(); i++) {
+				long deadlineNanos = scheduleNanos + TimeUnit.MILLISECONDS.toNanos(delayMs + i * periodMs);
+				assertTrue("execution " + i + " too early by " + (deadlineNanos - executionNanos.get(i)) + " ns", executionNanos.get(i) >= deadlineNanos);
+			}
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				executionNanos.add(System.nanoTime());
+			}
+			executions.incrementAndGet();
+			if (sleepMs > 0) {
+				try {
+					Thread.sleep(sleepMs);
+				} catch (InterruptedException e) {
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.server.match;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link GameStateChecksumComparator}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class GameStateChecksumComparatorTest {
+
+	private final GameStateChecksumComparator comparator = new GameStateChecksumComparator();
+
+	@Test
+	public void testMatchingChecksums() {
+		for (int lockstep = 0; lockstep < 100; lockstep += 20) {
+			assertNull(comparator.addChecksum("A", lockstep, lockstep * 31L, 3));
+			assertNull(comparator.addChecksum("B", lockstep, lockstep * 31L, 3));
+			assertNull(comparator.addChecksum("C", lockstep, lockstep * 31L, 3));
+		}
+
+		assertEquals(-1, comparator.getFirstDesyncLockstep());
+		assertEquals(0, comparator.getNumberOfDesyncs());
+	}
+
+	@Test
+	public void testDifferingChecksum() {
+		assertNull(comparator.addChecksum("A", 20, 1234L, 2));
+		assertNull(comparator.addChecksum("A", 40, 5678L, 2));
+		assertNull(comparator.addChecksum("B", 20, 1234L, 2));
+		assertEquals("A", comparator.addChecksum("B", 40, 5679L, 2));
+
+		assertEquals(40, comparator.getFirstDesyncLockstep());
+		assertEquals(1, comparator.getNumberOfDesyncs());
+	}
+
+	@Test
+	public void testDesyncIsCountedOncePerLockstep() {
+		comparator.addChecksum("A", 20, 1L, 3);
+		assertEquals("A", comparator.addChecksum("B", 20, 2L, 3));
+		assertEquals("A", comparator.addChecksum("C", 20, 3L, 3));
+
+		assertEquals(20, comparator.getFirstDesyncLockstep());
+		assertEquals(1, comparator.getNumberOfDesyncs());
+	}
+
+	@Test
+	public void testMissingReportsAreDropped() {
+		comparator.addChecksum("A", 20, 1L, 2); // B never reports lockstep 20
+		comparator.addChecksum("A", 5000, 2L, 2);
+
+		assertNull(comparator.addChecksum("B", 20, 3L, 2)); // the checksum of A for lockstep 20 has been dropped
+		assertEquals(-1, comparator.getFirstDesyncLockstep());
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.network.synchronic.random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/**
+ * Tests the state hash of the {@link RandomSingleton}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class RandomSingletonTest {
+
+	@Test
+	public void testSameDrawsResultInSameHash() {
+		RandomSingleton.load(4711L);
+		drawNumbers();
+		long hash = RandomSingleton.getStateHash();
+
+		RandomSingleton.load(4711L);
+		drawNumbers();
+		assertEquals(hash, RandomSingleton.getStateHash());
+	}
+
+	@Test
+	public void testAdditionalDrawChangesHash() {
+		RandomSingleton.load(4711L);
+		drawNumbers();
+		long hash = RandomSingleton.getStateHash();
+
+		RandomSingleton.getInt(10);
+		assertFalse(hash == RandomSingleton.getStateHash());
+	}
+
+	@Test
+	public void testDifferentSeedsResultInDifferentHashes() {
+		RandomSingleton.load(4711L);
+		drawNumbers();
+		long hash = RandomSingleton.getStateHash();
+
+		RandomSingleton.load(4712L);
+		drawNumbers();
+		assertFalse(hash == RandomSingleton.getStateHash());
+	}
+
+	private static void drawNumbers() {
+		for (int i = 0; i < 100; i++) {
+			RandomSingleton.getInt(3, 17);
+			RandomSingleton.nextD();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.borders;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import jsettlers.common.movable.EDirection;
+
+import org.junit.Test;
+
+/**
+ * Test for the {@link BordersThread}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class BordersThreadTest {
+	private static final short WIDTH = 60;
+	private static final short HEIGHT = 50;
+
+	private final TestGrid grid = new TestGrid();
+	private final BordersThread bordersThread = new BordersThread(grid);
+
+	@Test
+	public void testCheckArea() {
+		grid.occupyRandomCircles(new Random(1));
+
+		bordersThread.checkArea(0, 0, WIDTH, HEIGHT);
+		bordersThread.checkArea(10, 10, (short) 20, (short) 20); // covered by the first area
+		bordersThread.calculateDirtyPositions();
+
+		assertBorders();
+	}
+
+	@Test
+	public void testCheckChangedPositions() {
+		Random random = new Random(2);
+		grid.occupyRandomCircles(random);
+		bordersThread.checkArea(0, 0, WIDTH, HEIGHT);
+		bordersThread.calculateDirtyPositions();
+
+		for (int i = 0; i < 3; i++) {
+			int centerX = random.nextInt(WIDTH);
+			int centerY = random.nextInt(HEIGHT);
+			byte player = (byte) random.nextInt(3);
+
+			for (short y = 0; y < HEIGHT; y++) {
+				for (short x = 0; x < WIDTH; x++) {
+					if (Math.abs(x - centerX) + Math.abs(y - centerY) < 8) {
+						grid.players[x + y * WIDTH] = player;
+						bordersThread.checkPosition(x, y);
+						bordersThread.checkPosition(x, y); // duplicates are only checked once
+					}
+				}
+			}
+		}
+		bordersThread.calculateDirtyPositions();
+
+		assertBorders();
+	}
+
+	private void assertBorders() {
+		for (short y = 0; y < HEIGHT; y++) {
+			for (short x = 0; x < WIDTH; x++) {
+				assertEquals(x + "|" + y, isBorder(x, y), grid.borders.get(x + y * WIDTH));
+			}
+		}
+	}
+
+	private boolean isBorder(short x, short y) {
+		byte player = grid.getPlayerIdAt(x, y);
+		if (player < 0) {
+			return false;
+		}
+
+		for (EDirection direction : EDirection.values) {
+			short neighborX = direction.getNextTileX(x);
+			short neighborY = direction.getNextTileY(y);
+			if (grid.isInBounds(neighborX, neighborY) && grid.getPlayerIdAt(neighborX, neighborY) != player) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static class TestGrid implements IBordersThreadGrid {
+		final byte[] players = new byte[WIDTH * HEIGHT];
+		final BitSet borders = new BitSet(WIDTH * HEIGHT);
+
+		void occupyRandomCircles(Random random) {
+			for (int i = 0; i < players.length; i++) {
+				players[i] = -1;
+			}
+
+			for (byte player = 0; player < 3; player++) {
+				int centerX = random.nextInt(WIDTH);
+				int centerY = random.nextInt(HEIGHT);
+				for (int y = 0; y < HEIGHT; y++) {
+					for (int x = 0; x < WIDTH; x++) {
+						if ((x - centerX) * (x - centerX) + (y - centerY) * (y - centerY) < 200) {
+							players[x + y * WIDTH] = player;
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		public byte getPlayerIdAt(short x, short y) {
+			return players[x + y * WIDTH];
+		}
+
+		@Override
+		public void setBorderAt(short x, short y, boolean isBorder) {
+			borders.set(x + y * WIDTH, isBorder);
+		}
+
+		@Override
+		public boolean isInBounds(short x, short y) {
+			return 0 <= x && x < WIDTH && 0 <= y && y < HEIGHT;
+		}
+
+		@Override
+		public short getWidth() {
+			return WIDTH;
+		}
+
+		@Override
+		public short getHeight() {
+			return HEIGHT;
+		}
+
+		@Override
+		public short getBlockedPartition(short x, short y) {
+			return 1;
+		}
+	}
+}
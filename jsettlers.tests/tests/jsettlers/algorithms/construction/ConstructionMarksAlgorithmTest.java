@@ -17,6 +17,9 @@ package jsettlers.algorithms.construction;
 import static org.junit.Assert.assertEquals;
 
 import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import jsettlers.common.buildings.BuildingAreaBitSet;
 import jsettlers.common.buildings.BuildingAreaBitSetTest;
@@ -71,6 +74,83 @@ public class ConstructionMarksAlgorithmTest {
 		}
 	}
 
+	@Test
+	public void testParallelStripsEqualSequentialCalculation() throws InterruptedException {
+		boolean[][] blocked = createRandomBlocked(60, 70, 0.05f, 1);
+		BuildingAreaBitSet buildingSet = createBuildingSet();
+		MapRectangle mapArea = new MapRectangle(-5, -5, 80, 80);
+
+		TestMap sequentialMap = new TestMap(blocked);
+		new NewConstructionMarksAlgorithm(sequentialMap, (byte) 0).calculateConstructMarks(mapArea, buildingSet, null, null, false);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			TestMap parallelMap = new TestMap(blocked);
+			NewConstructionMarksAlgorithm algorithm = new NewConstructionMarksAlgorithm(parallelMap, (byte) 0, executor, 8);
+			algorithm.calculateConstructMarks(mapArea, buildingSet, null, null, false);
+			algorithm.calculateConstructMarks(mapArea, buildingSet, null, null, false); // reuses the done sets
+
+			for (int y = 0; y < sequentialMap.height; y++) {
+				for (int x = 0; x < sequentialMap.width; x++) {
+					if (mapArea.contains(x, y)) {
+						int index = x + y * sequentialMap.width;
+						assertEquals(x + "|" + y, sequentialMap.marksSet[index], parallelMap.marksSet[index]);
+					}
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testRecalculationOfChangedPositions() {
+		boolean[][] blocked = createRandomBlocked(50, 40, 0.03f, 2);
+		BuildingAreaBitSet buildingSet = createBuildingSet();
+		MapRectangle mapArea = new MapRectangle(-5, -5, 70, 60);
+
+		TestMap map = new TestMap(blocked);
+		NewConstructionMarksAlgorithm algorithm = new NewConstructionMarksAlgorithm(map, (byte) 0);
+		algorithm.calculateConstructMarks(mapArea, buildingSet, null, null, false);
+
+		Random random = new Random(3);
+		BitSet changedPositions = new BitSet();
+		for (int i = 0; i < 40; i++) {
+			int index = random.nextInt(map.width * map.height);
+			map.blockedSet.flip(index);
+			changedPositions.set(index);
+		}
+		algorithm.recalculateConstructMarks(changedPositions, buildingSet, null, null, false);
+
+		for (int y = 0; y < map.height; y++) {
+			for (int x = 0; x < map.width; x++) {
+				if (mapArea.contains(x, y)) {
+					assertEquals(x + "|" + y, canCostructAt(map, x, y, buildingSet), map.marksSet[x + y * map.width] > 0);
+				}
+			}
+		}
+	}
+
+	private static BuildingAreaBitSet createBuildingSet() {
+		boolean[][] buildingMask = {
+				{ false, true, true, false },
+				{ true, true, true, true },
+				{ true, true, true, true },
+				{ false, true, true, true } };
+		return new BuildingAreaBitSet(BuildingAreaBitSetTest.createRelativePoints(buildingMask));
+	}
+
+	private static boolean[][] createRandomBlocked(int width, int height, float probability, long seed) {
+		Random random = new Random(seed);
+		boolean[][] blocked = new boolean[height][width];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				blocked[y][x] = random.nextFloat() < probability;
+			}
+		}
+		return blocked;
+	}
+
 	@SuppressWarnings("unused")
 	private void print(TestMap map, boolean[][] blocked, BuildingAreaBitSet buildingSet) {
 		System.out.println("blocked | marksSet | canConstruct");
@@ -198,5 +278,9 @@ public class ConstructionMarksAlgorithmTest {
 		public boolean canPlayerConstructOnPartition(byte playerId, short partitionId) {
 			return true;
 		}
+
+		@Override
+		public void setConstructionDataChangedListener(IConstructionDataChangedListener listener) {
+		}
 	}
 }
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.fogofwar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import jsettlers.algorithms.fogofwar.FogOfWar.NewFoWThread;
+import jsettlers.common.CommonConstants;
+import jsettlers.common.mapobject.IMapObject;
+import jsettlers.common.movable.IMovable;
+import jsettlers.common.position.ShortPoint2D;
+
+import org.junit.Test;
+
+/**
+ * Tests that the {@link IncrementalSightUpdater} computes exactly the same sight as a full rebuild of the {@link FogOfWar}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class IncrementalSightUpdaterTest {
+	private static final short WIDTH = 120;
+	private static final short HEIGHT = 100;
+	private static final byte PLAYER = 1;
+
+	private final TestGrid grid = new TestGrid();
+	private final FogOfWar rebuiltFogOfWar = new FogOfWar(WIDTH, HEIGHT, PLAYER);
+	private final FogOfWar incrementalFogOfWar = new FogOfWar(WIDTH, HEIGHT, PLAYER);
+
+	@Test
+	public void testMovingObjects() {
+		Random random = new Random(1);
+		for (int i = 0; i < 30; i++) {
+			grid.movables.add(new TestViewDistancable(randomPosition(random), (short) (2 + random.nextInt(15)), PLAYER));
+		}
+		grid.buildings.add(new TestViewDistancable(new ShortPoint2D(60, 50), (short) 20, PLAYER));
+
+		UpdateComparator comparator = new UpdateComparator();
+		for (int update = 0; update < 40; update++) {
+			for (TestViewDistancable movable : grid.movables) {
+				if (random.nextInt(3) == 0) { // some of the movables don't move in an update
+					movable.pos = new ShortPoint2D(clamp(movable.pos.x + random.nextInt(5) - 2, WIDTH), clamp(movable.pos.y + random.nextInt(5) - 2, HEIGHT));
+				}
+			}
+			comparator.updateAndCompare();
+		}
+	}
+
+	@Test
+	public void testChangingObjects() {
+		Random random = new Random(2);
+		UpdateComparator comparator = new UpdateComparator();
+
+		for (int update = 0; update < 60; update++) {
+			if (random.nextInt(2) == 0) {
+				grid.movables.add(new TestViewDistancable(randomPosition(random), (short) random.nextInt(20), (byte) random.nextInt(3)));
+			}
+			if (!grid.movables.isEmpty() && random.nextInt(3) == 0) {
+				grid.movables.poll();
+			}
+			for (TestViewDistancable movable : grid.movables) {
+				switch (random.nextInt(6)) {
+				case 0:
+					movable.viewDistance = (short) random.nextInt(20);
+					break;
+				case 1:
+					movable.pos = movable.pos == null ? randomPosition(random) : null;
+					break;
+				case 2:
+					movable.pos = randomPosition(random);
+					break;
+				}
+			}
+			comparator.updateAndCompare();
+		}
+
+		grid.movables.clear();
+		for (int update = 0; update < 10; update++) { // everything dims down to explored
+			comparator.updateAndCompare();
+		}
+	}
+
+	@Test
+	public void testStationaryObjectKeepsItsBorder() {
+		ShortPoint2D position = new ShortPoint2D(60, 50);
+		grid.buildings.add(new TestViewDistancable(position, (short) 10, PLAYER));
+
+		UpdateComparator comparator = new UpdateComparator();
+		for (int update = 0; update < 20; update++) {
+			comparator.updateAndCompare();
+		}
+
+		boolean hasBorder = false;
+		for (int i = 0; i < incrementalFogOfWar.sight.getSize(); i++) {
+			byte sight = incrementalFogOfWar.sight.get(i);
+			hasBorder |= sight > CommonConstants.FOG_OF_WAR_EXPLORED && sight < CommonConstants.FOG_OF_WAR_VISIBLE;
+		}
+		assertTrue("the soft border must not dim down to explored", hasBorder);
+	}
+
+	@Test
+	public void testLoadedSight() {
+		Random random = new Random(3);
+		for (int i = 0; i < rebuiltFogOfWar.sight.getSize(); i++) { // sight of a loaded game
+			byte sight = (byte) random.nextInt(CommonConstants.FOG_OF_WAR_VISIBLE + 1);
+			rebuiltFogOfWar.sight.set(i, sight);
+			incrementalFogOfWar.sight.set(i, sight);
+		}
+		for (int i = 0; i < 10; i++) {
+			grid.movables.add(new TestViewDistancable(randomPosition(random), (short) (2 + random.nextInt(15)), PLAYER));
+		}
+
+		UpdateComparator comparator = new UpdateComparator();
+		for (int update = 0; update < 10; update++) {
+			comparator.updateAndCompare();
+		}
+	}
+
+	private static ShortPoint2D randomPosition(Random random) {
+		return new ShortPoint2D(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+	}
+
+	private static int clamp(int value, short size) {
+		return Math.max(0, Math.min(size - 1, value));
+	}
+
+	private class UpdateComparator {
+		private final NewFoWThread rebuildingThread = rebuiltFogOfWar.createThread(grid, false);
+		private final NewFoWThread incrementalThread = incrementalFogOfWar.createThread(grid, true);
+		private int updates = 0;
+
+		void updateAndCompare() {
+			rebuildingThread.updateSight();
+			incrementalThread.updateSight();
+			updates++;
+
+			for (short y = 0; y < HEIGHT; y++) {
+				for (short x = 0; x < WIDTH; x++) {
+					assertEquals("update " + updates + " at " + x + "|" + y, rebuiltFogOfWar.sight.get(x, y), incrementalFogOfWar.sight.get(x, y));
+				}
+			}
+		}
+	}
+
+	private static class TestViewDistancable implements IViewDistancable {
+		private final byte playerId;
+		private ShortPoint2D pos;
+		private short viewDistance;
+
+		TestViewDistancable(ShortPoint2D pos, short viewDistance, byte playerId) {
+			this.pos = pos;
+			this.viewDistance = viewDistance;
+			this.playerId = playerId;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return pos;
+		}
+
+		@Override
+		public byte getPlayerId() {
+			return playerId;
+		}
+
+		@Override
+		public short getViewDistance() {
+			return viewDistance;
+		}
+	}
+
+	private static class TestGrid implements IFogOfWarGrid {
+		private final ConcurrentLinkedQueue<TestViewDistancable> movables = new ConcurrentLinkedQueue<TestViewDistancable>();
+		private final ConcurrentLinkedQueue<TestViewDistancable> buildings = new ConcurrentLinkedQueue<TestViewDistancable>();
+
+		@Override
+		public IMovable getMovableAt(short x, short y) {
+			return null;
+		}
+
+		@Override
+		public IMapObject getMapObjectsAt(short x, short y) {
+			return null;
+		}
+
+		@Override
+		public ConcurrentLinkedQueue<TestViewDistancable> getMovableViewDistancables() {
+			return movables;
+		}
+
+		@Override
+		public ConcurrentLinkedQueue<TestViewDistancable> getBuildingViewDistancables() {
+			return buildings;
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path;
+
+import static jsettlers.algorithms.path.PathCache.NO_PLAYER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PathCacheTest {
+	private static final short PARTITION = 1;
+	private static final byte PLAYER = 0;
+	private static final byte OTHER_PLAYER = 1;
+
+	private static final int WIDTH = 100;
+	private static final int HEIGHT = 100;
+
+	private final PathCache cache = new PathCache(2, WIDTH, HEIGHT);
+
+	@Test
+	public void testHitReturnsCopy() {
+		Path path = createStraightPath(10, 10, 5);
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION, path);
+
+		Path first = cache.get((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION);
+		assertNotNull(first);
+		assertNotSame(path, first);
+		first.goToNextStep();
+		first.goToNextStep();
+
+		Path second = cache.get((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION);
+		assertEquals(-1, second.getStep());
+		assertEquals(5, second.getLength());
+		assertEquals(11, second.nextX());
+
+		assertEquals(2, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void testMisses() {
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION, createStraightPath(10, 10, 5));
+
+		assertNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, (short) 2));
+		assertNull(cache.get((short) 10, (short) 11, (short) 15, (short) 10, NO_PLAYER, PARTITION));
+		assertNull(cache.get((short) 10, (short) 10, (short) 16, (short) 10, NO_PLAYER, PARTITION));
+
+		assertEquals(0, cache.getHits());
+		assertEquals(3, cache.getMisses());
+		assertEquals(0f, cache.getHitRate(), 0f);
+	}
+
+	@Test
+	public void testBlockingOnRouteInvalidates() {
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION, createStraightPath(10, 10, 5));
+
+		cache.blockingChanged(12, 11, true);
+		assertEquals(1, cache.size());
+
+		cache.blockingChanged(13, 10, true);
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getInvalidations());
+	}
+
+	@Test
+	public void testBlockingOnlyInvalidatesPathsContainingThePosition() {
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION, createStraightPath(10, 10, 5));
+		cache.put((short) 10, (short) 11, (short) 15, (short) 11, NO_PLAYER, PARTITION, createStraightPath(10, 11, 5));
+
+		cache.blockingChanged(13, 11, true);
+		assertEquals(1, cache.size());
+		assertNotNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION));
+		assertNull(cache.get((short) 10, (short) 11, (short) 15, (short) 11, NO_PLAYER, PARTITION));
+	}
+
+	@Test
+	public void testUnblockingInvalidatesAll() {
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION, createStraightPath(10, 10, 5));
+		cache.put((short) 10, (short) 20, (short) 15, (short) 20, NO_PLAYER, PARTITION, createStraightPath(10, 20, 5));
+
+		cache.blockingChanged(90, 90, false);
+		assertEquals(0, cache.size());
+		assertEquals(2, cache.getInvalidations());
+		assertNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION));
+
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION, createStraightPath(10, 10, 5));
+		assertNotNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION));
+	}
+
+	@Test
+	public void testPathsAreCachedPerPlayer() {
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, PLAYER, PARTITION, createStraightPath(10, 10, 5));
+
+		assertNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION));
+		assertNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, OTHER_PLAYER, PARTITION));
+		assertNotNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, PLAYER, PARTITION));
+	}
+
+	@Test
+	public void testPlayerChangeOnRouteInvalidatesPathsOfOtherPlayers() {
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, PLAYER, PARTITION, createStraightPath(10, 10, 5));
+		cache.put((short) 10, (short) 20, (short) 15, (short) 20, NO_PLAYER, PARTITION, createStraightPath(10, 20, 5));
+
+		cache.playerChangedAt(12, 11, OTHER_PLAYER);
+		cache.playerChangedAt(12, 20, OTHER_PLAYER);
+		assertEquals(2, cache.size());
+
+		cache.playerChangedAt(12, 10, OTHER_PLAYER);
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getInvalidations());
+		assertNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, PLAYER, PARTITION));
+		assertNotNull(cache.get((short) 10, (short) 20, (short) 15, (short) 20, NO_PLAYER, PARTITION));
+	}
+
+	@Test
+	public void testPlayerChangeInvalidatesAllPathsOfTheNewPlayer() {
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, PLAYER, PARTITION, createStraightPath(10, 10, 5));
+		cache.put((short) 10, (short) 20, (short) 15, (short) 20, OTHER_PLAYER, PARTITION, createStraightPath(10, 20, 5));
+
+		cache.playerChangedAt(90, 90, PLAYER);
+		assertEquals(1, cache.size());
+		assertNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, PLAYER, PARTITION));
+		assertNotNull(cache.get((short) 10, (short) 20, (short) 15, (short) 20, OTHER_PLAYER, PARTITION));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsDropped() {
+		cache.put((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION, createStraightPath(10, 10, 5));
+		cache.put((short) 10, (short) 20, (short) 15, (short) 20, NO_PLAYER, PARTITION, createStraightPath(10, 20, 5));
+		assertNotNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION));
+
+		cache.put((short) 10, (short) 30, (short) 15, (short) 30, NO_PLAYER, PARTITION, createStraightPath(10, 30, 5));
+
+		assertEquals(2, cache.size());
+		assertNotNull(cache.get((short) 10, (short) 10, (short) 15, (short) 10, NO_PLAYER, PARTITION));
+		assertNull(cache.get((short) 10, (short) 20, (short) 15, (short) 20, NO_PLAYER, PARTITION));
+		assertNotNull(cache.get((short) 10, (short) 30, (short) 15, (short) 30, NO_PLAYER, PARTITION));
+	}
+
+	@Test
+	public void testRandomOperationsMatchLinkedHashMap() {
+		final int maxSize = 64;
+		PathCache cache = new PathCache(maxSize, WIDTH, HEIGHT);
+		Map<Integer, Integer> expected = new LinkedHashMap<Integer, Integer>(16, 0.75f, true) { // maps y * 8 + length to length
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+				return size() > maxSize;
+			}
+		};
+		Random random = new Random(42);
+
+		for (int i = 0; i < 20000; i++) {
+			int y = random.nextInt(HEIGHT);
+			int length = 1 + random.nextInt(5);
+			int key = y * 8 + length;
+
+			switch (random.nextInt(5)) {
+			case 0:
+				int x = 10 + random.nextInt(6);
+				cache.blockingChanged(x, y, true);
+				for (Iterator<Map.Entry<Integer, Integer>> iter = expected.entrySet().iterator(); iter.hasNext();) {
+					Map.Entry<Integer, Integer> entry = iter.next();
+					if (entry.getKey() / 8 == y && x > 10 && x <= 10 + entry.getValue()) {
+						iter.remove();
+					}
+				}
+				break;
+			case 1:
+			case 2:
+				cache.put((short) 10, (short) y, (short) (10 + length), (short) y, NO_PLAYER, PARTITION, createStraightPath(10, y, length));
+				expected.put(key, length);
+				break;
+			default:
+				Path path = cache.get((short) 10, (short) y, (short) (10 + length), (short) y, NO_PLAYER, PARTITION);
+				if (expected.get(key) == null) {
+					assertNull(path);
+				} else {
+					assertEquals(length, path.getLength());
+				}
+				break;
+			}
+			assertEquals(expected.size(), cache.size());
+		}
+	}
+
+	private static Path createStraightPath(int sx, int y, int length) {
+		Path path = new Path(length);
+		for (int i = 0; i < length; i++) {
+			path.insertAt(i, (short) (sx + i + 1), (short) y);
+		}
+		return path;
+	}
+}
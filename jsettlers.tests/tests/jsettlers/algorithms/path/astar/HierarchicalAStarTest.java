@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import jsettlers.algorithms.partitions.IBlockingProvider;
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HierarchicalAStarTest {
+
+	private static final short WIDTH = 200;
+	private static final short HEIGHT = 200;
+
+	private final DummyEmptyAStarMap map = new DummyEmptyAStarMap(WIDTH, HEIGHT);
+	private final HierarchicalAStar hierarchicalAStar = createHierarchicalAStar();
+	private final BucketQueueAStar aStar = new BucketQueueAStar(map, WIDTH, HEIGHT);
+
+	private boolean hierarchicalAStarEnabled;
+
+	@Before
+	public void enableHierarchicalAStar() {
+		hierarchicalAStarEnabled = MatchConstants.ENABLE_HIERARCHICAL_ASTAR;
+		MatchConstants.ENABLE_HIERARCHICAL_ASTAR = true;
+	}
+
+	@After
+	public void resetHierarchicalAStar() {
+		MatchConstants.ENABLE_HIERARCHICAL_ASTAR = hierarchicalAStarEnabled;
+	}
+
+	@Test
+	public void testPathOnEmptyMap() {
+		assertPathValid(10, 10, 190, 170);
+		assertEquals(ShortPoint2D.getOnGridDist(190 - 10, 170 - 10), findPath(hierarchicalAStar, 10, 10, 190, 170).getLength());
+	}
+
+	@Test
+	public void testPathsAroundWalls() {
+		buildWalls();
+
+		for (int sy = 5; sy < HEIGHT; sy += 37) {
+			for (int ty = 3; ty < HEIGHT; ty += 41) {
+				assertPathValid(5, sy, 195, ty);
+				assertPathValid(195, ty, 5, sy);
+			}
+		}
+	}
+
+	@Test
+	public void testBlockingChanged() {
+		buildWalls();
+		Path pathBefore = assertPathValid(5, 100, 195, 100);
+
+		closeWallGap(50, 100);
+		Path pathAfter = assertPathValid(5, 100, 195, 100);
+		assertTrue(pathBefore.getLength() < pathAfter.getLength());
+
+		closeWallGap(50, 20);
+		closeWallGap(50, 180);
+		assertNull(findPath(hierarchicalAStar, 5, 100, 195, 100));
+
+		setBlocked(50, 100, false);
+		hierarchicalAStar.blockingChanged(50, 100, false);
+		pathAfter = assertPathValid(5, 100, 195, 100);
+		assertTrue(pathBefore.getLength() <= pathAfter.getLength());
+	}
+
+	@Test
+	public void testPathsDoNotDependOnBuildOrder() {
+		buildWalls();
+		findPath(hierarchicalAStar, 195, 3, 5, 190); // builds clusters along another corridor first
+
+		for (int sy = 5; sy < HEIGHT; sy += 37) {
+			HierarchicalAStar freshAStar = createHierarchicalAStar();
+			Path expected = findPath(freshAStar, 5, sy, 195, 120);
+			Path path = findPath(hierarchicalAStar, 5, sy, 195, 120);
+
+			assertEquals(expected.getLength(), path.getLength());
+			while (expected.hasNextStep()) {
+				assertEquals(expected.getNextPos(), path.getNextPos());
+				expected.goToNextStep();
+				path.goToNextStep();
+			}
+		}
+	}
+
+	@Test
+	public void testDiagonalPassageOverVerticalClusterBorder() {
+		for (int y = 0; y < HEIGHT; y++) { // the cluster border lies between x = 31 and x = 32
+			setBlocked(31, y, y != 100);
+			setBlocked(32, y, y != 101);
+		}
+
+		assertTrue(hierarchicalAStar.findCorridor(5, 100, 195, 100));
+		assertTrue(hierarchicalAStar.findCorridor(195, 100, 5, 100));
+		assertPathValid(5, 100, 195, 100);
+		assertPathValid(195, 100, 5, 100);
+	}
+
+	@Test
+	public void testDiagonalPassageOverHorizontalClusterBorder() {
+		for (int x = 0; x < WIDTH; x++) { // the cluster border lies between y = 95 and y = 96
+			setBlocked(x, 95, x != 40);
+			setBlocked(x, 96, x != 41);
+		}
+
+		assertTrue(hierarchicalAStar.findCorridor(100, 5, 100, 195));
+		assertTrue(hierarchicalAStar.findCorridor(100, 195, 100, 5));
+		assertPathValid(100, 5, 100, 195);
+		assertPathValid(100, 195, 100, 5);
+	}
+
+	@Test
+	public void testDiagonalPassageOverClusterCorner() {
+		for (int i = 0; i < WIDTH; i++) { // only the tiles (63, 63) and (64, 64) connect the top left and the bottom right area
+			setBlocked(i, 63, i > 63);
+			setBlocked(i, 64, i < 64);
+			setBlocked(63, i, i > 63);
+			setBlocked(64, i, i < 64);
+		}
+
+		assertTrue(hierarchicalAStar.findCorridor(5, 5, 195, 195));
+		assertTrue(hierarchicalAStar.findCorridor(195, 195, 5, 5));
+		assertPathValid(5, 5, 195, 195);
+		assertPathValid(195, 195, 5, 5);
+
+		setBlocked(64, 64, true);
+		hierarchicalAStar.blockingChanged(64, 64, true);
+		assertFalse(hierarchicalAStar.findCorridor(5, 5, 195, 195));
+	}
+
+	private Path assertPathValid(int sx, int sy, int tx, int ty) {
+		Path expected = findPath(aStar, sx, sy, tx, ty);
+		Path path = findPath(hierarchicalAStar, sx, sy, tx, ty);
+
+		if (expected == null) {
+			assertNull(path);
+			return null;
+		}
+
+		assertNotNull(path);
+		assertEquals(expected.getLength(), path.getLength()); // the entrances of the test maps are dense enough to find optimal paths
+
+		ShortPoint2D last = new ShortPoint2D(sx, sy);
+		while (path.hasNextStep()) {
+			ShortPoint2D next = path.getNextPos();
+			assertEquals(1, last.getOnGridDistTo(next));
+			assertTrue(!map.isBlocked(null, next.x, next.y));
+			last = next;
+			path.goToNextStep();
+		}
+		assertEquals(new ShortPoint2D(tx, ty), last);
+
+		return path;
+	}
+
+	/**
+	 * Builds vertical walls at x = 50, 100 and 150 with a gap at y = 20, 100 and 180.
+	 */
+	private void buildWalls() {
+		for (int x = 50; x < WIDTH; x += 50) {
+			for (int y = 0; y < HEIGHT; y++) {
+				if (Math.abs(y - 20) > 2 && Math.abs(y - 100) > 2 && Math.abs(y - 180) > 2) {
+					setBlocked(x, y, true);
+				}
+			}
+		}
+	}
+
+	private void closeWallGap(int x, int gapY) {
+		for (int y = gapY - 2; y <= gapY + 2; y++) {
+			setBlocked(x, y, true);
+			hierarchicalAStar.blockingChanged(x, y, true);
+		}
+	}
+
+	private void setBlocked(int x, int y, boolean blocked) {
+		map.setBlocked(x, y, blocked);
+	}
+
+	private HierarchicalAStar createHierarchicalAStar() {
+		return new HierarchicalAStar(map, new IBlockingProvider() {
+			@Override
+			public boolean isBlocked(int x, int y) {
+				return map.isBlocked(null, x, y);
+			}
+		}, WIDTH, HEIGHT);
+	}
+
+	private static Path findPath(AbstractAStar aStar, int sx, int sy, int tx, int ty) {
+		return aStar.findPath(getPathable((short) sx, (short) sy), (short) sx, (short) sy, (short) tx, (short) ty);
+	}
+
+	private static IPathCalculatable getPathable(final short x, final short y) {
+		return new IPathCalculatable() {
+			@Override
+			public ShortPoint2D getPos() {
+				return new ShortPoint2D(x, y);
+			}
+
+			@Override
+			public byte getPlayerId() {
+				return 0;
+			}
+
+			@Override
+			public boolean needsPlayersGround() {
+				return false;
+			}
+		};
+	}
+}
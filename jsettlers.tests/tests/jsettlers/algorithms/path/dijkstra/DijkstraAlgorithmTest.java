@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.dijkstra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.algorithms.path.astar.BucketQueueAStar;
+import jsettlers.algorithms.path.astar.DummyEmptyAStarMap;
+import jsettlers.common.material.ESearchType;
+import jsettlers.common.position.ShortPoint2D;
+
+import org.junit.Test;
+
+public class DijkstraAlgorithmTest {
+	private static final short WIDTH = 100;
+	private static final short HEIGHT = 100;
+	private static final boolean MULTI_TARGET_SEARCH = true;
+	private static final boolean RING_SEARCH = false;
+
+	private final DummyEmptyAStarMap aStarMap = new DummyEmptyAStarMap(WIDTH, HEIGHT);
+	private final Set<ShortPoint2D> targets = new HashSet<ShortPoint2D>();
+	private final DijkstraAlgorithm dijkstra = new DijkstraAlgorithm(new TestMap(), new BucketQueueAStar(aStarMap, WIDTH, HEIGHT), WIDTH, HEIGHT);
+
+	@Test
+	public void testFindsNearestTarget() {
+		targets.add(new ShortPoint2D(60, 50));
+		targets.add(new ShortPoint2D(45, 50));
+
+		Path path = find(MULTI_TARGET_SEARCH, 50, 50, 50, 50, 20);
+		assertPath(path, 50, 50, 45, 50);
+		assertEquals(5, path.getLength());
+	}
+
+	@Test
+	public void testSkipsBlockedAndUnreachableTargets() {
+		targets.add(new ShortPoint2D(52, 50));
+		targets.add(new ShortPoint2D(58, 50));
+		aStarMap.setBlocked(52, 50, true);
+
+		for (int y = 45; y <= 55; y++) { // a wall that needs a detour
+			aStarMap.setBlocked(55, y, true);
+		}
+
+		Path path = find(MULTI_TARGET_SEARCH, 50, 50, 50, 50, 20);
+		assertPath(path, 50, 50, 58, 50);
+		assertEquals(find(RING_SEARCH, 50, 50, 50, 50, 20).getLength(), path.getLength());
+	}
+
+	@Test
+	public void testTargetsOutsideOfRadiusAreIgnored() {
+		targets.add(new ShortPoint2D(50, 50));
+		targets.add(new ShortPoint2D(50, 80));
+
+		assertNull(find(MULTI_TARGET_SEARCH, 50, 50, 50, 50, 20));
+		assertNull(find(RING_SEARCH, 50, 50, 50, 50, 20));
+	}
+
+	@Test
+	public void testRequesterAwayFromCenter() {
+		targets.add(new ShortPoint2D(30, 30));
+		targets.add(new ShortPoint2D(40, 40));
+
+		Path path = find(MULTI_TARGET_SEARCH, 45, 45, 35, 35, 10);
+		assertPath(path, 45, 45, 40, 40);
+
+		path = find(MULTI_TARGET_SEARCH, 90, 90, 35, 35, 10); // requester outside of the search area uses the ring search
+		assertEquals(find(RING_SEARCH, 90, 90, 35, 35, 10).getTargetPos(), path.getTargetPos());
+	}
+
+	private static void assertPath(Path path, int sx, int sy, int tx, int ty) {
+		assertNotNull(path);
+		assertEquals(new ShortPoint2D(tx, ty), path.getTargetPos());
+
+		ShortPoint2D last = new ShortPoint2D(sx, sy);
+		while (path.hasNextStep()) {
+			ShortPoint2D next = path.getNextPos();
+			assertEquals(1, last.getOnGridDistTo(next));
+			last = next;
+			path.goToNextStep();
+		}
+	}
+
+	private Path find(boolean multiTargetSearch, int sx, int sy, int cx, int cy, int radius) {
+		return dijkstra.find(getPathable((short) sx, (short) sy), (short) cx, (short) cy, (short) 0, (short) radius, ESearchType.CUTTABLE_TREE,
+				multiTargetSearch);
+	}
+
+	private static IPathCalculatable getPathable(final short x, final short y) {
+		return new IPathCalculatable() {
+			@Override
+			public ShortPoint2D getPos() {
+				return new ShortPoint2D(x, y);
+			}
+
+			@Override
+			public byte getPlayerId() {
+				return 0;
+			}
+
+			@Override
+			public boolean needsPlayersGround() {
+				return false;
+			}
+		};
+	}
+
+	private class TestMap implements IDijkstraPathMap {
+		@Override
+		public boolean fitsSearchType(int x, int y, ESearchType type, IPathCalculatable requester) {
+			return targets.contains(new ShortPoint2D(x, y));
+		}
+
+		@Override
+		public void setDijkstraSearched(int x, int y) {
+		}
+
+		@Override
+		public boolean isBlocked(IPathCalculatable requester, int x, int y) {
+			return aStarMap.isBlocked(requester, x, y);
+		}
+
+		@Override
+		public short getBlockedPartition(int x, int y) {
+			return aStarMap.getBlockedPartition(x, y);
+		}
+	}
+}
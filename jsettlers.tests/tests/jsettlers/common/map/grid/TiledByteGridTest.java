@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.common.map.grid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+
+/**
+ * Test for the classes {@link TiledGridLayout} and {@link TiledByteGrid}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class TiledByteGridTest {
+	private static final short WIDTH = 50;
+	private static final short HEIGHT = 37;
+
+	private final TiledGridLayout layout = new TiledGridLayout(WIDTH, HEIGHT);
+
+	@Test
+	public void testIndexesAreUniqueAndInRange() {
+		BitSet usedIndexes = new BitSet(layout.getSize());
+
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				int index = layout.getIndex(x, y);
+				assertTrue(index >= 0 && index < layout.getSize());
+				assertFalse(usedIndexes.get(index));
+				usedIndexes.set(index);
+			}
+		}
+	}
+
+	@Test
+	public void testCoordinatesOfIndex() {
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				int index = layout.getIndex(x, y);
+				assertEquals(x, layout.getX(index));
+				assertEquals(y, layout.getY(index));
+			}
+		}
+	}
+
+	@Test
+	public void testBlocksAreContinuous() {
+		int blockStart = layout.getIndex(16, 32);
+		for (int dy = 0; dy < TiledGridLayout.BLOCK_SIZE; dy++) {
+			for (int dx = 0; dx < TiledGridLayout.BLOCK_SIZE; dx++) {
+				assertEquals(blockStart + dy * TiledGridLayout.BLOCK_SIZE + dx, layout.getIndex(16 + dx, 32 + dy));
+			}
+		}
+	}
+
+	@Test
+	public void testSetAndGet() {
+		TiledByteGrid grid = new TiledByteGrid(layout);
+
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				grid.set(x, y, (byte) (x * 3 + y));
+			}
+		}
+
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				assertEquals((byte) (x * 3 + y), grid.get(x, y));
+				assertEquals((byte) (x * 3 + y), grid.get(grid.getIndex(x, y)));
+			}
+		}
+	}
+}
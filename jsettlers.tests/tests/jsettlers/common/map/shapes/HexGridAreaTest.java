@@ -75,6 +75,34 @@ public class HexGridAreaTest {
 		assertPositions(center, startRadius, maxRadius, expectedCount);
 	}
 
+	@Test
+	public void testIndexInIterationMatchesIterator() {
+		ShortPoint2D center = new ShortPoint2D(50, 50);
+		HexGridAreaIterator iter = new HexGridArea(center.x, center.y, 0, 20).iterator();
+
+		int index = 0;
+		while (iter.hasNext()) {
+			int radius = iter.getRadiusOfNext();
+			ShortPoint2D pos = iter.next();
+
+			assertEquals(radius, HexGridArea.getRadius(pos.x - center.x, pos.y - center.y));
+			assertEquals(index, HexGridArea.getIndexInIteration(pos.x - center.x, pos.y - center.y));
+			index++;
+		}
+	}
+
+	@Test
+	public void testIndexInIterationKeepsOrderWithStartRadius() {
+		ShortPoint2D center = new ShortPoint2D(50, 50);
+
+		int lastIndex = -1;
+		for (ShortPoint2D pos : new HexGridArea(center.x, center.y, 7, 12)) {
+			int index = HexGridArea.getIndexInIteration(pos.x - center.x, pos.y - center.y);
+			assertTrue(lastIndex < index);
+			lastIndex = index;
+		}
+	}
+
 	private void assertPositions(ShortPoint2D center, int startRadius, int maxRadius, int expectedCount) {
 		HexGridArea area = new HexGridArea(center.x, center.y, startRadius, maxRadius);
 
@@ -20,6 +20,10 @@ package jsettlers.common.map.shapes;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import jsettlers.common.map.shapes.IMapArea;
 import jsettlers.common.map.shapes.MapCircle;
 import jsettlers.common.map.shapes.MapCircleBorder;
@@ -103,6 +107,47 @@ public class MapAreasTest {
 		testShapeIterator(rect3);
 	}
 
+	@Test
+	public void testTraverseEqualsIterator() {
+		short center = (short) (TEST_WIDTH / 2);
+		IMapArea[] areas = { new MapCircle(center, center, 7.3f), new MapCircleBorder(new MapCircle(center, center, 9)),
+				new HexGridArea(center, center, 0, 6), new HexGridArea(center, center, 3, 8), new HexBorderArea(center, center, (short) 5),
+				new MapNeighboursArea(center, center), new MapRectangle(3, 4, 10, 7), new Parallelogram((short) 2, (short) 3, (short) 9, (short) 8),
+				new MapShapeFilter(new HexGridArea(2, 2, 0, 5), TEST_WIDTH, TEST_WIDTH) };
+
+		for (IMapArea area : areas) {
+			final List<ShortPoint2D> traversed = new ArrayList<ShortPoint2D>();
+			assertTrue(area.traverse(new IMapAreaVisitor() {
+				@Override
+				public boolean visit(int x, int y) {
+					traversed.add(new ShortPoint2D(x, y));
+					return true;
+				}
+			}));
+
+			List<ShortPoint2D> iterated = new ArrayList<ShortPoint2D>();
+			for (ShortPoint2D pos : area) {
+				iterated.add(pos);
+			}
+			assertEquals(area.getClass().getSimpleName(), iterated, traversed);
+		}
+	}
+
+	@Test
+	public void testTraverseCanBeStopped() {
+		final int[] visited = new int[1];
+		boolean completed = new HexGridArea(20, 20, 1, 10).traverse(new IMapAreaVisitor() {
+			@Override
+			public boolean visit(int x, int y) {
+				visited[0]++;
+				return visited[0] < 5;
+			}
+		});
+
+		assertFalse(completed);
+		assertEquals(5, visited[0]);
+	}
+
 	private void testShapeIterator(IMapArea circle) {
 		boolean[][] foundByIterator = new boolean[TEST_WIDTH][TEST_WIDTH];
 
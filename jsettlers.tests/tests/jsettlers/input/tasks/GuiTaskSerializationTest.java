@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.input.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jsettlers.common.buildings.EBuildingType;
+import jsettlers.common.movable.EMovableType;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.network.client.task.packets.TaskPacket;
+
+import org.junit.Test;
+
+/**
+ * Tests the serialization of the GUI tasks with both task encodings.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class GuiTaskSerializationTest {
+	private static final byte PLAYER_ID = 3;
+
+	@Test
+	public void testRoundTrips() throws IOException {
+		List<Integer> selection = Arrays.asList(17, 18, 25, 3, 100345, 100346);
+		TaskPacket[] tasks = {
+				new SimpleGuiTask(EGuiAction.QUICK_SAVE, PLAYER_ID),
+				new MovableGuiTask(EGuiAction.STOP_WORKING, PLAYER_ID, selection),
+				new MoveToGuiTask(PLAYER_ID, new ShortPoint2D(734, 12), selection),
+				new ConvertGuiTask(PLAYER_ID, selection, EMovableType.PIONEER),
+				new ConstructBuildingTask(EGuiAction.BUILD, PLAYER_ID, new ShortPoint2D(45, 812), EBuildingType.LUMBERJACK),
+				new WorkAreaGuiTask(EGuiAction.SET_WORK_AREA, PLAYER_ID, new ShortPoint2D(40, 830), new ShortPoint2D(45, 812)),
+				new DestroyBuildingGuiTask(PLAYER_ID, new ShortPoint2D(23, 34))
+		};
+
+		for (TaskPacket task : tasks) {
+			for (byte encoding : new byte[] { TaskPacket.ENCODING_DEFAULT, TaskPacket.ENCODING_COMPACT }) {
+				task.setEncoding(encoding);
+				TaskPacket deserialized = TaskPacket.DEFAULT_DESERIALIZER.deserialize(null, new DataInputStream(new ByteArrayInputStream(
+						serialize(task))));
+
+				assertEquals(task, deserialized);
+				assertEquals(encoding, deserialized.getEncoding());
+			}
+		}
+	}
+
+	@Test
+	public void testCompactMoveTaskIsSmaller() throws IOException {
+		List<Integer> selection = new ArrayList<Integer>();
+		for (int i = 0; i < 200; i++) {
+			selection.add(5000 + 3 * i);
+		}
+		MoveToGuiTask task = new MoveToGuiTask(PLAYER_ID, new ShortPoint2D(300, 400), selection);
+
+		int defaultLength = serialize(task).length;
+		task.setEncoding(TaskPacket.ENCODING_COMPACT);
+		int compactLength = serialize(task).length;
+
+		assertTrue("default: " + defaultLength + " compact: " + compactLength, compactLength * 3 < defaultLength);
+	}
+
+	private static byte[] serialize(TaskPacket task) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(buffer);
+		task.serialize(dos);
+		dos.flush();
+		return buffer.toByteArray();
+	}
+}
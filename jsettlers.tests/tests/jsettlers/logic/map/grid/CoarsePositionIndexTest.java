@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import jsettlers.common.map.shapes.HexGridArea;
+import jsettlers.common.map.shapes.IMapAreaVisitor;
+import jsettlers.common.position.ShortPoint2D;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that a search with the {@link CoarsePositionIndex} finds the same positions in the same order as iterating a {@link HexGridArea}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class CoarsePositionIndexTest {
+	private static final int WIDTH = 100;
+	private static final int HEIGHT = 90;
+	private static final byte NUMBER_OF_PLAYERS = 3;
+
+	private final CoarsePositionIndex index = new CoarsePositionIndex(WIDTH, HEIGHT);
+	private final byte[] players = new byte[WIDTH * HEIGHT];
+
+	@Before
+	public void setUp() {
+		Arrays.fill(players, (byte) -1);
+
+		Random random = new Random(42);
+		for (int i = 0; i < 1500; i++) {
+			set(random.nextInt(WIDTH), random.nextInt(HEIGHT), (byte) random.nextInt(NUMBER_OF_PLAYERS));
+		}
+		for (int i = 0; i < 500; i++) {
+			clear(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+		}
+	}
+
+	@Test
+	public void testCollectedPositionsMatchHexGridArea() {
+		assertSearches(1, 20, (byte) 0);
+		assertSearches(0, 8, (byte) 1);
+		assertSearches(5, 5, (byte) 2);
+		assertSearches(3, 40, (byte) -1);
+	}
+
+	@Test
+	public void testStoppedTraverse() {
+		HexOrderedPositions result = new HexOrderedPositions();
+		index.collectPositions(50, 45, 1, 20, (byte) -1, result);
+
+		final int[] visited = new int[1];
+		assertFalse(result.traverse(new IMapAreaVisitor() {
+			@Override
+			public boolean visit(int x, int y) {
+				visited[0]++;
+				return visited[0] < 3;
+			}
+		}));
+		assertEquals(3, visited[0]);
+	}
+
+	private void assertSearches(int startRadius, int maxRadius, byte excludedPlayer) {
+		Random random = new Random(startRadius * 31 + maxRadius);
+		for (int i = 0; i < 50; i++) {
+			int x = random.nextInt(WIDTH);
+			int y = random.nextInt(HEIGHT);
+			assertEquals(getExpectedPositions(x, y, startRadius, maxRadius, excludedPlayer),
+					getCollectedPositions(x, y, startRadius, maxRadius, excludedPlayer));
+		}
+	}
+
+	private List<ShortPoint2D> getExpectedPositions(int x, int y, int startRadius, int maxRadius, byte excludedPlayer) {
+		List<ShortPoint2D> expected = new ArrayList<ShortPoint2D>();
+		for (ShortPoint2D pos : new HexGridArea(x, y, startRadius, maxRadius)) {
+			if (0 <= pos.x && pos.x < WIDTH && 0 <= pos.y && pos.y < HEIGHT) {
+				byte player = players[pos.x + pos.y * WIDTH];
+				if (player >= 0 && player != excludedPlayer) {
+					expected.add(pos);
+				}
+			}
+		}
+		return expected;
+	}
+
+	private List<ShortPoint2D> getCollectedPositions(int x, int y, int startRadius, int maxRadius, byte excludedPlayer) {
+		HexOrderedPositions result = new HexOrderedPositions();
+		index.collectPositions(x, y, startRadius, maxRadius, excludedPlayer, result);
+
+		final List<ShortPoint2D> collected = new ArrayList<ShortPoint2D>();
+		result.traverse(new IMapAreaVisitor() {
+			@Override
+			public boolean visit(int x, int y) {
+				collected.add(new ShortPoint2D(x, y));
+				return true;
+			}
+		});
+		return collected;
+	}
+
+	private void set(int x, int y, byte player) {
+		clear(x, y);
+		index.set(x, y, player);
+		players[x + y * WIDTH] = player;
+	}
+
+	private void clear(int x, int y) {
+		byte oldPlayer = players[x + y * WIDTH];
+		if (oldPlayer >= 0) {
+			index.clear(x, y, oldPlayer);
+		}
+		players[x + y * WIDTH] = -1;
+	}
+}
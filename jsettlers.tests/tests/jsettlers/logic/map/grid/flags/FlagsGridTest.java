@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.flags;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests that the pathfinder listener of the {@link FlagsGrid} is only informed about actual blocking changes.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class FlagsGridTest {
+	private final FlagsGrid grid = new FlagsGrid((short) 20, (short) 20);
+	private int changes = 0;
+
+	@Test
+	public void testPathfinderListenerOnlyInformedOnChanges() {
+		grid.setPathfinderBlockingChangedListener(new IBlockingChangedListener() {
+			@Override
+			public void blockingChanged(int x, int y, boolean newBlockingValue) {
+				changes++;
+			}
+		});
+
+		grid.setBlockedAndProtected(5, 5, false);
+		assertEquals(0, changes);
+
+		grid.setBlockedAndProtected(5, 5, true);
+		grid.setBlockedAndProtected(5, 5, true, false);
+		assertEquals(1, changes);
+
+		grid.setBlockedAndProtected(5, 5, false);
+		grid.setBlockedAndProtected(5, 5, false);
+		assertEquals(2, changes);
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.landscape;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import jsettlers.common.landscape.ELandscapeType;
+import jsettlers.common.landscape.EResourceType;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.map.grid.GameStateChecksum;
+import jsettlers.logic.map.grid.flags.FlagsGrid;
+
+import org.junit.Test;
+
+/**
+ * Tests that the incrementally updated {@link GameStateChecksum} of the {@link LandscapeGrid} equals the checksum of a full scan.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class LandscapeGridChecksumTest {
+	private static final short WIDTH = 50;
+	private static final short HEIGHT = 40;
+
+	@Test
+	public void testIncrementalChecksumEqualsFullScan() {
+		GameStateChecksum incrementalChecksum = new GameStateChecksum();
+		LandscapeGrid incrementalGrid = createGrid();
+		incrementalGrid.setGameStateChecksum(incrementalChecksum);
+		changeGrid(incrementalGrid);
+
+		LandscapeGrid scannedGrid = createGrid();
+		changeGrid(scannedGrid);
+		GameStateChecksum scannedChecksum = new GameStateChecksum();
+		scannedGrid.setGameStateChecksum(scannedChecksum);
+
+		assertEquals(scannedChecksum.getChecksum(), incrementalChecksum.getChecksum());
+	}
+
+	@Test
+	public void testRevertedChangeRestoresChecksum() {
+		GameStateChecksum checksum = new GameStateChecksum();
+		LandscapeGrid grid = createGrid();
+		grid.setGameStateChecksum(checksum);
+		changeGrid(grid);
+		long expected = checksum.getChecksum();
+
+		grid.setLandscapeTypeAt(10, 10, ELandscapeType.SAND);
+		assertFalse(expected == checksum.getChecksum());
+
+		grid.setLandscapeTypeAt(10, 10, ELandscapeType.MOUNTAIN);
+		assertEquals(expected, checksum.getChecksum());
+	}
+
+	@Test
+	public void testMovedValueChangesChecksum() {
+		GameStateChecksum checksumA = new GameStateChecksum();
+		LandscapeGrid gridA = createGrid();
+		gridA.setGameStateChecksum(checksumA);
+		gridA.setHeightAt((short) 3, (short) 4, (byte) 5);
+
+		GameStateChecksum checksumB = new GameStateChecksum();
+		LandscapeGrid gridB = createGrid();
+		gridB.setGameStateChecksum(checksumB);
+		gridB.setHeightAt((short) 4, (short) 3, (byte) 5);
+
+		assertFalse(checksumA.getChecksum() == checksumB.getChecksum());
+	}
+
+	private static LandscapeGrid createGrid() {
+		return new LandscapeGrid(WIDTH, HEIGHT, new FlagsGrid(WIDTH, HEIGHT));
+	}
+
+	private static void changeGrid(LandscapeGrid grid) {
+		for (short y = 0; y < HEIGHT; y++) {
+			for (short x = 0; x < WIDTH; x++) {
+				grid.setLandscapeTypeAt(x, y, (x + y) % 3 == 0 ? ELandscapeType.WATER1 : ELandscapeType.GRASS);
+				grid.setHeightAt(x, y, (byte) (x - y));
+			}
+		}
+		grid.setLandscapeTypeAt(10, 10, ELandscapeType.MOUNTAIN);
+		grid.setResourceAt((short) 10, (short) 10, EResourceType.COAL, (byte) 20);
+		grid.tryTakingResource(new ShortPoint2D(10, 10), EResourceType.COAL);
+		grid.flattenAndChangeHeightTowards(20, 20, (byte) 30);
+	}
+}
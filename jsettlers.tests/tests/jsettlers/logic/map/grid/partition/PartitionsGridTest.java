@@ -19,11 +19,16 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
 import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.map.shapes.FreeMapArea;
 import jsettlers.common.map.shapes.MapCircle;
 import jsettlers.common.material.EMaterialType;
 import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.map.grid.flags.IBlockingChangedListener;
 import jsettlers.logic.map.grid.partition.IPartitionsGridBlockingProvider;
 import jsettlers.logic.map.grid.partition.Partition;
 import jsettlers.logic.map.grid.partition.PartitionsGrid;
@@ -73,6 +78,91 @@ public class PartitionsGridTest {
 		}
 	}
 
+	@Test
+	public void testRandomMergesKeepRepresentatives() {
+		Random random = new Random(1);
+		short[] partitions = new short[200];
+		int[] expectedSets = new int[partitions.length];
+		for (int i = 0; i < partitions.length; i++) {
+			partitions[i] = grid.createNewPartition((byte) 1);
+			expectedSets[i] = i;
+		}
+
+		for (int merge = 0; merge < 150; merge++) {
+			int first = random.nextInt(partitions.length);
+			int second = random.nextInt(partitions.length);
+			if (expectedSets[first] == expectedSets[second]) {
+				continue;
+			}
+
+			grid.mergePartitions(partitions[first], partitions[second]);
+
+			int mergedSet = expectedSets[second];
+			for (int i = 0; i < partitions.length; i++) {
+				if (expectedSets[i] == mergedSet) {
+					expectedSets[i] = expectedSets[first];
+				}
+			}
+		}
+
+		for (int i = 0; i < partitions.length; i++) {
+			Partition partition = grid.partitionObjects[partitions[i]];
+			assertEquals(partition, grid.partitionObjects[partition.partitionId]);
+			for (int j = 0; j < partitions.length; j++) {
+				assertEquals(expectedSets[i] == expectedSets[j], partition == grid.partitionObjects[partitions[j]]);
+			}
+		}
+	}
+
+	@Test
+	public void testUnblockingPositions() {
+		final BitSet blocked = new BitSet(WIDTH * HEIGHT);
+		final IBlockingChangedListener[] listener = new IBlockingChangedListener[1];
+		PartitionsGrid grid = new PartitionsGrid(WIDTH, HEIGHT, (byte) 2, new IPartitionsGridBlockingProvider() {
+			@Override
+			public boolean isBlocked(int x, int y) {
+				return blocked.get(x + y * WIDTH);
+			}
+
+			@Override
+			public void registerBlockingChangedListener(IBlockingChangedListener blockingChangedListener) {
+				listener[0] = blockingChangedListener;
+			}
+		});
+
+		for (int y = 0; y < HEIGHT; y++) { // a wall between the two towers
+			blocked.set(100 + y * WIDTH);
+		}
+		blocked.set(70 + 100 * WIDTH);
+
+		grid.addTowerAndOccupyArea((byte) 0, getTowerCircle(70, 100, 40));
+		grid.addTowerAndOccupyArea((byte) 0, getTowerCircle(130, 100, 40));
+		short leftPartition = grid.getPartitionIdAt(60, 100);
+		short rightPartition = grid.getPartitionIdAt(140, 100);
+		assertTrue(leftPartition != rightPartition);
+		assertTrue(leftPartition != grid.getPartitionIdAt(70, 100));
+
+		// unblocking a position inside a partition adds it to the partition
+		blocked.clear(70 + 100 * WIDTH);
+		listener[0].blockingChanged(70, 100, false);
+		assertEquals(leftPartition, grid.getPartitionIdAt(70, 100));
+
+		// unblocking a position that is already part of the partition of its neighbors doesn't change the partition
+		blocked.set(60 + 90 * WIDTH);
+		int numberOfElements = grid.partitionObjects[leftPartition].getNumberOfElements();
+		blocked.clear(60 + 90 * WIDTH);
+		listener[0].blockingChanged(60, 90, false);
+		assertEquals(leftPartition, grid.getPartitionIdAt(60, 90));
+		assertEquals(numberOfElements, grid.partitionObjects[leftPartition].getNumberOfElements());
+
+		// unblocking a position of the wall merges the partitions
+		blocked.clear(100 + 100 * WIDTH);
+		listener[0].blockingChanged(100, 100, false);
+		assertEquals(grid.getPartitionIdAt(60, 100), grid.getPartitionIdAt(140, 100));
+		assertEquals(grid.getPartitionIdAt(60, 100), grid.getPartitionIdAt(100, 100));
+		assertEquals(0, grid.getPlayerIdAt(100, 100));
+	}
+
 	@Test
 	public void testMergeWithAreaAndGoods() {
 		short partition1 = grid.createNewPartition((byte) 1);
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid.partition.manager.datastructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Random;
+
+import jsettlers.common.position.ILocatable;
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.map.grid.partition.manager.datastructures.PositionableList.IMovedVisitor;
+
+import org.junit.Test;
+
+public class BucketedPositionableListTest {
+	private static final int SIZE = 300;
+
+	@Test
+	public void testEmpty() {
+		BucketedPositionableList<Locatable> list = new BucketedPositionableList<Locatable>();
+		assertNull(list.getObjectCloseTo(new ShortPoint2D(10, 10)));
+		assertNull(list.getObjectAt(new ShortPoint2D(10, 10)));
+		assertNull(list.removeObjectNextTo(new ShortPoint2D(10, 10)));
+	}
+
+	@Test
+	public void testTiesAreResolvedByInsertionOrder() {
+		BucketedPositionableList<Locatable> list = new BucketedPositionableList<Locatable>();
+		for (int i = 0; i < 40; i++) { // more objects than the full search limit
+			list.insert(new Locatable(200 + i, 200));
+		}
+		Locatable first = new Locatable(55, 50);
+		Locatable second = new Locatable(45, 50);
+		Locatable third = new Locatable(55, 50);
+		list.insert(first);
+		list.insert(second);
+		list.insert(third);
+
+		ShortPoint2D center = new ShortPoint2D(50, 50);
+		assertSame(first, list.removeObjectNextTo(center));
+		assertSame(second, list.removeObjectNextTo(center));
+		assertSame(third, list.getObjectAt(new ShortPoint2D(55, 50)));
+		assertSame(third, list.removeObjectNextTo(center));
+	}
+
+	@Test
+	public void testSameResultsAsPositionableList() {
+		Random random = new Random(1);
+		PositionableList<Locatable> expected = new PositionableList<Locatable>();
+		BucketedPositionableList<Locatable> list = new BucketedPositionableList<Locatable>();
+
+		for (int round = 0; round < 5000; round++) {
+			ShortPoint2D position = new ShortPoint2D(random.nextInt(SIZE), random.nextInt(SIZE));
+
+			switch (random.nextInt(4)) {
+			case 0:
+			case 1:
+				Locatable locatable = new Locatable(position.x, position.y);
+				expected.insert(locatable);
+				list.insert(locatable);
+				break;
+			case 2:
+				assertSame(expected.removeObjectNextTo(position), list.removeObjectNextTo(position));
+				break;
+			case 3:
+				ShortPoint2D existing = list.isEmpty() ? position : expected.getObjectCloseTo(position).getPos();
+				assertSame(expected.getObjectAt(existing), list.getObjectAt(existing));
+				assertSame(expected.removeObjectAt(existing), list.removeObjectAt(existing));
+				break;
+			}
+			assertSame(expected.getObjectCloseTo(position), list.getObjectCloseTo(position));
+		}
+
+		assertSameOrder(expected, list);
+	}
+
+	@Test
+	public void testMoveAndAddAll() {
+		PositionableList<Locatable> expected = new PositionableList<Locatable>();
+		PositionableList<Locatable> expectedOther = new PositionableList<Locatable>();
+		BucketedPositionableList<Locatable> list = new BucketedPositionableList<Locatable>();
+		BucketedPositionableList<Locatable> other = new BucketedPositionableList<Locatable>();
+
+		Random random = new Random(2);
+		for (int i = 0; i < 100; i++) {
+			Locatable locatable = new Locatable(random.nextInt(20), random.nextInt(20));
+			expected.insert(locatable);
+			list.insert(locatable);
+		}
+
+		final int[] moved = new int[2];
+		for (int x = 0; x < 20; x += 3) {
+			ShortPoint2D position = new ShortPoint2D(x, x);
+			expected.moveObjectsAtPositionTo(position, expectedOther, new IMovedVisitor<Locatable>() {
+				@Override
+				public void visit(Locatable movedObject) {
+					moved[0]++;
+				}
+			});
+			list.moveObjectsAtPositionTo(position, other, new IMovedVisitor<Locatable>() {
+				@Override
+				public void visit(Locatable movedObject) {
+					moved[1]++;
+				}
+			});
+		}
+		assertEquals(moved[0], moved[1]);
+		assertSameOrder(expectedOther, other);
+
+		expectedOther.addAll(expected);
+		other.addAll(list);
+		assertSameOrder(expectedOther, other);
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		BucketedPositionableList<Locatable> list = new BucketedPositionableList<Locatable>();
+		for (int i = 0; i < 50; i++) {
+			list.insert(new Locatable(i * 7 % 30, i * 13 % 30));
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(out);
+		oos.writeObject(list);
+		oos.close();
+
+		@SuppressWarnings("unchecked")
+		BucketedPositionableList<Locatable> readList = (BucketedPositionableList<Locatable>) new ObjectInputStream(new ByteArrayInputStream(
+				out.toByteArray())).readObject();
+
+		assertEquals(list.size(), readList.size());
+		assertEquals(list.getObjectCloseTo(new ShortPoint2D(3, 3)).getPos(), readList.getObjectCloseTo(new ShortPoint2D(3, 3)).getPos());
+		assertEquals(list.toString(), readList.toString());
+	}
+
+	private static void assertSameOrder(PositionableList<Locatable> expected, BucketedPositionableList<Locatable> list) {
+		Iterator<Locatable> iter = list.iterator();
+		for (Locatable locatable : expected) {
+			assertSame(locatable, iter.next());
+		}
+		assertEquals(false, iter.hasNext());
+	}
+
+	private static class Locatable implements ILocatable, Serializable {
+		private static final long serialVersionUID = 1L;
+		private final ShortPoint2D pos;
+
+		Locatable(int x, int y) {
+			this.pos = new ShortPoint2D(x, y);
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return pos;
+		}
+
+		@Override
+		public String toString() {
+			return pos.toString();
+		}
+	}
+}
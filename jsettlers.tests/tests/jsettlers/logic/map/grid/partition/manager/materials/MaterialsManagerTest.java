@@ -14,14 +14,24 @@
  *******************************************************************************/
 package jsettlers.logic.map.grid.partition.manager.materials;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.io.IOException;
+import java.util.ArrayList;
 
 import jsettlers.TestUtils;
+import jsettlers.common.buildings.EBuildingType;
 import jsettlers.common.material.EMaterialType;
 import jsettlers.common.position.ShortPoint2D;
 import jsettlers.logic.map.grid.partition.manager.materials.JoblessSupplierMock;
+import jsettlers.logic.constants.MatchConstants;
 import jsettlers.logic.map.grid.partition.manager.materials.MaterialsManager;
+import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IJoblessSupplier;
+import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IManagerBearer;
+import jsettlers.logic.map.grid.partition.manager.materials.interfaces.IMaterialRequest;
 import jsettlers.logic.map.grid.partition.manager.materials.offers.OffersList;
+import jsettlers.logic.map.grid.partition.manager.materials.requests.MaterialRequestObject;
 import jsettlers.logic.map.grid.partition.manager.settings.PartitionManagerSettings;
 
 import org.junit.Test;
@@ -50,7 +60,153 @@ public class MaterialsManagerTest {
 		TestUtils.serializeAndDeserialize(manager);
 	}
 
-	private ShortPoint2D pos(int x, int y) {
+	@Test
+	public void testBatchedDistributionMinimizesTotalDistance() {
+		RecordingJoblessSupplier jobless = new RecordingJoblessSupplier();
+		OffersList offers = new OffersList();
+		MaterialsManager batchedManager = new MaterialsManager(jobless, offers, new PartitionManagerSettings());
+
+		offers.addOffer(pos(20, 20), EMaterialType.PLANK);
+		offers.addOffer(pos(10, 10), EMaterialType.STONE);
+		batchedManager.addRequestObject(EMaterialType.PLANK, new TestMaterialRequest(pos(40, 40), 5));
+		batchedManager.addRequestObject(EMaterialType.STONE, new TestMaterialRequest(pos(40, 40), 5));
+
+		// greedy assignment of the nearest bearer to the plank offer would result in a total distance of 5 + 16
+		RecordingBearer bearer1 = jobless.add(pos(15, 15));
+		RecordingBearer bearer2 = jobless.add(pos(26, 26));
+
+		distributeBatched(batchedManager);
+
+		assertEquals(pos(10, 10), bearer1.offerPosition);
+		assertEquals(pos(20, 20), bearer2.offerPosition);
+		assertTrue(jobless.isEmpty());
+	}
+
+	@Test
+	public void testBatchedDistributionHandsOutSeveralJobsPerMaterial() {
+		RecordingJoblessSupplier jobless = new RecordingJoblessSupplier();
+		OffersList offers = new OffersList();
+		MaterialsManager batchedManager = new MaterialsManager(jobless, offers, new PartitionManagerSettings());
+
+		for (int i = 0; i < 10; i++) {
+			offers.addOffer(pos(10 + i, 10), EMaterialType.PLANK);
+			jobless.add(pos(10 + i, 20));
+		}
+		batchedManager.addRequestObject(EMaterialType.PLANK, new TestMaterialRequest(pos(40, 40), 6));
+
+		distributeBatched(batchedManager);
+
+		assertEquals(4, jobless.bearers.size()); // the request can only have 6 materials in delivery
+		assertEquals(4, offers.getAmountOf(EMaterialType.PLANK));
+	}
+
+	private static void distributeBatched(MaterialsManager manager) {
+		boolean oldValue = MatchConstants.ENABLE_BATCHED_MATERIAL_DISTRIBUTION;
+		MatchConstants.ENABLE_BATCHED_MATERIAL_DISTRIBUTION = true;
+		try {
+			manager.distributeJobs();
+		} finally {
+			MatchConstants.ENABLE_BATCHED_MATERIAL_DISTRIBUTION = oldValue;
+		}
+	}
+
+	private static class RecordingBearer implements IManagerBearer {
+		private static final long serialVersionUID = 1L;
+
+		private final ShortPoint2D position;
+		ShortPoint2D offerPosition;
+
+		RecordingBearer(ShortPoint2D position) {
+			this.position = position;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return position;
+		}
+
+		@Override
+		public boolean deliver(EMaterialType materialType, ShortPoint2D offerPosition, IMaterialRequest request) {
+			this.offerPosition = offerPosition;
+			request.deliveryAccepted();
+			return true;
+		}
+	}
+
+	private static class RecordingJoblessSupplier implements IJoblessSupplier {
+		private static final long serialVersionUID = 1L;
+
+		final ArrayList<RecordingBearer> bearers = new ArrayList<RecordingBearer>();
+
+		RecordingBearer add(ShortPoint2D position) {
+			RecordingBearer bearer = new RecordingBearer(position);
+			bearers.add(bearer);
+			return bearer;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return bearers.isEmpty();
+		}
+
+		@Override
+		public IManagerBearer removeJoblessCloseTo(ShortPoint2D position) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Iterable<? extends IManagerBearer> getJobless() {
+			return bearers;
+		}
+
+		@Override
+		public void removeJobless(IManagerBearer jobless) {
+			bearers.remove(jobless);
+		}
+	}
+
+	private static class TestMaterialRequest extends MaterialRequestObject {
+		private static final long serialVersionUID = 1L;
+
+		private final ShortPoint2D position;
+		private final short stillNeeded;
+
+		TestMaterialRequest(ShortPoint2D position, int stillNeeded) {
+			this.position = position;
+			this.stillNeeded = (short) stillNeeded;
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return position;
+		}
+
+		@Override
+		protected short getStillNeeded() {
+			return stillNeeded;
+		}
+
+		@Override
+		protected int getInDeliveryable() {
+			return stillNeeded;
+		}
+
+		@Override
+		protected void materialDelivered() {
+		}
+
+		@Override
+		protected boolean isRoundRobinRequest() {
+			return false;
+		}
+
+		@Override
+		protected EBuildingType getBuildingType() {
+			return null;
+		}
+	}
+
+	private static ShortPoint2D pos(int x, int y) {
 		return new ShortPoint2D(x, y);
 	}
 
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.save;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import jsettlers.TestUtils;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.input.PlayerState;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.GameSerializer;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.map.save.IGameCreator.MainGridWithUiSettings;
+import jsettlers.logic.map.save.loader.MapLoader;
+import jsettlers.logic.timer.RescheduleTimer;
+import jsettlers.network.synchronic.random.RandomSingleton;
+import jsettlers.network.synchronic.timer.NetworkTimer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that a game saved with {@link MapList#saveMapAsynchronously(PlayerState[], MainGrid)} loads to the same state as the same game saved with
+ * {@link MapList#saveMap(PlayerState[], MainGrid)}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class AsynchronousSaveTest {
+	private File directory;
+	private MapList mapList;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = File.createTempFile("asynchronousSaves", "");
+		directory.delete();
+		mapList = new MapList(directory);
+
+		TestUtils.setupResourcesManager();
+	}
+
+	@After
+	public void tearDown() {
+		delete(directory);
+	}
+
+	@Test
+	public void testAsynchronousSaveLoadsLikeSynchronousSave() throws IOException, InterruptedException, MapLoadException {
+		RandomSingleton.load(0);
+		MatchConstants.clock = new NetworkTimer(true);
+		MainGridWithUiSettings gridWithUiSettings = MapList.getDefaultList().getMapByName("SoldierFightingTestMap").loadMainGrid(null);
+		MainGrid grid = gridWithUiSettings.getMainGrid();
+		PlayerState[] playerStates = gridWithUiSettings.getPlayerStates();
+		MatchConstants.clock.setTime(12300);
+		RandomSingleton.nextF();
+
+		mapList.saveMap(playerStates, grid);
+		MapLoader synchronousSave = mapList.getSavedMaps().getItems().get(0);
+		mapList.saveMapAsynchronously(playerStates, grid);
+		mapList.awaitPendingSaves();
+
+		List<MapLoader> savegames = mapList.getSavedMaps().getItems();
+		assertEquals(2, savegames.size());
+		MapLoader asynchronousSave = savegames.get(0).getFile().getFileName().equals(synchronousSave.getFile().getFileName()) ? savegames.get(1)
+				: savegames.get(0);
+
+		assertArrayEquals(loadAndSerialize(synchronousSave), loadAndSerialize(asynchronousSave));
+	}
+
+	/**
+	 * Loads the given savegame and serializes the loaded game state again.
+	 */
+	private static byte[] loadAndSerialize(MapLoader savegame) throws MapLoadException, IOException {
+		MatchConstants.clock = new NetworkTimer(true);
+		MainGrid grid = savegame.loadMainGrid(null).getMainGrid();
+
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(outStream);
+		new GameSerializer().save(grid, oos);
+		RescheduleTimer.saveTo(oos);
+		oos.close();
+		return outStream.toByteArray();
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
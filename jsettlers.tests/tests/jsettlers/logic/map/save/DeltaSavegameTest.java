@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2026
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.save;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import jsettlers.TestUtils;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.input.PlayerState;
+import jsettlers.logic.constants.Constants;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.GameSerializer;
+import jsettlers.logic.map.grid.MainGrid;
+import jsettlers.logic.map.save.IGameCreator.MainGridWithUiSettings;
+import jsettlers.logic.map.save.loader.MapLoader;
+import jsettlers.logic.timer.RescheduleTimer;
+import jsettlers.network.synchronic.random.RandomSingleton;
+import jsettlers.network.synchronic.timer.NetworkTimer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Saves a game with {@link MapList#saveMapAsynchronously(PlayerState[], MainGrid)} as checkpoint and delta savegames and loads them again with the
+ * {@link MapLoader}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class DeltaSavegameTest {
+	private int savedDeltaSavesPerCheckpoint;
+	private File directory;
+	private MapList mapList;
+
+	private MainGrid grid;
+	private PlayerState[] playerStates;
+
+	@Before
+	public void setUp() throws IOException, MapLoadException {
+		savedDeltaSavesPerCheckpoint = Constants.DELTA_SAVES_PER_CHECKPOINT;
+		Constants.DELTA_SAVES_PER_CHECKPOINT = 2;
+
+		directory = File.createTempFile("deltaSavegames", "");
+		directory.delete();
+		mapList = new MapList(directory);
+
+		TestUtils.setupResourcesManager();
+		RandomSingleton.load(0);
+		MatchConstants.clock = new NetworkTimer(true);
+		MainGridWithUiSettings gridWithUiSettings = MapList.getDefaultList().getMapByName("SoldierFightingTestMap").loadMainGrid(null);
+		grid = gridWithUiSettings.getMainGrid();
+		playerStates = gridWithUiSettings.getPlayerStates();
+	}
+
+	@After
+	public void tearDown() {
+		Constants.DELTA_SAVES_PER_CHECKPOINT = savedDeltaSavesPerCheckpoint;
+		delete(directory);
+	}
+
+	@Test
+	public void testDeltaSavegameRoundTrip() throws IOException, InterruptedException, MapLoadException {
+		save(grid);
+		changeGameState();
+		int savedTime = MatchConstants.clock.getTime();
+		save(grid);
+		byte[] savedGameState = serializeGameState(grid);
+
+		List<MapLoader> checkpoints = getCheckpoints();
+		List<MapLoader> deltas = getDeltas();
+		assertEquals(1, checkpoints.size());
+		assertEquals(1, deltas.size());
+		assertEquals(checkpoints.get(0).getMapId(), deltas.get(0).getReferencedCheckpointId());
+
+		changeGameState();
+		MatchConstants.clock = new NetworkTimer(true);
+		MainGrid loadedGrid = deltas.get(0).loadMainGrid(null).getMainGrid();
+
+		assertEquals(savedTime, MatchConstants.clock.getTime());
+		assertArrayEquals(savedGameState, serializeGameState(loadedGrid));
+	}
+
+	@Test
+	public void testCheckpointIsNotUsedForOtherGames() throws IOException, InterruptedException, MapLoadException {
+		save(grid);
+		MainGrid loadedGrid = getCheckpoints().get(0).loadMainGrid(null).getMainGrid();
+
+		save(loadedGrid);
+		assertEquals(2, getCheckpoints().size());
+		assertEquals(0, getDeltas().size());
+
+		save(loadedGrid);
+		assertEquals(2, getCheckpoints().size());
+		assertEquals(1, getDeltas().size());
+
+		mapList.resetCheckpoint();
+		save(loadedGrid);
+		assertEquals(3, getCheckpoints().size());
+		assertEquals(1, getDeltas().size());
+	}
+
+	@Test
+	public void testDeletingCheckpointDeletesItsDeltas() throws IOException, InterruptedException {
+		save(grid);
+		save(grid);
+		save(grid);
+		save(grid);
+		assertEquals(2, getCheckpoints().size());
+		assertEquals(2, getDeltas().size());
+
+		MapLoader firstCheckpoint = mapList.getCheckpointLoader(getDeltas().get(0).getReferencedCheckpointId());
+		mapList.deleteLoadableGame(firstCheckpoint);
+		assertEquals(1, getCheckpoints().size());
+		assertEquals(0, getDeltas().size());
+		assertNull(mapList.getCheckpointLoader(firstCheckpoint.getMapId()));
+
+		// the next save must not reference a deleted checkpoint
+		mapList.deleteLoadableGame(getCheckpoints().get(0));
+		save(grid);
+		assertEquals(1, getCheckpoints().size());
+		assertEquals(0, getDeltas().size());
+	}
+
+	private void save(MainGrid grid) throws IOException, InterruptedException {
+		mapList.saveMapAsynchronously(playerStates, grid);
+		mapList.awaitPendingSaves();
+	}
+
+	/**
+	 * Serializes the game state like a savegame does, which covers the grid, the timers, the game clock and the random state.
+	 */
+	private static byte[] serializeGameState(MainGrid grid) throws IOException {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(outStream);
+		new GameSerializer().save(grid, oos);
+		RescheduleTimer.saveTo(oos);
+		oos.close();
+		return outStream.toByteArray();
+	}
+
+	private static void changeGameState() {
+		MatchConstants.clock.setTime(MatchConstants.clock.getTime() + 1000);
+		RandomSingleton.nextF();
+	}
+
+	private List<MapLoader> getCheckpoints() {
+		List<MapLoader> checkpoints = new ArrayList<MapLoader>();
+		for (MapLoader savegame : mapList.getSavedMaps().getItems()) {
+			if (savegame.isCheckpoint()) {
+				checkpoints.add(savegame);
+			}
+		}
+		return checkpoints;
+	}
+
+	private List<MapLoader> getDeltas() {
+		List<MapLoader> deltas = new ArrayList<MapLoader>();
+		for (MapLoader savegame : mapList.getSavedMaps().getItems()) {
+			if (savegame.getReferencedCheckpointId() != null) {
+				deltas.add(savegame);
+			}
+		}
+		return deltas;
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.save;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link SnapshotDelta}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class SnapshotDeltaTest {
+	private final Random random = new Random(123);
+
+	@Test
+	public void testIdenticalSnapshots() throws IOException {
+		byte[] checkpoint = createRandomData(1024 * 1024);
+
+		byte[] delta = encode(checkpoint, checkpoint);
+		assertTrue("delta size: " + delta.length, delta.length < 100);
+		assertArrayEquals(checkpoint, decode(checkpoint, delta));
+	}
+
+	@Test
+	public void testModificationsAndShiftedData() throws IOException {
+		byte[] checkpoint = createRandomData(1024 * 1024);
+
+		// insert some bytes in front, modify the middle and cut the end
+		byte[] snapshot = new byte[checkpoint.length - 5000 + 37];
+		random.nextBytes(snapshot);
+		System.arraycopy(checkpoint, 0, snapshot, 37, checkpoint.length - 5000);
+		for (int i = 500000; i < 500100; i++) {
+			snapshot[i] ^= 0x55;
+		}
+
+		byte[] delta = encode(checkpoint, snapshot);
+		assertTrue("delta size: " + delta.length, delta.length < 100 * 1024);
+		assertArrayEquals(snapshot, decode(checkpoint, delta));
+	}
+
+	@Test
+	public void testUnrelatedAndEmptySnapshots() throws IOException {
+		byte[] checkpoint = createRandomData(200 * 1024);
+		byte[] snapshot = createRandomData(150 * 1024);
+		byte[] empty = new byte[0];
+
+		assertArrayEquals(snapshot, decode(checkpoint, encode(checkpoint, snapshot)));
+		assertArrayEquals(empty, decode(checkpoint, encode(checkpoint, empty)));
+		assertArrayEquals(snapshot, decode(empty, encode(empty, snapshot)));
+	}
+
+	@Test(expected = IOException.class)
+	public void testWrongCheckpoint() throws IOException {
+		byte[] checkpoint = createRandomData(100 * 1024);
+		byte[] snapshot = createRandomData(100 * 1024);
+		byte[] delta = encode(checkpoint, snapshot);
+
+		checkpoint[4711]++;
+		decode(checkpoint, delta);
+	}
+
+	@Test
+	public void testCorruptDeltas() {
+		byte[] checkpoint = createRandomData(64 * 1024);
+		byte[] snapshot = checkpoint.clone();
+		for (int i = 30000; i < 30100; i++) {
+			snapshot[i] ^= 0x55;
+		}
+		byte[] delta;
+		try {
+			delta = encode(checkpoint, snapshot);
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+
+		int corruptDeltas = 0;
+		for (int i = 0; i < delta.length; i++) {
+			for (int corruption : new int[] { 0x01, 0x80, 0xFF }) {
+				byte[] corruptDelta = delta.clone();
+				corruptDelta[i] ^= corruption;
+				try {
+					decode(checkpoint, corruptDelta);
+				} catch (IOException e) {
+					corruptDeltas++;
+				}
+			}
+		}
+		assertTrue("corrupt deltas: " + corruptDeltas, corruptDeltas > 0);
+	}
+
+	private byte[] createRandomData(int length) {
+		byte[] data = new byte[length];
+		random.nextBytes(data);
+		return data;
+	}
+
+	private static byte[] encode(byte[] checkpoint, byte[] snapshot) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DataOutputStream dataOut = new DataOutputStream(out);
+		SnapshotDelta.encode(checkpoint, snapshot, dataOut);
+		dataOut.close();
+		return out.toByteArray();
+	}
+
+	private static byte[] decode(byte[] checkpoint, byte[] delta) throws IOException {
+		return SnapshotDelta.decode(checkpoint, new DataInputStream(new ByteArrayInputStream(delta)));
+	}
+}
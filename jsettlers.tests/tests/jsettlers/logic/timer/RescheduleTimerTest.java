@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jsettlers.common.position.ShortPoint2D;
+import jsettlers.logic.constants.MatchConstants;
+
+import org.junit.Test;
+
+/**
+ * Test for the class {@link RescheduleTimer}.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class RescheduleTimerTest {
+	private static final int TIME_SLICE = 25;
+
+	private final RescheduleTimer timer = new RescheduleTimer();
+	private final List<TestTimerable> executed = new ArrayList<TestTimerable>();
+	private int currentTime = 0;
+
+	@Test
+	public void testExecutionTimes() {
+		int[] delays = { 1, 25, 26, 100, 999, 25000, 51175, 51200, 60000, 400000, 3600000, 20000000 };
+		TestTimerable[] timerables = new TestTimerable[delays.length];
+
+		for (int i = 0; i < delays.length; i++) {
+			timerables[i] = new TestTimerable(-1);
+			timer.addTimerable(timerables[i], delays[i]);
+		}
+
+		runUntil(20000000 + 10 * TIME_SLICE);
+
+		for (int i = 0; i < delays.length; i++) {
+			assertEquals(1, timerables[i].calls);
+			assertEquals((Math.max(1, delays[i] / TIME_SLICE) + 1) * TIME_SLICE, timerables[i].lastCallTime);
+		}
+	}
+
+	@Test
+	public void testRescheduling() {
+		TestTimerable timerable = new TestTimerable(60000);
+		timer.addTimerable(timerable, 100);
+
+		runUntil(125 + 5 * 60000);
+
+		assertEquals(6, timerable.calls);
+		assertEquals(125 + 5 * 60000, timerable.lastCallTime);
+	}
+
+	@Test
+	public void testExecutionOrderInSameTick() {
+		List<TestTimerable> expected = new ArrayList<TestTimerable>();
+		for (int i = 0; i < 20; i++) {
+			TestTimerable timerable = new TestTimerable(-1);
+			expected.add(timerable);
+			timer.addTimerable(timerable, 500);
+		}
+
+		runUntil(1000);
+
+		assertEquals(expected, executed);
+	}
+
+	@Test
+	public void testCancel() {
+		TestTimerable cancelled = new TestTimerable(100);
+		TestTimerable other = new TestTimerable(-1);
+		ScheduledTimerableEntry cancelledEntry = timer.addTimerable(cancelled, 100);
+		timer.addTimerable(other, 100);
+
+		runUntil(250);
+		assertEquals(2, cancelled.calls);
+		assertTrue(cancelledEntry.isScheduled());
+
+		RescheduleTimer.cancel(cancelledEntry);
+		assertFalse(cancelledEntry.isScheduled());
+
+		runUntil(1000);
+		assertEquals(2, cancelled.calls);
+		assertEquals(1, other.calls);
+	}
+
+	@Test
+	public void testCancelDuringExecution() {
+		final ScheduledTimerableEntry[] entry = new ScheduledTimerableEntry[1];
+		TestTimerable timerable = new TestTimerable(100) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public int timerEvent() {
+				RescheduleTimer.cancel(entry[0]);
+				return super.timerEvent();
+			}
+		};
+		entry[0] = timer.addTimerable(timerable, 100);
+
+		runUntil(1000);
+		assertEquals(1, timerable.calls);
+		assertFalse(entry[0].isScheduled());
+	}
+
+	@Test
+	public void testNonPositiveDelaysAreNotScheduled() {
+		assertNull(timer.addTimerable(new TestTimerable(-1), 0));
+		assertNull(timer.addTimerable(new TestTimerable(-1), -5));
+
+		runUntil(1000);
+		assertTrue(executed.isEmpty());
+	}
+
+	@Test
+	public void testParallelPreparation() {
+		List<PreparableTestTimerable> timerables = new ArrayList<PreparableTestTimerable>();
+		for (int i = 0; i < 200; i++) {
+			PreparableTestTimerable timerable = new PreparableTestTimerable(i);
+			timerables.add(timerable);
+			timer.addTimerable(timerable, 100);
+		}
+
+		MatchConstants.ENABLE_PARALLEL_TIMERABLE_PREPARATION = true;
+		try {
+			runUntil(1000);
+		} finally {
+			MatchConstants.ENABLE_PARALLEL_TIMERABLE_PREPARATION = false;
+		}
+
+		assertEquals(timerables, executed);
+		for (PreparableTestTimerable timerable : timerables) {
+			assertTrue(timerable.preparedBeforeExecution);
+		}
+	}
+
+	private void runUntil(int time) {
+		while (currentTime < time) {
+			currentTime += TIME_SLICE;
+			timer.timerEvent();
+		}
+	}
+
+	private class TestTimerable implements IScheduledTimerable {
+		private static final long serialVersionUID = 1L;
+
+		private final int rescheduleDelay;
+		int calls = 0;
+		int lastCallTime = -1;
+
+		TestTimerable(int rescheduleDelay) {
+			this.rescheduleDelay = rescheduleDelay;
+		}
+
+		@Override
+		public int timerEvent() {
+			calls++;
+			lastCallTime = currentTime;
+			executed.add(this);
+			return rescheduleDelay;
+		}
+
+		@Override
+		public void kill() {
+		}
+	}
+
+	private class PreparableTestTimerable extends TestTimerable implements IPreparableTimerable {
+		private static final long serialVersionUID = 1L;
+
+		private final ShortPoint2D pos;
+		private volatile boolean prepared = false;
+		boolean preparedBeforeExecution = false;
+
+		PreparableTestTimerable(int index) {
+			super(-1);
+			this.pos = new ShortPoint2D(index * 7 % 300, index * 13 % 300);
+		}
+
+		@Override
+		public void prepareTimerEvent() {
+			prepared = true;
+		}
+
+		@Override
+		public int timerEvent() {
+			preparedBeforeExecution = prepared;
+			return super.timerEvent();
+		}
+
+		@Override
+		public ShortPoint2D getPos() {
+			return pos;
+		}
+	}
+}
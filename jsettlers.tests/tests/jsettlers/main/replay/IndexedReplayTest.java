@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.replay;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import jsettlers.main.ReplayStartInformation;
+import jsettlers.network.NetworkConstants;
+import jsettlers.network.client.task.packets.SyncTasksPacket;
+import jsettlers.network.client.task.packets.TaskPacket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link IndexedReplayWriter} and {@link IndexedReplay} container.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class IndexedReplayTest {
+	private static final int PERIOD = NetworkConstants.Client.LOCKSTEP_PERIOD;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("indexedReplay", ".log");
+
+		IndexedReplayWriter writer = new IndexedReplayWriter(file, new ReplayStartInformation(4711, "name", "id", 1, new boolean[] { true, false }, 3));
+		writer.writeTasksPacket(createPacket(0));
+		writer.writeTasksPacket(createPacket(3));
+		writer.writeSnapshot(5 * PERIOD, new byte[] { 1, 2, 3 });
+		writer.writeTasksPacket(createPacket(7));
+		writer.writeSnapshot(10 * PERIOD, new byte[] { 4, 5 });
+		writer.writeTasksPacket(createPacket(10));
+		writer.writeTasksPacket(createPacket(12));
+		writer.close();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testStartInformationAndSnapshots() throws IOException {
+		IndexedReplay replay = new IndexedReplay(file);
+
+		assertEquals(4711, replay.getStartInformation().getRandomSeed());
+		assertEquals("id", replay.getStartInformation().getMapId());
+		assertEquals(1, replay.getStartInformation().getPlayerId());
+		assertEquals(3, replay.getStartInformation().getSimulationFlags());
+
+		assertArrayEquals(new int[] { 5 * PERIOD, 10 * PERIOD }, replay.getSnapshotTimes());
+		assertEquals(-1, replay.findSnapshotBefore(5 * PERIOD - 1));
+		assertEquals(0, replay.findSnapshotBefore(5 * PERIOD));
+		assertEquals(0, replay.findSnapshotBefore(10 * PERIOD - 1));
+		assertEquals(1, replay.findSnapshotBefore(Integer.MAX_VALUE));
+
+		assertArrayEquals(new byte[] { 1, 2, 3 }, replay.readSnapshot(0));
+		assertArrayEquals(new byte[] { 4, 5 }, replay.readSnapshot(1));
+		replay.close();
+	}
+
+	@Test
+	public void testTasksAfter() throws IOException {
+		IndexedReplay replay = new IndexedReplay(file);
+
+		assertEquals(createLocksteps(0, 3, 7, 10, 12), readLocksteps(replay.getTasksAfter(-1)));
+		assertEquals(createLocksteps(7, 10, 12), readLocksteps(replay.getTasksAfter(5 * PERIOD)));
+		assertEquals(createLocksteps(12), readLocksteps(replay.getTasksAfter(10 * PERIOD)));
+		assertEquals(createLocksteps(), readLocksteps(replay.getTasksAfter(12 * PERIOD)));
+		replay.close();
+	}
+
+	private static SyncTasksPacket createPacket(int lockstep) {
+		return new SyncTasksPacket(lockstep, new LinkedList<TaskPacket>());
+	}
+
+	private static List<Integer> createLocksteps(int... locksteps) {
+		List<Integer> result = new ArrayList<Integer>();
+		for (int lockstep : locksteps) {
+			result.add(lockstep);
+		}
+		return result;
+	}
+
+	private static List<Integer> readLocksteps(DataInputStream stream) throws IOException {
+		List<Integer> locksteps = new ArrayList<Integer>();
+		while (stream.available() > 0) {
+			SyncTasksPacket packet = new SyncTasksPacket();
+			packet.deserialize(stream);
+			locksteps.add(packet.getLockstepNumber());
+		}
+		return locksteps;
+	}
+}
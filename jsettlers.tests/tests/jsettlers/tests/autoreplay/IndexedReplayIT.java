@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.tests.autoreplay;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import jsettlers.TestUtils;
+import jsettlers.common.CommonConstants;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.graphics.startscreen.interfaces.IStartedGame;
+import jsettlers.logic.constants.Constants;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.grid.GameSerializer;
+import jsettlers.logic.timer.RescheduleTimer;
+import jsettlers.main.JSettlersGame.GameRunner;
+import jsettlers.main.replay.IndexedReplay;
+import jsettlers.main.replay.ReplayTool;
+
+import org.junit.Test;
+
+/**
+ * Tests that a game started from a snapshot of an {@link IndexedReplay} reaches the same state as the full replay.
+ *
+ * @author Andreas Eberle
+ *
+ */
+public class IndexedReplayIT {
+	static {
+		CommonConstants.ENABLE_CONSOLE_LOGGING = true;
+		CommonConstants.CONTROL_ALL = true;
+
+		TestUtils.setupResourcesManager();
+	}
+
+	private static final File REPLAY_FILE = new File("resources/autoreplay/fighting-testmap/replay.log");
+	private static final int SNAPSHOT_INTERVAL_MS = 2 * 60 * 1000;
+	private static final int LAST_SNAPSHOT_TIME_MS = 4 * 60 * 1000;
+	private static final int TARGET_TIME_MS = 5 * 60 * 1000;
+
+	@Test
+	public void testStartAtSnapshotEqualsFullReplay() throws IOException, MapLoadException {
+		Constants.FOG_OF_WAR_DEFAULT_ENABLED = false;
+
+		File indexedReplayFile = File.createTempFile("indexedReplay", ".log");
+		try {
+			ReplayTool.createIndexedReplay(REPLAY_FILE, indexedReplayFile, SNAPSHOT_INTERVAL_MS, LAST_SNAPSHOT_TIME_MS);
+
+			IndexedReplay indexedReplay = new IndexedReplay(indexedReplayFile);
+			assertEquals(1, indexedReplay.findSnapshotBefore(TARGET_TIME_MS));
+			indexedReplay.close();
+
+			IStartedGame fullReplay = ReplayTool.startPausedReplay(REPLAY_FILE);
+			MatchConstants.clock.fastForwardTo(TARGET_TIME_MS);
+			byte[] expected = serializeGameState(fullReplay);
+			ReplayTool.awaitShutdown(fullReplay);
+
+			IStartedGame snapshotReplay = ReplayTool.startIndexedReplayAt(indexedReplayFile, TARGET_TIME_MS);
+			assertEquals(TARGET_TIME_MS, MatchConstants.clock.getTime());
+			byte[] actual = serializeGameState(snapshotReplay);
+			ReplayTool.awaitShutdown(snapshotReplay);
+
+			assertArrayEquals(expected, actual);
+		} finally {
+			indexedReplayFile.delete();
+		}
+	}
+
+	/**
+	 * Serializes the game state the same way a savegame does, but without the {@link jsettlers.input.PlayerState}s. Their screen positions are taken
+	 * from the first tower of {@link jsettlers.logic.buildings.Building#getAllBuildings()}, whose order is rebuilt when a game is loaded.
+	 */
+	private static byte[] serializeGameState(IStartedGame startedGame) throws IOException {
+		ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(outStream);
+		new GameSerializer().save(((GameRunner) startedGame).getMainGrid(), oos);
+		RescheduleTimer.saveTo(oos);
+		oos.close();
+		return outStream.toByteArray();
+	}
+}
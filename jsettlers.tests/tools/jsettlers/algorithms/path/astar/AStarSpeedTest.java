@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.algorithms.path.astar;
+
+import java.util.Random;
+
+import jsettlers.algorithms.partitions.IBlockingProvider;
+import jsettlers.algorithms.path.IPathCalculatable;
+import jsettlers.algorithms.path.Path;
+import jsettlers.common.Color;
+import jsettlers.common.movable.EDirection;
+import jsettlers.common.position.ShortPoint2D;
+
+/**
+ * Measures the time needed by the pathfinders for short, medium and long paths on a generated map with random obstacles.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class AStarSpeedTest {
+	private static final short SIZE = 1024;
+	private static final int OBSTACLES = 4000;
+	private static final int MAX_OBSTACLE_RADIUS = 6;
+	private static final int SEARCHES = 2000;
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int ROUNDS = 10;
+
+	private static int blackhole;
+
+	public static void main(String[] args) {
+		Random random = new Random(0);
+		GeneratedMap map = new GeneratedMap(SIZE, SIZE, random);
+
+		BucketQueueAStar aStar = new BucketQueueAStar(map, SIZE, SIZE);
+		BucketQueueAStar debugColoringAStar = new BucketQueueAStar(map, SIZE, SIZE, true);
+		HierarchicalAStar hierarchicalAStar = new HierarchicalAStar(map, map, SIZE, SIZE);
+
+		int[][] shortPaths = createSearches(map, random, 3, 20);
+		int[][] mediumPaths = createSearches(map, random, 20, 100);
+		int[][] longPaths = createSearches(map, random, 100, 600);
+
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			search(aStar, shortPaths);
+			search(aStar, mediumPaths);
+			search(debugColoringAStar, shortPaths);
+			search(hierarchicalAStar, longPaths);
+		}
+
+		System.out.println("short paths:                      " + measure(aStar, shortPaths) + " us / search");
+		System.out.println("short paths (debug coloring):     " + measure(debugColoringAStar, shortPaths) + " us / search");
+		System.out.println("medium paths:                     " + measure(aStar, mediumPaths) + " us / search");
+		System.out.println("medium paths (hierarchical):      " + measure(hierarchicalAStar, mediumPaths) + " us / search");
+		System.out.println("long paths:                       " + measure(aStar, longPaths) + " us / search");
+		System.out.println("long paths (hierarchical):        " + measure(hierarchicalAStar, longPaths) + " us / search");
+		System.out.println(blackhole);
+	}
+
+	private static int[][] createSearches(GeneratedMap map, Random random, int minDistance, int maxDistance) {
+		int[][] searches = new int[SEARCHES][];
+		for (int i = 0; i < SEARCHES;) {
+			int sx = random.nextInt(SIZE);
+			int sy = random.nextInt(SIZE);
+			int tx = sx + random.nextInt(2 * maxDistance + 1) - maxDistance;
+			int ty = sy + random.nextInt(2 * maxDistance + 1) - maxDistance;
+
+			int distance = ShortPoint2D.getOnGridDist(tx - sx, ty - sy);
+			if (tx >= 0 && tx < SIZE && ty >= 0 && ty < SIZE && distance >= minDistance && distance <= maxDistance && !map.isBlocked(sx, sy)
+					&& !map.isBlocked(tx, ty)) {
+				searches[i++] = new int[] { sx, sy, tx, ty };
+			}
+		}
+		return searches;
+	}
+
+	private static double measure(AbstractAStar aStar, int[][] searches) {
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			search(aStar, searches);
+		}
+		return (System.nanoTime() - start) / 1e3 / ROUNDS / searches.length;
+	}
+
+	private static void search(AbstractAStar aStar, int[][] searches) {
+		for (int[] search : searches) {
+			Path path = aStar.findPath(REQUESTER, (short) search[0], (short) search[1], (short) search[2], (short) search[3]);
+			if (path != null) {
+				blackhole += path.getLength();
+			}
+		}
+	}
+
+	private static final IPathCalculatable REQUESTER = new IPathCalculatable() {
+		@Override
+		public ShortPoint2D getPos() {
+			return null;
+		}
+
+		@Override
+		public byte getPlayerId() {
+			return 0;
+		}
+
+		@Override
+		public boolean needsPlayersGround() {
+			return false;
+		}
+	};
+
+	/**
+	 * Map with randomly placed round obstacles.
+	 * 
+	 * @author Andreas Eberle
+	 * 
+	 */
+	private static class GeneratedMap implements IAStarPathMap, IBlockingProvider {
+		private final short width;
+		private final short height;
+		private final boolean[] blocked;
+		private final short[] partitions;
+		private int markedCounter;
+
+		GeneratedMap(short width, short height, Random random) {
+			this.width = width;
+			this.height = height;
+			this.blocked = new boolean[width * height];
+			this.partitions = new short[width * height];
+
+			for (int i = 0; i < OBSTACLES; i++) {
+				int cx = random.nextInt(width);
+				int cy = random.nextInt(height);
+				int radius = 1 + random.nextInt(MAX_OBSTACLE_RADIUS);
+
+				for (int y = Math.max(0, cy - radius); y <= Math.min(height - 1, cy + radius); y++) {
+					for (int x = Math.max(0, cx - radius); x <= Math.min(width - 1, cx + radius); x++) {
+						if ((x - cx) * (x - cx) + (y - cy) * (y - cy) <= radius * radius) {
+							blocked[x + y * width] = true;
+						}
+					}
+				}
+			}
+
+			calculateBlockedPartitions();
+		}
+
+		/**
+		 * Labels the connected areas of free positions, like the blocked partitions of the game, so searches for unreachable targets stop early.
+		 */
+		private void calculateBlockedPartitions() {
+			byte[] xDeltas = EDirection.getXDeltaArray();
+			byte[] yDeltas = EDirection.getYDeltaArray();
+			int[] queue = new int[blocked.length];
+			short partition = 0;
+
+			for (int start = 0; start < blocked.length; start++) {
+				if (blocked[start] || partitions[start] != 0) {
+					continue;
+				}
+
+				partition++;
+				partitions[start] = partition;
+				queue[0] = start;
+				int queueStart = 0;
+				int queueEnd = 1;
+
+				while (queueStart < queueEnd) {
+					int idx = queue[queueStart++];
+					int x = idx % width;
+					int y = idx / width;
+					for (int i = 0; i < EDirection.NUMBER_OF_DIRECTIONS; i++) {
+						int nx = x + xDeltas[i];
+						int ny = y + yDeltas[i];
+						int neighborIdx = nx + ny * width;
+						if (nx >= 0 && nx < width && ny >= 0 && ny < height && !blocked[neighborIdx] && partitions[neighborIdx] == 0) {
+							partitions[neighborIdx] = partition;
+							queue[queueEnd++] = neighborIdx;
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		public boolean isBlocked(int x, int y) {
+			return blocked[x + y * width];
+		}
+
+		@Override
+		public boolean isBlocked(IPathCalculatable requester, int x, int y) {
+			return blocked[x + y * width];
+		}
+
+		@Override
+		public float getCost(int sx, int sy, int tx, int ty) {
+			return 1;
+		}
+
+		@Override
+		public void markAsOpen(int x, int y) {
+			markedCounter++;
+		}
+
+		@Override
+		public void markAsClosed(int x, int y) {
+			markedCounter++;
+		}
+
+		@Override
+		public void setDebugColor(int x, int y, Color color) {
+		}
+
+		@Override
+		public short getBlockedPartition(int x, int y) {
+			return partitions[x + y * width];
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.common.map.grid;
+
+import java.util.Random;
+
+/**
+ * Compares the speed of the fog of war access patterns on a byte[x][y] array and on a {@link TiledByteGrid}.
+ * <p />
+ * The rebuild benchmark dims down every tile and draws view circles, like the fog of war does in each cycle. The read benchmark reads the grid row
+ * by row in y, like the background drawing does.
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class TiledByteGridSpeedTest {
+	private static final short SIZE = 1024;
+	private static final int CIRCLES = 8000;
+	private static final int RADIUS = 20;
+	private static final int WARMUP_ROUNDS = 10;
+	private static final int ROUNDS = 30;
+
+	private static final int[] circleX = new int[CIRCLES];
+	private static final int[] circleY = new int[CIRCLES];
+
+	private static int blackhole;
+
+	public static void main(String[] args) {
+		Random random = new Random(0);
+		for (int i = 0; i < CIRCLES; i++) {
+			circleX[i] = random.nextInt(SIZE);
+			circleY[i] = random.nextInt(SIZE);
+		}
+
+		byte[][] arrays = new byte[SIZE][SIZE];
+		TiledByteGrid grid = new TiledByteGrid(SIZE, SIZE);
+
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			rebuild(arrays);
+			rebuild(grid);
+			read(arrays);
+			read(grid);
+		}
+
+		System.out.println("rebuild byte[][]:      " + measureRebuild(arrays) + " ms");
+		System.out.println("rebuild TiledByteGrid: " + measureRebuild(grid) + " ms");
+		System.out.println("read byte[][]:         " + measureRead(arrays) + " ms");
+		System.out.println("read TiledByteGrid:    " + measureRead(grid) + " ms");
+		System.out.println(blackhole);
+	}
+
+	private static double measureRebuild(byte[][] arrays) {
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			rebuild(arrays);
+		}
+		return (System.nanoTime() - start) / 1e6 / ROUNDS;
+	}
+
+	private static double measureRebuild(TiledByteGrid grid) {
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			rebuild(grid);
+		}
+		return (System.nanoTime() - start) / 1e6 / ROUNDS;
+	}
+
+	private static double measureRead(byte[][] arrays) {
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			read(arrays);
+		}
+		return (System.nanoTime() - start) / 1e6 / ROUNDS;
+	}
+
+	private static double measureRead(TiledByteGrid grid) {
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			read(grid);
+		}
+		return (System.nanoTime() - start) / 1e6 / ROUNDS;
+	}
+
+	private static void rebuild(byte[][] arrays) {
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				arrays[x][y] = (byte) Math.max(arrays[x][y] - 10, 50);
+			}
+		}
+
+		for (int i = 0; i < CIRCLES; i++) {
+			for (int dy = -RADIUS; dy <= RADIUS; dy++) {
+				int y = circleY[i] + dy;
+				for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+					int x = circleX[i] + dx;
+					if (x >= 0 && x < SIZE && y >= 0 && y < SIZE && dx * dx + dy * dy <= RADIUS * RADIUS) {
+						arrays[x][y] = 100;
+					}
+				}
+			}
+		}
+	}
+
+	private static void rebuild(TiledByteGrid grid) {
+		for (int i = 0, size = grid.getSize(); i < size; i++) {
+			grid.set(i, (byte) Math.max(grid.get(i) - 10, 50));
+		}
+
+		for (int i = 0; i < CIRCLES; i++) {
+			for (int dy = -RADIUS; dy <= RADIUS; dy++) {
+				int y = circleY[i] + dy;
+				for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+					int x = circleX[i] + dx;
+					if (x >= 0 && x < SIZE && y >= 0 && y < SIZE && dx * dx + dy * dy <= RADIUS * RADIUS) {
+						grid.set(x, y, (byte) 100);
+					}
+				}
+			}
+		}
+	}
+
+	private static void read(byte[][] arrays) {
+		int sum = 0;
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				sum += arrays[x][y];
+			}
+		}
+		blackhole += sum;
+	}
+
+	private static void read(TiledByteGrid grid) {
+		int sum = 0;
+		for (int y = 0; y < SIZE; y++) {
+			for (int x = 0; x < SIZE; x++) {
+				sum += grid.get(x, y);
+			}
+		}
+		blackhole += sum;
+	}
+}
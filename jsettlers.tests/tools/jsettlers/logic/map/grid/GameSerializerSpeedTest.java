@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.logic.map.grid;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import jsettlers.TestUtils;
+import jsettlers.common.map.MapLoadException;
+import jsettlers.logic.buildings.Building;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.logic.map.save.MapList;
+import jsettlers.logic.map.save.loader.MapLoader;
+import jsettlers.logic.movable.Movable;
+import jsettlers.network.synchronic.random.RandomSingleton;
+import jsettlers.network.synchronic.timer.NetworkTimer;
+
+/**
+ * Measures how much of the time of a savegame is spent on the primitive arrays of the grids and whether writing them as raw blocks instead of with
+ * Java serialization would pay off.
+ * <p />
+ * The first part saves and loads the complete {@link MainGrid} with the {@link GameSerializer}, for a small and a big map. The second part writes
+ * and reads arrays of the size and type of those in {@link jsettlers.logic.map.grid.landscape.LandscapeGrid},
+ * {@link jsettlers.logic.map.grid.flags.FlagsGrid} and {@link jsettlers.logic.map.grid.partition.PartitionsGrid} once with an
+ * {@link ObjectOutputStream} and once as raw blocks through a {@link ByteBuffer}.
+ *
+ * @author Andreas Eberle
+ *
+ */
+public class GameSerializerSpeedTest {
+	private static final int BYTE_ARRAYS = 6; // heights, landscapes, resource amounts, flattened, resource types and towers
+	private static final int SHORT_ARRAYS = 2; // blocked partitions and partitions
+	private static final int BIT_SETS = 3; // blocked, marked and protected
+	private static final int WARMUP_ROUNDS = 30;
+	private static final int ROUNDS = 30;
+
+	private static int blackhole;
+
+	public static void main(String[] args) throws MapLoadException, IOException {
+		TestUtils.setupResourcesManager();
+		RandomSingleton.load(0);
+		MatchConstants.clock = new NetworkTimer(true);
+
+		measure("SoldierFightingTestMap", MapList.getDefaultList().getMapByName("SoldierFightingTestMap"));
+		measure("Nice Map", MapList.getDefaultList().getMapByName("Nice Map"));
+		System.out.println(blackhole);
+
+		System.exit(0);
+	}
+
+	private static void measure(String name, MapLoader map) throws MapLoadException, IOException {
+		final MainGrid grid = map.loadMainGrid(null).getMainGrid();
+		MainGridDataAccessor gridAccessor = new MainGridDataAccessor(grid);
+		final int size = gridAccessor.getWidth() * gridAccessor.getHeight();
+		final GridArrays arrays = new GridArrays(size, new Random(0));
+
+		final byte[] savegame = saveGame(grid);
+		final byte[] serializedArrays = writeSerialized(arrays);
+		final ByteBuffer rawArrays = writeRaw(arrays);
+
+		System.out.println(name + " (" + gridAccessor.getWidth() + "x" + gridAccessor.getHeight() + "):");
+		System.out.println("  complete savegame:  " + savegame.length / 1024 + " KiB");
+		System.out.println("  arrays of grids:    " + serializedArrays.length / 1024 + " KiB");
+		System.out.println("  save game:          " + new Benchmark() {
+			@Override
+			int run() throws Exception {
+				return saveGame(grid).length;
+			}
+		}.measure() + " ms");
+		System.out.println("  load game:          " + new Benchmark() {
+			@Override
+			int run() throws Exception {
+				MainGrid loadedGrid = new GameSerializer().load(new ObjectInputStream(new ByteArrayInputStream(savegame)));
+				Movable.resetState(); // like at the end of a game, otherwise the movables and buildings of all loaded grids are kept
+				Building.dropAllBuildings();
+				return new MainGridDataAccessor(loadedGrid).getHeight();
+			}
+		}.measure() + " ms");
+		System.out.println("  write serialized:   " + new Benchmark() {
+			@Override
+			int run() throws Exception {
+				return writeSerialized(arrays).length;
+			}
+		}.measure() + " ms");
+		System.out.println("  write raw:          " + new Benchmark() {
+			@Override
+			int run() throws Exception {
+				return writeRaw(arrays).limit();
+			}
+		}.measure() + " ms");
+		System.out.println("  read serialized:    " + new Benchmark() {
+			@Override
+			int run() throws Exception {
+				return readSerialized(serializedArrays);
+			}
+		}.measure() + " ms");
+		System.out.println("  read raw:           " + new Benchmark() {
+			@Override
+			int run() throws Exception {
+				return readRaw(rawArrays.duplicate(), size);
+			}
+		}.measure() + " ms");
+	}
+
+	private static byte[] saveGame(MainGrid grid) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(buffer);
+		new GameSerializer().save(grid, oos);
+		oos.close();
+		return buffer.toByteArray();
+	}
+
+	private static byte[] writeSerialized(GridArrays arrays) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(buffer);
+		for (byte[] array : arrays.byteArrays) {
+			oos.writeObject(array);
+		}
+		for (short[] array : arrays.shortArrays) {
+			oos.writeObject(array);
+		}
+		for (BitSet bitSet : arrays.bitSets) {
+			oos.writeObject(bitSet);
+		}
+		oos.close();
+		return buffer.toByteArray();
+	}
+
+	private static ByteBuffer writeRaw(GridArrays arrays) {
+		int size = arrays.byteArrays[0].length;
+		ByteBuffer buffer = ByteBuffer.allocate(BYTE_ARRAYS * size + SHORT_ARRAYS * 2 * size + BIT_SETS * (4 + size / 8 + 8));
+		for (byte[] array : arrays.byteArrays) {
+			buffer.put(array);
+		}
+		for (short[] array : arrays.shortArrays) {
+			buffer.asShortBuffer().put(array);
+			buffer.position(buffer.position() + 2 * array.length);
+		}
+		for (BitSet bitSet : arrays.bitSets) {
+			long[] words = bitSet.toLongArray();
+			buffer.putInt(words.length);
+			buffer.asLongBuffer().put(words);
+			buffer.position(buffer.position() + 8 * words.length);
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private static int readSerialized(byte[] serializedArrays) throws IOException, ClassNotFoundException {
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serializedArrays));
+		int result = 0;
+		for (int i = 0; i < BYTE_ARRAYS; i++) {
+			result += ((byte[]) ois.readObject()).length;
+		}
+		for (int i = 0; i < SHORT_ARRAYS; i++) {
+			result += ((short[]) ois.readObject()).length;
+		}
+		for (int i = 0; i < BIT_SETS; i++) {
+			result += ((BitSet) ois.readObject()).size();
+		}
+		return result;
+	}
+
+	private static int readRaw(ByteBuffer buffer, int size) {
+		int result = 0;
+		for (int i = 0; i < BYTE_ARRAYS; i++) {
+			byte[] array = new byte[size];
+			buffer.get(array);
+			result += array.length;
+		}
+		for (int i = 0; i < SHORT_ARRAYS; i++) {
+			short[] array = new short[size];
+			buffer.asShortBuffer().get(array);
+			buffer.position(buffer.position() + 2 * size);
+			result += array.length;
+		}
+		for (int i = 0; i < BIT_SETS; i++) {
+			long[] words = new long[buffer.getInt()];
+			buffer.asLongBuffer().get(words);
+			buffer.position(buffer.position() + 8 * words.length);
+			result += BitSet.valueOf(words).size();
+		}
+		return result;
+	}
+
+	/**
+	 * Runs an operation until it is compiled and returns the median of the following runs, so single garbage collections don't distort the result.
+	 */
+	private static abstract class Benchmark {
+		abstract int run() throws Exception;
+
+		double measure() {
+			try {
+				for (int i = 0; i < WARMUP_ROUNDS; i++) {
+					blackhole += run();
+				}
+
+				double[] times = new double[ROUNDS];
+				for (int i = 0; i < ROUNDS; i++) {
+					long start = System.nanoTime();
+					blackhole += run();
+					times[i] = (System.nanoTime() - start) / 1e6;
+				}
+				Arrays.sort(times);
+				return times[ROUNDS / 2];
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	/**
+	 * Arrays of the size and types of the primitive arrays of the grids. The values are random, because neither Java serialization nor the raw blocks
+	 * depend on them.
+	 */
+	private static class GridArrays {
+		final byte[][] byteArrays = new byte[BYTE_ARRAYS][];
+		final short[][] shortArrays = new short[SHORT_ARRAYS][];
+		final BitSet[] bitSets = new BitSet[BIT_SETS];
+
+		GridArrays(int size, Random random) {
+			for (int i = 0; i < BYTE_ARRAYS; i++) {
+				byteArrays[i] = new byte[size];
+				random.nextBytes(byteArrays[i]);
+			}
+			for (int i = 0; i < SHORT_ARRAYS; i++) {
+				shortArrays[i] = new short[size];
+				for (int j = 0; j < size; j++) {
+					shortArrays[i][j] = (short) random.nextInt();
+				}
+			}
+			for (int i = 0; i < BIT_SETS; i++) {
+				bitSets[i] = new BitSet(size);
+				for (int j = 0; j < size; j++) {
+					bitSets[i].set(j, random.nextBoolean());
+				}
+			}
+		}
+	}
+}
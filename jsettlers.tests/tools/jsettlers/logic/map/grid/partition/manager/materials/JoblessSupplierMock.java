@@ -66,4 +66,13 @@ public class JoblessSupplierMock implements IJoblessSupplier {
 		return closest;
 	}
 
+	@Override
+	public Iterable<? extends IManagerBearer> getJobless() {
+		return jobless;
+	}
+
+	@Override
+	public void removeJobless(IManagerBearer bearer) {
+		jobless.remove(bearer);
+	}
 }
@@ -166,6 +166,18 @@ public class MovableTestsMap implements IGraphicsGrid, IAStarPathMap {
 			return aStar.findPath(pathRequester, targetPos);
 		}
 
+		@Override
+		public boolean canCalculatePathConcurrently(IPathCalculatable pathRequester, ShortPoint2D targetPos) {
+			return false;
+		}
+
+		@Override
+		public Path calculatePathToConcurrently(IPathCalculatable pathRequester, ShortPoint2D targetPos) {
+			synchronized (aStar) {
+				return aStar.findPath(pathRequester, targetPos);
+			}
+		}
+
 		@Override
 		public void addJobless(IManageableBearer bearer) {
 			if (!materials.isEmpty()) {
@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (c) 2015
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ *******************************************************************************/
+package jsettlers.main.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jsettlers.TestUtils;
+import jsettlers.common.CommonConstants;
+import jsettlers.graphics.startscreen.interfaces.IStartedGame;
+import jsettlers.logic.constants.Constants;
+import jsettlers.logic.constants.MatchConstants;
+import jsettlers.network.synchronic.timer.NetworkTimer;
+import jsettlers.network.synchronic.timer.TimerableStatistics;
+
+/**
+ * Headless benchmark replaying the autoreplay fixtures as fast as possible. For every fixture the simulated milliseconds per wall clock
+ * millisecond, the CPU time per thread and per timerable, the allocated bytes and the garbage collections are reported as JSON.
+ * <p />
+ * Usage: ReplayBenchmark [--minutes N] [--out file] [--baseline file] [--tolerance fraction] [fixture...]
+ * <p />
+ * If a baseline (the JSON output of an earlier run) is given, the tool exits with status 1 if the simulation speed of a fixture dropped by
+ * more than the tolerance (default 0.1).
+ * 
+ * @author Andreas Eberle
+ * 
+ */
+public class ReplayBenchmark {
+	static {
+		CommonConstants.ENABLE_CONSOLE_LOGGING = true;
+		CommonConstants.CONTROL_ALL = true;
+
+		TestUtils.setupResourcesManager();
+	}
+
+	private static final String[] DEFAULT_FIXTURES = { "basicProduction-mountainlake", "fullProduction-mountainlake", "fighting-testmap" };
+	private static final int DEFAULT_MINUTES = 8;
+
+	public static void main(String[] args) throws IOException {
+		int minutes = DEFAULT_MINUTES;
+		String outFile = null;
+		String baselineFile = null;
+		double tolerance = 0.1;
+		List<String> fixtures = new ArrayList<String>();
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--minutes":
+				minutes = Integer.parseInt(args[++i]);
+				break;
+			case "--out":
+				outFile = args[++i];
+				break;
+			case "--baseline":
+				baselineFile = args[++i];
+				break;
+			case "--tolerance":
+				tolerance = Double.parseDouble(args[++i]);
+				break;
+			default:
+				fixtures.add(args[i]);
+			}
+		}
+		if (fixtures.isEmpty()) {
+			fixtures.addAll(Arrays.asList(DEFAULT_FIXTURES));
+		}
+
+		Constants.FOG_OF_WAR_DEFAULT_ENABLED = false;
+
+		List<Result> results = new ArrayList<Result>();
+		for (String fixture : fixtures) {
+			results.add(benchmark(fixture, minutes * 60 * 1000));
+		}
+
+		String json = toJson(minutes, results);
+		System.out.println(json);
+		if (outFile != null) {
+			Files.write(Paths.get(outFile), json.getBytes(StandardCharsets.UTF_8));
+		}
+
+		if (baselineFile != null && !checkBaseline(results, new String(Files.readAllBytes(Paths.get(baselineFile)), StandardCharsets.UTF_8),
+				tolerance)) {
+			System.exit(1);
+		}
+		System.exit(0);
+	}
+
+	private static Result benchmark(String fixture, int targetGameTime) throws IOException {
+		File replayFile = new File("resources/autoreplay/" + fixture + "/replay.log");
+		IStartedGame startedGame = ReplayTool.startPausedReplay(replayFile);
+
+		TimerableStatistics timerableStatistics = new TimerableStatistics();
+		((NetworkTimer) MatchConstants.clock).setTimerableStatistics(timerableStatistics);
+
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		Map<Long, Long> cpuBefore = getThreadCpuTimes(threadBean);
+		long allocatedBefore = getAllocatedBytes(threadBean);
+		long[] gcBefore = getGcCountAndTime();
+		int startGameTime = MatchConstants.clock.getTime();
+		long startNanos = System.nanoTime();
+
+		MatchConstants.clock.fastForwardTo(targetGameTime);
+
+		Result result = new Result(fixture);
+		result.wallMs = (System.nanoTime() - startNanos) / 1000000d;
+		result.simulatedMs = MatchConstants.clock.getTime() - startGameTime;
+		result.allocatedBytes = getAllocatedBytes(threadBean) - allocatedBefore;
+		long[] gcAfter = getGcCountAndTime();
+		result.gcCount = gcAfter[0] - gcBefore[0];
+		result.gcTimeMs = gcAfter[1] - gcBefore[1];
+		result.threadCpuMs = getThreadCpuDeltasByName(threadBean, cpuBefore);
+		for (Map.Entry<String, Long> entry : timerableStatistics.getNanosByKey().entrySet()) {
+			result.timerableMs.put(entry.getKey(), entry.getValue() / 1000000d);
+		}
+
+		((NetworkTimer) MatchConstants.clock).setTimerableStatistics(null);
+		ReplayTool.awaitShutdown(startedGame);
+		return result;
+	}
+
+	private static Map<Long, Long> getThreadCpuTimes(ThreadMXBean threadBean) {
+		Map<Long, Long> cpuTimes = new TreeMap<Long, Long>();
+		if (threadBean.isThreadCpuTimeSupported()) {
+			for (long id : threadBean.getAllThreadIds()) {
+				long cpuTime = threadBean.getThreadCpuTime(id);
+				if (cpuTime >= 0) {
+					cpuTimes.put(id, cpuTime);
+				}
+			}
+		}
+		return cpuTimes;
+	}
+
+	private static Map<String, Double> getThreadCpuDeltasByName(ThreadMXBean threadBean, Map<Long, Long> cpuBefore) {
+		Map<String, Double> deltas = new TreeMap<String, Double>();
+		for (Map.Entry<Long, Long> entry : getThreadCpuTimes(threadBean).entrySet()) {
+			ThreadInfo info = threadBean.getThreadInfo(entry.getKey());
+			if (info == null) {
+				continue;
+			}
+			Long before = cpuBefore.get(entry.getKey());
+			double deltaMs = (entry.getValue() - (before == null ? 0 : before)) / 1000000d;
+			if (deltaMs > 0) {
+				Double existing = deltas.get(info.getThreadName());
+				deltas.put(info.getThreadName(), existing == null ? deltaMs : existing + deltaMs);
+			}
+		}
+		return deltas;
+	}
+
+	private static long getAllocatedBytes(ThreadMXBean threadBean) {
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+		if (!sunThreadBean.isThreadAllocatedMemorySupported() || !sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		long sum = 0;
+		for (long allocated : sunThreadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+			if (allocated > 0) {
+				sum += allocated;
+			}
+		}
+		return sum;
+	}
+
+	private static long[] getGcCountAndTime() {
+		long count = 0;
+		long time = 0;
+		for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gcBean.getCollectionCount());
+			time += Math.max(0, gcBean.getCollectionTime());
+		}
+		return new long[] { count, time };
+	}
+
+	private static boolean checkBaseline(List<Result> results, String baselineJson, double tolerance) {
+		boolean passed = true;
+		for (Result result : results) {
+			Matcher matcher = Pattern.compile("\"name\"\\s*:\\s*\"" + Pattern.quote(result.name) + "\"\\s*,\\s*\"simMsPerWallMs\"\\s*:\\s*([0-9.eE+-]+)")
+					.matcher(baselineJson);
+			if (!matcher.find()) {
+				System.err.println("No baseline for fixture " + result.name);
+				continue;
+			}
+			double baselineSpeed = Double.parseDouble(matcher.group(1));
+			double speed = result.getSimMsPerWallMs();
+			if (speed < baselineSpeed * (1 - tolerance)) {
+				System.err.println(String.format(Locale.ENGLISH, "REGRESSION in %s: %.2f sim ms / wall ms (baseline: %.2f)", result.name, speed,
+						baselineSpeed));
+				passed = false;
+			}
+		}
+		return passed;
+	}
+
+	private static String toJson(int minutes, List<Result> results) {
+		StringBuilder json = new StringBuilder();
+		json.append("{\n  \"targetMinutes\": ").append(minutes).append(",\n  \"fixtures\": [");
+		for (int i = 0; i < results.size(); i++) {
+			Result result = results.get(i);
+			json.append(i == 0 ? "\n" : ",\n");
+			json.append("    {\n");
+			json.append("      \"name\": \"").append(result.name).append("\",\n");
+			appendNumber(json, "simMsPerWallMs", result.getSimMsPerWallMs());
+			appendNumber(json, "simulatedMs", result.simulatedMs);
+			appendNumber(json, "wallMs", result.wallMs);
+			appendNumber(json, "allocatedBytes", result.allocatedBytes);
+			appendNumber(json, "allocationRateMBPerSec", result.allocatedBytes < 0 ? -1 : result.allocatedBytes / 1048576d / (result.wallMs / 1000));
+			appendNumber(json, "gcCount", result.gcCount);
+			appendNumber(json, "gcTimeMs", result.gcTimeMs);
+			appendMap(json, "threadCpuMs", result.threadCpuMs);
+			json.append(",\n");
+			appendMap(json, "timerableMs", result.timerableMs);
+			json.append("\n    }");
+		}
+		json.append("\n  ]\n}");
+		return json.toString();
+	}
+
+	private static void appendNumber(StringBuilder json, String key, double value) {
+		json.append("      \"").append(key).append("\": ").append(String.format(Locale.ENGLISH, "%.3f", value)).append(",\n");
+	}
+
+	private static void appendMap(StringBuilder json, String key, Map<String, Double> values) {
+		json.append("      \"").append(key).append("\": {");
+		boolean first = true;
+		for (Map.Entry<String, Double> entry : values.entrySet()) {
+			json.append(first ? "\n" : ",\n");
+			first = false;
+			json.append("        \"").append(entry.getKey().replace("\\", "\\\\").replace("\"", "\\\"")).append("\": ")
+					.append(String.format(Locale.ENGLISH, "%.3f", entry.getValue()));
+		}
+		json.append(first ? "}" : "\n      }");
+	}
+
+	private static class Result {
+		private final String name;
+		private double simulatedMs;
+		private double wallMs;
+		private long allocatedBytes;
+		private long gcCount;
+		private long gcTimeMs;
+		private Map<String, Double> threadCpuMs = new TreeMap<String, Double>();
+		private final Map<String, Double> timerableMs = new TreeMap<String, Double>();
+
+		Result(String name) {
+			this.name = name;
+		}
+
+		double getSimMsPerWallMs() {
+			return wallMs > 0 ? simulatedMs / wallMs : 0;
+		}
+	}
+}